@@ -0,0 +1,434 @@
+package bcu.cmp5332.bookingsystem.bench;
+
+import bcu.cmp5332.bookingsystem.commands.AddBooking;
+import bcu.cmp5332.bookingsystem.commands.CancelBooking;
+import bcu.cmp5332.bookingsystem.commands.ListCustomers;
+import bcu.cmp5332.bookingsystem.commands.ListFlights;
+import bcu.cmp5332.bookingsystem.data.BookingDataManager;
+import bcu.cmp5332.bookingsystem.data.CustomerDataManager;
+import bcu.cmp5332.bookingsystem.data.DataManager;
+import bcu.cmp5332.bookingsystem.data.FlightBookingSystemData;
+import bcu.cmp5332.bookingsystem.data.FlightDataManager;
+import bcu.cmp5332.bookingsystem.model.Booking;
+import bcu.cmp5332.bookingsystem.model.ChangeEvent;
+import bcu.cmp5332.bookingsystem.model.ChangeListener;
+import bcu.cmp5332.bookingsystem.model.Customer;
+import bcu.cmp5332.bookingsystem.model.Flight;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Measures the main operations of the system over generated datasets of several sizes:
+ * loading each data file, storing, lookups by ID, adding flights, adding and cancelling
+ * bookings, pricing and listing. Every case runs against a {@link DatasetGenerator} dataset
+ * of each size in a temporary data directory, so the real data files are never touched.
+ *
+ * Results are printed as CSV ("case,size,mean ns/op,min ns/op,ops") and can be saved with
+ * --out and compared with an earlier run using --baseline.
+ *
+ * Options: --sizes 1000,10000,100000  --only namePrefix  --warmup 3  --iterations 5
+ *          --out results.csv  --baseline previous.csv
+ */
+public class BenchmarkSuite {
+
+    /**
+     * One benchmarked operation. A case is set up once per dataset size; each measured
+     * iteration calls {@link #before()}, times {@link #run()} and then calls {@link #after()}.
+     */
+    abstract static class Case {
+
+        final String name;
+        FlightBookingSystem fbs;
+        int size;
+        final Random random = new Random(7);
+
+        Case(String name) {
+            this.name = name;
+        }
+
+        void setUp(int size) throws Exception {
+            this.size = size;
+            fbs = FlightBookingSystemData.load();
+            fbs.setAutoSave(false);
+        }
+
+        void before() throws Exception {
+        }
+
+        /**
+         * Runs the operation being measured.
+         *
+         * @return The number of operations performed.
+         */
+        abstract int run() throws Exception;
+
+        void after() throws Exception {
+        }
+    }
+
+    private static final int LOOKUPS_PER_RUN = 10_000;
+    private static final int MUTATIONS_PER_RUN = 1_000;
+
+    // keeps the JIT from discarding results
+    private static long sink;
+
+    public static void main(String[] args) throws Exception {
+        int[] sizes = {1_000, 10_000, 100_000};
+        String only = "";
+        int warmup = 3;
+        int iterations = 5;
+        File out = null;
+        File baseline = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--sizes":
+                    sizes = Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
+                    break;
+                case "--only":
+                    only = value;
+                    break;
+                case "--warmup":
+                    warmup = Integer.parseInt(value);
+                    break;
+                case "--iterations":
+                    iterations = Integer.parseInt(value);
+                    break;
+                case "--out":
+                    out = new File(value);
+                    break;
+                case "--baseline":
+                    baseline = new File(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        Map<String, Double> previous = baseline == null ? new HashMap<>() : readResults(baseline);
+
+        // commands print as they run; only the results go to the console
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        }));
+        File original = FlightBookingSystemData.getDataDirectory();
+        List<String> results = new ArrayList<>();
+        results.add("case,size,mean_ns_per_op,min_ns_per_op,ops");
+        console.println(results.get(0) + (baseline == null ? "" : ",vs_baseline"));
+        try {
+            for (int size : sizes) {
+                File dir = Files.createTempDirectory("fbs-bench-" + size).toFile();
+                new DatasetGenerator(new DatasetGenerator.Spec()
+                        .flights(size).customers(size).bookings(size).seed(42)).writeTo(dir);
+                FlightBookingSystemData.setDataDirectory(dir);
+                for (Case c : cases()) {
+                    if (!c.name.startsWith(only)) {
+                        continue;
+                    }
+                    String line = measure(c, size, warmup, iterations);
+                    results.add(line);
+                    Double before = previous.get(c.name + "," + size);
+                    String delta = "";
+                    if (before != null) {
+                        double mean = Double.parseDouble(line.split(",")[2]);
+                        delta = String.format(Locale.ROOT, ",%+.1f%%", (mean - before) / before * 100);
+                    }
+                    console.println(line + delta);
+                }
+                deleteDirectory(dir);
+            }
+        } finally {
+            FlightBookingSystemData.setDataDirectory(original);
+            System.setOut(console);
+        }
+        if (out != null) {
+            Files.write(out.toPath(), results, StandardCharsets.UTF_8);
+        }
+        if (sink == 42) {
+            console.println();
+        }
+    }
+
+    private static String measure(Case c, int size, int warmup, int iterations) throws Exception {
+        c.setUp(size);
+        double[] nanosPerOp = new double[iterations];
+        long ops = 0;
+        for (int i = 0; i < warmup + iterations; i++) {
+            c.before();
+            long start = System.nanoTime();
+            int count = c.run();
+            long nanos = System.nanoTime() - start;
+            c.after();
+            if (i >= warmup) {
+                nanosPerOp[i - warmup] = (double) nanos / count;
+                ops += count;
+            }
+        }
+        double mean = Arrays.stream(nanosPerOp).average().orElse(0);
+        double min = Arrays.stream(nanosPerOp).min().orElse(0);
+        return String.format(Locale.ROOT, "%s,%d,%.1f,%.1f,%d", c.name, size, mean, min, ops);
+    }
+
+    private static List<Case> cases() {
+        List<Case> cases = new ArrayList<>();
+        cases.add(new LoadCase("load.flights", new FlightDataManager()));
+        cases.add(new LoadCase("load.customers", new CustomerDataManager()));
+        cases.add(new LoadCase("load.bookings", new BookingDataManager()));
+        cases.add(new Case("store") {
+            @Override
+            int run() throws IOException {
+                FlightBookingSystemData.store(fbs);
+                return 1;
+            }
+        });
+        cases.add(new Case("lookup.getFlightByID") {
+            @Override
+            int run() throws Exception {
+                for (int i = 0; i < LOOKUPS_PER_RUN; i++) {
+                    sink += fbs.getFlightByID(1 + random.nextInt(size)).getPrice();
+                }
+                return LOOKUPS_PER_RUN;
+            }
+        });
+        cases.add(new Case("lookup.getCustomerByID") {
+            @Override
+            int run() throws Exception {
+                for (int i = 0; i < LOOKUPS_PER_RUN; i++) {
+                    sink += fbs.getCustomerByID(1 + random.nextInt(size)).getId();
+                }
+                return LOOKUPS_PER_RUN;
+            }
+        });
+        cases.add(new Case("lookup.getBookingByID") {
+            @Override
+            int run() throws Exception {
+                for (int i = 0; i < LOOKUPS_PER_RUN; i++) {
+                    sink += fbs.getBookingByID(1 + random.nextInt(size)).getId();
+                }
+                return LOOKUPS_PER_RUN;
+            }
+        });
+        cases.add(new Case("addFlight") {
+            private final List<Integer> added = new ArrayList<>();
+
+            @Override
+            int run() throws Exception {
+                LocalDate departure = LocalDate.of(2030, 1, 1);
+                for (int i = 0; i < MUTATIONS_PER_RUN; i++) {
+                    int id = fbs.nextFlightId();
+                    fbs.addFlight(new Flight(id, "BX" + id, "LHR", "JFK", departure, 180, 400));
+                    added.add(id);
+                }
+                return MUTATIONS_PER_RUN;
+            }
+
+            @Override
+            void after() throws Exception {
+                for (int id : added) {
+                    fbs.deleteFlight(id);
+                }
+                added.clear();
+            }
+        });
+        cases.add(new BookingCase("AddBooking.execute") {
+            @Override
+            int run() throws Exception {
+                for (int i = 0; i < MUTATIONS_PER_RUN; i++) {
+                    new AddBooking(1 + random.nextInt(size), 1 + random.nextInt(size), LocalDate.of(2023, 6, 1)).execute(fbs);
+                }
+                return MUTATIONS_PER_RUN;
+            }
+        });
+        cases.add(new BookingCase("CancelBooking.execute") {
+            private final List<int[]> pairs = new ArrayList<>();
+
+            @Override
+            void before() throws Exception {
+                // fresh customers, so each cancel finds exactly the booking made here
+                for (int i = 0; i < MUTATIONS_PER_RUN; i++) {
+                    int id = fbs.nextCustomerId();
+                    Customer customer = new Customer(id, "Bench", Integer.toString(id), "bench" + id + "@example.com");
+                    fbs.addCustomer(customer);
+                    Flight flight = fbs.getFlightByID(1 + random.nextInt(size));
+                    fbs.addBooking(new Booking(0, customer, flight, LocalDate.of(2023, 6, 1)));
+                    pairs.add(new int[]{customer.getId(), flight.getId()});
+                }
+                created.clear();
+            }
+
+            @Override
+            int run() throws Exception {
+                for (int[] pair : pairs) {
+                    new CancelBooking(pair[0], pair[1]).execute(fbs);
+                }
+                return pairs.size();
+            }
+
+            @Override
+            void after() throws Exception {
+                for (int[] pair : pairs) {
+                    fbs.deleteCustomer(pair[0]);
+                }
+                pairs.clear();
+            }
+        });
+        cases.add(new Case("Booking.getPrice") {
+            private List<Booking> bookings;
+
+            @Override
+            void setUp(int size) throws Exception {
+                super.setUp(size);
+                bookings = fbs.getBookings();
+            }
+
+            @Override
+            int run() {
+                for (int i = 0; i < LOOKUPS_PER_RUN; i++) {
+                    sink += bookings.get(random.nextInt(bookings.size())).getPrice();
+                }
+                return LOOKUPS_PER_RUN;
+            }
+        });
+        cases.add(new ListCase("list.flights") {
+            @Override
+            void list() throws Exception {
+                new ListFlights(0, Integer.MAX_VALUE, null, null, null, null, true).execute(fbs);
+            }
+        });
+        cases.add(new ListCase("list.customers") {
+            @Override
+            void list() throws Exception {
+                new ListCustomers().execute(fbs);
+            }
+        });
+        return cases;
+    }
+
+    /**
+     * Times one DataManager reading its file into a system that already holds what the
+     * file refers to.
+     */
+    private static class LoadCase extends Case {
+
+        private final DataManager manager;
+
+        LoadCase(String name, DataManager manager) {
+            super(name);
+            this.manager = manager;
+        }
+
+        @Override
+        void setUp(int size) {
+            this.size = size;
+        }
+
+        @Override
+        void before() throws Exception {
+            fbs = new FlightBookingSystem();
+            if (manager instanceof BookingDataManager) {
+                new FlightDataManager().loadData(fbs);
+                new CustomerDataManager().loadData(fbs);
+            }
+        }
+
+        @Override
+        int run() throws Exception {
+            manager.loadData(fbs);
+            return 1;
+        }
+    }
+
+    /**
+     * Removes the bookings a run made, found through the change feed, so every iteration
+     * starts from the same dataset.
+     */
+    private abstract static class BookingCase extends Case {
+
+        final List<Integer> created = new ArrayList<>();
+        private final ChangeListener listener = event -> {
+            if (event.getEntity() == ChangeEvent.Entity.BOOKING && event.getKind() == ChangeEvent.Kind.ADDED) {
+                created.add(event.getId());
+            }
+        };
+
+        BookingCase(String name) {
+            super(name);
+        }
+
+        @Override
+        void setUp(int size) throws Exception {
+            super.setUp(size);
+            fbs.addChangeListener(listener);
+        }
+
+        @Override
+        void after() throws Exception {
+            for (int id : created) {
+                fbs.removeBooking(fbs.getBookingByID(id));
+            }
+            created.clear();
+        }
+    }
+
+    /**
+     * Times a listing command. Its output goes to the muted standard output.
+     */
+    private abstract static class ListCase extends Case {
+
+        ListCase(String name) {
+            super(name);
+        }
+
+        abstract void list() throws Exception;
+
+        @Override
+        int run() throws Exception {
+            list();
+            return size;
+        }
+    }
+
+    private static Map<String, Double> readResults(File file) throws IOException {
+        Map<String, Double> results = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",");
+                results.put(fields[0] + "," + fields[1], Double.parseDouble(fields[2]));
+            }
+        }
+        return results;
+    }
+
+    private static void deleteDirectory(File dir) {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+}
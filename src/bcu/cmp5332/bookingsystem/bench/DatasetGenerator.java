@@ -0,0 +1,358 @@
+package bcu.cmp5332.bookingsystem.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Writes flights.txt, customers.txt and bookings.txt of any size in the format the data
+ * managers read.
+ *
+ * <ul>
+ * <li>Flights follow a hub-and-spoke route network. Each route flies once a day, so a flight
+ * number is unique on its date, and flight IDs run day by day through the schedule.</li>
+ * <li>Customers get distinct names, phone numbers and email addresses.</li>
+ * <li>Bookings pick flights with a Zipf distribution, so a few hot flights take most of them,
+ * and are dated up to four months before departure.</li>
+ * </ul>
+ *
+ * Rows are produced in fixed-size chunks, each with its own random stream derived from the
+ * seed and the chunk number. Chunks are rendered on several threads and written in order,
+ * so the same seed gives byte-identical files whatever the number of threads.
+ *
+ * Options: --dir out  --customers N  --flights N  --bookings N  --seed N  --start YYYY-MM-DD
+ *          --zipf exponent  --threads N
+ */
+public class DatasetGenerator {
+
+    /**
+     * Describes the dataset to generate.
+     */
+    public static class Spec {
+
+        private int customers = 1_000_000;
+        private int flights = 100_000;
+        private int bookings = 5_000_000;
+        private long seed = 42;
+        private LocalDate start = LocalDate.of(2024, 1, 1);
+        private double zipfExponent = 1.1;
+        private int threads = Runtime.getRuntime().availableProcessors();
+
+        public Spec customers(int customers) {
+            this.customers = customers;
+            return this;
+        }
+
+        public Spec flights(int flights) {
+            this.flights = flights;
+            return this;
+        }
+
+        public Spec bookings(int bookings) {
+            this.bookings = bookings;
+            return this;
+        }
+
+        public Spec seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public Spec start(LocalDate start) {
+            this.start = start;
+            return this;
+        }
+
+        /**
+         * Sets how strongly bookings favour the hottest flights. 0 spreads them evenly;
+         * around 1 gives the usual long tail.
+         *
+         * @param zipfExponent The Zipf exponent.
+         * @return This spec.
+         */
+        public Spec zipf(double zipfExponent) {
+            this.zipfExponent = zipfExponent;
+            return this;
+        }
+
+        public Spec threads(int threads) {
+            this.threads = Math.max(1, threads);
+            return this;
+        }
+    }
+
+    /**
+     * Renders the rows of one chunk of a file.
+     */
+    private interface ChunkRenderer {
+        void render(StringBuilder sb, SplittableRandom random, int firstId, int lastId);
+    }
+
+    private static final int ROWS_PER_CHUNK = 50_000;
+
+    // airports with a weight for how much traffic they handle; the first few are hubs
+    private static final String[] AIRPORTS = {
+        "LHR", "JFK", "DXB", "SIN", "CDG", "FRA", "AMS", "IST", "DOH", "HKG",
+        "LAX", "ORD", "ATL", "DFW", "MAD", "BCN", "MAN", "BHX", "EDI", "DUB",
+        "KTM", "DEL", "BOM", "BKK", "SYD", "MEL", "NRT", "ICN", "YYZ", "MIA",
+        "BOS", "SFO", "SEA", "ZRH", "VIE", "CPH", "OSL", "ARN", "LIS", "ATH"
+    };
+    private static final int HUBS = 10;
+    private static final int[] SEAT_OPTIONS = {70, 120, 150, 180, 220, 300, 400};
+
+    private static final String[] FIRST_NAMES = {
+        "Aarav", "Olivia", "Noah", "Amelia", "Sita", "Liam", "Priya", "Mia", "Arjun", "Emma",
+        "Oliver", "Isla", "Ravi", "Ava", "George", "Sofia", "Binayak", "Grace", "Leo", "Anika"
+    };
+    private static final String[] LAST_NAMES = {
+        "Smith", "Patel", "Jones", "Sharma", "Brown", "Gurung", "Taylor", "Khan", "Wilson", "Rai",
+        "Evans", "Thapa", "Walker", "Singh", "Wright", "Poudel", "Hughes", "Ghimire", "Green", "Shrestha"
+    };
+
+    private final Spec spec;
+    private final String[][] routes;
+
+    /**
+     * Constructs a generator for the given dataset.
+     *
+     * @param spec The dataset to generate.
+     */
+    public DatasetGenerator(Spec spec) {
+        this.spec = spec;
+        this.routes = buildRoutes(new SplittableRandom(spec.seed), Math.max(1, Math.min(spec.flights, 2_000)));
+    }
+
+    public static void main(String[] args) throws IOException {
+        Spec spec = new Spec();
+        File dir = new File("generated-data");
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--dir":
+                    dir = new File(value);
+                    break;
+                case "--customers":
+                    spec.customers(Integer.parseInt(value));
+                    break;
+                case "--flights":
+                    spec.flights(Integer.parseInt(value));
+                    break;
+                case "--bookings":
+                    spec.bookings(Integer.parseInt(value));
+                    break;
+                case "--seed":
+                    spec.seed(Long.parseLong(value));
+                    break;
+                case "--start":
+                    spec.start(LocalDate.parse(value));
+                    break;
+                case "--zipf":
+                    spec.zipf(Double.parseDouble(value));
+                    break;
+                case "--threads":
+                    spec.threads(Integer.parseInt(value));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        long start = System.nanoTime();
+        long bytes = new DatasetGenerator(spec).writeTo(dir);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Wrote %,d customers, %,d flights and %,d bookings to %s%n",
+                spec.customers, spec.flights, spec.bookings, dir);
+        System.out.printf("%.1f MB in %.2f s (%.1f MB/s, %d threads)%n",
+                bytes / 1e6, seconds, bytes / 1e6 / seconds, spec.threads);
+    }
+
+    /**
+     * Writes the three data files into a directory, replacing any that exist.
+     *
+     * @param dir The directory.
+     * @return The number of bytes written.
+     * @throws IOException If a file cannot be written.
+     */
+    public long writeTo(File dir) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(spec.threads, runnable -> {
+            Thread thread = new Thread(runnable, "dataset-generator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            long bytes = 0;
+            bytes += writeFile(pool, new File(dir, "flights.txt"), 1, spec.flights, this::renderFlights);
+            bytes += writeFile(pool, new File(dir, "customers.txt"), 2, spec.customers, this::renderCustomers);
+            bytes += writeFile(pool, new File(dir, "bookings.txt"), 3, spec.bookings, this::renderBookings);
+            return bytes;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private long writeFile(ExecutorService pool, File file, int stream, int rows, ChunkRenderer renderer) throws IOException {
+        int chunks = (rows + ROWS_PER_CHUNK - 1) / ROWS_PER_CHUNK;
+        // keep a few chunks per thread in flight, so memory stays bounded for any size
+        int window = spec.threads * 3;
+        Deque<Future<byte[]>> pending = new ArrayDeque<>();
+        long bytes = 0;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            int next = 0;
+            while (next < chunks || !pending.isEmpty()) {
+                while (next < chunks && pending.size() < window) {
+                    final int chunk = next++;
+                    pending.add(pool.submit(() -> {
+                        int firstId = chunk * ROWS_PER_CHUNK + 1;
+                        int lastId = Math.min(rows, firstId + ROWS_PER_CHUNK - 1);
+                        StringBuilder sb = new StringBuilder((lastId - firstId + 1) * 64);
+                        renderer.render(sb, chunkRandom(stream, chunk), firstId, lastId);
+                        return sb.toString().getBytes(StandardCharsets.UTF_8);
+                    }));
+                }
+                ByteBuffer buffer = ByteBuffer.wrap(await(pending.poll()));
+                while (buffer.hasRemaining()) {
+                    bytes += channel.write(buffer);
+                }
+            }
+        }
+        return bytes;
+    }
+
+    private SplittableRandom chunkRandom(int stream, int chunk) {
+        long mixed = spec.seed * 0x9E3779B97F4A7C15L + stream * 0xBF58476D1CE4E5B9L + chunk * 0x94D049BB133111EBL;
+        return new SplittableRandom(mixed);
+    }
+
+    private void renderFlights(StringBuilder sb, SplittableRandom random, int firstId, int lastId) {
+        for (int id = firstId; id <= lastId; id++) {
+            String[] route = routes[routeOf(id)];
+            int seats = SEAT_OPTIONS[random.nextInt(SEAT_OPTIONS.length)];
+            int price = Integer.parseInt(route[2]) + random.nextInt(200);
+            sb.append(id).append(",FB").append(1000 + routeOf(id))
+                    .append(',').append(route[0]).append(',').append(route[1])
+                    .append(',').append(departureOf(id))
+                    .append(',').append(seats).append(',').append(price).append('\n');
+        }
+    }
+
+    private void renderCustomers(StringBuilder sb, SplittableRandom random, int firstId, int lastId) {
+        for (int id = firstId; id <= lastId; id++) {
+            String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            sb.append(id).append(',').append(first).append(' ').append(last)
+                    .append(",07").append(100_000_000L + id)
+                    .append(',').append(first.toLowerCase(Locale.ROOT)).append('.').append(last.toLowerCase(Locale.ROOT))
+                    .append(id).append("@example.com\n");
+        }
+    }
+
+    private void renderBookings(StringBuilder sb, SplittableRandom random, int firstId, int lastId) {
+        int flights = Math.max(1, spec.flights);
+        // a fixed stride scatters the hot ranks across the schedule instead of the first days
+        long stride = strideFor(flights);
+        for (int id = firstId; id <= lastId; id++) {
+            int rank = zipfRank(random.nextDouble(), flights, spec.zipfExponent);
+            int flightId = (int) ((rank * stride) % flights) + 1;
+            int customerId = 1 + random.nextInt(Math.max(1, spec.customers));
+            LocalDate booked = departureOf(flightId).minusDays(1 + random.nextInt(120));
+            sb.append(id).append(',').append(customerId).append(',').append(flightId)
+                    .append(',').append(booked).append('\n');
+        }
+    }
+
+    private int routeOf(int flightId) {
+        return (flightId - 1) % routes.length;
+    }
+
+    private LocalDate departureOf(int flightId) {
+        return spec.start.plusDays((flightId - 1) / routes.length);
+    }
+
+    /**
+     * Picks a rank from 0 to n-1 with probability falling as rank^-exponent, by inverting
+     * the continuous approximation of the Zipf distribution.
+     */
+    static int zipfRank(double u, int n, double exponent) {
+        double rank;
+        if (exponent == 0) {
+            rank = u * n;
+        } else if (Math.abs(exponent - 1) < 1e-9) {
+            rank = Math.exp(u * Math.log(n + 1)) - 1;
+        } else {
+            double a = 1 - exponent;
+            rank = Math.pow(u * (Math.pow(n + 1, a) - 1) + 1, 1 / a) - 1;
+        }
+        return Math.min(n - 1, (int) rank);
+    }
+
+    static long strideFor(int n) {
+        long stride = 2_654_435_761L % n;
+        while (stride == 0 || gcd(stride, n) != 1) {
+            stride++;
+        }
+        return stride;
+    }
+
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    /**
+     * Builds the route network: every airport connects to every hub, hubs to each other, and
+     * the remaining routes join random airports. Each route has a base fare.
+     */
+    private static String[][] buildRoutes(SplittableRandom random, int count) {
+        String[][] routes = new String[count][];
+        int n = 0;
+        for (int hub = 0; hub < HUBS && n < count; hub++) {
+            for (int other = 0; other < AIRPORTS.length && n < count; other++) {
+                if (other == hub) {
+                    continue;
+                }
+                routes[n++] = route(random, AIRPORTS[hub], AIRPORTS[other]);
+                if (n < count) {
+                    routes[n++] = route(random, AIRPORTS[other], AIRPORTS[hub]);
+                }
+            }
+        }
+        while (n < count) {
+            int from = random.nextInt(AIRPORTS.length);
+            int to = random.nextInt(AIRPORTS.length - 1);
+            if (to >= from) {
+                to++;
+            }
+            routes[n++] = route(random, AIRPORTS[from], AIRPORTS[to]);
+        }
+        return routes;
+    }
+
+    private static String[] route(SplittableRandom random, String origin, String destination) {
+        return new String[]{origin, destination, Integer.toString(80 + random.nextInt(1200))};
+    }
+
+    private static byte[] await(Future<byte[]> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while generating data", ex);
+        } catch (ExecutionException ex) {
+            throw new IOException("Cannot generate data", ex.getCause());
+        }
+    }
+}
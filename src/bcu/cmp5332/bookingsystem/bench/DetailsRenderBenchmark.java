@@ -0,0 +1,113 @@
+package bcu.cmp5332.bookingsystem.bench;
+
+import bcu.cmp5332.bookingsystem.model.Customer;
+import bcu.cmp5332.bookingsystem.model.DetailsRenderer;
+import bcu.cmp5332.bookingsystem.model.Flight;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares rendering listing rows the old way (a formatter built per call and String
+ * concatenation) with {@link DetailsRenderer} appending into one reused StringBuilder.
+ * Reports time and, where the JVM can measure it, bytes allocated per row.
+ * Run with the number of rows as the first argument (default 200,000).
+ */
+public class DetailsRenderBenchmark {
+
+    private static final String[] AIRPORTS = {"LHR", "JFK", "KTM", "DXB", "BHX", "DFW", "CDG", "SIN"};
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    // keeps the JIT from discarding the rendered text
+    private static long sink;
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        Random random = new Random(42);
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        List<Flight> flights = new ArrayList<>(size);
+        List<Customer> customers = new ArrayList<>(size);
+        for (int id = 1; id <= size; id++) {
+            flights.add(new Flight(id, "FB" + id, AIRPORTS[random.nextInt(AIRPORTS.length)],
+                    AIRPORTS[random.nextInt(AIRPORTS.length)], start.plusDays(random.nextInt(730)),
+                    20 + random.nextInt(380), 100 + random.nextInt(900)));
+            customers.add(new Customer(id, "Customer " + id, "0" + (7000000000L + id), "c" + id + "@example.com"));
+        }
+
+        System.out.println("Rows: " + size);
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            legacyFlights(flights);
+            rendererFlights(flights);
+            legacyCustomers(customers);
+            rendererCustomers(customers);
+        }
+        report("flights   legacy  ", size, () -> legacyFlights(flights));
+        report("flights   renderer", size, () -> rendererFlights(flights));
+        report("customers legacy  ", size, () -> legacyCustomers(customers));
+        report("customers renderer", size, () -> rendererCustomers(customers));
+        System.out.println("checksum: " + sink);
+    }
+
+    private static void report(String label, int rows, Runnable round) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        com.sun.management.ThreadMXBean allocations = threads instanceof com.sun.management.ThreadMXBean
+                ? (com.sun.management.ThreadMXBean) threads : null;
+        long threadId = Thread.currentThread().getId();
+
+        long bytesBefore = allocations == null ? 0 : allocations.getThreadAllocatedBytes(threadId);
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            round.run();
+        }
+        long nanos = System.nanoTime() - startNanos;
+        long bytes = allocations == null ? -1 : allocations.getThreadAllocatedBytes(threadId) - bytesBefore;
+
+        long totalRows = (long) rows * MEASURED_ROUNDS;
+        String perRow = bytes < 0 ? "n/a" : String.format("%.1f", (double) bytes / totalRows);
+        System.out.printf("%s: %7.1f ns/row, %s bytes/row%n", label, (double) nanos / totalRows, perRow);
+    }
+
+    // the implementation Flight.getDetailsShort had before the renderer
+    private static void legacyFlights(List<Flight> flights) {
+        for (Flight flight : flights) {
+            DateTimeFormatter dtf = DateTimeFormatter.ofPattern("dd/MM/YYYY");
+            String row = "Flight #" + flight.getId() + " - " + flight.getFlightNumber() + " - " + flight.getOrigin() + " to "
+                    + flight.getDestination() + " on " + flight.getDepartureDate().format(dtf) + " - Price: " + flight.getPrice()
+                    + " - Seats: " + flight.getNumberOfSeats();
+            sink += row.length();
+        }
+    }
+
+    private static void rendererFlights(List<Flight> flights) {
+        StringBuilder sb = new StringBuilder(128);
+        for (Flight flight : flights) {
+            sb.setLength(0);
+            DetailsRenderer.appendShort(sb, flight);
+            sink += sb.length();
+        }
+    }
+
+    // the implementation Customer.getDetailsShort had before the renderer
+    private static void legacyCustomers(List<Customer> customers) {
+        for (Customer customer : customers) {
+            String row = "Customer #" + customer.getId() + " - " + customer.getName() + " - " + customer.getPhone()
+                    + " - " + customer.getEmail();
+            sink += row.length();
+        }
+    }
+
+    private static void rendererCustomers(List<Customer> customers) {
+        StringBuilder sb = new StringBuilder(128);
+        for (Customer customer : customers) {
+            sb.setLength(0);
+            DetailsRenderer.appendShort(sb, customer);
+            sink += sb.length();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package bcu.cmp5332.bookingsystem.bench;
+
+import bcu.cmp5332.bookingsystem.model.CompactFlightStore;
+import bcu.cmp5332.bookingsystem.model.Flight;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares a schedule-wide filter and aggregate over the Flight objects with the same
+ * scan over a {@link CompactFlightStore}.
+ * Run with the number of flights as the first argument (default 1,000,000).
+ */
+public class FlightScanBenchmark {
+
+    private static final String[] AIRPORTS = {"LHR", "JFK", "KTM", "DXB", "BHX", "DFW", "CDG", "SIN"};
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        List<Flight> flights = generateFlights(size);
+        CompactFlightStore store = CompactFlightStore.of(flights);
+
+        LocalDate from = LocalDate.of(2025, 1, 1);
+        LocalDate to = LocalDate.of(2025, 6, 30);
+        CompactFlightStore.Query query = new CompactFlightStore.Query()
+                .departing(from, to).route(store, "LHR", null).minSeats(100);
+
+        System.out.println("Flights: " + size);
+        long objectResult = 0;
+        long compactResult = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            objectResult = scanObjects(flights, from, to, "LHR", 100);
+            compactResult = store.sumRevenue(query);
+        }
+        long objectNanos = 0;
+        long compactNanos = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            objectResult = scanObjects(flights, from, to, "LHR", 100);
+            objectNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            compactResult = store.sumRevenue(query);
+            compactNanos += System.nanoTime() - start;
+        }
+        if (objectResult != compactResult) {
+            throw new IllegalStateException("Scans disagree: " + objectResult + " != " + compactResult);
+        }
+        System.out.printf("object model : %8.2f ms/scan%n", objectNanos / 1e6 / MEASURED_ROUNDS);
+        System.out.printf("compact store: %8.2f ms/scan%n", compactNanos / 1e6 / MEASURED_ROUNDS);
+        System.out.println("revenue: " + compactResult);
+    }
+
+    private static long scanObjects(List<Flight> flights, LocalDate from, LocalDate to, String origin, int minSeats) {
+        long total = 0;
+        for (Flight flight : flights) {
+            LocalDate departure = flight.getDepartureDate();
+            if (!departure.isBefore(from) && !departure.isAfter(to)
+                    && flight.getOrigin().equals(origin)
+                    && flight.getNumberOfSeats() >= minSeats) {
+                total += (long) flight.getPrice() * flight.getNumberOfSeats();
+            }
+        }
+        return total;
+    }
+
+    private static List<Flight> generateFlights(int size) {
+        Random random = new Random(42);
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        List<Flight> flights = new ArrayList<>(size);
+        for (int id = 1; id <= size; id++) {
+            String origin = AIRPORTS[random.nextInt(AIRPORTS.length)];
+            String destination = AIRPORTS[random.nextInt(AIRPORTS.length)];
+            LocalDate departure = start.plusDays(random.nextInt(730));
+            // new String copies keep the object model honest: no shared, interned origins
+            flights.add(new Flight(id, "FB" + id, new String(origin), new String(destination),
+                    departure, 20 + random.nextInt(380), 100 + random.nextInt(900)));
+        }
+        return flights;
+    }
+}
@@ -0,0 +1,668 @@
+package bcu.cmp5332.bookingsystem.bench;
+
+import bcu.cmp5332.bookingsystem.data.FlightBookingSystemData;
+import bcu.cmp5332.bookingsystem.main.CommandParser;
+import bcu.cmp5332.bookingsystem.main.CommandTable;
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.metrics.LatencyHistogram;
+import bcu.cmp5332.bookingsystem.metrics.TimedCommand;
+import bcu.cmp5332.bookingsystem.model.Booking;
+import bcu.cmp5332.bookingsystem.model.Customer;
+import bcu.cmp5332.bookingsystem.model.Flight;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import bcu.cmp5332.bookingsystem.replication.ReplicaRouter;
+import bcu.cmp5332.bookingsystem.shard.CommandRouter;
+import bcu.cmp5332.bookingsystem.shard.ShardRouter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives a booking system with a mix of quote, book, cancel, edit and list operations from
+ * many threads and reports throughput, latency percentiles, lock contention and whether the
+ * system's invariants held.
+ *
+ * Each operation is sent to a {@link Target} as a command line, so the same load can be aimed
+ * at an in-process system ({@link DirectTarget}) or at anything else that accepts command
+ * lines. Flights are chosen with the same Zipf popularity as {@link DatasetGenerator}.
+ *
+ * The load runs in steps. Without --rates every step is closed-loop: each of --threads
+ * workers sends its next operation as soon as the last one returns. With --rates every step is
+ * open-loop: operations are released at the given rate whether or not earlier ones finished,
+ * and latency is measured from when each was due, so queueing behind a saturated system is
+ * counted. Steps stop once a step delivers under 90% of its target rate.
+ *
+ * Options: --threads 1,2,4,8  --rates 1000,2000,4000  --duration seconds  --virtual
+ *          --mix quote=30,book=30,cancel=15,edit=10,list=15  --zipf 1.1  --seed N
+ *          --flights N  --customers N  --bookings N  --data dir  --connect host:port,...
+ *          --replicas primary host:port,follower host:port,...
+ *
+ * With --connect the load goes through a {@link ShardRouter} to running shard workers, and
+ * with --replicas through a {@link ReplicaRouter} to a running primary and its followers,
+ * instead of to an in-process system; --flights and --customers must then give the number
+ * of flights and customers the processes hold.
+ */
+public class LoadSimulator {
+
+    /**
+     * Something the load is applied to.
+     */
+    public interface Target {
+
+        /**
+         * Runs one command line, such as "addbooking 12 40 2024-05-01".
+         *
+         * @param line The command line.
+         * @throws FlightBookingSystemException If the system refused the operation.
+         */
+        void execute(String line) throws FlightBookingSystemException;
+
+        /**
+         * Checks the target's consistency after the load. Targets that cannot see their
+         * system's state return no findings.
+         *
+         * @param expectedBookings The number of bookings the target should hold, counting
+         *                         every successful book and cancel.
+         * @return A description of each invariant that does not hold.
+         */
+        default List<String> checkInvariants(long expectedBookings) {
+            return Collections.emptyList();
+        }
+
+        /**
+         * Returns the number of bookings before the load started, or -1 if unknown.
+         *
+         * @return The booking count.
+         */
+        default long bookingCount() {
+            return -1;
+        }
+    }
+
+    /**
+     * Runs command lines against a FlightBookingSystem in this process, through the same
+     * command table the CLI and batch mode use.
+     */
+    public static class DirectTarget implements Target {
+
+        private final FlightBookingSystem fbs;
+        private final ThreadLocal<List<String>> tokens = ThreadLocal.withInitial(ArrayList::new);
+
+        public DirectTarget(FlightBookingSystem fbs) {
+            this.fbs = fbs;
+            fbs.setAutoSave(false);
+        }
+
+        @Override
+        public void execute(String line) throws FlightBookingSystemException {
+            new TimedCommand(CommandTable.create(CommandParser.tokenize(line, tokens.get()))).execute(fbs);
+        }
+
+        @Override
+        public long bookingCount() {
+            return fbs.getBookings().size();
+        }
+
+        @Override
+        public List<String> checkInvariants(long expectedBookings) {
+            List<String> findings = new ArrayList<>();
+            List<Booking> bookings = fbs.getBookings();
+            if (expectedBookings >= 0 && bookings.size() != expectedBookings) {
+                findings.add("expected " + expectedBookings + " bookings but the system holds " + bookings.size());
+            }
+            long linked = 0;
+            int unlinked = 0;
+            Map<Integer, Integer> perFlight = new HashMap<>();
+            for (Booking booking : bookings) {
+                Customer customer = booking.getCustomer();
+                if (!customer.getBookings().contains(booking)
+                        || !booking.getFlight().getPassengers().contains(customer)) {
+                    unlinked++;
+                }
+                perFlight.merge(booking.getFlight().getId(), 1, Integer::sum);
+            }
+            for (Customer customer : fbs.getCustomers()) {
+                linked += customer.getBookings().size();
+            }
+            if (unlinked > 0) {
+                findings.add(unlinked + " booking(s) missing from their customer or flight");
+            }
+            if (linked != bookings.size()) {
+                findings.add("customers hold " + linked + " bookings but the system holds " + bookings.size());
+            }
+            int oversold = 0;
+            long excess = 0;
+            for (Map.Entry<Integer, Integer> entry : perFlight.entrySet()) {
+                try {
+                    int seats = fbs.getFlightByID(entry.getKey()).getNumberOfSeats();
+                    if (entry.getValue() > seats) {
+                        oversold++;
+                        excess += entry.getValue() - seats;
+                    }
+                } catch (FlightBookingSystemException ex) {
+                    findings.add("booking on missing flight " + entry.getKey());
+                }
+            }
+            if (oversold > 0) {
+                findings.add(oversold + " flight(s) oversold by " + excess + " booking(s) in total");
+            }
+            return findings;
+        }
+    }
+
+    /**
+     * Runs command lines on remote processes through a router.
+     */
+    public static class RouterTarget implements Target {
+
+        private final CommandRouter router;
+        private final ThreadLocal<List<String>> tokens = ThreadLocal.withInitial(ArrayList::new);
+
+        public RouterTarget(CommandRouter router) {
+            this.router = router;
+        }
+
+        @Override
+        public void execute(String line) throws FlightBookingSystemException {
+            try {
+                router.execute(CommandParser.tokenize(line, tokens.get()));
+            } catch (IOException ex) {
+                throw new FlightBookingSystemException("Shard unreachable: " + ex.getMessage());
+            }
+        }
+    }
+
+    private enum Op {
+        QUOTE, BOOK, CANCEL, EDIT, LIST
+    }
+
+    /**
+     * The outcome of one operation type within a step.
+     */
+    private static final class OpStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+    }
+
+    /**
+     * The results of one step.
+     */
+    private static final class Step {
+        final String label;
+        final double targetRate;
+        final Map<Op, OpStats> ops = new HashMap<>();
+        final LatencyHistogram all = new LatencyHistogram();
+        final LongAdder booked = new LongAdder();
+        final LongAdder cancelled = new LongAdder();
+        long nanos;
+        long blockedCount = -1;
+        long blockedMillis;
+        long waitedCount;
+        long waitedMillis;
+
+        Step(String label, double targetRate) {
+            this.label = label;
+            this.targetRate = targetRate;
+            for (Op op : Op.values()) {
+                ops.put(op, new OpStats());
+            }
+        }
+
+        double throughput() {
+            return all.getCount() / (nanos / 1e9);
+        }
+    }
+
+    private final Target target;
+    private final int flights;
+    private final int customers;
+    private final double zipf;
+    private final long stride;
+    private final Op[] opTable;
+    private final LocalDate today = LocalDate.now();
+    private final AtomicInteger streams = new AtomicInteger();
+    private final long seed;
+    // bookings the simulator made and may cancel or edit, as customer ID << 32 | flight ID
+    private final ConcurrentLinkedDeque<Long> held = new ConcurrentLinkedDeque<>();
+
+    /**
+     * Constructs a simulator.
+     *
+     * @param target Where to send the operations.
+     * @param flights The number of flights, with IDs 1 to flights.
+     * @param customers The number of customers, with IDs 1 to customers.
+     * @param mix The relative weight of each of quote, book, cancel, edit and list.
+     * @param zipf The Zipf exponent of flight popularity.
+     * @param seed The seed of the random operation streams.
+     */
+    public LoadSimulator(Target target, int flights, int customers, int[] mix, double zipf, long seed) {
+        this.target = target;
+        this.flights = flights;
+        this.customers = customers;
+        this.zipf = zipf;
+        this.stride = DatasetGenerator.strideFor(flights);
+        this.seed = seed;
+        int total = 0;
+        for (int weight : mix) {
+            total += weight;
+        }
+        opTable = new Op[total];
+        int n = 0;
+        for (Op op : Op.values()) {
+            for (int i = 0; i < mix[op.ordinal()]; i++) {
+                opTable[n++] = op;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] threads = {Runtime.getRuntime().availableProcessors()};
+        double[] rates = null;
+        int duration = 10;
+        boolean virtual = false;
+        int[] mix = {30, 30, 15, 10, 15};
+        double zipf = 1.1;
+        long seed = 42;
+        int flights = 10_000;
+        int customers = 100_000;
+        int bookings = 200_000;
+        File data = null;
+        String connect = null;
+        String replicas = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads":
+                    threads = parseInts(args[++i]);
+                    break;
+                case "--rates":
+                    String[] parts = args[++i].split(",");
+                    rates = new double[parts.length];
+                    for (int r = 0; r < parts.length; r++) {
+                        rates[r] = Double.parseDouble(parts[r]);
+                    }
+                    break;
+                case "--duration":
+                    duration = Integer.parseInt(args[++i]);
+                    break;
+                case "--virtual":
+                    virtual = true;
+                    break;
+                case "--mix":
+                    mix = parseMix(args[++i]);
+                    break;
+                case "--zipf":
+                    zipf = Double.parseDouble(args[++i]);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                case "--flights":
+                    flights = Integer.parseInt(args[++i]);
+                    break;
+                case "--customers":
+                    customers = Integer.parseInt(args[++i]);
+                    break;
+                case "--bookings":
+                    bookings = Integer.parseInt(args[++i]);
+                    break;
+                case "--data":
+                    data = new File(args[++i]);
+                    break;
+                case "--connect":
+                    connect = args[++i];
+                    break;
+                case "--replicas":
+                    replicas = args[++i];
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (virtual && !VirtualThreads.AVAILABLE) {
+            System.out.println("Virtual threads need Java 21 or later; using platform threads.");
+            virtual = false;
+        }
+
+        if (connect != null) {
+            try (ShardRouter router = new ShardRouter(ShardRouter.parseAddresses(connect))) {
+                System.out.println("Connected to " + router.getShardCount() + " shard(s)");
+                new LoadSimulator(new RouterTarget(router), flights, customers, mix, zipf, seed)
+                        .run(threads, rates, duration, virtual);
+            }
+            return;
+        }
+        if (replicas != null) {
+            List<InetSocketAddress> addresses = ShardRouter.parseAddresses(replicas);
+            try (ReplicaRouter router = new ReplicaRouter(addresses.get(0), addresses.subList(1, addresses.size()))) {
+                System.out.println("Connected to a primary and " + (addresses.size() - 1) + " follower(s)");
+                new LoadSimulator(new RouterTarget(router), flights, customers, mix, zipf, seed)
+                        .run(threads, rates, duration, virtual);
+            }
+            return;
+        }
+
+        File dir = data;
+        if (dir == null) {
+            dir = Files.createTempDirectory("fbs-load").toFile();
+            // flights start tomorrow, so bookings and edits made today are valid
+            new DatasetGenerator(new DatasetGenerator.Spec().flights(flights).customers(customers)
+                    .bookings(bookings).seed(seed).zipf(zipf).start(LocalDate.now().plusDays(1))).writeTo(dir);
+        }
+        FlightBookingSystemData.setDataDirectory(dir);
+        long loadStart = System.nanoTime();
+        FlightBookingSystem fbs = FlightBookingSystemData.load();
+        System.out.printf(Locale.ROOT, "Loaded %d flights, %d customers and %d bookings from %s in %.1f s%n",
+                fbs.getAllFlights().size(), fbs.getCustomerIds().length, fbs.getBookings().size(), dir,
+                (System.nanoTime() - loadStart) / 1e9);
+
+        int flightCount = fbs.getAllFlights().size();
+        int customerCount = fbs.getCustomerIds().length;
+        LoadSimulator simulator = new LoadSimulator(new DirectTarget(fbs), flightCount, customerCount, mix, zipf, seed);
+        try {
+            simulator.run(threads, rates, duration, virtual);
+        } finally {
+            fbs.shutdown();
+        }
+    }
+
+    /**
+     * Runs every step, printing a line per step as it finishes, then checks the invariants.
+     *
+     * @param threads The worker counts: one closed-loop step each, or the pool size of every
+     *                open-loop step.
+     * @param rates The operations per second of each open-loop step, or null for closed loop.
+     * @param durationSeconds How long each step runs.
+     * @param virtual Whether to run operations on virtual threads.
+     * @throws InterruptedException If interrupted while waiting for a step.
+     */
+    public void run(int[] threads, double[] rates, int durationSeconds, boolean virtual) throws InterruptedException {
+        ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        if (mx.isThreadContentionMonitoringSupported()) {
+            mx.setThreadContentionMonitoringEnabled(true);
+        }
+        long initialBookings = target.bookingCount();
+        long booked = 0;
+        long cancelled = 0;
+
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        }));
+        try {
+            console.println(String.format(Locale.ROOT, "%-14s %10s %9s %9s %9s %9s %8s %10s %10s",
+                    "step", "ops/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "errors", "blocked", "blocked ms"));
+            int steps = rates == null ? threads.length : rates.length;
+            for (int s = 0; s < steps; s++) {
+                Step step;
+                if (rates == null) {
+                    step = new Step(threads[s] + (virtual ? " vthreads" : " threads"), 0);
+                    closedLoop(step, threads[s], durationSeconds, virtual);
+                } else {
+                    step = new Step(String.format(Locale.ROOT, "%.0f/s", rates[s]), rates[s]);
+                    openLoop(step, threads[threads.length - 1], rates[s], durationSeconds, virtual);
+                }
+                booked += step.booked.sum();
+                cancelled += step.cancelled.sum();
+                printStep(console, step);
+                if (step.targetRate > 0 && step.throughput() < step.targetRate * 0.9) {
+                    console.println(String.format(Locale.ROOT, "Saturated: %.0f ops/s delivered of %.0f requested.",
+                            step.throughput(), step.targetRate));
+                    break;
+                }
+            }
+        } finally {
+            System.setOut(console);
+        }
+
+        long expected = initialBookings < 0 ? -1 : initialBookings + booked - cancelled;
+        List<String> findings = target.checkInvariants(expected);
+        if (findings.isEmpty()) {
+            console.println("Invariants: all held.");
+        } else {
+            console.println("Invariants:");
+            for (String finding : findings) {
+                console.println("\t" + finding);
+            }
+        }
+    }
+
+    private void closedLoop(Step step, int workers, int durationSeconds, boolean virtual) throws InterruptedException {
+        List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService pool = executor(workers, virtual, threads);
+        CountDownLatch done = new CountDownLatch(workers);
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+        for (int w = 0; w < workers; w++) {
+            final SplittableRandom random = new SplittableRandom(seed + streams.incrementAndGet());
+            pool.execute(() -> {
+                try {
+                    while (System.nanoTime() < deadline) {
+                        long due = System.nanoTime();
+                        perform(step, random, due);
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        step.nanos = System.nanoTime() - start;
+        readContention(step, threads, virtual);
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    private void openLoop(Step step, int workers, double rate, int durationSeconds, boolean virtual) throws InterruptedException {
+        List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService pool = executor(workers, virtual, threads);
+        SplittableRandom pacerRandom = new SplittableRandom(seed + streams.incrementAndGet());
+        long interval = (long) (1e9 / rate);
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+        for (long due = start; due < deadline; due += interval) {
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            final long dueAt = due;
+            final SplittableRandom random = pacerRandom.split();
+            pool.execute(() -> perform(step, random, dueAt));
+        }
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.MINUTES);
+        step.nanos = System.nanoTime() - start;
+        readContention(step, threads, virtual);
+    }
+
+    private void perform(Step step, SplittableRandom random, long dueNanos) {
+        Op op = opTable[random.nextInt(opTable.length)];
+        Long pair = null;
+        if (op == Op.CANCEL || op == Op.EDIT) {
+            pair = held.pollFirst();
+            if (pair == null) {
+                // nothing of ours to change yet
+                op = Op.BOOK;
+            }
+        }
+        int customerId = pair == null ? 1 + random.nextInt(customers) : (int) (pair >>> 32);
+        int flightId = pair == null ? hotFlight(random) : (int) (long) pair;
+        String line;
+        switch (op) {
+            case QUOTE:
+                line = "quote " + flightId;
+                break;
+            case BOOK:
+                line = "addbooking " + customerId + " " + flightId + " " + today;
+                break;
+            case CANCEL:
+                line = "cancelbooking " + customerId + " " + flightId;
+                break;
+            case EDIT:
+                line = "editbooking " + customerId + " " + flightId + " " + today;
+                break;
+            default:
+                line = "listflights --offset " + random.nextInt(Math.max(1, flights)) + " --limit 20";
+                break;
+        }
+        boolean ok = true;
+        try {
+            target.execute(line);
+        } catch (FlightBookingSystemException | RuntimeException ex) {
+            ok = false;
+        }
+        long latency = System.nanoTime() - dueNanos;
+        OpStats stats = step.ops.get(op);
+        stats.latency.record(latency);
+        step.all.record(latency);
+        if (!ok) {
+            stats.errors.increment();
+            if (op == Op.EDIT) {
+                held.addLast(pair);
+            }
+            return;
+        }
+        if (op == Op.BOOK) {
+            step.booked.increment();
+            held.addLast(((long) customerId << 32) | flightId);
+        } else if (op == Op.CANCEL) {
+            step.cancelled.increment();
+        } else if (op == Op.EDIT) {
+            held.addLast(pair);
+        }
+    }
+
+    private int hotFlight(SplittableRandom random) {
+        int rank = DatasetGenerator.zipfRank(random.nextDouble(), flights, zipf);
+        return (int) ((rank * stride) % flights) + 1;
+    }
+
+    private ExecutorService executor(int workers, boolean virtual, List<Thread> threads) {
+        if (virtual) {
+            return VirtualThreads.newExecutor();
+        }
+        return Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "load-worker");
+            thread.setDaemon(true);
+            threads.add(thread);
+            return thread;
+        });
+    }
+
+    private static void readContention(Step step, List<Thread> threads, boolean virtual) {
+        ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        if (virtual || !mx.isThreadContentionMonitoringEnabled()) {
+            return;
+        }
+        step.blockedCount = 0;
+        synchronized (threads) {
+            for (Thread thread : threads) {
+                ThreadInfo info = mx.getThreadInfo(thread.getId());
+                if (info == null) {
+                    continue;
+                }
+                step.blockedCount += info.getBlockedCount();
+                step.blockedMillis += Math.max(0, info.getBlockedTime());
+                step.waitedCount += info.getWaitedCount();
+                step.waitedMillis += Math.max(0, info.getWaitedTime());
+            }
+        }
+    }
+
+    private static void printStep(PrintStream console, Step step) {
+        long errors = 0;
+        for (OpStats stats : step.ops.values()) {
+            errors += stats.errors.sum();
+        }
+        String blocked = step.blockedCount < 0 ? "n/a" : Long.toString(step.blockedCount);
+        String blockedMillis = step.blockedCount < 0 ? "n/a" : Long.toString(step.blockedMillis);
+        console.println(String.format(Locale.ROOT, "%-14s %10.0f %9.3f %9.3f %9.3f %9.3f %8d %10s %10s",
+                step.label, step.throughput(), ms(step.all.getValueAtPercentile(50)), ms(step.all.getValueAtPercentile(99)),
+                ms(step.all.getValueAtPercentile(99.9)), ms(step.all.getMax()), errors, blocked, blockedMillis));
+        for (Op op : Op.values()) {
+            OpStats stats = step.ops.get(op);
+            if (stats.latency.getCount() == 0) {
+                continue;
+            }
+            console.println(String.format(Locale.ROOT, "  %-12s %10d %9.3f %9.3f %9.3f %9.3f %8d",
+                    op.name().toLowerCase(Locale.ROOT), stats.latency.getCount(), ms(stats.latency.getValueAtPercentile(50)),
+                    ms(stats.latency.getValueAtPercentile(99)), ms(stats.latency.getValueAtPercentile(99.9)),
+                    ms(stats.latency.getMax()), stats.errors.sum()));
+        }
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static int[] parseInts(String value) {
+        String[] parts = value.split(",");
+        int[] values = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            values[i] = Integer.parseInt(parts[i].trim());
+        }
+        return values;
+    }
+
+    private static int[] parseMix(String value) {
+        int[] mix = new int[Op.values().length];
+        for (String part : value.split(",")) {
+            String[] pair = part.split("=");
+            mix[Op.valueOf(pair[0].trim().toUpperCase(Locale.ROOT)).ordinal()] = Integer.parseInt(pair[1].trim());
+        }
+        return mix;
+    }
+
+    /**
+     * Creates virtual-thread executors on JVMs that have them. The project compiles for
+     * Java 8, so the factory method is looked up at run time.
+     */
+    private static final class VirtualThreads {
+
+        static final boolean AVAILABLE = factory() != null;
+
+        private static java.lang.reflect.Method factory() {
+            try {
+                return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            } catch (NoSuchMethodException ex) {
+                return null;
+            }
+        }
+
+        static ExecutorService newExecutor() {
+            try {
+                return (ExecutorService) factory().invoke(null);
+            } catch (ReflectiveOperationException ex) {
+                throw new IllegalStateException("Cannot create a virtual thread executor", ex);
+            }
+        }
+    }
+}
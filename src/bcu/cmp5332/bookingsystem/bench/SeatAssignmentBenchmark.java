@@ -0,0 +1,217 @@
+package bcu.cmp5332.bookingsystem.bench;
+
+import bcu.cmp5332.bookingsystem.model.SeatMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Fills a 400-seat aircraft from many threads at once, each asking for window, aisle or any
+ * seats or for a group sitting together, and compares the {@link SeatMap} with the same
+ * requests served from a seat array under a lock. Every round checks that each seat was
+ * given out exactly once, then releases them all.
+ * Run with the number of threads and of rounds as arguments (default 8 and 2,000).
+ */
+public class SeatAssignmentBenchmark {
+
+    private static final int SEATS = 400;
+    private static final int WARMUP_ROUNDS = 200;
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+
+        System.out.println("Seats: " + SEATS + ", threads: " + threads + ", rounds: " + rounds);
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            fill(wrap(new SeatMap(SEATS)), threads, i);
+            fill(new LockedSeats(SEATS), threads, i);
+        }
+        Seats map = wrap(new SeatMap(SEATS));
+        LockedSeats locked = new LockedSeats(SEATS);
+        long mapNanos = 0;
+        long lockedNanos = 0;
+        for (int i = 0; i < rounds; i++) {
+            mapNanos += fill(map, threads, i);
+            lockedNanos += fill(locked, threads, i);
+        }
+        System.out.printf("seat map     : %8.1f us/aircraft%n", mapNanos / 1e3 / rounds);
+        System.out.printf("locked array : %8.1f us/aircraft%n", lockedNanos / 1e3 / rounds);
+    }
+
+    /**
+     * The operations both seat stores offer.
+     */
+    private interface Seats {
+
+        int assign(SeatMap.Preference preference);
+
+        int[] assignGroup(int size);
+
+        void release(int seat);
+    }
+
+    /**
+     * Fills the aircraft from several threads, checks that no seat was given out twice and
+     * releases every seat again.
+     *
+     * @return The time taken to fill the aircraft.
+     */
+    private static long fill(Seats seats, int threads, int round) throws InterruptedException {
+        List<List<Integer>> taken = new ArrayList<>();
+        List<Thread> workers = new ArrayList<>();
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch go = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            List<Integer> mine = new ArrayList<>();
+            taken.add(mine);
+            Random random = new Random(round * 31L + t);
+            workers.add(new Thread(() -> {
+                ready.countDown();
+                try {
+                    go.await();
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                while (true) {
+                    int kind = random.nextInt(8);
+                    if (kind < 3) {
+                        int[] group = seats.assignGroup(2 + kind);
+                        if (group != null) {
+                            for (int seat : group) {
+                                mine.add(seat);
+                            }
+                            continue;
+                        }
+                    }
+                    SeatMap.Preference preference = SeatMap.Preference.values()[random.nextInt(3)];
+                    int seat = seats.assign(preference);
+                    if (seat == SeatMap.NO_SEAT) {
+                        return;
+                    }
+                    mine.add(seat);
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        ready.await();
+        long start = System.nanoTime();
+        go.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        boolean[] seen = new boolean[1 << 12];
+        int count = 0;
+        for (List<Integer> mine : taken) {
+            for (int seat : mine) {
+                if (seen[seat]) {
+                    throw new IllegalStateException("Seat " + SeatMap.label(seat) + " was given out twice");
+                }
+                seen[seat] = true;
+                count++;
+                seats.release(seat);
+            }
+        }
+        if (count != SEATS) {
+            throw new IllegalStateException(count + " of " + SEATS + " seats were given out");
+        }
+        return elapsed;
+    }
+
+    private static Seats wrap(SeatMap map) {
+        return new Seats() {
+            @Override
+            public int assign(SeatMap.Preference preference) {
+                return map.assign(preference);
+            }
+
+            @Override
+            public int[] assignGroup(int size) {
+                return map.assignGroup(size);
+            }
+
+            @Override
+            public void release(int seat) {
+                map.release(seat);
+            }
+        };
+    }
+
+    /**
+     * The same cabin as a seat array behind one lock, searched a seat at a time, numbering
+     * its seats the way {@link SeatMap} does. Groups are only seated side by side within a
+     * block; when that fails the worker asks for single seats instead.
+     */
+    private static final class LockedSeats implements Seats {
+
+        private final SeatMap layout;
+        private final boolean[] taken = new boolean[1 << 12];
+        private final List<Integer> order = new ArrayList<>();
+
+        LockedSeats(int capacity) {
+            layout = new SeatMap(capacity);
+            for (int row = 0; row < layout.getRows(); row++) {
+                for (int column = 0; column < layout.getWidth(); column++) {
+                    int seat = layout.seat(row, column);
+                    if (seat != SeatMap.NO_SEAT) {
+                        order.add(seat);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public synchronized int assign(SeatMap.Preference preference) {
+            for (int pass = preference == SeatMap.Preference.ANY ? 1 : 0; pass < 2; pass++) {
+                for (int seat : order) {
+                    if (!taken[seat] && (pass == 1 || matches(seat, preference))) {
+                        taken[seat] = true;
+                        return seat;
+                    }
+                }
+            }
+            return SeatMap.NO_SEAT;
+        }
+
+        @Override
+        public synchronized int[] assignGroup(int size) {
+            // side by side in one block, as the seat map looks first
+            String layoutRow = layout.getLayout();
+            for (int row = 0; row < layout.getRows(); row++) {
+                int run = 0;
+                int column = 0;
+                for (int i = 0; i < layoutRow.length(); i++) {
+                    if (layoutRow.charAt(i) == '-') {
+                        run = 0;
+                        continue;
+                    }
+                    int seat = layout.seat(row, column++);
+                    run = seat != SeatMap.NO_SEAT && !taken[seat] ? run + 1 : 0;
+                    if (run == size) {
+                        int[] group = new int[size];
+                        for (int j = 0; j < size; j++) {
+                            group[j] = seat - size + 1 + j;
+                            taken[group[j]] = true;
+                        }
+                        return group;
+                    }
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public synchronized void release(int seat) {
+            taken[seat] = false;
+        }
+
+        private boolean matches(int seat, SeatMap.Preference preference) {
+            return preference == SeatMap.Preference.WINDOW ? layout.isWindow(seat) : layout.isAisle(seat);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package bcu.cmp5332.bookingsystem.bench;
+
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.model.Flight;
+import bcu.cmp5332.bookingsystem.model.SeatHold;
+import bcu.cmp5332.bookingsystem.model.SeatHolds;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Makes millions of outstanding {@link SeatHolds} of one to fifteen minutes on 400-seat
+ * flights, takes a tenth of them back as a checkout would, then moves a simulated clock on
+ * tick by tick until every other hold has expired, timing each phase per hold. It finishes
+ * by checking that every seat was freed.
+ * Run with the number of holds as the first argument (default 1,000,000).
+ */
+public class SeatHoldBenchmark {
+
+    private static final int SEATS_PER_FLIGHT = 400;
+
+    public static void main(String[] args) throws FlightBookingSystemException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        long[] now = {0};
+        SeatHolds holds = new SeatHolds(() -> now[0], SeatHolds.DEFAULT_TICK_NANOS, false);
+        List<Flight> flights = new ArrayList<>();
+        for (int id = 1; (long) (id - 1) * SEATS_PER_FLIGHT < count; id++) {
+            flights.add(new Flight(id, "FB" + id, "LHR", "JFK", LocalDate.of(2025, 1, 1), SEATS_PER_FLIGHT, 300));
+        }
+        Random random = new Random(42);
+        long[] ids = new long[count];
+
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            Flight flight = flights.get(i / SEATS_PER_FLIGHT);
+            ids[i] = holds.hold(flight, 1, Duration.ofSeconds(60 + random.nextInt(840))).getId();
+        }
+        long holdNanos = System.nanoTime() - start;
+        System.out.println("Holds: " + holds.size() + " on " + flights.size() + " flights");
+        System.out.printf("hold   : %8.1f ns/hold%n", (double) holdNanos / count);
+
+        int taken = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < count; i += 10) {
+            SeatHold hold = holds.take(ids[i]);
+            if (hold != null) {
+                // a confirmed hold would become a booking; free the seat so the check below holds
+                hold.getFlight().getSeatMap().release(hold.getSeats()[0]);
+                taken++;
+            }
+        }
+        long takeNanos = System.nanoTime() - start;
+        System.out.printf("take   : %8.1f ns/hold%n", (double) takeNanos / taken);
+
+        int expired = 0;
+        start = System.nanoTime();
+        long end = TimeUnit.MINUTES.toNanos(15);
+        while (now[0] < end) {
+            now[0] += SeatHolds.DEFAULT_TICK_NANOS;
+            expired += holds.expire();
+        }
+        long expireNanos = System.nanoTime() - start;
+        System.out.printf("expire : %8.1f ns/hold (%d expired over %d ticks)%n", (double) expireNanos / expired, expired,
+                end / SeatHolds.DEFAULT_TICK_NANOS);
+
+        if (holds.size() != 0 || taken + expired != count) {
+            throw new IllegalStateException(holds.size() + " holds left, " + taken + " taken, " + expired + " expired");
+        }
+        for (Flight flight : flights) {
+            if (flight.getSeatMap().getFreeCount() != SEATS_PER_FLIGHT) {
+                throw new IllegalStateException("Flight " + flight.getId() + " still has seats taken");
+            }
+        }
+    }
+}
@@ -1,15 +1,21 @@
 package bcu.cmp5332.bookingsystem.commands;
 
+import bcu.cmp5332.bookingsystem.data.BookingDataManager;
+import bcu.cmp5332.bookingsystem.data.LedgerDataManager;
 import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
 import bcu.cmp5332.bookingsystem.model.Booking;
 import bcu.cmp5332.bookingsystem.model.Customer;
 import bcu.cmp5332.bookingsystem.model.Flight;
 import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import bcu.cmp5332.bookingsystem.model.SeatMap;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
 
 /**
  * The AddBooking class represents a command to add a booking to the flight booking system.
@@ -18,17 +24,34 @@ public class AddBooking implements Command {
 
     private final int customerId;
     private final int flightId;
+    private final LocalDate bookingDate;
+    private final String seat;
 
     /**
      * Initializes a new instance of the AddBooking class with the specified customer ID, flight ID, and booking date.
      *
      * @param customerId The ID of the customer.
      * @param flightId   The ID of the flight.
-     * @param localDate  The booking date.
+     * @param localDate  The booking date, or null for the system date.
      */
     public AddBooking(int customerId, int flightId, LocalDate localDate) {
+        this(customerId, flightId, localDate, null);
+    }
+
+    /**
+     * Initializes a new instance of the AddBooking class that also assigns a seat.
+     *
+     * @param customerId The ID of the customer.
+     * @param flightId   The ID of the flight.
+     * @param localDate  The booking date, or null for the system date.
+     * @param seat       "window", "aisle" or "any" for the first free seat of that kind, a seat
+     *                   such as "12A", or null to book without a seat.
+     */
+    public AddBooking(int customerId, int flightId, LocalDate localDate, String seat) {
         this.customerId = customerId;
         this.flightId = flightId;
+        this.bookingDate = localDate;
+        this.seat = seat;
     }
 
     /**
@@ -39,13 +62,6 @@ public class AddBooking implements Command {
      */
     @Override
     public void execute(FlightBookingSystem fbs) throws FlightBookingSystemException {
-        int maxId = 0;
-        for (Booking booking : fbs.getBookings()) {
-            if (booking.getId() > maxId) {
-                maxId = booking.getId();
-            }
-        }
-
         Customer customer = fbs.getCustomerByID(customerId);
         if (customer == null) {
             throw new FlightBookingSystemException("Customer with ID " + customerId + " not found.");
@@ -56,18 +72,68 @@ public class AddBooking implements Command {
             throw new FlightBookingSystemException("Flight with ID " + flightId + " not found.");
         }
 
-        Booking booking = new Booking(++maxId, customer, flight, LocalDate.now());
-        customer.addBooking(booking);
-        flight.addPassenger(customer);
+        Booking booking = new Booking(fbs.newBookingId(), customer, flight, bookingDate != null ? bookingDate : fbs.getSystemDate());
+        if (seat != null) {
+            booking.setSeat(takeSeat(flight.getSeatMap()));
+        }
+        try {
+            fbs.addBooking(booking);
+        } catch (FlightBookingSystemException | RuntimeException ex) {
+            if (booking.getSeat() != SeatMap.NO_SEAT) {
+                flight.getSeatMap().release(booking.getSeat());
+            }
+            throw ex;
+        }
 
-        System.out.println("Booking was issued successfully to the customer.");
+        if (booking.getSeat() == SeatMap.NO_SEAT) {
+            System.out.println("Booking was issued successfully to the customer.");
+        } else {
+            System.out.println("Booking was issued successfully to the customer, in seat " + SeatMap.label(booking.getSeat()) + ".");
+        }
+        if (!fbs.isAutoSave()) {
+            return;
+        }
 
         // Write booking data to a file
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter("resources/data/bookings.txt", true))) {
-            writer.write(booking.getId() + "," + customer.getId() + "," + flight.getId() + "," + LocalDate.now());
-            writer.newLine();
+        try {
+            BookingDataManager.append(Collections.singletonList(booking));
+            LedgerDataManager.append(fbs);
         } catch (IOException e) {
             throw new FlightBookingSystemException("Error writing to bookings.txt: " + e.getMessage());
         }
     }
+
+    private int takeSeat(SeatMap seats) throws FlightBookingSystemException {
+        SeatMap.Preference preference;
+        try {
+            preference = SeatMap.Preference.valueOf(seat.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            int wanted = seats.parse(seat);
+            if (wanted == SeatMap.NO_SEAT) {
+                throw new FlightBookingSystemException("Flight with ID " + flightId + " has no seat " + seat + ".");
+            }
+            if (!seats.claim(wanted)) {
+                throw new FlightBookingSystemException("Seat " + SeatMap.label(wanted) + " is already taken.");
+            }
+            return wanted;
+        }
+        int taken = seats.assign(preference);
+        if (taken == SeatMap.NO_SEAT) {
+            throw new FlightBookingSystemException("There are no seats left on flight with ID " + flightId + ".");
+        }
+        return taken;
+    }
+
+    @Override
+    public List<String> getCommandLine() {
+        List<String> words = new ArrayList<>(Arrays.asList("addbooking", Integer.toString(customerId), Integer.toString(flightId)));
+        if (bookingDate != null) {
+            words.add(bookingDate.toString());
+        }
+        if (seat != null) {
+            words.add("--seat");
+            words.add(seat);
+        }
+        return words;
+    }
 }
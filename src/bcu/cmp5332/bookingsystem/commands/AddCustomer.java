@@ -3,7 +3,10 @@ package bcu.cmp5332.bookingsystem.commands;
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
 
+import bcu.cmp5332.bookingsystem.data.FlightBookingSystemData;
 import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
 import bcu.cmp5332.bookingsystem.model.Customer;
 import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
@@ -38,22 +41,24 @@ public class AddCustomer implements Command {
      */
     @Override
     public void execute(FlightBookingSystem fbs) throws FlightBookingSystemException {
-        int maxId = 0;
-        if (fbs.getCustomers().size() > 0) {
-            int lastIndex = fbs.getCustomers().size() - 1;
-            maxId = fbs.getCustomers().get(lastIndex).getId();
-        }
-
-        Customer customer = new Customer(++maxId, name, phone, email);
+        Customer customer = new Customer(fbs.nextCustomerId(), name, phone, email);
         fbs.addCustomer(customer);
         System.out.println("Customer #" + customer.getId() + " added.");
+        if (!fbs.isAutoSave()) {
+            return;
+        }
 
         // Write customer data to a file
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter("resources/data/customers.txt", true))) {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(FlightBookingSystemData.dataFile("customers.txt"), true))) {
             writer.write(customer.getId() + "," + customer.getName() + "," + customer.getPhone() + "," + customer.getEmail());
             writer.newLine();
         } catch (IOException e) {
             throw new FlightBookingSystemException("Error writing to customers.txt: " + e.getMessage());
         }
     }
+
+    @Override
+    public List<String> getCommandLine() {
+        return Arrays.asList("addcustomer", name, phone, email);
+    }
 }
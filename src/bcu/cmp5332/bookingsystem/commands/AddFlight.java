@@ -1,5 +1,6 @@
 package bcu.cmp5332.bookingsystem.commands;
 
+import bcu.cmp5332.bookingsystem.data.FlightBookingSystemData;
 import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
 import bcu.cmp5332.bookingsystem.model.Flight;
 import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
@@ -8,6 +9,8 @@ import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * The AddFlight class represents a command to add a flight to the flight booking system.
@@ -48,22 +51,25 @@ public class AddFlight implements Command {
      */
     @Override
     public void execute(FlightBookingSystem flightBookingSystem) throws FlightBookingSystemException {
-        int maxId = 0;
-        if (flightBookingSystem.getFlights().size() > 0) {
-            int lastIndex = flightBookingSystem.getFlights().size() - 1;
-            maxId = flightBookingSystem.getFlights().get(lastIndex).getId();
-        }
-
-        Flight flight = new Flight(++maxId, flightNumber, origin, destination, departureDate, numberOfSeats, price);
+        Flight flight = new Flight(flightBookingSystem.nextFlightId(), flightNumber, origin, destination, departureDate, numberOfSeats, price);
         flightBookingSystem.addFlight(flight);
         System.out.println("Flight #" + flight.getId() + " added.");
+        if (!flightBookingSystem.isAutoSave()) {
+            return;
+        }
 
         // Write the new flight data to the flights.txt file
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter("resources/data/flights.txt", true))) {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(FlightBookingSystemData.dataFile("flights.txt"), true))) {
             writer.write(flight.getId() + "," + flight.getFlightNumber() + "," + flight.getOrigin() + "," + flight.getDestination() + "," + flight.getDepartureDate() + "," + flight.getNumberOfSeats() + "," + flight.getPrice());
             writer.newLine();
         } catch (IOException ex) {
             throw new FlightBookingSystemException("Error writing to flights.txt: " + ex.getMessage());
         }
     }
+
+    @Override
+    public List<String> getCommandLine() {
+        return Arrays.asList("addflight", flightNumber, origin, destination, departureDate.toString(),
+                Integer.toString(numberOfSeats), Integer.toString(price));
+    }
 }
@@ -0,0 +1,66 @@
+package bcu.cmp5332.bookingsystem.commands;
+
+import bcu.cmp5332.bookingsystem.data.FlightBookingSystemData;
+import bcu.cmp5332.bookingsystem.data.SystemDateDataManager;
+import bcu.cmp5332.bookingsystem.data.WaitlistDataManager;
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The AdvanceDay class represents a command that moves the system date on by one or more
+ * days, repricing the flights whose fares change and archiving those that depart.
+ */
+public class AdvanceDay implements Command {
+
+    private final int days;
+
+    /**
+     * Constructs a new AdvanceDay object.
+     *
+     * @param days The number of days to move on.
+     */
+    public AdvanceDay(int days) {
+        this.days = days;
+    }
+
+    /**
+     * Executes the command to move the system date on, saving the new date so that a reload
+     * does not bring back the flights it archived.
+     *
+     * @param fbs The FlightBookingSystem object.
+     * @throws FlightBookingSystemException If the number of days is not positive, or the
+     * date or the waitlists of archived flights cannot be saved.
+     */
+    @Override
+    public void execute(FlightBookingSystem fbs) throws FlightBookingSystemException {
+        FlightBookingSystem.DateChange change = fbs.advanceDays(days);
+        System.out.println("System date is now " + change.getDate() + ": " + change.getRepriced() + " flight(s) repriced, "
+                + change.getArchived() + " archived.");
+        if (!fbs.isAutoSave()) {
+            return;
+        }
+        try {
+            new SystemDateDataManager().storeData(fbs);
+        } catch (IOException e) {
+            throw new FlightBookingSystemException("Error writing to " + SystemDateDataManager.RESOURCE + ": " + e.getMessage());
+        }
+        if (change.getArchived() == 0 || !FlightBookingSystemData.dataFile(WaitlistDataManager.RESOURCE).isFile()) {
+            return;
+        }
+        // archived flights no longer have waitlists
+        try {
+            new WaitlistDataManager().storeData(fbs);
+        } catch (IOException e) {
+            throw new FlightBookingSystemException("Error writing to " + WaitlistDataManager.RESOURCE + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public List<String> getCommandLine() {
+        return Arrays.asList("advanceday", Integer.toString(days));
+    }
+}
@@ -1,18 +1,20 @@
 package bcu.cmp5332.bookingsystem.commands;
 
+import bcu.cmp5332.bookingsystem.data.BookingDataManager;
+import bcu.cmp5332.bookingsystem.data.LedgerDataManager;
+import bcu.cmp5332.bookingsystem.data.Tombstones;
+import bcu.cmp5332.bookingsystem.data.WaitlistDataManager;
 import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
 import bcu.cmp5332.bookingsystem.model.Booking;
+import bcu.cmp5332.bookingsystem.model.ChangeEvent;
 import bcu.cmp5332.bookingsystem.model.Customer;
 import bcu.cmp5332.bookingsystem.model.Flight;
 import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import bcu.cmp5332.bookingsystem.model.SeatMap;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.time.LocalDate;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 public class CancelBooking implements Command {
@@ -42,27 +44,41 @@ public class CancelBooking implements Command {
             throw new FlightBookingSystemException("Booking for customer with ID " + customerId + " and flight with ID " + flightId + " not found.");
         }
 
-        customer.removeBooking(booking);
-        flight.removePassenger(customer);
+        if (!fbs.removeBooking(booking)) {
+            throw new FlightBookingSystemException("Booking for customer with ID " + customerId + " and flight with ID " + flightId + " not found.");
+        }
         
         System.out.println("Booking was cancelled successfully.");
+        // the freed seat goes to the front of the flight's waitlist, if it has one
+        List<Booking> promoted = fbs.promoteWaitlists();
+        for (Booking added : promoted) {
+            System.out.println("Customer #" + added.getCustomer().getId() + " was booked from the waitlist into seat "
+                    + SeatMap.label(added.getSeat()) + " on flight #" + added.getFlight().getId() + ".");
+        }
+        if (!fbs.isAutoSave()) {
+            return;
+        }
 
-        // Remove booking data from the file
-        try (BufferedReader reader = new BufferedReader(new FileReader("resources/data/bookings.txt"));
-             BufferedWriter writer = new BufferedWriter(new FileWriter("resources/data/bookings.txt"))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                int bookingId = Integer.parseInt(parts[0]);
-                int customerIdFromFile = Integer.parseInt(parts[1]);
-                int flightIdFromFile = Integer.parseInt(parts[2]);
-                if (bookingId != booking.getId() || customerIdFromFile != customer.getId() || flightIdFromFile != flight.getId()) {
-                    writer.write(line);
-                    writer.newLine();
-                }
+        // record the cancellation rather than rewrite bookings.txt
+        try {
+            Tombstones.append(ChangeEvent.Entity.BOOKING, booking.getId(), Collections.emptyList());
+        } catch (IOException e) {
+            throw new FlightBookingSystemException("Error writing to " + Tombstones.FILE + ": " + e.getMessage());
+        }
+        try {
+            if (!promoted.isEmpty()) {
+                BookingDataManager.append(promoted);
+                new WaitlistDataManager().storeData(fbs);
             }
+            // the refund, and the charges of any promoted bookings
+            LedgerDataManager.append(fbs);
         } catch (IOException e) {
-            throw new FlightBookingSystemException("Error writing to bookings.txt: " + e.getMessage());
+            throw new FlightBookingSystemException("Error saving the cancellation: " + e.getMessage());
         }
     }
+
+    @Override
+    public List<String> getCommandLine() {
+        return Arrays.asList("cancelbooking", Integer.toString(customerId), Integer.toString(flightId));
+    }
 }
@@ -3,23 +3,63 @@ package bcu.cmp5332.bookingsystem.commands;
 import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
 import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
 
+import java.util.List;
+
 public interface Command {
 
     public static final String HELP_MESSAGE = "Commands:\n"
         + "\tlistflights                               print all flights\n"
+        + "\t    [--origin X] [--destination X] [--from YYYY-MM-DD] [--to YYYY-MM-DD] [--all]\n"
+        + "\t    [--offset N] [--limit N]               filter and page the flights\n"
+        + "\t    [--max-fare N]                        only flights costing at most N today\n"
         + "\tlistcustomers                             print all customers\n"
+        + "\t    [--name text] [--offset N] [--limit N] filter and page the customers\n"
         + "\taddflight                                 add a new flight\n"
         + "\taddcustomer                               add a new customer\n"
         + "\tshowflight [flight id]                    show flight details\n"
+        + "\tshowseats [flight id]                     show which seats are taken\n"
         + "\tshowcustomer [customer id]                show customer details\n"
+        + "\t    [--bookings] [--offset N] [--limit N]  with a page of their bookings by date\n"
+        + "\tstatement [customer id]                   show a customer's ledger entries and balance\n"
         + "\taddbooking [customer id] [flight id]      add a new booking\n"
+        + "\t    [--seat window|aisle|any|12A]         and assign a seat\n"
+        + "\tquote [flight id]                         show what a booking would cost today\n"
+        + "\tadvanceday [days]                         move the system date on and reprice\n"
         + "\tcancelbooking [customer id] [flight id]   cancel a booking\n"
-        + "\teditbooking [booking id] [flight id]      update a booking\n"
+        + "\twaitlist [customer id] [flight id]        wait for a seat on a sold-out flight\n"
+        + "\t    [--tier N]                            higher loyalty tiers are served first\n"
+        + "\tleavewaitlist [customer id] [flight id]   leave a flight's waitlist\n"
+        + "\tshowwaitlist [flight id]                  show who is waiting for a flight\n"
+        + "\teditbooking [customer id] [flight id]     move a booking to a new date\n"
+        + "\t    [date]                                the new booking date\n"
+        + "\tmanifest [flight id] [--out file]         write a flight's passenger manifest\n"
+        + "\t    [--format csv|fixed]                  as CSV or fixed-width text\n"
+        + "\tmanifest --date YYYY-MM-DD --dir dir      write the manifest of every flight that day\n"
+        + "\tstats [--reset]                           print command timings and error counts\n"
         + "\tloadgui                                   loads the GUI version of the app\n"
         + "\thelp                                      prints this help message\n"
-        + "\texit                                      exits the program";
+        + "\texit                                      exits the program\n"
+        + "Commands that prompt for their details also accept them inline, e.g.\n"
+        + "\taddflight <number> <origin> <destination> <YYYY-MM-DD> <seats> <price>\n"
+        + "\taddcustomer <name> <phone> <email>\n"
+        + "\taddbooking <customer id> <flight id> [YYYY-MM-DD] [--seat window|aisle|any|12A]\n"
+        + "\teditbooking <customer id> <flight id> <YYYY-MM-DD>\n"
+        + "Run a script of such lines with: Main --batch <file|-> [--quiet]\n"
+        + "Record the commands run to a trace with: Main --trace <file>\n"
+        + "Start on another system date with: Main --date <YYYY-MM-DD|today>";
 
     
     public void execute(FlightBookingSystem flightBookingSystem) throws FlightBookingSystemException;
-    
+
+    /**
+     * Returns the words of a command line that builds this command again through
+     * {@link bcu.cmp5332.bookingsystem.main.CommandTable}, the command word first. Commands
+     * that only affect the application rather than the booking data return null, and are
+     * left out of recorded workloads.
+     *
+     * @return The words of the command line, or null.
+     */
+    public default List<String> getCommandLine() {
+        return null;
+    }
 }
@@ -9,6 +9,8 @@ import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
 
 import java.io.IOException;
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * The EditBooking class represents a command to edit a booking in the flight booking system.
@@ -57,18 +59,26 @@ public class EditBooking implements Command {
         }
         
         // Check if the new booking date is valid
-        if (newBookingDate.isBefore(LocalDate.now()) || newBookingDate.isAfter(flight.getDepartureDate())) {
+        if (newBookingDate.isBefore(fbs.getSystemDate()) || newBookingDate.isAfter(flight.getDepartureDate())) {
             throw new FlightBookingSystemException("Invalid booking date.");
         }
         
         // Update the booking date
-        booking.setBookingDate(newBookingDate);
+        fbs.setBookingDate(booking, newBookingDate);
         
         // Store the updated booking information in the file
+        if (!fbs.isAutoSave()) {
+            return;
+        }
         try {
             FlightBookingSystemData.store(fbs);
         } catch (IOException ex) {
             throw new FlightBookingSystemException("Error updating bookings file.");
         }
     }
+
+    @Override
+    public List<String> getCommandLine() {
+        return Arrays.asList("editbooking", Integer.toString(customerId), Integer.toString(flightId), newBookingDate.toString());
+    }
 }
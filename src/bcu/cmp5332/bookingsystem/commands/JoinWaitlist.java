@@ -0,0 +1,66 @@
+package bcu.cmp5332.bookingsystem.commands;
+
+import bcu.cmp5332.bookingsystem.data.WaitlistDataManager;
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.model.Customer;
+import bcu.cmp5332.bookingsystem.model.Flight;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import bcu.cmp5332.bookingsystem.model.Waitlist;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The JoinWaitlist class represents a command that puts a customer on the waitlist of a
+ * sold-out flight. They are booked into the first seat a cancellation frees once everyone
+ * ahead of them has been served.
+ */
+public class JoinWaitlist implements Command {
+
+    private final int customerId;
+    private final int flightId;
+    private final int tier;
+
+    /**
+     * Constructs a new JoinWaitlist object.
+     *
+     * @param customerId The ID of the customer.
+     * @param flightId   The ID of the flight.
+     * @param tier       The customer's loyalty tier; higher tiers are served first.
+     */
+    public JoinWaitlist(int customerId, int flightId, int tier) {
+        this.customerId = customerId;
+        this.flightId = flightId;
+        this.tier = tier;
+    }
+
+    /**
+     * Executes the command to join the waitlist.
+     *
+     * @param fbs The FlightBookingSystem object.
+     * @throws FlightBookingSystemException If the customer or flight is not found, the flight
+     * still has seats free, or the customer is already waiting for it.
+     */
+    @Override
+    public void execute(FlightBookingSystem fbs) throws FlightBookingSystemException {
+        Customer customer = fbs.getCustomerByID(customerId);
+        Flight flight = fbs.getFlightByID(flightId);
+        Waitlist.Entry entry = fbs.joinWaitlist(customer, flight, tier, fbs.getSystemDate());
+        System.out.println("Customer #" + customerId + " is number " + fbs.getWaitlist(flightId).positionOf(entry)
+                + " on the waitlist for flight #" + flightId + ".");
+        if (!fbs.isAutoSave()) {
+            return;
+        }
+        try {
+            new WaitlistDataManager().storeData(fbs);
+        } catch (IOException e) {
+            throw new FlightBookingSystemException("Error writing to " + WaitlistDataManager.RESOURCE + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public List<String> getCommandLine() {
+        return Arrays.asList("waitlist", Integer.toString(customerId), Integer.toString(flightId), "--tier", Integer.toString(tier));
+    }
+}
@@ -0,0 +1,58 @@
+package bcu.cmp5332.bookingsystem.commands;
+
+import bcu.cmp5332.bookingsystem.data.WaitlistDataManager;
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The LeaveWaitlist class represents a command that takes a customer off the waitlist of a
+ * flight.
+ */
+public class LeaveWaitlist implements Command {
+
+    private final int customerId;
+    private final int flightId;
+
+    /**
+     * Constructs a new LeaveWaitlist object.
+     *
+     * @param customerId The ID of the customer.
+     * @param flightId   The ID of the flight.
+     */
+    public LeaveWaitlist(int customerId, int flightId) {
+        this.customerId = customerId;
+        this.flightId = flightId;
+    }
+
+    /**
+     * Executes the command to leave the waitlist.
+     *
+     * @param fbs The FlightBookingSystem object.
+     * @throws FlightBookingSystemException If the customer is not waiting for the flight.
+     */
+    @Override
+    public void execute(FlightBookingSystem fbs) throws FlightBookingSystemException {
+        if (!fbs.leaveWaitlist(customerId, flightId)) {
+            throw new FlightBookingSystemException("Customer with ID " + customerId + " is not on the waitlist for flight with ID "
+                    + flightId + ".");
+        }
+        System.out.println("Customer #" + customerId + " has left the waitlist for flight #" + flightId + ".");
+        if (!fbs.isAutoSave()) {
+            return;
+        }
+        try {
+            new WaitlistDataManager().storeData(fbs);
+        } catch (IOException e) {
+            throw new FlightBookingSystemException("Error writing to " + WaitlistDataManager.RESOURCE + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public List<String> getCommandLine() {
+        return Arrays.asList("leavewaitlist", Integer.toString(customerId), Integer.toString(flightId));
+    }
+}
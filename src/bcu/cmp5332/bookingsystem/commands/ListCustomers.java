@@ -1,59 +1,95 @@
 package bcu.cmp5332.bookingsystem.commands;
 
 import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.model.DetailsRenderer;
 import bcu.cmp5332.bookingsystem.model.Customer;
 import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 /**
- * The ListCustomers class represents a command to list all customers in the flight booking system.
+ * The ListCustomers class represents a command to list the customers in the flight booking system.
+ * Customers are read from the loaded system one at a time, optionally filtered by name,
+ * and printed a page at a time.
  */
 public class ListCustomers implements Command {
 
+    private final int offset;
+    private final int limit;
+    private final String nameContains;
+    // the filter as matched, lowercased once; nameContains keeps what was typed
+    private final String lowerNameContains;
+
+    /**
+     * Initializes a command that lists every customer.
+     */
+    public ListCustomers() {
+        this(0, Integer.MAX_VALUE, null);
+    }
+
     /**
-     * Executes the command to list all customers in the flight booking system.
+     * Initializes a command that lists a filtered slice of the customers.
      *
-     * @param flightBookingSystem The FlightBookingSystem object.
-     * @throws FlightBookingSystemException If there is an error in the flight booking system.
+     * @param offset       The number of matching customers to skip.
+     * @param limit        The largest number of customers to print.
+     * @param nameContains Only customers whose name contains this text (ignoring case), or null for all.
      */
-    @Override
-    public void execute(FlightBookingSystem flightBookingSystem) throws FlightBookingSystemException {
-        List<Customer> customers = readCustomersFromFile("resources/data/customers.txt");
-        for (Customer customer : customers) {
-            System.out.println(customer.getDetailsShort());
-        }
-        System.out.println(customers.size() + " customer(s)");
+    public ListCustomers(int offset, int limit, String nameContains) {
+        this.offset = offset;
+        this.limit = limit;
+        this.nameContains = nameContains;
+        this.lowerNameContains = nameContains == null ? null : nameContains.toLowerCase(Locale.ROOT);
     }
 
     /**
-     * Reads customers from a file and returns a list of Customer objects.
+     * Executes the command to list the customers in the flight booking system.
      *
-     * @param filename The name of the file to read customers from.
-     * @return A list of Customer objects.
-     * @throws FlightBookingSystemException If there is an error reading customers from the file.
+     * @param flightBookingSystem The FlightBookingSystem object.
+     * @throws FlightBookingSystemException If there is an error in the flight booking system.
      */
-    private List<Customer> readCustomersFromFile(String filename) throws FlightBookingSystemException {
-        List<Customer> customers = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                int id = Integer.parseInt(parts[0]);
-                String name = parts[1];
-                String phone = parts[2];
-                String email = parts[3];
-                Customer customer = new Customer(id, name, phone, email);
-                customers.add(customer);
+    @Override
+    public void execute(FlightBookingSystem flightBookingSystem) throws FlightBookingSystemException {
+        PagedOutput out = new PagedOutput();
+        int matched = 0;
+        int printed = 0;
+        // walk the IDs so a store that keeps customers off the heap decodes one at a time
+        for (int id : flightBookingSystem.getCustomerIds()) {
+            if (nameContains == null && (matched < offset || printed >= limit)) {
+                matched++;
+                continue;
+            }
+            Customer customer = flightBookingSystem.getCustomerByID(id);
+            if (nameContains != null && !customer.getName().toLowerCase(Locale.ROOT).contains(lowerNameContains)) {
+                continue;
+            }
+            if (matched >= offset && printed < limit) {
+                DetailsRenderer.appendShort(out.startRow(), customer);
+                out.endRow();
+                printed++;
             }
-        } catch (IOException | NumberFormatException e) {
-            throw new FlightBookingSystemException("Error reading customers from file: " + e.getMessage());
+            matched++;
         }
-        return customers;
+        out.finish(printed + " customer(s)" + PagedOutput.sliceNote(offset, printed, matched));
     }
 
+    @Override
+    public List<String> getCommandLine() {
+        List<String> words = new ArrayList<>();
+        words.add("listcustomers");
+        if (offset > 0) {
+            words.add("--offset");
+            words.add(Integer.toString(offset));
+        }
+        if (limit != Integer.MAX_VALUE) {
+            words.add("--limit");
+            words.add(Integer.toString(limit));
+        }
+        if (nameContains != null) {
+            words.add("--name");
+            words.add(nameContains);
+        }
+        return words;
+    }
 }
@@ -1,62 +1,151 @@
 package bcu.cmp5332.bookingsystem.commands;
 
 import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.model.DetailsRenderer;
 import bcu.cmp5332.bookingsystem.model.Flight;
 import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.IOException;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
- * The ListFlights class represents a command to list all flights in the flight booking system.
+ * The ListFlights class represents a command to list the flights in the flight booking system.
+ * Flights are read from the loaded system, optionally filtered by route and departure date,
+ * and printed a page at a time.
  */
 public class ListFlights implements Command {
 
+    private final int offset;
+    private final int limit;
+    private final String origin;
+    private final String destination;
+    private final LocalDate from;
+    private final LocalDate to;
+    private final boolean includeDeparted;
+    private final int maxFare;
+
+    /**
+     * Initializes a command that lists every flight that has not departed.
+     */
+    public ListFlights() {
+        this(0, Integer.MAX_VALUE, null, null, null, null, false);
+    }
+
+    /**
+     * Initializes a command that lists a filtered slice of the flights.
+     *
+     * @param offset          The number of matching flights to skip.
+     * @param limit           The largest number of flights to print.
+     * @param origin          Only flights from this origin, or null for any.
+     * @param destination     Only flights to this destination, or null for any.
+     * @param from            Only flights departing on or after this date, or null.
+     * @param to              Only flights departing on or before this date, or null.
+     * @param includeDeparted Whether flights that have already departed are listed.
+     */
+    public ListFlights(int offset, int limit, String origin, String destination, LocalDate from, LocalDate to, boolean includeDeparted) {
+        this(offset, limit, origin, destination, from, to, includeDeparted, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Initializes a command that lists a filtered slice of the flights, keeping only the
+     * flights that have not departed and cost at most a fare today.
+     *
+     * @param offset          The number of matching flights to skip.
+     * @param limit           The largest number of flights to print.
+     * @param origin          Only flights from this origin, or null for any.
+     * @param destination     Only flights to this destination, or null for any.
+     * @param from            Only flights departing on or after this date, or null.
+     * @param to              Only flights departing on or before this date, or null.
+     * @param includeDeparted Whether flights that have already departed are listed.
+     * @param maxFare         The highest fare, or Integer.MAX_VALUE for no limit.
+     */
+    public ListFlights(int offset, int limit, String origin, String destination, LocalDate from, LocalDate to, boolean includeDeparted,
+            int maxFare) {
+        this.offset = offset;
+        this.limit = limit;
+        this.origin = origin;
+        this.destination = destination;
+        this.from = from;
+        this.to = to;
+        this.includeDeparted = includeDeparted;
+        this.maxFare = maxFare;
+    }
+
     /**
-     * Executes the command to list all flights in the flight booking system.
+     * Executes the command to list the flights in the flight booking system.
      *
      * @param flightBookingSystem The FlightBookingSystem object.
      * @throws FlightBookingSystemException If there is an error in the flight booking system.
      */
     @Override
     public void execute(FlightBookingSystem flightBookingSystem) throws FlightBookingSystemException {
-        List<Flight> flights = readFlightsFromFile("resources/data/flights.txt");
-        for (Flight flight : flights) {
-            System.out.println(flight.getDetailsShort());
+        LocalDate systemDate = flightBookingSystem.getSystemDate();
+        PagedOutput out = new PagedOutput();
+        int matched = 0;
+        int printed = 0;
+        // the fare index holds only the flights that have not departed, already in ID order
+        Iterable<Flight> candidates = maxFare == Integer.MAX_VALUE ? flightBookingSystem.getAllFlights()
+                : flightBookingSystem.getFlightsUpToFare(maxFare);
+        for (Flight flight : candidates) {
+            if (!includeDeparted && !flight.getDepartureDate().isAfter(systemDate)) {
+                continue;
+            }
+            if (!matches(flight)) {
+                continue;
+            }
+            if (matched >= offset && printed < limit) {
+                DetailsRenderer.appendShort(out.startRow(), flight);
+                out.endRow();
+                printed++;
+            }
+            matched++;
         }
-        System.out.println(flights.size() + " flight(s)");
+        out.finish(printed + " flight(s)" + PagedOutput.sliceNote(offset, printed, matched));
     }
 
-    /**
-     * Reads flights from a file and returns a list of Flight objects.
-     *
-     * @param filename The name of the file to read flights from.
-     * @return A list of Flight objects.
-     * @throws FlightBookingSystemException If there is an error reading flights from the file.
-     */
-    private List<Flight> readFlightsFromFile(String filename) throws FlightBookingSystemException {
-        List<Flight> flights = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                int id = Integer.parseInt(parts[0]);
-                String flightNumber = parts[1];
-                String origin = parts[2];
-                String destination = parts[3];
-                LocalDate departureDate = LocalDate.parse(parts[4]);
-                int numberOfSeats = Integer.parseInt(parts[5]);
-                int price = Integer.parseInt(parts[6]);
-                Flight flight = new Flight(id, flightNumber, origin, destination, departureDate, numberOfSeats, price);
-                flights.add(flight);
-            }
-        } catch (IOException | NumberFormatException e) {
-            throw new FlightBookingSystemException("Error reading flights from file: " + e.getMessage());
+    private boolean matches(Flight flight) {
+        return (origin == null || flight.getOrigin().equalsIgnoreCase(origin))
+                && (destination == null || flight.getDestination().equalsIgnoreCase(destination))
+                && (from == null || !flight.getDepartureDate().isBefore(from))
+                && (to == null || !flight.getDepartureDate().isAfter(to));
+    }
+
+    @Override
+    public List<String> getCommandLine() {
+        List<String> words = new ArrayList<>();
+        words.add("listflights");
+        if (offset > 0) {
+            words.add("--offset");
+            words.add(Integer.toString(offset));
+        }
+        if (limit != Integer.MAX_VALUE) {
+            words.add("--limit");
+            words.add(Integer.toString(limit));
+        }
+        if (origin != null) {
+            words.add("--origin");
+            words.add(origin);
+        }
+        if (destination != null) {
+            words.add("--destination");
+            words.add(destination);
+        }
+        if (from != null) {
+            words.add("--from");
+            words.add(from.toString());
+        }
+        if (to != null) {
+            words.add("--to");
+            words.add(to.toString());
+        }
+        if (includeDeparted) {
+            words.add("--all");
+        }
+        if (maxFare != Integer.MAX_VALUE) {
+            words.add("--max-fare");
+            words.add(Integer.toString(maxFare));
         }
-        return flights;
+        return words;
     }
 }
@@ -0,0 +1,130 @@
+package bcu.cmp5332.bookingsystem.commands;
+
+import bcu.cmp5332.bookingsystem.data.ManifestWriter;
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.model.Flight;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The Manifest class represents a command that writes passenger manifests: one flight's,
+ * to standard output or a file, or those of every flight departing on a day, into a
+ * directory on several threads.
+ */
+public class Manifest implements Command {
+
+    private final int flightId;
+    private final LocalDate date;
+    private final String target;
+    private final ManifestWriter.Format format;
+    private final int threads;
+
+    /**
+     * Initializes a command that writes the manifest of one flight.
+     *
+     * @param flightId The ID of the flight.
+     * @param file     The file to write, or null for standard output.
+     * @param format   The layout of the manifest.
+     */
+    public Manifest(int flightId, String file, ManifestWriter.Format format) {
+        this.flightId = flightId;
+        this.date = null;
+        this.target = file;
+        this.format = format;
+        this.threads = 1;
+    }
+
+    /**
+     * Initializes a command that writes the manifests of every flight departing on a day.
+     *
+     * @param date      The departure date.
+     * @param directory The directory to write the manifests into.
+     * @param format    The layout of the manifests.
+     * @param threads   The number of manifests to write at once.
+     */
+    public Manifest(LocalDate date, String directory, ManifestWriter.Format format, int threads) {
+        this.flightId = 0;
+        this.date = date;
+        this.target = directory;
+        this.format = format;
+        this.threads = threads;
+    }
+
+    /**
+     * Executes the command to write the manifests.
+     *
+     * @param fbs The FlightBookingSystem object.
+     * @throws FlightBookingSystemException If the flight is not found or a manifest cannot be written.
+     */
+    @Override
+    public void execute(FlightBookingSystem fbs) throws FlightBookingSystemException {
+        try {
+            if (date != null) {
+                long start = System.nanoTime();
+                List<File> files = ManifestWriter.exportDay(fbs, date, new File(target), format, threads);
+                System.out.printf("Wrote %d manifest(s) for %s to %s in %.3f s%n",
+                        files.size(), date, target, (System.nanoTime() - start) / 1e9);
+                return;
+            }
+            Flight flight = fbs.getFlightByID(flightId);
+            if (target != null) {
+                int rows = ManifestWriter.writeFile(flight, new File(target), format);
+                System.out.println("Wrote " + rows + " booking(s) of flight #" + flightId + " to " + target);
+                return;
+            }
+            System.out.flush();
+            // the writer closes its channel, so shield standard output from that
+            OutputStream stdout = new OutputStream() {
+                @Override
+                public void write(int b) {
+                    System.out.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    System.out.write(b, off, len);
+                }
+            };
+            try (ManifestWriter writer = new ManifestWriter(Channels.newChannel(stdout), format)) {
+                writer.write(flight);
+            }
+            System.out.flush();
+        } catch (IOException ex) {
+            throw new FlightBookingSystemException("Cannot write the manifest: " + ex.getMessage());
+        }
+    }
+
+    @Override
+    public List<String> getCommandLine() {
+        List<String> words = new ArrayList<>();
+        words.add("manifest");
+        if (date != null) {
+            words.add("--date");
+            words.add(date.toString());
+            words.add("--dir");
+        } else {
+            words.add(Integer.toString(flightId));
+            if (target != null) {
+                words.add("--out");
+            }
+        }
+        if (target != null) {
+            words.add(target);
+        }
+        words.add("--format");
+        words.add(format.name().toLowerCase(Locale.ROOT));
+        if (date != null) {
+            words.add("--threads");
+            words.add(Integer.toString(threads));
+        }
+        return words;
+    }
+}
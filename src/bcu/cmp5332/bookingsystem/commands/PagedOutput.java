@@ -0,0 +1,93 @@
+package bcu.cmp5332.bookingsystem.commands;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+/**
+ * The PagedOutput class is the single buffered writer the listing commands print through.
+ * Rows are written into a large buffer and pushed to standard output a page at a time,
+ * instead of one System.out.println per row.
+ */
+public class PagedOutput {
+
+    /**
+     * The number of rows written between flushes.
+     */
+    public static final int PAGE_SIZE = 1000;
+
+    private final PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16), false);
+    private final StringBuilder rowBuilder = new StringBuilder(128);
+    private char[] rowChars = new char[128];
+    private int rowsInPage;
+
+    /**
+     * Writes one row, flushing when a page is full.
+     *
+     * @param row The text of the row.
+     */
+    public void row(CharSequence row) {
+        out.append(row).println();
+        endPageRow();
+    }
+
+    /**
+     * Starts a row rendered in place. The returned builder is emptied and reused for every
+     * row, so rows written this way create no garbage; call {@link #endRow()} when it is filled.
+     *
+     * @return The builder to render the row into.
+     */
+    public StringBuilder startRow() {
+        rowBuilder.setLength(0);
+        return rowBuilder;
+    }
+
+    /**
+     * Writes the row rendered into the builder from {@link #startRow()}.
+     */
+    public void endRow() {
+        int length = rowBuilder.length();
+        if (rowChars.length < length) {
+            rowChars = new char[Math.max(length, rowChars.length * 2)];
+        }
+        rowBuilder.getChars(0, length, rowChars, 0);
+        out.write(rowChars, 0, length);
+        out.println();
+        endPageRow();
+    }
+
+    private void endPageRow() {
+        if (++rowsInPage == PAGE_SIZE) {
+            out.flush();
+            rowsInPage = 0;
+        }
+    }
+
+    /**
+     * Writes a closing line and flushes everything. Standard output is not closed.
+     *
+     * @param line The closing line.
+     */
+    public void finish(String line) {
+        out.println(line);
+        out.flush();
+    }
+
+    /**
+     * Describes the slice of matches that was printed, for the closing line.
+     *
+     * @param offset The index of the first match printed.
+     * @param printed The number of matches printed.
+     * @param matched The number of matches in total.
+     * @return A note such as " (rows 11-20 of 345)", or an empty string if everything was printed.
+     */
+    public static String sliceNote(int offset, int printed, int matched) {
+        if (printed == matched) {
+            return "";
+        }
+        if (printed == 0) {
+            return " (of " + matched + ")";
+        }
+        return " (rows " + (offset + 1) + "-" + (offset + printed) + " of " + matched + ")";
+    }
+}
@@ -0,0 +1,56 @@
+package bcu.cmp5332.bookingsystem.commands;
+
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.model.Booking;
+import bcu.cmp5332.bookingsystem.model.Flight;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The Quote class represents a command to show what a booking on a flight would cost,
+ * without making the booking.
+ */
+public class Quote implements Command {
+
+    private final int flightId;
+    private final LocalDate on;
+
+    /**
+     * Constructs a new Quote object.
+     *
+     * @param flightId The ID of the flight to price.
+     * @param on The date the booking would be made, or null for the system date.
+     */
+    public Quote(int flightId, LocalDate on) {
+        this.flightId = flightId;
+        this.on = on;
+    }
+
+    /**
+     * Executes the command to print the price of the flight.
+     *
+     * @param fbs The FlightBookingSystem object.
+     * @throws FlightBookingSystemException If the flight with the specified ID is not found.
+     */
+    @Override
+    public void execute(FlightBookingSystem fbs) throws FlightBookingSystemException {
+        Flight flight = fbs.getFlightByID(flightId);
+        if (on == null) {
+            // today's fare is kept up to date as the date moves, so there is nothing to work out
+            System.out.println("Flight #" + flight.getId() + " booked on " + fbs.getSystemDate() + ": " + fbs.getFare(flight));
+            return;
+        }
+        System.out.println("Flight #" + flight.getId() + " booked on " + on + ": " + Booking.quote(flight, on));
+    }
+
+    @Override
+    public List<String> getCommandLine() {
+        if (on == null) {
+            return Arrays.asList("quote", Integer.toString(flightId));
+        }
+        return Arrays.asList("quote", Integer.toString(flightId), on.toString());
+    }
+}
@@ -1,15 +1,24 @@
 package bcu.cmp5332.bookingsystem.commands;
 
 import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.model.Booking;
 import bcu.cmp5332.bookingsystem.model.Customer;
 import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 /**
- * The ShowCustomer class represents a command to display details of a specific customer.
+ * The ShowCustomer class represents a command to display details of a specific customer,
+ * optionally followed by a page of their booking history in booking date order.
  */
 public class ShowCustomer implements Command {
 
     private final int customerId;
+    private final boolean history;
+    private final int offset;
+    private final int limit;
 
     /**
      * Constructs a new ShowCustomer object with the specified customer ID.
@@ -17,7 +26,22 @@ public class ShowCustomer implements Command {
      * @param customerId The ID of the customer to display.
      */
     public ShowCustomer(int customerId) {
+        this(customerId, false, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Constructs a command that displays a customer and a page of their bookings.
+     *
+     * @param customerId The ID of the customer to display.
+     * @param history    Whether to list the customer's bookings.
+     * @param offset     The number of bookings to skip.
+     * @param limit      The largest number of bookings to list.
+     */
+    public ShowCustomer(int customerId, boolean history, int offset, int limit) {
         this.customerId = customerId;
+        this.history = history;
+        this.offset = offset;
+        this.limit = limit;
     }
 
     /**
@@ -29,10 +53,42 @@ public class ShowCustomer implements Command {
     @Override
     public void execute(FlightBookingSystem fbs) throws FlightBookingSystemException {
         Customer customer = fbs.getCustomerByID(customerId);
-        if (customer != null) {
-            System.out.println(customer.getDetailsShort());
-        } else {
+        if (customer == null) {
             throw new FlightBookingSystemException("Customer with ID " + customerId + " not found.");
         }
+        if (!history) {
+            System.out.println(customer.getDetailsShort());
+            return;
+        }
+        PagedOutput out = new PagedOutput();
+        out.row(customer.getDetailsShort());
+        List<Booking> page = customer.getBookingHistory(offset, limit);
+        for (Booking booking : page) {
+            out.row("Booking #" + booking.getId() + " - booked on " + booking.getBookingDate()
+                    + " - Flight #" + booking.getFlight().getId() + " " + booking.getFlight().getFlightNumber()
+                    + " on " + booking.getFlight().getDepartureDate() + " - Price: " + booking.getPrice());
+        }
+        out.finish(page.size() + " booking(s)" + PagedOutput.sliceNote(offset, page.size(), customer.getBookingCount())
+                + ", balance " + customer.getBalance());
+    }
+
+    @Override
+    public List<String> getCommandLine() {
+        if (!history) {
+            return Arrays.asList("showcustomer", Integer.toString(customerId));
+        }
+        List<String> words = new ArrayList<>();
+        words.add("showcustomer");
+        words.add(Integer.toString(customerId));
+        words.add("--bookings");
+        if (offset > 0) {
+            words.add("--offset");
+            words.add(Integer.toString(offset));
+        }
+        if (limit != Integer.MAX_VALUE) {
+            words.add("--limit");
+            words.add(Integer.toString(limit));
+        }
+        return words;
     }
 }
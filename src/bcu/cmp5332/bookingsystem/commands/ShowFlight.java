@@ -1,9 +1,14 @@
 package bcu.cmp5332.bookingsystem.commands;
 
 import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.model.Customer;
+import bcu.cmp5332.bookingsystem.model.DetailsRenderer;
 import bcu.cmp5332.bookingsystem.model.Flight;
 import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
 
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * The ShowFlight class represents a command to display details of a specific flight.
  */
@@ -30,9 +35,22 @@ public class ShowFlight implements Command {
     public void execute(FlightBookingSystem fbs) throws FlightBookingSystemException {
         Flight flight = fbs.getFlightByID(flightId);
         if (flight != null) {
-            System.out.println(flight.getDetailsLong());
+            // stream the passengers a row at a time rather than build one string for a full flight
+            PagedOutput out = new PagedOutput();
+            DetailsRenderer.appendLongHeader(out.startRow(), flight);
+            out.endRow();
+            for (Customer passenger : flight.getPassengerView()) {
+                out.startRow().append(passenger.getName());
+                out.endRow();
+            }
+            out.finish("");
         } else {
             throw new FlightBookingSystemException("Flight with ID " + flightId + " not found.");
         }
     }
+
+    @Override
+    public List<String> getCommandLine() {
+        return Arrays.asList("showflight", Integer.toString(flightId));
+    }
 }
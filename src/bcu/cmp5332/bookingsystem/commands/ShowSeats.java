@@ -0,0 +1,74 @@
+package bcu.cmp5332.bookingsystem.commands;
+
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.model.Flight;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import bcu.cmp5332.bookingsystem.model.SeatMap;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The ShowSeats class represents a command that prints the seat map of a flight, one line
+ * per row, showing the letter of each free seat and a dot for each taken one.
+ */
+public class ShowSeats implements Command {
+
+    private final int flightId;
+
+    /**
+     * Constructs a new ShowSeats object.
+     *
+     * @param flightId The ID of the flight.
+     */
+    public ShowSeats(int flightId) {
+        this.flightId = flightId;
+    }
+
+    /**
+     * Executes the command to print the seat map.
+     *
+     * @param fbs The FlightBookingSystem object.
+     * @throws FlightBookingSystemException If the flight with the specified ID is not found.
+     */
+    @Override
+    public void execute(FlightBookingSystem fbs) throws FlightBookingSystemException {
+        Flight flight = fbs.getFlightByID(flightId);
+        SeatMap seats = flight.getSeatMap();
+        String layout = seats.getLayout();
+        PagedOutput out = new PagedOutput();
+        out.row("Seats on flight " + flight.getFlightNumber() + " (" + layout + "), '.' is taken:");
+        for (int row = 0; row < seats.getRows(); row++) {
+            StringBuilder line = out.startRow();
+            String number = Integer.toString(row + 1);
+            for (int i = number.length(); i < 4; i++) {
+                line.append(' ');
+            }
+            line.append(number).append("  ");
+            int column = 0;
+            for (int i = 0; i < layout.length(); i++) {
+                if (layout.charAt(i) == '-') {
+                    line.append("  ");
+                    continue;
+                }
+                int seat = seats.seat(row, column);
+                if (seat == SeatMap.NO_SEAT) {
+                    line.append(' ');
+                } else if (seats.isTaken(seat)) {
+                    line.append('.');
+                } else {
+                    line.append(SeatMap.letter(column));
+                }
+                column++;
+            }
+            out.endRow();
+        }
+        out.finish(seats.getFreeCount() + " of " + seats.getCapacity() + " seat(s) free, "
+                + seats.getUnseatedCount() + " booking(s) without a seat");
+    }
+
+    @Override
+    public List<String> getCommandLine() {
+        return Arrays.asList("showseats", Integer.toString(flightId));
+    }
+}
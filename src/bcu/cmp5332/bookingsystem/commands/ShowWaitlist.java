@@ -0,0 +1,56 @@
+package bcu.cmp5332.bookingsystem.commands;
+
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.model.Customer;
+import bcu.cmp5332.bookingsystem.model.Flight;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import bcu.cmp5332.bookingsystem.model.Waitlist;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The ShowWaitlist class represents a command that prints the waitlist of a flight in the
+ * order the customers will be served.
+ */
+public class ShowWaitlist implements Command {
+
+    private final int flightId;
+
+    /**
+     * Constructs a new ShowWaitlist object.
+     *
+     * @param flightId The ID of the flight.
+     */
+    public ShowWaitlist(int flightId) {
+        this.flightId = flightId;
+    }
+
+    /**
+     * Executes the command to print the waitlist.
+     *
+     * @param fbs The FlightBookingSystem object.
+     * @throws FlightBookingSystemException If the flight with the specified ID is not found.
+     */
+    @Override
+    public void execute(FlightBookingSystem fbs) throws FlightBookingSystemException {
+        Flight flight = fbs.getFlightByID(flightId);
+        Waitlist waitlist = fbs.getWaitlist(flightId);
+        List<Waitlist.Entry> entries = waitlist == null ? Collections.<Waitlist.Entry>emptyList() : waitlist.snapshot();
+        PagedOutput out = new PagedOutput();
+        out.row("Waitlist for flight " + flight.getFlightNumber() + ":");
+        int position = 0;
+        for (Waitlist.Entry entry : entries) {
+            Customer customer = entry.getCustomer();
+            out.row(++position + ". Customer #" + customer.getId() + " - " + customer.getName()
+                    + " - Tier " + entry.getTier() + " - Since " + entry.getRequestedOn());
+        }
+        out.finish(entries.size() + " customer(s) waiting");
+    }
+
+    @Override
+    public List<String> getCommandLine() {
+        return Arrays.asList("showwaitlist", Integer.toString(flightId));
+    }
+}
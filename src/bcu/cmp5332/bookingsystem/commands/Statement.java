@@ -0,0 +1,65 @@
+package bcu.cmp5332.bookingsystem.commands;
+
+import bcu.cmp5332.bookingsystem.data.LedgerDataManager;
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.model.Customer;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import bcu.cmp5332.bookingsystem.model.Ledger;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The Statement class represents a command that prints a customer's ledger entries, oldest
+ * first, each with the balance it left, followed by their current balance.
+ */
+public class Statement implements Command {
+
+    private final int customerId;
+
+    /**
+     * Constructs a new Statement object.
+     *
+     * @param customerId The ID of the customer.
+     */
+    public Statement(int customerId) {
+        this.customerId = customerId;
+    }
+
+    /**
+     * Executes the command to print the statement.
+     *
+     * @param fbs The FlightBookingSystem object.
+     * @throws FlightBookingSystemException If the customer is not found or the journal cannot be read.
+     */
+    @Override
+    public void execute(FlightBookingSystem fbs) throws FlightBookingSystemException {
+        Customer customer = fbs.getCustomerByID(customerId);
+        List<Ledger.Entry> entries;
+        try {
+            entries = LedgerDataManager.readJournal(fbs, customerId);
+        } catch (IOException e) {
+            throw new FlightBookingSystemException("Error reading " + LedgerDataManager.JOURNAL + ": " + e.getMessage());
+        }
+        // entries not yet journaled, as in a batch run that saves only at its checkpoints
+        for (Ledger.Entry entry : fbs.getLedger().getPending()) {
+            if (entry.getCustomerId() == customerId) {
+                entries.add(entry);
+            }
+        }
+        PagedOutput out = new PagedOutput();
+        out.row(customer.getDetailsShort());
+        for (Ledger.Entry entry : entries) {
+            out.row("#" + entry.getSeq() + " - " + entry.getDate() + " - " + entry.getKind().name().toLowerCase(Locale.ROOT)
+                    + " - Booking #" + entry.getBookingId() + " - " + entry.getAmount() + " - Balance: " + entry.getBalance());
+        }
+        out.finish(entries.size() + " entry(ies), balance " + customer.getBalance());
+    }
+
+    @Override
+    public List<String> getCommandLine() {
+        return Arrays.asList("statement", Integer.toString(customerId));
+    }
+}
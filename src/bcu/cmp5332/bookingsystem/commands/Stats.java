@@ -0,0 +1,75 @@
+package bcu.cmp5332.bookingsystem.commands;
+
+import bcu.cmp5332.bookingsystem.metrics.Metrics;
+import bcu.cmp5332.bookingsystem.metrics.MetricsSnapshot;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+
+/**
+ * The Stats class represents a command that prints how many times each command and data
+ * file operation has run, how many failed and how long they took, followed by the customer
+ * cache's hit rate when customers are kept on disk and a report on the indexes that keep
+ * customers' email addresses and phone numbers unique.
+ */
+public class Stats implements Command {
+
+    private final boolean reset;
+
+    /**
+     * Initializes a new instance of the Stats class.
+     *
+     * @param reset Whether to clear the statistics after printing them.
+     */
+    public Stats(boolean reset) {
+        this.reset = reset;
+    }
+
+    /**
+     * Executes the command to print the statistics.
+     *
+     * @param flightBookingSystem The FlightBookingSystem object.
+     */
+    @Override
+    public void execute(FlightBookingSystem flightBookingSystem) {
+        MetricsSnapshot snapshot = Metrics.snapshot();
+        if (snapshot.getEntries().isEmpty()) {
+            System.out.println("Nothing has been recorded yet.");
+        } else {
+            System.out.print(snapshot.toTable());
+            printCacheSummary(snapshot);
+        }
+        System.out.print(flightBookingSystem.getCustomerContactIndex().report());
+        if (reset) {
+            Metrics.reset();
+            System.out.println("Statistics cleared.");
+        }
+    }
+
+    private static void printCacheSummary(MetricsSnapshot snapshot) {
+        long hits = 0;
+        long misses = 0;
+        long evictions = 0;
+        long writeBacks = 0;
+        for (MetricsSnapshot.Entry entry : snapshot.getEntries()) {
+            switch (entry.getName()) {
+                case "customers.cache.hit":
+                    hits = entry.getCount();
+                    break;
+                case "customers.cache.miss":
+                    misses = entry.getCount();
+                    break;
+                case "customers.cache.evict":
+                    evictions = entry.getCount();
+                    break;
+                case "customers.cache.writeback":
+                    writeBacks = entry.getCount();
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (hits + misses > 0) {
+            System.out.printf("Customer cache: %.1f%% of %d lookups hit, %d evicted, %d written back%n",
+                    100.0 * hits / (hits + misses), hits + misses, evictions, writeBacks);
+        }
+    }
+}
@@ -5,12 +5,9 @@ import bcu.cmp5332.bookingsystem.model.Booking;
 import bcu.cmp5332.bookingsystem.model.Customer;
 import bcu.cmp5332.bookingsystem.model.Flight;
 import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import bcu.cmp5332.bookingsystem.model.SeatMap;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.IOException;
-import java.time.LocalDate;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -34,6 +31,7 @@ public class ViewBooking implements Command {
 
     /**
      * Executes the command to view bookings for the specified customer on the specified flight.
+     * The bookings are read from the customer's own bookings in memory.
      *
      * @param fbs The FlightBookingSystem object.
      * @throws FlightBookingSystemException If the customer or flight is not found, or if there are no bookings for the specified customer and flight.
@@ -50,47 +48,25 @@ public class ViewBooking implements Command {
             throw new FlightBookingSystemException("Flight not found.");
         }
 
-        List<Booking> bookings = readBookingsFromFile("resources/data/bookings.txt", fbs);
-        if (bookings.isEmpty()) {
+        PagedOutput out = null;
+        int found = 0;
+        for (Booking booking : customer.getBookingsByFlightId(flightId)) {
+            if (out == null) {
+                out = new PagedOutput();
+                out.row("Bookings for customer " + customer.getName() + " on flight " + flight.getFlightNumber() + ":");
+            }
+            String seat = booking.getSeat() == SeatMap.NO_SEAT ? "" : " - Seat " + SeatMap.label(booking.getSeat());
+            out.row("Booking #" + booking.getId() + " - booked on " + booking.getBookingDate() + seat + " - Price: " + booking.getPrice());
+            found++;
+        }
+        if (out == null) {
             throw new FlightBookingSystemException("No booking found for customer with ID " + customerId + " and flight with ID " + flightId);
         }
-
-        // Display the bookings in the console
-        System.out.println("Bookings for customer " + customer.getName() + " on flight " + flight.getFlightNumber() + ":");
-//        for (Booking booking : bookings) {
-//            System.out.println(booking);
-//        }
+        out.finish(found + " booking(s)");
     }
 
-    /**
-     * Reads bookings from the specified file and returns a list of bookings for the specified customer and flight.
-     *
-     * @param filename The name of the file to read bookings from.
-     * @param fbs      The FlightBookingSystem object.
-     * @return A list of bookings for the specified customer and flight.
-     * @throws FlightBookingSystemException If there is an error reading the file or parsing the bookings.
-     */
-    private List<Booking> readBookingsFromFile(String filename, FlightBookingSystem fbs) throws FlightBookingSystemException {
-        List<Booking> bookings = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                int bookingId = Integer.parseInt(parts[0]);
-                int customerId = Integer.parseInt(parts[1]);
-                int flightId = Integer.parseInt(parts[2]);
-                LocalDate bookingDate = LocalDate.parse(parts[3]);
-
-                if (customerId == this.customerId && flightId == this.flightId) {
-                    Customer customer = fbs.getCustomerByID(customerId);
-                    Flight flight = fbs.getFlightByID(flightId);
-                    Booking booking = new Booking(bookingId, customer, flight, bookingDate);
-                    bookings.add(booking);
-                }
-            }
-        } catch (IOException | NumberFormatException e) {
-            throw new FlightBookingSystemException("Error reading bookings from file: " + e.getMessage());
-        }
-        return bookings;
+    @Override
+    public List<String> getCommandLine() {
+        return Arrays.asList("viewbooking", Integer.toString(customerId), Integer.toString(flightId));
     }
 }
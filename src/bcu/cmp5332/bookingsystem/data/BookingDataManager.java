@@ -1,24 +1,30 @@
 package bcu.cmp5332.bookingsystem.data;
 
 import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.model.ChangeEvent;
 import bcu.cmp5332.bookingsystem.model.Booking;
 import bcu.cmp5332.bookingsystem.model.Customer;
 import bcu.cmp5332.bookingsystem.model.Flight;
 import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import bcu.cmp5332.bookingsystem.model.SeatMap;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.Scanner;
 
 /**
- * Represents a data manager for handling bookings data.
+ * Represents a data manager for handling bookings data. Each line of the file is
+ * {@code id,customerId,flightId,bookingDate,seat,price}; the seat is empty for a booking
+ * without one, and files written before the seat and price columns existed still load.
  */
 public class BookingDataManager implements DataManager {
 
-    private final static String RESOURCE = "./resources/data/bookings.txt";
+    private final static String RESOURCE = "bookings.txt";
     private final static String SEPARATOR = ",";
 
     /**
@@ -29,11 +35,27 @@ public class BookingDataManager implements DataManager {
      */
     @Override
     public void loadData(FlightBookingSystem fbs) throws IOException, FlightBookingSystemException {
-        try (Scanner sc = new Scanner(new File(RESOURCE))) {
+        loadData(fbs, Tombstones.none());
+    }
+
+    /**
+     * Loads booking data from the file, skipping the records that have been deleted.
+     * @param fbs The FlightBookingSystem object.
+     * @param deleted The records to skip.
+     * @throws IOException If an I/O error occurs.
+     * @throws FlightBookingSystemException If there is an error in the FlightBookingSystem.
+     */
+    @Override
+    public void loadData(FlightBookingSystem fbs, Tombstones deleted) throws IOException, FlightBookingSystemException {
+        try (Scanner sc = new Scanner(FlightBookingSystemData.dataFile(RESOURCE))) {
             while (sc.hasNextLine()) {
                 String line = sc.nextLine();
                 String[] properties = line.split(SEPARATOR, -1);
                 int id = Integer.parseInt(properties[0]);
+                if (deleted.isDeleted(ChangeEvent.Entity.BOOKING, id)) {
+                    fbs.reserveId(ChangeEvent.Entity.BOOKING, id);
+                    continue;
+                }
                 int customerId = properties[1].isEmpty() ? 0 : Integer.parseInt(properties[1]);
                 int flightId = properties[2].isEmpty() ? 0 : Integer.parseInt(properties[2]);
                 LocalDate date = LocalDate.parse(properties[3]);
@@ -41,8 +63,19 @@ public class BookingDataManager implements DataManager {
                 Flight flight = fbs.getFlightByID(flightId);
                 if (customer != null && flight != null) {
                     Booking booking = new Booking(id, customer, flight, date);
-                    customer.addBooking(booking);
-                    flight.addPassenger(customer);
+                    // the seat column is optional; a seat that is unknown or already taken is dropped
+                    if (properties.length > 4 && !properties[4].isEmpty()) {
+                        int seat = flight.getSeatMap().parse(properties[4]);
+                        if (flight.getSeatMap().claim(seat)) {
+                            booking.setSeat(seat);
+                        }
+                    }
+                    // so is the price, which includes any rebook fees; without it the booking
+                    // is priced at its flight's fare
+                    if (properties.length > 5 && !properties[5].isEmpty()) {
+                        booking.setPrice(Integer.parseInt(properties[5]));
+                    }
+                    fbs.loadBooking(booking);
                 }
             }
         }
@@ -57,16 +90,12 @@ public class BookingDataManager implements DataManager {
      */
 @Override
 public void storeData(FlightBookingSystem fbs) throws IOException {
-    try (PrintWriter out = new PrintWriter(new FileWriter(RESOURCE))) {
+    try (PrintWriter out = new PrintWriter(new FileWriter(FlightBookingSystemData.dataFile(RESOURCE)))) {
         for (Customer customer : fbs.getCustomers()) {
             for (Booking booking : customer.getBookings()) {
                 // Check if the booking already exists
                 if (!bookingExists(out, booking)) {
-                    out.print(booking.getId() + SEPARATOR);
-                    out.print(customer.getId() + SEPARATOR);
-                    out.print(booking.getFlight().getId() + SEPARATOR);
-                    out.print(booking.getBookingDate() + SEPARATOR);
-                    out.println();
+                    out.println(toLine(booking));
                 }
             }
         }
@@ -75,6 +104,36 @@ public void storeData(FlightBookingSystem fbs) throws IOException {
 
 
    
+    /**
+     * Appends bookings to the end of the bookings file, as new bookings are saved without
+     * rewriting it.
+     * @param bookings The bookings to append.
+     * @throws IOException If an I/O error occurs.
+     */
+    public static void append(Collection<Booking> bookings) throws IOException {
+        if (bookings.isEmpty()) {
+            return;
+        }
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(FlightBookingSystemData.dataFile(RESOURCE), true))) {
+            for (Booking booking : bookings) {
+                writer.write(toLine(booking));
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Formats a booking as a line of the bookings file.
+     * @param booking The booking.
+     * @return The line, without a line separator.
+     */
+    static String toLine(Booking booking) {
+        return booking.getId() + SEPARATOR + booking.getCustomer().getId() + SEPARATOR + booking.getFlight().getId()
+                + SEPARATOR + booking.getBookingDate()
+                + SEPARATOR + (booking.getSeat() == SeatMap.NO_SEAT ? "" : SeatMap.label(booking.getSeat()))
+                + SEPARATOR + booking.getPrice();
+    }
+
     /**
      * Checks if a booking already exists in the specified PrintWriter.
      * @param out The PrintWriter object.
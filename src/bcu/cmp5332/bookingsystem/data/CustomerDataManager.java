@@ -1,6 +1,7 @@
 package bcu.cmp5332.bookingsystem.data;
 
 import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.model.ChangeEvent;
 import bcu.cmp5332.bookingsystem.model.Customer;
 import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
 
@@ -16,7 +17,7 @@ import java.util.Scanner;
  */
 public class CustomerDataManager implements DataManager {
 
-    private final String RESOURCE = "./resources/data/customers.txt";
+    private final String RESOURCE = "customers.txt";
     private final String SEPARATOR = ",";
 
     /**
@@ -27,11 +28,27 @@ public class CustomerDataManager implements DataManager {
      */
     @Override
     public void loadData(FlightBookingSystem fbs) throws IOException, FlightBookingSystemException {
-        try (Scanner sc = new Scanner(new File(RESOURCE))) {
+        loadData(fbs, Tombstones.none());
+    }
+
+    /**
+     * Loads customer data from the file, skipping the records that have been deleted.
+     * @param fbs The FlightBookingSystem object.
+     * @param deleted The records to skip.
+     * @throws IOException If an I/O error occurs.
+     * @throws FlightBookingSystemException If there is an error in the FlightBookingSystem.
+     */
+    @Override
+    public void loadData(FlightBookingSystem fbs, Tombstones deleted) throws IOException, FlightBookingSystemException {
+        try (Scanner sc = new Scanner(FlightBookingSystemData.dataFile(RESOURCE))) {
             while (sc.hasNextLine()) {
                 String line = sc.nextLine();
                 String[] properties = line.split(SEPARATOR, -1);
                 int id = Integer.parseInt(properties[0]);
+                if (deleted.isDeleted(ChangeEvent.Entity.CUSTOMER, id)) {
+                    fbs.reserveId(ChangeEvent.Entity.CUSTOMER, id);
+                    continue;
+                }
                 String name = properties[1];
                 String phone = properties[2];
                 String email = properties[3];
@@ -48,7 +65,7 @@ public class CustomerDataManager implements DataManager {
      */
     @Override
     public void storeData(FlightBookingSystem fbs) throws IOException {
-        try (PrintWriter out = new PrintWriter(new FileWriter(RESOURCE))) {
+        try (PrintWriter out = new PrintWriter(new FileWriter(FlightBookingSystemData.dataFile(RESOURCE)))) {
             for (Customer customer : fbs.getCustomers()) {
                 out.print(customer.getId() + SEPARATOR);
                 out.print(customer.getName() + SEPARATOR);
@@ -22,6 +22,19 @@ public interface DataManager {
      * @throws FlightBookingSystemException If there is an error in the FlightBookingSystem.
      */
     public void loadData(FlightBookingSystem fbs) throws IOException, FlightBookingSystemException;
+
+    /**
+     * Loads data into the FlightBookingSystem from a data file, skipping the records that
+     * have been deleted since the file was last written in full.
+     *
+     * @param fbs The FlightBookingSystem to load data into.
+     * @param deleted The records to skip.
+     * @throws IOException If an I/O error occurs.
+     * @throws FlightBookingSystemException If there is an error in the FlightBookingSystem.
+     */
+    public default void loadData(FlightBookingSystem fbs, Tombstones deleted) throws IOException, FlightBookingSystemException {
+        loadData(fbs);
+    }
     
     /**
      * Stores data from the FlightBookingSystem into a data file.
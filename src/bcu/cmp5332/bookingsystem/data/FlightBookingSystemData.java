@@ -1,16 +1,24 @@
 package bcu.cmp5332.bookingsystem.data;
 
 import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.metrics.Metrics;
 import bcu.cmp5332.bookingsystem.model.Booking;
 import bcu.cmp5332.bookingsystem.model.Customer;
+import bcu.cmp5332.bookingsystem.model.CustomerStore;
 import bcu.cmp5332.bookingsystem.model.Flight;
 import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import bcu.cmp5332.bookingsystem.model.HeapCustomerStore;
 
+import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.time.Clock;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.IntConsumer;
 
 /**
  * The FlightBookingSystemData class provides methods for loading and storing flight booking system data.
@@ -19,17 +27,86 @@ import java.util.List;
 public class FlightBookingSystemData {
     
     private static final List<DataManager> dataManagers = new ArrayList<>();
+
+    // the directory holding the data files; the fbs.data.dir system property overrides the default
+    private static volatile File dataDirectory = new File(System.getProperty("fbs.data.dir", "resources/data"));
+
+    // the clock loaded systems take their date from; the fbs.date system property (YYYY-MM-DD) overrides the default
+    private static volatile Clock clock = FlightBookingSystem.clockAt(System.getProperty("fbs.date") == null
+            ? FlightBookingSystem.DEFAULT_START : LocalDate.parse(System.getProperty("fbs.date")));
     
     // runs only once when the object gets loaded to memory
     static {
+        // the date goes first, so the flights are indexed at the saved date
+        dataManagers.add(new SystemDateDataManager());
         dataManagers.add(new FlightDataManager());
         
         /* Uncomment the two lines below when the implementation of their 
         loadData() and storeData() methods is complete */
         dataManagers.add(new CustomerDataManager());
         dataManagers.add(new BookingDataManager());
+        dataManagers.add(new LedgerDataManager());
+        dataManagers.add(new WaitlistDataManager());
     }
     
+    /**
+     * Returns the directory the data files are read from and written to.
+     *
+     * @return The data directory.
+     */
+    public static File getDataDirectory() {
+        return dataDirectory;
+    }
+
+    /**
+     * Sets the directory the data files are read from and written to, for example to load a
+     * generated dataset or to keep a benchmark away from the real data.
+     *
+     * @param directory The data directory.
+     */
+    public static void setDataDirectory(File directory) {
+        dataDirectory = directory;
+    }
+
+    /**
+     * Returns the clock the systems loaded from now on take their date from.
+     *
+     * @return The clock.
+     */
+    public static Clock getClock() {
+        return clock;
+    }
+
+    /**
+     * Sets the clock the systems loaded from now on take their date from, for example to run
+     * the system on today's date or on a date a test needs.
+     *
+     * @param clock The clock.
+     */
+    public static void setClock(Clock clock) {
+        FlightBookingSystemData.clock = clock;
+    }
+
+    /**
+     * Returns one of the data files.
+     *
+     * @param name The file name, such as "flights.txt".
+     * @return The file in the data directory.
+     */
+    public static File dataFile(String name) {
+        return new File(dataDirectory, name);
+    }
+
+    /**
+     * Returns the names of the files a system is stored in, such as "flights.txt".
+     *
+     * @return The file names.
+     */
+    public static List<String> getDataFileNames() {
+        return Arrays.asList(SystemDateDataManager.RESOURCE, "flights.txt", "customers.txt", "bookings.txt", WaitlistDataManager.RESOURCE,
+                LedgerDataManager.JOURNAL, LedgerDataManager.SNAPSHOT, Tombstones.FILE);
+    }
+
     /**
      * Loads flight booking system data from text files.
      *
@@ -38,36 +115,95 @@ public class FlightBookingSystemData {
      * @throws IOException If an I/O error occurs while loading the data.
      */
     public static FlightBookingSystem load() throws FlightBookingSystemException, IOException {
+        return load(new HeapCustomerStore());
+    }
+
+    /**
+     * Loads flight booking system data from text files, keeping the customers in the given store.
+     * Records named in the tombstone file are skipped.
+     *
+     * @param customerStore The store to load the customers into.
+     * @return The flight booking system with loaded data.
+     * @throws FlightBookingSystemException If an error occurs while loading the data.
+     * @throws IOException If an I/O error occurs while loading the data.
+     */
+    public static FlightBookingSystem load(CustomerStore customerStore) throws FlightBookingSystemException, IOException {
 
-        FlightBookingSystem fbs = new FlightBookingSystem();
+        FlightBookingSystem fbs = new FlightBookingSystem(customerStore, clock);
+        Tombstones deleted = Tombstones.read(dataDirectory);
         for (DataManager dm : dataManagers) {
-            dm.loadData(fbs);
+            long start = System.nanoTime();
+            boolean failed = true;
+            try {
+                dm.loadData(fbs, deleted);
+                failed = false;
+            } finally {
+                Metrics.record("load." + dm.getClass().getSimpleName(), start, failed);
+            }
         }
         return fbs;
     }
 
     /**
-     * Stores flight booking system data to text files.
+     * Stores flight booking system data to text files. The files no longer hold deleted
+     * records afterwards, so the tombstone file is removed.
      *
      * @param fbs The flight booking system to be stored.
      * @throws IOException If an I/O error occurs while storing the data.
      */
     public static void store(FlightBookingSystem fbs) throws IOException {
-        try (PrintWriter writer = new PrintWriter(new FileWriter("resources/data/customers.txt"))) {
+        store(fbs, percent -> { });
+    }
+
+    /**
+     * Stores flight booking system data to text files, reporting how many of them have been
+     * written, for example to a progress bar.
+     *
+     * @param fbs The flight booking system to be stored.
+     * @param progress Told the percentage of the files written after each one.
+     * @throws IOException If an I/O error occurs while storing the data.
+     */
+    public static void store(FlightBookingSystem fbs, IntConsumer progress) throws IOException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            storeFiles(fbs, progress);
+            Tombstones.clear();
+            failed = false;
+        } finally {
+            Metrics.record("store.all", start, failed);
+        }
+    }
+
+    private static void storeFiles(FlightBookingSystem fbs, IntConsumer progress) throws IOException {
+        final int files = 6;
+        new SystemDateDataManager().storeData(fbs);
+        progress.accept(100 / files);
+        try (PrintWriter writer = new PrintWriter(new FileWriter(dataFile("customers.txt")))) {
             for (Customer customer : fbs.getCustomers()) {
                 writer.println(customer.getId() + "," + customer.getName() + "," + customer.getPhone() + "," + customer.getEmail());
             }
         }
-        try (PrintWriter writer = new PrintWriter(new FileWriter("resources/data/flights.txt"))) {
-            for (Flight flight : fbs.getFlights()) {
+        progress.accept(200 / files);
+        try (PrintWriter writer = new PrintWriter(new FileWriter(dataFile("flights.txt")))) {
+            for (Flight flight : fbs.getAllFlights()) {
                 writer.println(flight.getId() + "," + flight.getFlightNumber() + "," + flight.getOrigin() + "," + flight.getDestination() + "," + flight.getDepartureDate() + "," + flight.getNumberOfSeats() + "," + flight.getPrice());
             }
         }
-        try (PrintWriter writer = new PrintWriter(new FileWriter("resources/data/bookings.txt"))) {
+        progress.accept(300 / files);
+        try (PrintWriter writer = new PrintWriter(new FileWriter(dataFile("bookings.txt")))) {
             for (Booking booking : fbs.getBookings()) {
-                writer.println(booking.getId() + "," + booking.getCustomer().getId() + "," + booking.getFlight().getId() + "," + booking.getBookingDate());
+                writer.println(BookingDataManager.toLine(booking));
             }
         }
+        progress.accept(400 / files);
+        // the waitlist file is optional, so it is only written once there is a waitlist
+        if (!fbs.getWaitlists().isEmpty() || dataFile(WaitlistDataManager.RESOURCE).isFile()) {
+            new WaitlistDataManager().storeData(fbs);
+        }
+        progress.accept(500 / files);
+        new LedgerDataManager().storeData(fbs);
+        progress.accept(100);
     }
 
     
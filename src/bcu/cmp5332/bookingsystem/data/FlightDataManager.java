@@ -1,6 +1,7 @@
 package bcu.cmp5332.bookingsystem.data;
 
 import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.model.ChangeEvent;
 import bcu.cmp5332.bookingsystem.model.Flight;
 import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
 import java.io.File;
@@ -15,7 +16,7 @@ import java.util.Scanner;
  */
 public class FlightDataManager implements DataManager {
 
-    private final String RESOURCE = "./resources/data/flights.txt";
+    private final String RESOURCE = "flights.txt";
     private final String SEPARATOR = ",";
 
     /**
@@ -26,13 +27,30 @@ public class FlightDataManager implements DataManager {
      */
     @Override
     public void loadData(FlightBookingSystem fbs) throws IOException, FlightBookingSystemException {
-        try (Scanner sc = new Scanner(new File(RESOURCE))) {
+        loadData(fbs, Tombstones.none());
+    }
+
+    /**
+     * Loads flight data from a file into the flight booking system, skipping the flights that have been deleted.
+     * @param fbs The flight booking system.
+     * @param deleted The records to skip.
+     * @throws IOException If an I/O error occurs.
+     * @throws FlightBookingSystemException If there is an error in the flight data.
+     */
+    @Override
+    public void loadData(FlightBookingSystem fbs, Tombstones deleted) throws IOException, FlightBookingSystemException {
+        try (Scanner sc = new Scanner(FlightBookingSystemData.dataFile(RESOURCE))) {
             int line_idx = 1;
             while (sc.hasNextLine()) {
                 String line = sc.nextLine();
                 String[] properties = line.split(SEPARATOR, -1);
                 try {
                     int id = Integer.parseInt(properties[0]);
+                    if (deleted.isDeleted(ChangeEvent.Entity.FLIGHT, id)) {
+                        fbs.reserveId(ChangeEvent.Entity.FLIGHT, id);
+                        line_idx++;
+                        continue;
+                    }
                     String flightNumber = properties[1];
                     String origin = properties[2];
                     String destination = properties[3];
@@ -57,7 +75,7 @@ public class FlightDataManager implements DataManager {
      */
     @Override
     public void storeData(FlightBookingSystem fbs) throws IOException {
-        try (PrintWriter out = new PrintWriter(new FileWriter(RESOURCE))) {
+        try (PrintWriter out = new PrintWriter(new FileWriter(FlightBookingSystemData.dataFile(RESOURCE)))) {
             for (Flight flight : fbs.getFlights()) {
                 out.print(flight.getId() + SEPARATOR);
                 out.print(flight.getFlightNumber() + SEPARATOR);
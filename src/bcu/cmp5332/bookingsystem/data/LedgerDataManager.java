@@ -0,0 +1,418 @@
+package bcu.cmp5332.bookingsystem.data;
+
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.metrics.Metrics;
+import bcu.cmp5332.bookingsystem.model.Booking;
+import bcu.cmp5332.bookingsystem.model.Customer;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import bcu.cmp5332.bookingsystem.model.Ledger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The LedgerDataManager class keeps the {@link Ledger} of a system in two files. The
+ * journal, "ledger.txt", is only ever appended to, one line per entry:
+ * {@code seq,customerId,kind,amount,balance,bookingId,date}. The snapshot,
+ * "ledger-snapshot.txt", holds every customer's balance as of one entry together with the
+ * length the journal had then, so loading reads the snapshot and replays only the journal
+ * lines after it. A full store writes a new snapshot, and so does an append once
+ * {@link #SNAPSHOT_INTERVAL} entries have been journaled since the last one.
+ *
+ * Data with neither file, such as a new shard, opens its ledger at the balances its
+ * bookings imply, and the first append writes the snapshot that records them.
+ *
+ * A booking change is written to the booking files first and to the journal after, in two
+ * writes that are not atomic. Loading therefore recovers from a crash between or during
+ * them: a last journal line cut short is dropped, and every balance is checked against the
+ * prices of the customer's bookings, which hold everything they were charged. A difference
+ * is posted, and journaled, as the charge or refund that never reached the journal.
+ */
+public class LedgerDataManager implements DataManager {
+
+    /**
+     * The name of the journal file.
+     */
+    public static final String JOURNAL = "ledger.txt";
+
+    /**
+     * The name of the snapshot file.
+     */
+    public static final String SNAPSHOT = "ledger-snapshot.txt";
+
+    /**
+     * The number of entries journaled between snapshots.
+     */
+    public static final int SNAPSHOT_INTERVAL = 10_000;
+
+    /**
+     * Restores every customer's balance from the snapshot and the journal lines after it,
+     * and starts the ledger recording.
+     * @param fbs The FlightBookingSystem object.
+     * @throws IOException If an I/O error occurs or a file is malformed.
+     * @throws FlightBookingSystemException If there is an error in the FlightBookingSystem.
+     */
+    @Override
+    public void loadData(FlightBookingSystem fbs) throws IOException, FlightBookingSystemException {
+        Ledger ledger = fbs.getLedger();
+        File snapshot = FlightBookingSystemData.dataFile(SNAPSHOT);
+        File journal = FlightBookingSystemData.dataFile(JOURNAL);
+        synchronized (ledger) {
+            if (!snapshot.isFile() && !journal.isFile()) {
+                // keep the balances posted while the bookings were loaded as the opening ones
+                ledger.record(ledger.getLastSeq());
+                ledger.setSnapshotSeq(-1);
+                return;
+            }
+            // the balances posted while the bookings were loaded, to check the journal against
+            Map<Integer, Integer> implied = new HashMap<>();
+            for (Customer customer : fbs.getCustomers()) {
+                implied.put(customer.getId(), customer.getBalance());
+                customer.setBalance(0);
+            }
+            long seq = 0;
+            long offset = 0;
+            if (snapshot.isFile()) {
+                try (BufferedReader reader = Files.newBufferedReader(snapshot.toPath(), StandardCharsets.UTF_8)) {
+                    String header = reader.readLine();
+                    if (header == null) {
+                        throw new IOException("Empty ledger snapshot " + snapshot);
+                    }
+                    String[] fields = header.split(SEPARATOR, -1);
+                    seq = Long.parseLong(fields[0]);
+                    offset = Long.parseLong(fields[1]);
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (line.trim().isEmpty()) {
+                            continue;
+                        }
+                        int comma = line.indexOf(',');
+                        setBalance(fbs, Integer.parseInt(line.substring(0, comma)), Integer.parseInt(line.substring(comma + 1)));
+                    }
+                } catch (NumberFormatException | ArrayIndexOutOfBoundsException | StringIndexOutOfBoundsException ex) {
+                    throw new IOException("Invalid ledger snapshot " + snapshot + ": " + ex.getMessage());
+                }
+            }
+            long snapshotSeq = seq;
+            Map<Integer, Set<Integer>> journaled = new HashMap<>();
+            if (journal.isFile()) {
+                seq = replay(fbs, journal, seq, offset, journaled);
+            }
+            ledger.record(seq);
+            ledger.setSnapshotSeq(snapshotSeq);
+            reconcile(fbs, implied, journaled);
+        }
+    }
+
+    // applies the journal lines after the snapshot, starting at the given byte offset, and
+    // notes which bookings each customer's lines were for
+    private static long replay(FlightBookingSystem fbs, File journal, long seq, long offset,
+            Map<Integer, Set<Integer>> journaled) throws IOException {
+        // every whole line ends in a line break, so anything after the last one was cut short
+        long whole = afterLastBreak(journal, journal.length());
+        if (whole < journal.length()) {
+            truncate(journal, whole);
+        }
+        long damaged = -1;
+        try (InputStream in = Files.newInputStream(journal.toPath())) {
+            skip(in, offset, journal);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                String[] fields = line.split(SEPARATOR, -1);
+                try {
+                    long entrySeq = Long.parseLong(fields[0]);
+                    if (entrySeq <= seq) {
+                        continue;
+                    }
+                    int customerId = Integer.parseInt(fields[1]);
+                    int balance = Integer.parseInt(fields[4]);
+                    int bookingId = Integer.parseInt(fields[5]);
+                    seq = entrySeq;
+                    // the journal holds running balances, so each line just sets the customer's
+                    setBalance(fbs, customerId, balance);
+                    journaled.computeIfAbsent(customerId, id -> new LinkedHashSet<>()).add(bookingId);
+                } catch (NumberFormatException | ArrayIndexOutOfBoundsException ex) {
+                    String next;
+                    do {
+                        next = reader.readLine();
+                    } while (next != null && next.trim().isEmpty());
+                    if (next != null) {
+                        throw new IOException("Invalid ledger entry in " + journal + ": " + line);
+                    }
+                    // the last line is damaged, so it was never wholly written
+                    damaged = afterLastBreak(journal, whole - 1);
+                }
+            }
+        }
+        if (damaged >= 0) {
+            // dropped, so the next append does not run on from it
+            truncate(journal, damaged);
+        }
+        return seq;
+    }
+
+    // posts, and journals, what the journal is missing for each customer whose balance is not
+    // what their bookings were charged: a booking's price includes its rebook fees, and a
+    // cancelled booking was refunded its price
+    private static void reconcile(FlightBookingSystem fbs, Map<Integer, Integer> implied,
+            Map<Integer, Set<Integer>> journaled) throws IOException {
+        Ledger ledger = fbs.getLedger();
+        for (Customer customer : fbs.getCustomers()) {
+            int missing = implied.getOrDefault(customer.getId(), 0) - customer.getBalance();
+            if (missing == 0) {
+                continue;
+            }
+            Set<Integer> seen = journaled.getOrDefault(customer.getId(), Collections.<Integer>emptySet());
+            int bookingId = 0;
+            if (missing > 0) {
+                // the charge for the newest booking with no line after the snapshot
+                for (Booking booking : customer.getBookings()) {
+                    if (!seen.contains(booking.getId())) {
+                        bookingId = Math.max(bookingId, booking.getId());
+                    }
+                }
+            } else {
+                // the refund for the last booking journaled that no longer exists
+                for (int id : seen) {
+                    if (customer.getBookingById(id) == null) {
+                        bookingId = id;
+                    }
+                }
+            }
+            ledger.post(customer, missing > 0 ? Ledger.Kind.BOOKING : Ledger.Kind.REFUND, missing, bookingId,
+                    fbs.getSystemDate());
+            System.err.println("Posted " + missing + " to customer " + customer.getId() + " for booking " + bookingId
+                    + ", which " + JOURNAL + " was missing");
+        }
+        writeEntries(ledger.drain());
+    }
+
+    // the position just after the last line break before the given position, or 0 if there is none
+    private static long afterLastBreak(File journal, long before) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(journal, "r")) {
+            for (long at = before - 1; at >= 0; at--) {
+                file.seek(at);
+                if (file.read() == '\n') {
+                    return at + 1;
+                }
+            }
+            return 0;
+        }
+    }
+
+    private static void truncate(File journal, long length) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(journal, "rw")) {
+            System.err.println("Dropped the last line of " + journal + ", which was cut short: "
+                    + (file.length() - length) + " byte(s)");
+            file.setLength(length);
+        }
+    }
+
+    private static void skip(InputStream in, long offset, File journal) throws IOException {
+        long skipped = 0;
+        while (skipped < offset) {
+            long n = in.skip(offset - skipped);
+            if (n <= 0) {
+                throw new IOException(journal + " is shorter than its snapshot says");
+            }
+            skipped += n;
+        }
+    }
+
+    private static void setBalance(FlightBookingSystem fbs, int customerId, int balance) {
+        try {
+            fbs.getCustomerByID(customerId).setBalance(balance);
+        } catch (FlightBookingSystemException ex) {
+            // the customer has been deleted since
+        }
+    }
+
+    /**
+     * Appends the entries posted since the last append to the journal and writes a new
+     * snapshot of every balance.
+     * @param fbs The FlightBookingSystem object.
+     * @throws IOException If an I/O error occurs.
+     */
+    @Override
+    public void storeData(FlightBookingSystem fbs) throws IOException {
+        Ledger ledger = fbs.getLedger();
+        synchronized (ledger) {
+            if (!ledger.isRecording()) {
+                ledger.record(ledger.getLastSeq());
+            }
+            writeEntries(ledger.drain());
+            writeSnapshot(fbs, ledger.getLastSeq());
+        }
+    }
+
+    /**
+     * Appends the entries posted since the last append to the journal of the current data
+     * directory in one write, then writes a snapshot if one is due.
+     *
+     * @param fbs The FlightBookingSystem object.
+     * @throws IOException If the files cannot be written.
+     */
+    public static void append(FlightBookingSystem fbs) throws IOException {
+        Ledger ledger = fbs.getLedger();
+        synchronized (ledger) {
+            List<Ledger.Entry> entries = ledger.drain();
+            if (entries.isEmpty()) {
+                return;
+            }
+            writeEntries(entries);
+            if (ledger.getSnapshotSeq() < 0 || ledger.getLastSeq() - ledger.getSnapshotSeq() >= SNAPSHOT_INTERVAL
+                    || !FlightBookingSystemData.dataFile(SNAPSHOT).isFile()) {
+                writeSnapshot(fbs, ledger.getLastSeq());
+            }
+        }
+    }
+
+    /**
+     * Reads the entries of one customer from the journal of the current data directory. The
+     * ledger keeps where each customer's lines start, so only the lines appended since the
+     * last read are scanned and only the customer's own lines are parsed.
+     *
+     * @param fbs        The FlightBookingSystem object.
+     * @param customerId The ID of the customer.
+     * @return The customer's entries, oldest first, empty if there is no journal.
+     * @throws IOException If the journal cannot be read or is malformed.
+     */
+    public static List<Ledger.Entry> readJournal(FlightBookingSystem fbs, int customerId) throws IOException {
+        List<Ledger.Entry> entries = new ArrayList<>();
+        File journal = FlightBookingSystemData.dataFile(JOURNAL);
+        if (!journal.isFile()) {
+            return entries;
+        }
+        Ledger ledger = fbs.getLedger();
+        synchronized (ledger) {
+            index(ledger, journal);
+            long[] offsets = ledger.getJournalLines(customerId);
+            if (offsets.length == 0) {
+                return entries;
+            }
+            try (RandomAccessFile file = new RandomAccessFile(journal, "r")) {
+                for (long offset : offsets) {
+                    file.seek(offset);
+                    String line = file.readLine();
+                    String[] fields = line.split(SEPARATOR, -1);
+                    entries.add(new Ledger.Entry(Long.parseLong(fields[0]), customerId,
+                            Ledger.Kind.valueOf(fields[2].toUpperCase(Locale.ROOT)), Integer.parseInt(fields[3]),
+                            Integer.parseInt(fields[4]), Integer.parseInt(fields[5]), LocalDate.parse(fields[6])));
+                }
+            } catch (RuntimeException ex) {
+                throw new IOException("Invalid ledger entry in " + journal + ": " + ex.getMessage());
+            }
+        }
+        return entries;
+    }
+
+    // notes where each customer's lines start in the part of the journal not yet indexed;
+    // a line still being written is left for the next call
+    private static void index(Ledger ledger, File journal) throws IOException {
+        long length = journal.length();
+        long offset = ledger.getIndexedLength();
+        if (offset > length) {
+            // the journal was replaced, as by switching data directories
+            ledger.clearJournalIndex();
+            offset = 0;
+        }
+        if (offset == length) {
+            return;
+        }
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(journal.toPath()))) {
+            skip(in, offset, journal);
+            long lineStart = offset;
+            int field = 0;
+            int customerId = 0;
+            int b;
+            while ((b = in.read()) >= 0) {
+                offset++;
+                if (b == '\n') {
+                    if (field > 1) {
+                        ledger.indexJournalLine(customerId, lineStart);
+                    }
+                    lineStart = offset;
+                    field = 0;
+                    customerId = 0;
+                } else if (b == ',') {
+                    field++;
+                } else if (field == 1 && b >= '0' && b <= '9') {
+                    customerId = customerId * 10 + (b - '0');
+                }
+            }
+            ledger.setIndexedLength(lineStart);
+        }
+    }
+
+    private static void writeEntries(List<Ledger.Entry> entries) throws IOException {
+        if (entries.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        StringBuilder lines = new StringBuilder(entries.size() * 48);
+        for (Ledger.Entry entry : entries) {
+            lines.append(entry.getSeq()).append(SEPARATOR).append(entry.getCustomerId())
+                    .append(SEPARATOR).append(entry.getKind().name().toLowerCase(Locale.ROOT))
+                    .append(SEPARATOR).append(entry.getAmount()).append(SEPARATOR).append(entry.getBalance())
+                    .append(SEPARATOR).append(entry.getBookingId()).append(SEPARATOR).append(entry.getDate())
+                    .append(System.lineSeparator());
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(FlightBookingSystemData.dataFile(JOURNAL).toPath(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writer.write(lines.toString());
+            failed = false;
+        } finally {
+            Metrics.record("store.ledger", start, failed);
+        }
+    }
+
+    // written beside the old snapshot and moved over it, so a crash leaves one or the other
+    private static void writeSnapshot(FlightBookingSystem fbs, long seq) throws IOException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        File journal = FlightBookingSystemData.dataFile(JOURNAL);
+        File snapshot = FlightBookingSystemData.dataFile(SNAPSHOT);
+        File temp = FlightBookingSystemData.dataFile(SNAPSHOT + ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(temp.toPath(), StandardCharsets.UTF_8)) {
+                writer.write(seq + SEPARATOR + (journal.isFile() ? journal.length() : 0));
+                writer.newLine();
+                for (Customer customer : fbs.getCustomers()) {
+                    if (customer.getBalance() != 0) {
+                        writer.write(customer.getId() + SEPARATOR + customer.getBalance());
+                        writer.newLine();
+                    }
+                }
+            }
+            Files.move(temp.toPath(), snapshot.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            fbs.getLedger().setSnapshotSeq(seq);
+            failed = false;
+        } finally {
+            Metrics.record("store.ledger.snapshot", start, failed);
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package bcu.cmp5332.bookingsystem.data;
+
+import bcu.cmp5332.bookingsystem.metrics.Metrics;
+import bcu.cmp5332.bookingsystem.model.Booking;
+import bcu.cmp5332.bookingsystem.model.Customer;
+import bcu.cmp5332.bookingsystem.model.Flight;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import bcu.cmp5332.bookingsystem.model.SeatMap;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The ManifestWriter class writes passenger manifests, one row per booking, straight to a
+ * channel. It walks a flight's live bookings rather than a copy, renders each row into one
+ * reused builder and encodes it into one reused buffer, so a manifest of any size is written
+ * in constant memory. Rows come in no particular order.
+ *
+ * Manifests are CSV, with a header row and fields quoted where needed, or fixed-width text,
+ * where every field is padded or cut to its column. Both hold the flight, the booking, its
+ * seat if it has one and the passenger's contact details:
+ * <pre>
+ * flight_id,flight_number,departure_date,origin,destination,booking_id,booking_date,price,seat,customer_id,name,phone,email
+ * </pre>
+ * {@link #exportDay} writes the manifests of every flight departing on a day, one file per
+ * flight, on several threads. Each export is recorded under "manifest.flight".
+ */
+public class ManifestWriter implements Closeable {
+
+    /**
+     * The layouts a manifest can be written in.
+     */
+    public enum Format {
+        CSV("csv"), FIXED("txt");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        /**
+         * Returns the file extension of manifests in this format.
+         *
+         * @return The extension, without the dot.
+         */
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private static final String[] COLUMNS = {"flight_id", "flight_number", "departure_date", "origin", "destination",
+        "booking_id", "booking_date", "price", "seat", "customer_id", "name", "phone", "email"};
+    private static final int[] WIDTHS = {9, 10, 14, 12, 12, 10, 12, 8, 5, 11, 30, 16, 40};
+
+    private final WritableByteChannel channel;
+    private final Format format;
+    private final StringBuilder row = new StringBuilder(256);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+    private boolean headerWritten;
+    private long rows;
+    private long bytes;
+
+    /**
+     * Constructs a writer. The channel is closed with the writer.
+     *
+     * @param channel Where to write.
+     * @param format  The layout of the rows.
+     */
+    public ManifestWriter(WritableByteChannel channel, Format format) {
+        this.channel = channel;
+        this.format = format;
+    }
+
+    /**
+     * Writes a row for every booking on a flight, preceded by the header row if it is the
+     * first flight written.
+     *
+     * @param flight The flight.
+     * @return The number of rows written for the flight.
+     * @throws IOException If the channel cannot be written.
+     */
+    public int write(Flight flight) throws IOException {
+        if (!headerWritten) {
+            writeHeader();
+        }
+        int written = 0;
+        for (Booking booking : flight.getBookingView()) {
+            Customer customer = booking.getCustomer();
+            row.setLength(0);
+            field(0, Integer.toString(flight.getId()));
+            field(1, flight.getFlightNumber());
+            field(2, flight.getDepartureDate().toString());
+            field(3, flight.getOrigin());
+            field(4, flight.getDestination());
+            field(5, Integer.toString(booking.getId()));
+            field(6, booking.getBookingDate().toString());
+            field(7, Integer.toString(booking.getPrice()));
+            field(8, SeatMap.label(booking.getSeat()));
+            field(9, Integer.toString(customer.getId()));
+            field(10, customer.getName());
+            field(11, customer.getPhone());
+            field(12, customer.getEmail());
+            emitRow();
+            written++;
+        }
+        return written;
+    }
+
+    /**
+     * Returns the number of booking rows written so far.
+     *
+     * @return The number of rows, not counting the header.
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * Returns the number of bytes written so far, including any still buffered.
+     *
+     * @return The number of bytes.
+     */
+    public long getBytes() {
+        return bytes + buffer.position();
+    }
+
+    /**
+     * Writes out the buffered rows.
+     *
+     * @throws IOException If the channel cannot be written.
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            bytes += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes the manifest of every flight departing on a day into a directory, one file per
+     * flight named after its number and date, such as "FB1000-2024-05-01.csv". The files are
+     * written in parallel.
+     *
+     * @param fbs       The system.
+     * @param date      The departure date.
+     * @param directory The directory to write into. It is created if needed.
+     * @param format    The layout of the manifests.
+     * @param threads   The number of manifests to write at once.
+     * @return The files written, in flight ID order.
+     * @throws IOException If a manifest cannot be written.
+     */
+    public static List<File> exportDay(FlightBookingSystem fbs, LocalDate date, File directory, Format format, int threads)
+            throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        List<Flight> departures = new ArrayList<>();
+        for (Flight flight : fbs.getAllFlights()) {
+            if (flight.getDepartureDate().equals(date)) {
+                departures.add(flight);
+            }
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "manifest-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<File>> pending = new ArrayList<>(departures.size());
+            for (Flight flight : departures) {
+                File file = new File(directory, flight.getFlightNumber() + "-" + date + "." + format.getExtension());
+                pending.add(pool.submit(() -> {
+                    writeFile(flight, file, format);
+                    return file;
+                }));
+            }
+            List<File> files = new ArrayList<>(pending.size());
+            for (Future<File> future : pending) {
+                files.add(future.get());
+            }
+            return files;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing manifests");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof IOException) {
+                throw (IOException) ex.getCause();
+            }
+            throw new IOException("Cannot write a manifest: " + ex.getCause(), ex.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Writes the manifest of one flight to a file, replacing it.
+     *
+     * @param flight The flight.
+     * @param file   The file.
+     * @param format The layout of the manifest.
+     * @return The number of booking rows written.
+     * @throws IOException If the file cannot be written.
+     */
+    public static int writeFile(Flight flight, File file, Format format) throws IOException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try (ManifestWriter writer = new ManifestWriter(FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING), format)) {
+            int written = writer.write(flight);
+            failed = false;
+            return written;
+        } finally {
+            Metrics.record("manifest.flight", start, failed);
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        row.setLength(0);
+        for (int i = 0; i < COLUMNS.length; i++) {
+            field(i, COLUMNS[i]);
+        }
+        emitRow();
+        rows--;
+        headerWritten = true;
+    }
+
+    private void field(int column, String value) {
+        if (value == null) {
+            value = "";
+        }
+        if (format == Format.CSV) {
+            if (column > 0) {
+                row.append(',');
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                row.append(value);
+                return;
+            }
+            row.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    row.append('"');
+                }
+                row.append(c);
+            }
+            row.append('"');
+            return;
+        }
+        // fixed width: every column is cut or padded to its width, with a space between
+        int width = WIDTHS[column];
+        int length = Math.min(width, value.length());
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            row.append(c == '\n' || c == '\r' ? ' ' : c);
+        }
+        if (column < WIDTHS.length - 1) {
+            for (int i = length; i <= width; i++) {
+                row.append(' ');
+            }
+        }
+    }
+
+    private void emitRow() throws IOException {
+        row.append('\n');
+        CharBuffer chars = CharBuffer.wrap(row);
+        encoder.reset();
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, true);
+            if (result.isOverflow()) {
+                flush();
+            } else if (result.isUnderflow()) {
+                break;
+            } else {
+                result.throwException();
+            }
+        }
+        rows++;
+    }
+}
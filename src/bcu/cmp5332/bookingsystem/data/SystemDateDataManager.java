@@ -0,0 +1,68 @@
+package bcu.cmp5332.bookingsystem.data;
+
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * The SystemDateDataManager class keeps the system date, as moved on by
+ * {@link FlightBookingSystem#advanceDays(int)}, in a file of one line. The file is optional.
+ * It is loaded before the flights, so they are indexed at the saved date, and a saved date
+ * only ever moves the clock's date forward, as the date itself does.
+ */
+public class SystemDateDataManager implements DataManager {
+
+    /**
+     * The name of the file the system date is kept in.
+     */
+    public static final String RESOURCE = "date.txt";
+
+    /**
+     * Moves the system on to the saved date, if there is one and it is after the system date.
+     * @param fbs The FlightBookingSystem object.
+     * @throws IOException If an I/O error occurs or the file does not hold a date.
+     * @throws FlightBookingSystemException If there is an error in the FlightBookingSystem.
+     */
+    @Override
+    public void loadData(FlightBookingSystem fbs) throws IOException, FlightBookingSystemException {
+        File file = FlightBookingSystemData.dataFile(RESOURCE);
+        if (!file.isFile()) {
+            return;
+        }
+        String text = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).trim();
+        if (text.isEmpty()) {
+            return;
+        }
+        LocalDate saved;
+        try {
+            saved = LocalDate.parse(text);
+        } catch (DateTimeParseException ex) {
+            throw new IOException("Invalid system date in " + file + ": " + text);
+        }
+        long days = ChronoUnit.DAYS.between(fbs.getSystemDate(), saved);
+        if (days > 0) {
+            fbs.advanceDays((int) days);
+        }
+    }
+
+    /**
+     * Writes the system date to the file.
+     * @param fbs The FlightBookingSystem object.
+     * @throws IOException If an I/O error occurs.
+     */
+    @Override
+    public void storeData(FlightBookingSystem fbs) throws IOException {
+        try (PrintWriter out = new PrintWriter(new FileWriter(FlightBookingSystemData.dataFile(RESOURCE)))) {
+            out.println(fbs.getSystemDate());
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package bcu.cmp5332.bookingsystem.data;
+
+import bcu.cmp5332.bookingsystem.metrics.Metrics;
+import bcu.cmp5332.bookingsystem.model.Booking;
+import bcu.cmp5332.bookingsystem.model.ChangeEvent;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The Tombstones class records deletions without rewriting the data files. Deleting a
+ * flight, a customer or a booking appends one line per deleted record to "tombstones.txt",
+ * such as {@code booking,12}, and loading skips the records named there. A full store
+ * writes the data files without the deleted records and so removes the tombstones.
+ *
+ * The IDs of deleted records are still reserved when loading, so a record added later never
+ * reuses an ID that a tombstone names.
+ */
+public class Tombstones {
+
+    /**
+     * The name of the file the tombstones are kept in.
+     */
+    public static final String FILE = "tombstones.txt";
+
+    private final Map<ChangeEvent.Entity, Set<Integer>> deleted = new EnumMap<>(ChangeEvent.Entity.class);
+
+    private Tombstones() {
+        for (ChangeEvent.Entity entity : ChangeEvent.Entity.values()) {
+            deleted.put(entity, new HashSet<>());
+        }
+    }
+
+    /**
+     * Returns a set of tombstones that names no records.
+     *
+     * @return The empty set.
+     */
+    public static Tombstones none() {
+        return new Tombstones();
+    }
+
+    /**
+     * Reads the tombstones kept in a data directory.
+     *
+     * @param directory The data directory.
+     * @return The tombstones, empty if there is no tombstone file.
+     * @throws IOException If the file cannot be read or names an unknown kind of record.
+     */
+    public static Tombstones read(File directory) throws IOException {
+        Tombstones tombstones = new Tombstones();
+        File file = new File(directory, FILE);
+        if (!file.isFile()) {
+            return tombstones;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                int comma = line.indexOf(',');
+                try {
+                    ChangeEvent.Entity entity = ChangeEvent.Entity.valueOf(line.substring(0, Math.max(0, comma)).trim().toUpperCase(Locale.ROOT));
+                    tombstones.deleted.get(entity).add(Integer.parseInt(line.substring(comma + 1).trim()));
+                } catch (IllegalArgumentException ex) {
+                    throw new IOException("Invalid tombstone in " + file + ": " + line);
+                }
+            }
+        }
+        return tombstones;
+    }
+
+    /**
+     * Checks whether a record has been deleted.
+     *
+     * @param entity The kind of record.
+     * @param id     The record's ID.
+     * @return True if a tombstone names the record, otherwise false.
+     */
+    public boolean isDeleted(ChangeEvent.Entity entity, int id) {
+        return deleted.get(entity).contains(id);
+    }
+
+    /**
+     * Returns the number of records the tombstones name.
+     *
+     * @return The number of deleted records.
+     */
+    public int size() {
+        int size = 0;
+        for (Set<Integer> ids : deleted.values()) {
+            size += ids.size();
+        }
+        return size;
+    }
+
+    /**
+     * Appends the tombstones of a deleted record and of the bookings deleted with it to the
+     * current data directory, in one write.
+     *
+     * @param entity   The kind of record deleted.
+     * @param id       The record's ID.
+     * @param bookings The bookings deleted along with it, if any.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void append(ChangeEvent.Entity entity, int id, Collection<Booking> bookings) throws IOException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        StringBuilder lines = new StringBuilder();
+        for (Booking booking : bookings) {
+            line(lines, ChangeEvent.Entity.BOOKING, booking.getId());
+        }
+        line(lines, entity, id);
+        try (BufferedWriter writer = Files.newBufferedWriter(FlightBookingSystemData.dataFile(FILE).toPath(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writer.write(lines.toString());
+            failed = false;
+        } finally {
+            Metrics.record("store.tombstones", start, failed);
+        }
+    }
+
+    /**
+     * Removes the tombstone file of the current data directory, once the data files no longer
+     * hold the deleted records.
+     *
+     * @throws IOException If the file cannot be removed.
+     */
+    static void clear() throws IOException {
+        Files.deleteIfExists(FlightBookingSystemData.dataFile(FILE).toPath());
+    }
+
+    private static void line(StringBuilder lines, ChangeEvent.Entity entity, int id) {
+        lines.append(entity.name().toLowerCase(Locale.ROOT)).append(',').append(id).append(System.lineSeparator());
+    }
+}
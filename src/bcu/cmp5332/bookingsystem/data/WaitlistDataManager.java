@@ -0,0 +1,79 @@
+package bcu.cmp5332.bookingsystem.data;
+
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.model.Customer;
+import bcu.cmp5332.bookingsystem.model.Flight;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import bcu.cmp5332.bookingsystem.model.Waitlist;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.LocalDate;
+import java.util.Scanner;
+
+/**
+ * The WaitlistDataManager class loads and stores the waitlists of sold-out flights, one
+ * line per waiting customer: entry ID, customer ID, flight ID, loyalty tier and the date
+ * they joined. The file is optional, and it is small enough to be rewritten whenever a
+ * waitlist changes.
+ */
+public class WaitlistDataManager implements DataManager {
+
+    /**
+     * The name of the file the waitlists are kept in.
+     */
+    public static final String RESOURCE = "waitlist.txt";
+
+    /**
+     * Loads the waitlists from the file, if there is one.
+     * @param fbs The FlightBookingSystem object.
+     * @throws IOException If an I/O error occurs.
+     * @throws FlightBookingSystemException If there is an error in the FlightBookingSystem.
+     */
+    @Override
+    public void loadData(FlightBookingSystem fbs) throws IOException, FlightBookingSystemException {
+        File file = FlightBookingSystemData.dataFile(RESOURCE);
+        if (!file.isFile()) {
+            return;
+        }
+        try (Scanner sc = new Scanner(file)) {
+            while (sc.hasNextLine()) {
+                String line = sc.nextLine();
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                String[] properties = line.split(SEPARATOR, -1);
+                Customer customer;
+                Flight flight;
+                try {
+                    customer = fbs.getCustomerByID(Integer.parseInt(properties[1]));
+                    flight = fbs.getFlightByID(Integer.parseInt(properties[2]));
+                } catch (FlightBookingSystemException ex) {
+                    // the customer or flight has been deleted since the file was written
+                    continue;
+                }
+                fbs.addWaitlistEntry(new Waitlist.Entry(Integer.parseInt(properties[0]), customer, flight,
+                        Integer.parseInt(properties[3]), LocalDate.parse(properties[4])));
+            }
+        }
+    }
+
+    /**
+     * Writes every waitlist to the file, each in the order it will be served.
+     * @param fbs The FlightBookingSystem object.
+     * @throws IOException If an I/O error occurs.
+     */
+    @Override
+    public void storeData(FlightBookingSystem fbs) throws IOException {
+        try (PrintWriter out = new PrintWriter(new FileWriter(FlightBookingSystemData.dataFile(RESOURCE)))) {
+            for (Waitlist waitlist : fbs.getWaitlists()) {
+                for (Waitlist.Entry entry : waitlist.snapshot()) {
+                    out.println(entry.getId() + SEPARATOR + entry.getCustomer().getId() + SEPARATOR + entry.getFlight().getId()
+                            + SEPARATOR + entry.getTier() + SEPARATOR + entry.getRequestedOn());
+                }
+            }
+        }
+    }
+}
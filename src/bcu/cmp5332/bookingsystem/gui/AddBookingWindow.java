@@ -2,6 +2,7 @@ package bcu.cmp5332.bookingsystem.gui;
 
 import bcu.cmp5332.bookingsystem.commands.AddBooking;
 import bcu.cmp5332.bookingsystem.commands.Command;
+import bcu.cmp5332.bookingsystem.metrics.TimedCommand;
 import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
 import bcu.cmp5332.bookingsystem.model.Customer;
 import bcu.cmp5332.bookingsystem.model.Flight;
@@ -11,7 +12,6 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.time.LocalDate;
 
 /**
  * Represents a window for adding a new booking to the flight booking system.
@@ -103,19 +103,21 @@ public class AddBookingWindow extends JFrame implements ActionListener {
                 throw new FlightBookingSystemException("Customer ID and Flight ID must be positive integers.");
             }
 
-            Customer customer = fbs.getCustomerByID(customerId);
-            Flight flight = fbs.getFlightByID(flightId);
-
-            if (customer == null || flight == null) {
-                throw new FlightBookingSystemException("Customer or Flight not found.");
-            }
-           
-
-            Command addBooking = new AddBooking(customerId, flightId, LocalDate.now());
-            addBooking.execute(fbs);
-
-            JOptionPane.showMessageDialog(this, "Booking added successfully.");
-            clearFields();
+            mw.getTaskRunner().submit(this, "Adding booking", progress -> {
+                Customer customer = fbs.getCustomerByID(customerId);
+                Flight flight = fbs.getFlightByID(flightId);
+
+                if (customer == null || flight == null) {
+                    throw new FlightBookingSystemException("Customer or Flight not found.");
+                }
+
+                Command addBooking = new TimedCommand(new AddBooking(customerId, flightId, fbs.getSystemDate()));
+                addBooking.execute(fbs);
+                return null;
+            }, result -> {
+                JOptionPane.showMessageDialog(this, "Booking added successfully.");
+                clearFields();
+            });
         } catch (NumberFormatException nfe) {
             JOptionPane.showMessageDialog(this, "Invalid number format. Please enter a valid number.", "Error", JOptionPane.ERROR_MESSAGE);
         } catch (FlightBookingSystemException ex) {
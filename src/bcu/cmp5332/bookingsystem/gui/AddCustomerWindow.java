@@ -2,7 +2,7 @@ package bcu.cmp5332.bookingsystem.gui;
 
 import bcu.cmp5332.bookingsystem.commands.AddCustomer;
 import bcu.cmp5332.bookingsystem.commands.Command;
-import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.metrics.TimedCommand;
 import java.awt.BorderLayout;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
@@ -102,20 +102,20 @@ public class AddCustomerWindow extends JFrame implements ActionListener {
      * Adds a new customer to the flight booking system based on the user input.
      */
     private void addCustomer() {
-        try {
-            String name = nameText.getText();
-            String phone = phoneText.getText();
-            String email = emailText.getText();
-            // create and execute the AddCustomer Command
-            Command addCustomer = new AddCustomer(name, phone, email);
+        String name = nameText.getText();
+        String phone = phoneText.getText();
+        String email = emailText.getText();
+        // create the AddCustomer Command and execute it in the background
+        Command addCustomer = new TimedCommand(new AddCustomer(name, phone, email));
+        mw.getTaskRunner().submit(this, "Adding customer", progress -> {
             addCustomer.execute(mw.getFlightBookingSystem());
+            return null;
+        }, result -> {
             // refresh the view with the list of customers
             mw.displayCustomers();
             // hide (close) the AddCustomerWindow
             this.setVisible(false);
-        } catch (FlightBookingSystemException ex) {
-            JOptionPane.showMessageDialog(this, ex, "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        });
     }
 
 }
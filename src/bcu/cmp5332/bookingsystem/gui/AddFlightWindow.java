@@ -2,6 +2,7 @@ package bcu.cmp5332.bookingsystem.gui;
 
 import bcu.cmp5332.bookingsystem.commands.AddFlight;
 import bcu.cmp5332.bookingsystem.commands.Command;
+import bcu.cmp5332.bookingsystem.metrics.TimedCommand;
 import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
 
 import javax.swing.*;
@@ -121,15 +122,18 @@ public class AddFlightWindow extends JFrame implements ActionListener {
                 throw new FlightBookingSystemException("Number of Seats and Price must be positive integers.");
             }
 
-            if (departureDate.isBefore(LocalDate.now())) {
+            if (departureDate.isBefore(mw.getFlightBookingSystem().getSystemDate())) {
                 throw new FlightBookingSystemException("Departure Date must be in the future.");
             }
 
-            Command addFlight = new AddFlight(flightNumber, origin, destination, departureDate, numberOfSeats, price);
-            addFlight.execute(mw.getFlightBookingSystem());
-
-            JOptionPane.showMessageDialog(this, "Flight added successfully.");
-            clearFields();
+            Command addFlight = new TimedCommand(new AddFlight(flightNumber, origin, destination, departureDate, numberOfSeats, price));
+            mw.getTaskRunner().submit(this, "Adding flight " + flightNumber, progress -> {
+                addFlight.execute(mw.getFlightBookingSystem());
+                return null;
+            }, result -> {
+                JOptionPane.showMessageDialog(this, "Flight added successfully.");
+                clearFields();
+            });
         } catch (DateTimeParseException dtpe) {
             JOptionPane.showMessageDialog(this, "Invalid date format. Please use YYYY-MM-DD.", "Error", JOptionPane.ERROR_MESSAGE);
         } catch (NumberFormatException nfe) {
@@ -0,0 +1,235 @@
+package bcu.cmp5332.bookingsystem.gui;
+
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+
+import java.awt.BorderLayout;
+import java.awt.Component;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.swing.JButton;
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.SwingWorker;
+
+/**
+ * The BackgroundTaskRunner class runs the GUI's work on the FlightBookingSystem off the
+ * Event Dispatch Thread. Tasks run one at a time on a single worker thread, so mutations
+ * reach the system in the order the user asked for them, and their results and errors
+ * are handed back on the Event Dispatch Thread.
+ *
+ * The runner owns a status bar showing the running task, its progress and a button that
+ * cancels everything still outstanding. Queued tasks are dropped before they start, but the
+ * running task is never interrupted, since it may be changing the system or writing its
+ * files: it is only asked to stop, and stops if it checks {@link TaskProgress#isCancelled()}
+ * at a point where it is safe to.
+ */
+public class BackgroundTaskRunner {
+
+    /**
+     * A piece of work to run off the Event Dispatch Thread.
+     *
+     * @param <T> The type of the result.
+     */
+    public interface Task<T> {
+
+        /**
+         * Runs the work.
+         *
+         * @param progress Where to report progress and check for cancellation.
+         * @return The result handed to the success handler.
+         * @throws Exception If the work fails. A FlightBookingSystemException is shown
+         *                   to the user as a plain message.
+         */
+        T run(TaskProgress progress) throws Exception;
+    }
+
+    /**
+     * Lets a running task report progress and notice cancellation.
+     */
+    public interface TaskProgress {
+
+        /**
+         * Reports how far the task has got.
+         *
+         * @param percent A value from 0 to 100.
+         */
+        void update(int percent);
+
+        /**
+         * Checks whether the user has cancelled the task. A task that stops because of it
+         * throws a {@link CancellationException}, after undoing anything half done.
+         *
+         * @return True if the task should stop, otherwise false.
+         */
+        boolean isCancelled();
+    }
+
+    /**
+     * Receives the result of a task on the Event Dispatch Thread.
+     *
+     * @param <T> The type of the result.
+     */
+    public interface ResultHandler<T> {
+        void done(T result);
+    }
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "booking-gui-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final List<Worker<?>> outstanding = new ArrayList<>();
+
+    private final JPanel statusBar = new JPanel(new BorderLayout(8, 0));
+    private final JLabel statusLabel = new JLabel("Ready");
+    private final JProgressBar progressBar = new JProgressBar(0, 100);
+    private final JButton cancelBtn = new JButton("Cancel");
+
+    /**
+     * Constructs a runner with an idle status bar.
+     */
+    public BackgroundTaskRunner() {
+        progressBar.setVisible(false);
+        cancelBtn.setEnabled(false);
+        cancelBtn.addActionListener(e -> cancelAll());
+        statusBar.add(statusLabel, BorderLayout.CENTER);
+        statusBar.add(progressBar, BorderLayout.EAST);
+        statusBar.add(cancelBtn, BorderLayout.WEST);
+    }
+
+    /**
+     * Returns the status bar showing the runner's tasks.
+     *
+     * @return The status bar component.
+     */
+    public JComponent getStatusBar() {
+        return statusBar;
+    }
+
+    /**
+     * Queues a task. Must be called on the Event Dispatch Thread.
+     *
+     * @param owner The component error messages are shown over.
+     * @param description A short description shown while the task runs.
+     * @param task The work to run.
+     * @param onSuccess Called on the Event Dispatch Thread with the result, unless the task
+     *                  fails or is cancelled. May be null.
+     * @param <T> The type of the result.
+     */
+    public <T> void submit(Component owner, String description, Task<T> task, ResultHandler<T> onSuccess) {
+        Worker<T> worker = new Worker<>(owner, description, task, onSuccess);
+        outstanding.add(worker);
+        refreshStatus();
+        executor.execute(worker);
+    }
+
+    /**
+     * Drops every queued task and asks the running one to stop.
+     */
+    public void cancelAll() {
+        for (Worker<?> worker : new ArrayList<>(outstanding)) {
+            // whichever of this and the worker thread marks the worker started first decides
+            // whether the task is dropped or left to stop by itself
+            if (worker.started.compareAndSet(false, true)) {
+                worker.cancel(false);
+            } else {
+                worker.stopRequested = true;
+                statusLabel.setText(worker.description + "... cancelling");
+            }
+        }
+    }
+
+    private void refreshStatus() {
+        if (outstanding.isEmpty()) {
+            statusLabel.setText("Ready");
+            progressBar.setVisible(false);
+            cancelBtn.setEnabled(false);
+            return;
+        }
+        Worker<?> current = outstanding.get(0);
+        String queued = outstanding.size() > 1 ? " (" + (outstanding.size() - 1) + " queued)" : "";
+        statusLabel.setText(current.description + "..." + queued);
+        progressBar.setIndeterminate(current.getProgress() == 0);
+        progressBar.setValue(current.getProgress());
+        progressBar.setVisible(true);
+        cancelBtn.setEnabled(true);
+    }
+
+    private class Worker<T> extends SwingWorker<T, Void> {
+
+        private final Component owner;
+        private final String description;
+        private final Task<T> task;
+        private final ResultHandler<T> onSuccess;
+        private final AtomicBoolean started = new AtomicBoolean();
+        private volatile boolean stopRequested;
+        private final TaskProgress progress = new TaskProgress() {
+            @Override
+            public void update(int percent) {
+                setProgress(Math.max(0, Math.min(100, percent)));
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return stopRequested;
+            }
+        };
+
+        Worker(Component owner, String description, Task<T> task, ResultHandler<T> onSuccess) {
+            this.owner = owner;
+            this.description = description;
+            this.task = task;
+            this.onSuccess = onSuccess;
+            addPropertyChangeListener(event -> {
+                if ("progress".equals(event.getPropertyName())) {
+                    refreshStatus();
+                }
+            });
+        }
+
+        @Override
+        protected T doInBackground() throws Exception {
+            if (!started.compareAndSet(false, true)) {
+                throw new CancellationException();
+            }
+            return task.run(progress);
+        }
+
+        @Override
+        protected void done() {
+            outstanding.remove(this);
+            refreshStatus();
+            if (isCancelled()) {
+                statusLabel.setText(description + " cancelled.");
+                return;
+            }
+            T result;
+            try {
+                result = get();
+            } catch (CancellationException | InterruptedException ex) {
+                return;
+            } catch (ExecutionException ex) {
+                Throwable cause = ex.getCause();
+                if (cause instanceof CancellationException) {
+                    statusLabel.setText(description + " cancelled.");
+                    return;
+                }
+                Object message = cause instanceof FlightBookingSystemException ? cause.getMessage() : cause;
+                JOptionPane.showMessageDialog(owner, message, "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            if (onSuccess != null) {
+                onSuccess.done(result);
+            }
+        }
+    }
+}
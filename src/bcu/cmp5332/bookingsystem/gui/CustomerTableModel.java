@@ -0,0 +1,58 @@
+package bcu.cmp5332.bookingsystem.gui;
+
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.model.ChangeEvent;
+import bcu.cmp5332.bookingsystem.model.Customer;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+
+/**
+ * The CustomerTableModel class shows the customers of a FlightBookingSystem, reading
+ * each row from the customer store only when it is displayed and updating rows as
+ * customers are added and deleted.
+ */
+public class CustomerTableModel extends LazyTableModel<Customer> {
+
+    private static final String[] COLUMNS = {"ID", "Name", "Phone", "Email"};
+
+    /**
+     * Constructs a model over the current customers of the system.
+     * @param fbs The FlightBookingSystem object.
+     */
+    public CustomerTableModel(FlightBookingSystem fbs) {
+        super(fbs, ChangeEvent.Entity.CUSTOMER, COLUMNS);
+    }
+
+    @Override
+    protected int[] loadIds() {
+        return fbs.getCustomerIds();
+    }
+
+    @Override
+    protected Customer load(int id) throws FlightBookingSystemException {
+        return fbs.getCustomerByID(id);
+    }
+
+    @Override
+    protected boolean hasLongKey(int column) {
+        return column == 0;
+    }
+
+    @Override
+    protected long longKey(Customer customer, int column) {
+        return customer.getId();
+    }
+
+    @Override
+    protected Object columnValue(Customer customer, int column) {
+        switch (column) {
+            case 0:
+                return customer.getId();
+            case 1:
+                return customer.getName();
+            case 2:
+                return customer.getPhone();
+            default:
+                return customer.getEmail();
+        }
+    }
+}
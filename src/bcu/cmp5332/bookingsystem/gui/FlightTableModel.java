@@ -0,0 +1,74 @@
+package bcu.cmp5332.bookingsystem.gui;
+
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.model.ChangeEvent;
+import bcu.cmp5332.bookingsystem.model.Flight;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+
+/**
+ * The FlightTableModel class shows the flights of a FlightBookingSystem that have not
+ * departed, reading each row from the system only when it is displayed and updating
+ * rows as flights are added and deleted.
+ */
+public class FlightTableModel extends LazyTableModel<Flight> {
+
+    private static final String[] COLUMNS = {"Flight No", "Origin", "Destination", "Departure Date", "Number of Seats", "Price"};
+
+    /**
+     * Constructs a model over the current flights of the system.
+     * @param fbs The FlightBookingSystem object.
+     */
+    public FlightTableModel(FlightBookingSystem fbs) {
+        super(fbs, ChangeEvent.Entity.FLIGHT, COLUMNS);
+    }
+
+    @Override
+    protected int[] loadIds() {
+        return fbs.getFlightIds();
+    }
+
+    @Override
+    protected boolean accepts(Flight flight) {
+        return flight.getDepartureDate().isAfter(fbs.getSystemDate());
+    }
+
+    @Override
+    protected Flight load(int id) throws FlightBookingSystemException {
+        return fbs.getFlightByID(id);
+    }
+
+    @Override
+    protected boolean hasLongKey(int column) {
+        return column >= 3;
+    }
+
+    @Override
+    protected long longKey(Flight flight, int column) {
+        switch (column) {
+            case 3:
+                return flight.getDepartureDate().toEpochDay();
+            case 4:
+                return flight.getNumberOfSeats();
+            default:
+                return flight.getPrice();
+        }
+    }
+
+    @Override
+    protected Object columnValue(Flight flight, int column) {
+        switch (column) {
+            case 0:
+                return flight.getFlightNumber();
+            case 1:
+                return flight.getOrigin();
+            case 2:
+                return flight.getDestination();
+            case 3:
+                return flight.getDepartureDate();
+            case 4:
+                return flight.getNumberOfSeats();
+            default:
+                return flight.getPrice();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package bcu.cmp5332.bookingsystem.gui;
+
+/**
+ * Stable merge sort of an int array with a comparator over the ints themselves,
+ * so permutations can be sorted without boxing every element.
+ */
+final class IntSorter {
+
+    /**
+     * Compares two ints.
+     */
+    interface IntComparator {
+        int compare(int a, int b);
+    }
+
+    private static final int INSERTION_THRESHOLD = 16;
+
+    private IntSorter() {
+    }
+
+    static void sort(int[] values, IntComparator comparator) {
+        int[] buffer = values.clone();
+        mergeSort(buffer, values, 0, values.length, comparator);
+    }
+
+    private static void mergeSort(int[] src, int[] dest, int from, int to, IntComparator comparator) {
+        if (to - from <= INSERTION_THRESHOLD) {
+            for (int i = from + 1; i < to; i++) {
+                int value = dest[i];
+                int j = i - 1;
+                while (j >= from && comparator.compare(dest[j], value) > 0) {
+                    dest[j + 1] = dest[j];
+                    j--;
+                }
+                dest[j + 1] = value;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(dest, src, from, mid, comparator);
+        mergeSort(dest, src, mid, to, comparator);
+        int left = from;
+        int right = mid;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < mid && comparator.compare(src[left], src[right]) <= 0)) {
+                dest[i] = src[left++];
+            } else {
+                dest[i] = src[right++];
+            }
+        }
+    }
+}
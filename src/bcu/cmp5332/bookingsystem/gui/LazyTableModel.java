@@ -0,0 +1,482 @@
+package bcu.cmp5332.bookingsystem.gui;
+
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.model.ChangeEvent;
+import bcu.cmp5332.bookingsystem.model.ChangeListener;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.swing.JTable;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * The LazyTableModel class is the base of the table models used by the main window.
+ * It only holds the IDs of its rows; the entity behind a row is looked up in the
+ * FlightBookingSystem when the table paints it, so opening a view costs one int per
+ * row rather than a copy of every cell.
+ *
+ * While attached, the model follows the system's change feed. Changes are queued from
+ * whichever thread makes them and applied on the Event Dispatch Thread once per frame as
+ * row-level insert, update and delete notifications; a frame with more changes than
+ * {@link #MAX_ROW_EVENTS_PER_FRAME} reloads the row IDs instead.
+ *
+ * Sorting reads each row's key on the background task runner and only permutes the row
+ * IDs. While sorted, the model also keeps its rows in ID order, so the row a change is for
+ * is found by binary search rather than by a scan.
+ *
+ * @param <T> The type of entity shown in each row.
+ */
+public abstract class LazyTableModel<T> extends AbstractTableModel implements ChangeListener {
+
+    /**
+     * The delay in milliseconds between the first queued change and applying the batch.
+     */
+    public static final int FRAME_MILLIS = 16;
+
+    /**
+     * The most changes applied row by row in one frame.
+     */
+    public static final int MAX_ROW_EVENTS_PER_FRAME = 256;
+
+    protected final FlightBookingSystem fbs;
+    private final ChangeEvent.Entity entity;
+    private final String[] columns;
+    private int[] rowIds;
+    private int rowCount;
+
+    private int cachedRow = -1;
+    private T cachedEntity;
+
+    private int sortColumn = -1;
+    private boolean ascending = true;
+    // while sorted by a column: the rows in ascending order of their IDs
+    private int[] rowsById;
+    // the sort asked for last, which may still be running
+    private int requestedColumn = -1;
+    private boolean requestedAscending = true;
+    // bumped whenever rows come or go, to tell whether a background sort still fits the rows
+    private int structureVersion;
+
+    private final Queue<ChangeEvent> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Timer frameTimer;
+
+    /**
+     * Constructs a model over the given rows and attaches it to the system's change feed.
+     *
+     * @param fbs The FlightBookingSystem object.
+     * @param entity The kind of entity the rows show.
+     * @param columns The column headers.
+     */
+    protected LazyTableModel(FlightBookingSystem fbs, ChangeEvent.Entity entity, String[] columns) {
+        this.fbs = fbs;
+        this.entity = entity;
+        this.columns = columns;
+        this.rowIds = loadIds();
+        this.rowCount = rowIds.length;
+        this.frameTimer = new Timer(FRAME_MILLIS, e -> applyPending());
+        this.frameTimer.setRepeats(false);
+        fbs.addChangeListener(this);
+    }
+
+    /**
+     * Reads the IDs of every entity the model should show, in ascending order.
+     *
+     * @return The row IDs.
+     */
+    protected abstract int[] loadIds();
+
+    /**
+     * Looks up the entity with the given ID.
+     *
+     * @param id The entity ID.
+     * @return The entity.
+     * @throws FlightBookingSystemException If there is no entity with that ID.
+     */
+    protected abstract T load(int id) throws FlightBookingSystemException;
+
+    /**
+     * Decides whether an entity belongs in the table.
+     *
+     * @param entity The entity.
+     * @return True if it should be shown, otherwise false.
+     */
+    protected boolean accepts(T entity) {
+        return true;
+    }
+
+    /**
+     * Returns the value of one column of an entity.
+     *
+     * @param entity The entity.
+     * @param column The column index.
+     * @return The cell value.
+     */
+    protected abstract Object columnValue(T entity, int column);
+
+    /**
+     * Checks whether a column sorts by a long, such as a number or a date, rather than by
+     * its cell values.
+     *
+     * @param column The column index.
+     * @return True if {@link #longKey} gives the column's sort key, otherwise false.
+     */
+    protected boolean hasLongKey(int column) {
+        return false;
+    }
+
+    /**
+     * Returns the key a column sorts an entity by, for a column that has a long key.
+     *
+     * @param entity The entity.
+     * @param column The column index.
+     * @return The sort key.
+     */
+    protected long longKey(T entity, int column) {
+        throw new UnsupportedOperationException("Column " + column + " has no long key");
+    }
+
+    /**
+     * Stops following the system's changes. Called when the model is taken off screen.
+     */
+    public void detach() {
+        fbs.removeChangeListener(this);
+        pending.clear();
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columns[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        T entity = entityAt(row);
+        return entity == null ? null : columnValue(entity, column);
+    }
+
+    /**
+     * Returns the entity shown in a row. The last row looked up is remembered, since
+     * the table asks for every column of a row in turn.
+     *
+     * @param row The row index.
+     * @return The entity, or null if it no longer exists.
+     */
+    public T entityAt(int row) {
+        if (row != cachedRow) {
+            cachedEntity = lookup(rowIds[row]);
+            cachedRow = row;
+        }
+        return cachedEntity;
+    }
+
+    /**
+     * Sorts the rows by a column on the task runner. Sorting the same column again reverses
+     * the order. Each row's key is read once, as a long for columns that have one, and only
+     * the row IDs are permuted; the new order is put in place on the Event Dispatch Thread.
+     * Must be called on the Event Dispatch Thread.
+     *
+     * @param column The column index.
+     * @param tasks The runner to sort on.
+     */
+    public void sortBy(int column, BackgroundTaskRunner tasks) {
+        boolean up = column != requestedColumn || !requestedAscending;
+        requestedColumn = column;
+        requestedAscending = up;
+        int[] ids = Arrays.copyOf(rowIds, rowCount);
+        int version = structureVersion;
+        tasks.submit(null, "Sorting by " + columns[column], progress -> sortIds(ids, column, up, progress),
+                sorted -> applySort(sorted, column, up, version));
+    }
+
+    // runs on the task runner: works out the sorted order of the IDs, then their rows by ID
+    private int[][] sortIds(int[] ids, int column, boolean up, BackgroundTaskRunner.TaskProgress progress) {
+        int n = ids.length;
+        int direction = up ? 1 : -1;
+        int[] order = identity(n);
+        if (hasLongKey(column)) {
+            long[] keys = new long[n];
+            for (int i = 0; i < n; i++) {
+                T entity = lookup(ids[i]);
+                keys[i] = entity == null ? Long.MIN_VALUE : longKey(entity, column);
+                report(progress, i, n);
+            }
+            IntSorter.sort(order, (a, b) -> direction * Long.compare(keys[a], keys[b]));
+        } else {
+            Object[] keys = new Object[n];
+            for (int i = 0; i < n; i++) {
+                T entity = lookup(ids[i]);
+                keys[i] = entity == null ? null : columnValue(entity, column);
+                report(progress, i, n);
+            }
+            IntSorter.sort(order, (a, b) -> direction * compareKeys(keys[a], keys[b]));
+        }
+        if (progress.isCancelled()) {
+            throw new CancellationException();
+        }
+        int[] sortedIds = new int[n];
+        for (int i = 0; i < n; i++) {
+            sortedIds[i] = ids[order[i]];
+        }
+        return new int[][] {sortedIds, rowsById(sortedIds, n)};
+    }
+
+    private static void report(BackgroundTaskRunner.TaskProgress progress, int done, int total) {
+        if ((done & 0xFFFF) == 0) {
+            if (progress.isCancelled()) {
+                throw new CancellationException();
+            }
+            progress.update((int) (80L * done / total));
+        }
+    }
+
+    private void applySort(int[][] sorted, int column, boolean up, int version) {
+        int[] ids = sorted[0];
+        int[] byId = sorted[1];
+        if (version != structureVersion) {
+            // rows came or went while sorting: keep the order of the rows still here and put
+            // the new ones at the end, as rowAdded does
+            boolean[] placed = new boolean[rowCount];
+            int[] kept = new int[rowCount];
+            int n = 0;
+            for (int id : ids) {
+                int row = indexOf(id);
+                if (row >= 0 && !placed[row]) {
+                    placed[row] = true;
+                    kept[n++] = id;
+                }
+            }
+            for (int row = 0; row < rowCount; row++) {
+                if (!placed[row]) {
+                    kept[n++] = rowIds[row];
+                }
+            }
+            ids = kept;
+            byId = rowsById(ids, n);
+        }
+        rowIds = ids;
+        rowCount = ids.length;
+        rowsById = byId;
+        sortColumn = column;
+        ascending = up;
+        invalidateCache();
+        fireTableDataChanged();
+    }
+
+    private static int[] rowsById(int[] ids, int n) {
+        int[] rows = identity(n);
+        IntSorter.sort(rows, (a, b) -> Integer.compare(ids[a], ids[b]));
+        return rows;
+    }
+
+    private static int[] identity(int n) {
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = i;
+        }
+        return values;
+    }
+
+    @Override
+    public void changed(ChangeEvent event) {
+        if (event.getEntity() != entity) {
+            return;
+        }
+        pending.add(event);
+        if (flushScheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(frameTimer::restart);
+        }
+    }
+
+    private void applyPending() {
+        flushScheduled.set(false);
+        int count = pending.size();
+        if (count > MAX_ROW_EVENTS_PER_FRAME) {
+            pending.clear();
+            reload();
+            return;
+        }
+        ChangeEvent event;
+        while (count-- > 0 && (event = pending.poll()) != null) {
+            switch (event.getKind()) {
+                case ADDED:
+                    rowAdded(event.getId());
+                    break;
+                case UPDATED:
+                    rowUpdated(event.getId());
+                    break;
+                default:
+                    rowRemoved(event.getId());
+                    break;
+            }
+        }
+    }
+
+    private void reload() {
+        rowIds = loadIds();
+        rowCount = rowIds.length;
+        sortColumn = -1;
+        ascending = true;
+        rowsById = null;
+        requestedColumn = -1;
+        requestedAscending = true;
+        structureVersion++;
+        invalidateCache();
+        fireTableDataChanged();
+    }
+
+    private void rowAdded(int id) {
+        if (indexOf(id) >= 0) {
+            rowUpdated(id);
+            return;
+        }
+        T added = lookup(id);
+        if (added == null || !accepts(added)) {
+            return;
+        }
+        int row;
+        if (sortColumn < 0) {
+            row = -(Arrays.binarySearch(rowIds, 0, rowCount, id) + 1);
+        } else {
+            // new rows go at the end of a sorted view until it is sorted again
+            row = rowCount;
+        }
+        if (rowCount == rowIds.length) {
+            rowIds = Arrays.copyOf(rowIds, Math.max(16, rowCount + (rowCount >> 1)));
+        }
+        if (sortColumn >= 0) {
+            int k = -(searchById(id) + 1);
+            if (rowCount == rowsById.length) {
+                rowsById = Arrays.copyOf(rowsById, rowIds.length);
+            }
+            System.arraycopy(rowsById, k, rowsById, k + 1, rowCount - k);
+            rowsById[k] = row;
+        }
+        System.arraycopy(rowIds, row, rowIds, row + 1, rowCount - row);
+        rowIds[row] = id;
+        rowCount++;
+        structureVersion++;
+        invalidateCache();
+        fireTableRowsInserted(row, row);
+    }
+
+    private void rowUpdated(int id) {
+        int row = indexOf(id);
+        if (row < 0) {
+            return;
+        }
+        T updated = lookup(id);
+        if (updated != null && !accepts(updated)) {
+            rowRemoved(id);
+            return;
+        }
+        invalidateCache();
+        fireTableRowsUpdated(row, row);
+    }
+
+    private void rowRemoved(int id) {
+        int row = indexOf(id);
+        if (row < 0) {
+            return;
+        }
+        if (sortColumn >= 0) {
+            int k = searchById(id);
+            System.arraycopy(rowsById, k + 1, rowsById, k, rowCount - k - 1);
+            for (int i = 0; i < rowCount - 1; i++) {
+                if (rowsById[i] > row) {
+                    rowsById[i]--;
+                }
+            }
+        }
+        System.arraycopy(rowIds, row + 1, rowIds, row, rowCount - row - 1);
+        rowCount--;
+        structureVersion++;
+        invalidateCache();
+        fireTableRowsDeleted(row, row);
+    }
+
+    private int indexOf(int id) {
+        if (sortColumn < 0) {
+            int row = Arrays.binarySearch(rowIds, 0, rowCount, id);
+            return row < 0 ? -1 : row;
+        }
+        int k = searchById(id);
+        return k < 0 ? -1 : rowsById[k];
+    }
+
+    // binary search of a sorted view's rows in ID order, returning the position of the ID
+    // or, if it is not there, -(insertion point) - 1
+    private int searchById(int id) {
+        int low = 0;
+        int high = rowCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midId = rowIds[rowsById[mid]];
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private T lookup(int id) {
+        try {
+            return load(id);
+        } catch (FlightBookingSystemException ex) {
+            return null;
+        }
+    }
+
+    private void invalidateCache() {
+        cachedRow = -1;
+        cachedEntity = null;
+    }
+
+    /**
+     * Makes a click on a column header of the table sort the model by that column.
+     *
+     * @param table The table showing a LazyTableModel.
+     * @param tasks The runner the rows are sorted on.
+     */
+    public static void installHeaderSorting(final JTable table, final BackgroundTaskRunner tasks) {
+        table.getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int column = table.columnAtPoint(e.getPoint());
+                if (column >= 0 && table.getModel() instanceof LazyTableModel) {
+                    ((LazyTableModel<?>) table.getModel()).sortBy(table.convertColumnIndexToModel(column), tasks);
+                }
+            }
+        });
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareKeys(Object a, Object b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        return ((Comparable) a).compareTo(b);
+    }
+}
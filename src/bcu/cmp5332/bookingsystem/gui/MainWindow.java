@@ -3,15 +3,13 @@ package bcu.cmp5332.bookingsystem.gui;
 import bcu.cmp5332.bookingsystem.commands.CancelBooking;
 import bcu.cmp5332.bookingsystem.data.FlightBookingSystemData;
 import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
-import bcu.cmp5332.bookingsystem.model.Booking;
-import bcu.cmp5332.bookingsystem.model.Customer;
-import bcu.cmp5332.bookingsystem.model.Flight;
 import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import java.awt.BorderLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.IOException;
 import java.time.LocalDate;
-import java.util.List;
+import java.util.concurrent.CancellationException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.JFrame;
@@ -55,6 +53,10 @@ public class MainWindow extends JFrame implements ActionListener {
     private JMenuItem custDel;
 
     private FlightBookingSystem fbs;
+
+    private final BackgroundTaskRunner tasks = new BackgroundTaskRunner();
+    private final JTable table = new JTable();
+    private final JScrollPane tableScrollPane = new JScrollPane(table);
     
     /**
      * Constructs a new MainWindow object with the specified FlightBookingSystem.
@@ -79,6 +81,15 @@ public class MainWindow extends JFrame implements ActionListener {
         return fbs;
     }
 
+    /**
+     * Returns the runner that executes this window's work off the Event Dispatch Thread.
+     * The add windows queue their work on it too, so all changes run in order.
+     * @return The background task runner.
+     */
+    public BackgroundTaskRunner getTaskRunner() {
+        return tasks;
+    }
+
     /**
      * Initialize the contents of the frame.
      */
@@ -92,6 +103,9 @@ public class MainWindow extends JFrame implements ActionListener {
 
         setTitle("Flight Booking Management System");
 
+        table.setAutoCreateRowSorter(false);
+        LazyTableModel.installHeaderSorting(table, tasks);
+
         menuBar = new JMenuBar();
         setJMenuBar(menuBar);
 
@@ -156,6 +170,8 @@ public class MainWindow extends JFrame implements ActionListener {
         custAdd.addActionListener(this);
         custDel.addActionListener(this);
 
+        getContentPane().add(tasks.getStatusBar(), BorderLayout.SOUTH);
+
         setSize(800, 500);
 
         setVisible(true);
@@ -182,12 +198,20 @@ public class MainWindow extends JFrame implements ActionListener {
     public void actionPerformed(ActionEvent ae) {
 
         if (ae.getSource() == adminExit) {
-            try {
-                FlightBookingSystemData.store(fbs);
-            } catch (IOException ex) {
-                JOptionPane.showMessageDialog(this, ex, "Error", JOptionPane.ERROR_MESSAGE);
-            }
-            System.exit(0);
+            // saving is never stopped part way, so it only reports progress
+            tasks.submit(this, "Saving data", progress -> {
+                try {
+                    FlightBookingSystemData.store(fbs, progress::update);
+                    return null;
+                } catch (IOException ex) {
+                    return ex;
+                }
+            }, error -> {
+                if (error != null) {
+                    JOptionPane.showMessageDialog(this, error, "Error", JOptionPane.ERROR_MESSAGE);
+                }
+                System.exit(0);
+            });
         } else if (ae.getSource() == flightsView) {
             displayFlights();
             
@@ -291,67 +315,78 @@ public class MainWindow extends JFrame implements ActionListener {
     
 
 
+	/**
+	 * Deletes a flight from the system in the background.
+	 * @param flightId The ID of the flight to be deleted.
+	 */
 	public void deleteFlight(int flightId) {
-	    try {
+	    tasks.submit(this, "Deleting flight " + flightId, progress -> {
 	        fbs.deleteFlight(flightId);
-	        JOptionPane.showMessageDialog(this, "Flight deleted successfully.");
-	    } catch (FlightBookingSystemException ex) {
-	        JOptionPane.showMessageDialog(this, ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-	    }
+	        return null;
+	    }, result -> JOptionPane.showMessageDialog(this, "Flight deleted successfully."));
 	}
 
-
+	/**
+	 * Cancels a booking in the background.
+	 * @param customerId The ID of the customer.
+	 * @param flightId The ID of the flight.
+	 */
     public void cancelBooking(int customerId, int flightId) {
-        try {
-           fbs.cancelBooking(customerId,flightId);
-            JOptionPane.showMessageDialog(this, "Booki;ng cancelled successfully.");
-        } catch (FlightBookingSystemException ex) {
-            JOptionPane.showMessageDialog(this, ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        tasks.submit(this, "Cancelling booking", progress -> {
+            fbs.cancelBooking(customerId, flightId);
+            return null;
+        }, result -> JOptionPane.showMessageDialog(this, "Booking cancelled successfully."));
     }
 
+	/**
+	 * Shows the customers in the main table. Rows are read from the system as they are painted.
+	 */
 	public void displayCustomers() {
-	    List<Customer> customersList = fbs.getCustomers();
-	    // headers for the table
-	    String[] columns = new String[]{"ID", "Name", "Phone", "Email"};
-
-	    Object[][] data = new Object[customersList.size()][4];
-	    for (int i = 0; i < customersList.size(); i++) {
-	        Customer customer = customersList.get(i);
-	        data[i][0] = customer.getId();
-	        data[i][1] = customer.getName();
-	        data[i][2] = customer.getPhone();
-	        data[i][3] = customer.getEmail();
-	        
-	    }
-
-	    JTable table = new JTable(data, columns);
-	    this.getContentPane().removeAll();
-	    this.getContentPane().add(new JScrollPane(table));
-	    this.revalidate();
+	    tasks.submit(this, "Loading customers", progress -> unlessCancelled(progress, new CustomerTableModel(fbs)), this::showTable);
 	}
 	
+	/**
+	 * Shows the flights that have not departed in the main table. Rows are read from the system as they are painted.
+	 */
 	public void displayFlights() {
-        List<Flight> flightsList = fbs.getFlights();
-        // headers for the table
-        String[] columns = new String[]{"Flight No", "Origin", "Destination", "Departure Date", "Number of Seats", "Price"};
-
-        Object[][] data = new Object[flightsList.size()][6];
-        for (int i = 0; i < flightsList.size(); i++) {
-            Flight flight = flightsList.get(i);
-            data[i][0] = flight.getFlightNumber();
-            data[i][1] = flight.getOrigin();
-            data[i][2] = flight.getDestination();
-            data[i][3] = flight.getDepartureDate();
-            data[i][4] = flight.getNumberOfSeats();
-            data[i][5] = flight.getPrice();
-        }
+	    tasks.submit(this, "Loading flights", progress -> unlessCancelled(progress, new FlightTableModel(fbs)), this::showTable);
+	}
 
-        JTable table = new JTable(data, columns);
-        this.getContentPane().removeAll();
-        this.getContentPane().add(new JScrollPane(table));
-        this.revalidate();
-    }
+	/**
+	 * Hands back a table model built in the background, or takes it off the system's change
+	 * feed if the user cancelled while it was built, so that it is not left listening.
+	 * @param progress The progress of the task that built the model.
+	 * @param model The model.
+	 * @param <M> The type of the model.
+	 * @return The model.
+	 * @throws CancellationException If the task was cancelled.
+	 */
+	private static <M extends LazyTableModel<?>> M unlessCancelled(BackgroundTaskRunner.TaskProgress progress, M model) {
+	    if (progress.isCancelled()) {
+	        model.detach();
+	        throw new CancellationException();
+	    }
+	    progress.update(100);
+	    return model;
+	}
+
+	/**
+	 * Puts a model into the main table, reusing the same table and scroll pane for every view.
+	 * @param model The table model to show.
+	 */
+	private void showTable(LazyTableModel<?> model) {
+	    if (table.getModel() instanceof LazyTableModel) {
+	        ((LazyTableModel<?>) table.getModel()).detach();
+	    }
+	    table.setModel(model);
+	    if (tableScrollPane.getParent() != getContentPane()) {
+	        this.getContentPane().removeAll();
+	        this.getContentPane().add(tableScrollPane, BorderLayout.CENTER);
+	        this.getContentPane().add(tasks.getStatusBar(), BorderLayout.SOUTH);
+	    }
+	    this.revalidate();
+	    this.repaint();
+	}
 
 	/**
 	 * Displays the bookings for a specific customer and flight.
@@ -359,11 +394,10 @@ public class MainWindow extends JFrame implements ActionListener {
 	 * @param flightId The ID of the flight.
 	 */
 	public void viewBookings(int customerId, int flightId) {
-	    try {
+	    tasks.submit(this, "Looking up bookings", progress -> {
 	        fbs.viewBookings(customerId, flightId);
-	    } catch (FlightBookingSystemException ex) {
-	        JOptionPane.showMessageDialog(this, ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-	    }
+	        return null;
+	    }, null);
 	}
 
 	/**
@@ -371,12 +405,10 @@ public class MainWindow extends JFrame implements ActionListener {
 	 * @param customerId The ID of the customer to be deleted.
 	 */
 	public void deleteCustomer(int customerId) {
-	    try {
+	    tasks.submit(this, "Deleting customer " + customerId, progress -> {
 	        fbs.deleteCustomer(customerId);
-	        JOptionPane.showMessageDialog(this, "Customer deleted successfully.");
-	    } catch (FlightBookingSystemException ex) {
-	        JOptionPane.showMessageDialog(this, ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-	    }
+	        return null;
+	    }, result -> JOptionPane.showMessageDialog(this, "Customer deleted successfully."));
 	}
 
 	/**
@@ -385,12 +417,10 @@ public class MainWindow extends JFrame implements ActionListener {
 	 * @param newBookingDate The new booking date.
 	 */
 	public void updateBooking(int bookingId, LocalDate newBookingDate) {
-	    try {
+	    tasks.submit(this, "Updating booking " + bookingId, progress -> {
 	        fbs.updateBooking(bookingId, newBookingDate);
-	        JOptionPane.showMessageDialog(this, "Booking updated successfully.");
-	    } catch (FlightBookingSystemException ex) {
-	        JOptionPane.showMessageDialog(this, ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-	    }
+	        return null;
+	    }, result -> JOptionPane.showMessageDialog(this, "Booking updated successfully."));
 	}
 
 
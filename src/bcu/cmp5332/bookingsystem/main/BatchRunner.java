@@ -0,0 +1,265 @@
+package bcu.cmp5332.bookingsystem.main;
+
+import bcu.cmp5332.bookingsystem.commands.Command;
+import bcu.cmp5332.bookingsystem.data.FlightBookingSystemData;
+import bcu.cmp5332.bookingsystem.metrics.TimedCommand;
+import bcu.cmp5332.bookingsystem.model.ChangeListener;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import bcu.cmp5332.bookingsystem.trace.TraceWriter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * The BatchRunner class executes a script of commands without prompting. Every line holds
+ * one command with all of its arguments, in the form accepted by {@link CommandTable}.
+ * Blank lines and lines starting with '#' are ignored.
+ *
+ * Commands can be grouped between {@code begin} and {@code commit}. The data files are
+ * saved at the start and end of a group, so when a command in a group fails (or the group
+ * ends with {@code rollback}) the system is reloaded from the files and the rest of the
+ * group is skipped. Commands outside a group run on their own; a failure is reported and
+ * the script carries on. The system is saved once more when the script ends, and a summary
+ * of what ran and how long it took is printed.
+ */
+public class BatchRunner {
+
+    /**
+     * Reloads the system from the data files when a group is rolled back.
+     */
+    public interface Loader {
+
+        /**
+         * Loads the system.
+         *
+         * @return The freshly loaded system.
+         * @throws IOException                  If the data files cannot be read.
+         * @throws FlightBookingSystemException If the data files are invalid.
+         */
+        FlightBookingSystem load() throws IOException, FlightBookingSystemException;
+    }
+
+    private static final class Tally {
+        private int ok;
+        private int failed;
+        private long nanos;
+    }
+
+    private final Loader loader;
+    private final PrintStream console;
+    private final boolean quiet;
+    private final ChangeListener dirtyTracker = event -> dirty = true;
+    private FlightBookingSystem fbs;
+    private boolean dirty;
+
+    private final Map<String, Tally> tallies = new LinkedHashMap<>();
+    private int lineNumber;
+    private int skipped;
+    private int committed;
+    private int rolledBack;
+
+    /**
+     * Constructs a runner over an already loaded system. Commands stop saving their own
+     * changes while the runner owns the system.
+     *
+     * @param fbs    The FlightBookingSystem object.
+     * @param loader Reloads the system when a group is rolled back.
+     * @param quiet  True to hide the output of the commands, leaving errors and the summary.
+     */
+    public BatchRunner(FlightBookingSystem fbs, Loader loader, boolean quiet) {
+        this.loader = loader;
+        this.console = System.out;
+        this.quiet = quiet;
+        attach(fbs);
+    }
+
+    /**
+     * Returns the system the runner is working on. This is a new object after a rollback.
+     *
+     * @return The FlightBookingSystem object.
+     */
+    public FlightBookingSystem getSystem() {
+        return fbs;
+    }
+
+    /**
+     * Runs every line of a script, saves the system and prints the summary.
+     *
+     * @param reader The script.
+     * @return The number of commands that failed.
+     * @throws IOException If the script cannot be read or the data files cannot be written.
+     */
+    public int run(BufferedReader reader) throws IOException {
+        List<String> tokens = new ArrayList<>();
+        boolean inGroup = false;
+        boolean skipping = false;
+        long start = System.nanoTime();
+
+        PrintStream out = System.out;
+        if (quiet) {
+            System.setOut(new PrintStream(new OutputStream() {
+                @Override
+                public void write(int b) {
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                }
+            }));
+        }
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                CommandParser.tokenize(line, tokens);
+                if (tokens.isEmpty() || tokens.get(0).startsWith("#")) {
+                    continue;
+                }
+                String word = tokens.get(0);
+
+                if (word.equals("begin")) {
+                    if (inGroup) {
+                        error("begin inside a group; the group is still open.");
+                        continue;
+                    }
+                    checkpoint();
+                    trace(TraceWriter::begin);
+                    inGroup = true;
+                    skipping = false;
+                } else if (word.equals("commit")) {
+                    if (!inGroup) {
+                        error("commit without begin.");
+                    } else if (!skipping) {
+                        checkpoint();
+                        trace(TraceWriter::commit);
+                        committed++;
+                    }
+                    inGroup = false;
+                    skipping = false;
+                } else if (word.equals("rollback")) {
+                    if (!inGroup) {
+                        error("rollback without begin.");
+                    } else if (!skipping) {
+                        rollback();
+                    }
+                    inGroup = false;
+                    skipping = false;
+                } else if (skipping) {
+                    skipped++;
+                } else if (!execute(word, tokens) && inGroup) {
+                    rollback();
+                    skipping = true;
+                }
+            }
+            if (inGroup) {
+                error("the script ended inside a group; it was not committed.");
+                if (!skipping) {
+                    rollback();
+                }
+            }
+            checkpoint();
+        } finally {
+            if (quiet) {
+                System.setOut(out);
+            }
+        }
+        printSummary(System.nanoTime() - start);
+        int failed = 0;
+        for (Tally tally : tallies.values()) {
+            failed += tally.failed;
+        }
+        return failed;
+    }
+
+    private boolean execute(String word, List<String> tokens) {
+        Tally tally = tallies.get(word);
+        if (tally == null) {
+            tally = new Tally();
+            tallies.put(word, tally);
+        }
+        long start = System.nanoTime();
+        try {
+            Command command = new TimedCommand(CommandTable.create(tokens));
+            command.execute(fbs);
+            tally.ok++;
+            return true;
+        } catch (FlightBookingSystemException | RuntimeException ex) {
+            tally.failed++;
+            error(ex.getMessage() == null ? ex.toString() : ex.getMessage());
+            return false;
+        } finally {
+            tally.nanos += System.nanoTime() - start;
+        }
+    }
+
+    private void checkpoint() throws IOException {
+        if (dirty) {
+            FlightBookingSystemData.store(fbs);
+            dirty = false;
+        }
+    }
+
+    private void rollback() throws IOException {
+        rolledBack++;
+        trace(TraceWriter::rollback);
+        if (!dirty) {
+            return;
+        }
+        try {
+            attach(loader.load());
+        } catch (FlightBookingSystemException ex) {
+            throw new IOException("Cannot reload the data files: " + ex.getMessage(), ex);
+        }
+    }
+
+    private static void trace(Consumer<TraceWriter> marker) {
+        // a replay of the trace has to know which commands were thrown away
+        TraceWriter trace = TraceWriter.installed();
+        if (trace != null) {
+            marker.accept(trace);
+        }
+    }
+
+    private void attach(FlightBookingSystem system) {
+        if (fbs != null) {
+            fbs.removeChangeListener(dirtyTracker);
+            fbs.shutdown();
+        }
+        fbs = system;
+        fbs.setAutoSave(false);
+        fbs.addChangeListener(dirtyTracker);
+        dirty = false;
+    }
+
+    private void error(String message) {
+        console.println("line " + lineNumber + ": " + message);
+    }
+
+    private void printSummary(long nanos) {
+        int ok = 0;
+        int failed = 0;
+        for (Tally tally : tallies.values()) {
+            ok += tally.ok;
+            failed += tally.failed;
+        }
+        double seconds = nanos / 1e9;
+        console.println(String.format("Batch: %d line(s), %d ok, %d failed, %d skipped in %.3f s (%.0f commands/s)",
+                lineNumber, ok, failed, skipped, seconds, seconds > 0 ? (ok + failed) / seconds : 0.0));
+        for (Map.Entry<String, Tally> entry : tallies.entrySet()) {
+            Tally tally = entry.getValue();
+            int count = tally.ok + tally.failed;
+            console.println(String.format("\t%-15s %7d ok %5d failed %10.3f ms total %8.3f ms avg",
+                    entry.getKey(), tally.ok, tally.failed, tally.nanos / 1e6, tally.nanos / 1e6 / count));
+        }
+        if (committed > 0 || rolledBack > 0) {
+            console.println("Groups: " + committed + " committed, " + rolledBack + " rolled back");
+        }
+    }
+}
@@ -1,8 +1,6 @@
 package bcu.cmp5332.bookingsystem.main;
 
 import bcu.cmp5332.bookingsystem.commands.*;
-import bcu.cmp5332.bookingsystem.model.Customer;
-import bcu.cmp5332.bookingsystem.model.Flight;
 import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
 
 import java.io.BufferedReader;
@@ -10,12 +8,23 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Parses user input and returns the corresponding command.
  */
 public class CommandParser {
 
+    /**
+     * The commands that prompt for their arguments when typed without any.
+     */
+    private static final Set<String> PROMPTED = new HashSet<>(Arrays.asList(
+            "addflight", "addcustomer", "addbooking", "editbooking", "cancelbooking", "viewBooking", "viewbooking"));
+
     /**
      * Parses the user input and returns the corresponding command.
      *
@@ -27,103 +36,124 @@ public class CommandParser {
      */
     public static Command parse(String line, FlightBookingSystem fbs) throws IOException, FlightBookingSystemException {
         try {
-            String[] parts = line.split(" ", 3);
-            String cmd = parts[0];
-
-            if (cmd.equals("addflight")) {
-                BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
-                System.out.print("Flight Number: ");
-                String flightNumber = reader.readLine();
-                System.out.print("Origin: ");
-                String origin = reader.readLine();
-                System.out.print("Destination: ");
-                String destination = reader.readLine();
-                System.out.print("Departure Date (\"YYYY-MM-DD\" format): ");
-                LocalDate departureDate = LocalDate.parse(reader.readLine());
-                System.out.print("Number of Seats: ");
-                int numberOfSeats = Integer.parseInt(reader.readLine());
-                System.out.print("Price: ");
-                int price = Integer.parseInt(reader.readLine());
-
-                return new AddFlight(flightNumber, origin, destination, departureDate, numberOfSeats, price);
-
-            } else if (cmd.equals("addcustomer")) {
-
-                BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
-                System.out.print("Customer Name: ");
-                String name = reader.readLine();
-                System.out.print("Customer Phone: ");
-                String phone = reader.readLine();
-                System.out.print("Customer Email: ");
-                String email = reader.readLine();
-
-                return new AddCustomer(name, phone, email);
+            List<String> tokens = tokenize(line);
+            String cmd = tokens.isEmpty() ? "" : tokens.get(0);
 
+            if (tokens.size() == 1 && PROMPTED.contains(cmd)) {
+                return prompt(cmd);
             } else if (cmd.equals("loadgui")) {
                 return new LoadGUI();
-            } else if (parts.length == 1) {
-                if (line.equals("listflights")) {
-                    return new ListFlights();
-                } else if (line.equals("listcustomers")) {
-                    return new ListCustomers();
-                } else if (line.equals("help")) {
-                    return new Help();
-                }
-            } else if (parts.length == 2) {
-                int id = Integer.parseInt(parts[1]);
+            } else if (CommandTable.supports(cmd)) {
+                return CommandTable.create(tokens);
+            }
+        } catch (NumberFormatException | DateTimeParseException ex) {
+            // Handle malformed input typed at a prompt
+        }
 
-                if (cmd.equals("showflight")) {
-                    return new ShowFlight(id);
-                } else if (cmd.equals("showcustomer")) {
-                    return new ShowCustomer(id);
+        throw new FlightBookingSystemException("Invalid command.");
+    }
+
+    /**
+     * Splits a command line into words. Words are separated by spaces; a word containing
+     * spaces can be wrapped in double quotes.
+     *
+     * @param line The command line.
+     * @return The words of the line.
+     */
+    public static List<String> tokenize(String line) {
+        return tokenize(line, new ArrayList<>());
+    }
+
+    /**
+     * Splits a command line into words, reusing the given list.
+     *
+     * @param line   The command line.
+     * @param tokens The list to clear and fill with the words of the line.
+     * @return The list of words.
+     */
+    public static List<String> tokenize(String line, List<String> tokens) {
+        tokens.clear();
+        int i = 0;
+        int n = line.length();
+        while (i < n) {
+            while (i < n && line.charAt(i) == ' ') {
+                i++;
+            }
+            if (i == n) {
+                break;
+            }
+            if (line.charAt(i) == '"') {
+                int end = line.indexOf('"', i + 1);
+                if (end < 0) {
+                    end = n;
                 }
-            } else if (parts.length == 3) {
-                if (cmd.equals("addbooking")) {
-                    BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
-                    System.out.print("Customer ID: ");
-                    int customerId = Integer.parseInt(reader.readLine());
-                    System.out.print("Flight ID: ");
-                    int flightId = Integer.parseInt(reader.readLine());
-                    System.out.print("Booking Date (\"YYYY-MM-DD\" format): ");
-                    LocalDate bookingDate = LocalDate.parse(reader.readLine());
-
-                    return new AddBooking(customerId, flightId, bookingDate);
-
-                } else if (cmd.equals("editbooking")) {
-                    BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
-                    System.out.print("Customer ID: ");
-                    int customerId = Integer.parseInt(reader.readLine());
-                    System.out.print("Flight ID: ");
-                    int flightId = Integer.parseInt(reader.readLine());
-                    System.out.print("New Booking Date (\"YYYY-MM-DD\" format): ");
-                    LocalDate newBookingDate = LocalDate.parse(reader.readLine());
-
-                    return new EditBooking(customerId, flightId, newBookingDate);
-
-                } else if (cmd.equals("cancelbooking")) {
-                    BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
-                    System.out.print("Customer ID: ");
-                    int customerId = Integer.parseInt(reader.readLine());
-                    System.out.print("Flight ID: ");
-                    int flightId = Integer.parseInt(reader.readLine());
-
-                    return new CancelBooking(customerId, flightId);
-
-                } else if (cmd.equals("viewBooking")) {
-                    BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
-                    System.out.print("Customer ID: ");
-                    int customerId = Integer.parseInt(reader.readLine());
-                    System.out.print("Flight ID: ");
-                    int flightId = Integer.parseInt(reader.readLine());
-
-                    return new ViewBooking(customerId, flightId);
+                tokens.add(line.substring(i + 1, end));
+                i = end + 1;
+            } else {
+                int end = line.indexOf(' ', i);
+                if (end < 0) {
+                    end = n;
                 }
+                tokens.add(line.substring(i, end));
+                i = end;
             }
-        } catch (NumberFormatException ex) {
-            // Handle NumberFormatException
         }
+        return tokens;
+    }
 
-        throw new FlightBookingSystemException("Invalid command.");
+    /**
+     * Asks for the arguments of a command one field at a time.
+     *
+     * @param cmd The command word.
+     * @return The corresponding command.
+     * @throws IOException If an I/O error occurs.
+     */
+    private static Command prompt(String cmd) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
+        if (cmd.equals("addflight")) {
+            System.out.print("Flight Number: ");
+            String flightNumber = reader.readLine();
+            System.out.print("Origin: ");
+            String origin = reader.readLine();
+            System.out.print("Destination: ");
+            String destination = reader.readLine();
+            System.out.print("Departure Date (\"YYYY-MM-DD\" format): ");
+            LocalDate departureDate = LocalDate.parse(reader.readLine());
+            System.out.print("Number of Seats: ");
+            int numberOfSeats = Integer.parseInt(reader.readLine());
+            System.out.print("Price: ");
+            int price = Integer.parseInt(reader.readLine());
+
+            return new AddFlight(flightNumber, origin, destination, departureDate, numberOfSeats, price);
+
+        } else if (cmd.equals("addcustomer")) {
+            System.out.print("Customer Name: ");
+            String name = reader.readLine();
+            System.out.print("Customer Phone: ");
+            String phone = reader.readLine();
+            System.out.print("Customer Email: ");
+            String email = reader.readLine();
+
+            return new AddCustomer(name, phone, email);
+        }
+
+        System.out.print("Customer ID: ");
+        int customerId = Integer.parseInt(reader.readLine());
+        System.out.print("Flight ID: ");
+        int flightId = Integer.parseInt(reader.readLine());
+
+        if (cmd.equals("addbooking")) {
+            System.out.print("Booking Date (\"YYYY-MM-DD\" format): ");
+            LocalDate bookingDate = LocalDate.parse(reader.readLine());
+            return new AddBooking(customerId, flightId, bookingDate);
+        } else if (cmd.equals("editbooking")) {
+            System.out.print("New Booking Date (\"YYYY-MM-DD\" format): ");
+            LocalDate newBookingDate = LocalDate.parse(reader.readLine());
+            return new EditBooking(customerId, flightId, newBookingDate);
+        } else if (cmd.equals("cancelbooking")) {
+            return new CancelBooking(customerId, flightId);
+        }
+        return new ViewBooking(customerId, flightId);
     }
 
     /**
@@ -0,0 +1,275 @@
+package bcu.cmp5332.bookingsystem.main;
+
+import bcu.cmp5332.bookingsystem.commands.*;
+import bcu.cmp5332.bookingsystem.data.ManifestWriter;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The CommandTable class creates commands whose arguments are all given on the command line,
+ * for example {@code addbooking 4 12 2024-03-01}. Each command word maps to one entry that
+ * knows its usage, how many arguments it takes and how to build the command, so dispatching
+ * a line is a single map lookup. It is used by the batch runner and by the interactive
+ * parser whenever a line carries its own arguments.
+ */
+public class CommandTable {
+
+    /**
+     * Builds a command from the words of a line.
+     */
+    public interface Factory {
+
+        /**
+         * Builds the command.
+         *
+         * @param args The words of the line, the command word first.
+         * @return The command.
+         * @throws FlightBookingSystemException If an argument is invalid.
+         */
+        Command create(List<String> args) throws FlightBookingSystemException;
+    }
+
+    private static final class Entry {
+
+        private final String usage;
+        private final int minArgs;
+        private final int maxArgs;
+        private final boolean readOnly;
+        private final Factory factory;
+
+        private Entry(String usage, int minArgs, int maxArgs, boolean readOnly, Factory factory) {
+            this.usage = usage;
+            this.minArgs = minArgs;
+            this.maxArgs = maxArgs;
+            this.readOnly = readOnly;
+            this.factory = factory;
+        }
+    }
+
+    private static final Map<String, Entry> ENTRIES = new HashMap<>();
+
+    static {
+        register("addflight", "addflight <flight number> <origin> <destination> <YYYY-MM-DD> <seats> <price>", 6, 6,
+                a -> new AddFlight(a.get(1), a.get(2), a.get(3), date(a.get(4)), number(a.get(5)), number(a.get(6))));
+        register("addcustomer", "addcustomer <name> <phone> <email>", 3, 3,
+                a -> new AddCustomer(a.get(1), a.get(2), a.get(3)));
+        register("addbooking", "addbooking <customer id> <flight id> [YYYY-MM-DD] [--seat window|aisle|any|<seat>]", 2, 5,
+                a -> {
+                    // the date is optional, so the options start after the flight ID or after the date
+                    int dateAt = a.size() > 3 && !a.get(3).startsWith("--") ? 3 : -1;
+                    Map<String, String> options = options(a.subList(dateAt > 0 ? 3 : 2, a.size()), "--seat");
+                    if (options.containsKey("--seat") && options.get("--seat") == null) {
+                        throw new FlightBookingSystemException("Usage: addbooking <customer id> <flight id> [YYYY-MM-DD] [--seat window|aisle|any|<seat>]");
+                    }
+                    return new AddBooking(number(a.get(1)), number(a.get(2)), dateAt > 0 ? date(a.get(3)) : null,
+                            options.get("--seat"));
+                });
+        register("cancelbooking", "cancelbooking <customer id> <flight id>", 2, 2,
+                a -> new CancelBooking(number(a.get(1)), number(a.get(2))));
+        register("waitlist", "waitlist <customer id> <flight id> [--tier N]", 2, 4,
+                a -> new JoinWaitlist(number(a.get(1)), number(a.get(2)), intOption(options(a.subList(2, a.size()), "--tier"), "--tier", 0)));
+        register("leavewaitlist", "leavewaitlist <customer id> <flight id>", 2, 2,
+                a -> new LeaveWaitlist(number(a.get(1)), number(a.get(2))));
+        register("editbooking", "editbooking <customer id> <flight id> <YYYY-MM-DD>", 3, 3,
+                a -> new EditBooking(number(a.get(1)), number(a.get(2)), date(a.get(3))));
+        registerReadOnly("viewbooking", "viewbooking <customer id> <flight id>", 2, 2,
+                a -> new ViewBooking(number(a.get(1)), number(a.get(2))));
+        ENTRIES.put("viewBooking", ENTRIES.get("viewbooking"));
+        registerReadOnly("showflight", "showflight <flight id>", 1, 1,
+                a -> new ShowFlight(number(a.get(1))));
+        registerReadOnly("showseats", "showseats <flight id>", 1, 1,
+                a -> new ShowSeats(number(a.get(1))));
+        registerReadOnly("showwaitlist", "showwaitlist <flight id>", 1, 1,
+                a -> new ShowWaitlist(number(a.get(1))));
+        registerReadOnly("quote", "quote <flight id> [YYYY-MM-DD]", 1, 2,
+                a -> new Quote(number(a.get(1)), a.size() > 2 ? date(a.get(2)) : null));
+        registerReadOnly("showcustomer", "showcustomer <customer id> [--bookings] [--offset N] [--limit N]", 1, Integer.MAX_VALUE,
+                a -> {
+                    // the options follow the ID, so read them as if the ID were the command word
+                    Map<String, String> options = options(a.subList(1, a.size()), "--bookings", "--offset", "--limit");
+                    boolean history = options.containsKey("--bookings") || options.containsKey("--offset") || options.containsKey("--limit");
+                    return new ShowCustomer(number(a.get(1)), history,
+                            intOption(options, "--offset", 0), intOption(options, "--limit", Integer.MAX_VALUE));
+                });
+        registerReadOnly("statement", "statement <customer id>", 1, 1,
+                a -> new Statement(number(a.get(1))));
+        registerReadOnly("listflights", "listflights [--origin X] [--destination X] [--from D] [--to D] [--all] [--max-fare N] [--offset N] [--limit N]", 0, Integer.MAX_VALUE,
+                a -> {
+                    Map<String, String> options = options(a, "--offset", "--limit", "--origin", "--destination", "--from", "--to", "--all", "--max-fare");
+                    return new ListFlights(intOption(options, "--offset", 0), intOption(options, "--limit", Integer.MAX_VALUE),
+                            options.get("--origin"), options.get("--destination"),
+                            dateOption(options, "--from"), dateOption(options, "--to"), options.containsKey("--all"),
+                            intOption(options, "--max-fare", Integer.MAX_VALUE));
+                });
+        registerReadOnly("listcustomers", "listcustomers [--name text] [--offset N] [--limit N]", 0, Integer.MAX_VALUE,
+                a -> {
+                    Map<String, String> options = options(a, "--offset", "--limit", "--name");
+                    return new ListCustomers(intOption(options, "--offset", 0), intOption(options, "--limit", Integer.MAX_VALUE),
+                            options.get("--name"));
+                });
+        registerReadOnly("manifest", "manifest <flight id> [--out <file>] [--format csv|fixed] | manifest --date <YYYY-MM-DD> --dir <dir> [--format csv|fixed] [--threads N]", 1, Integer.MAX_VALUE,
+                a -> {
+                    if (a.get(1).equals("--date")) {
+                        Map<String, String> options = options(a, "--date", "--dir", "--format", "--threads");
+                        if (options.get("--date") == null || options.get("--dir") == null) {
+                            throw new FlightBookingSystemException("Usage: manifest --date <YYYY-MM-DD> --dir <dir> [--format csv|fixed] [--threads N]");
+                        }
+                        return new Manifest(dateOption(options, "--date"), options.get("--dir"), formatOption(options),
+                                Math.max(1, intOption(options, "--threads", Runtime.getRuntime().availableProcessors())));
+                    }
+                    Map<String, String> options = options(a.subList(1, a.size()), "--out", "--format");
+                    return new Manifest(number(a.get(1)), options.get("--out"), formatOption(options));
+                });
+        register("advanceday", "advanceday [days]", 0, 1,
+                a -> new AdvanceDay(a.size() > 1 ? number(a.get(1)) : 1));
+        registerReadOnly("stats", "stats [--reset]", 0, 1,
+                a -> new Stats(options(a, "--reset").containsKey("--reset")));
+        registerReadOnly("help", "help", 0, 0, a -> new Help());
+    }
+
+    private CommandTable() {
+    }
+
+    private static void register(String name, String usage, int minArgs, int maxArgs, Factory factory) {
+        ENTRIES.put(name, new Entry(usage, minArgs, maxArgs, false, factory));
+    }
+
+    private static void registerReadOnly(String name, String usage, int minArgs, int maxArgs, Factory factory) {
+        ENTRIES.put(name, new Entry(usage, minArgs, maxArgs, true, factory));
+    }
+
+    /**
+     * Checks whether a command word can be built from inline arguments.
+     *
+     * @param name The command word.
+     * @return True if the table knows the command, otherwise false.
+     */
+    public static boolean supports(String name) {
+        return ENTRIES.containsKey(name);
+    }
+
+    /**
+     * Checks whether a command only reads the booking data, so it can run on a copy that
+     * does not accept changes.
+     *
+     * @param name The command word.
+     * @return True if the table knows the command and it never changes the data.
+     */
+    public static boolean isReadOnly(String name) {
+        Entry entry = ENTRIES.get(name);
+        return entry != null && entry.readOnly;
+    }
+
+    /**
+     * Returns the usage line of every command in the table, sorted by command word.
+     *
+     * @return The usage lines.
+     */
+    public static String usage() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Entry> entry : new TreeMap<>(ENTRIES).entrySet()) {
+            if (entry.getKey().equals("viewBooking")) {
+                continue;
+            }
+            sb.append('\t').append(entry.getValue().usage).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Builds the command for a tokenized line.
+     *
+     * @param tokens The words of the line, the command word first.
+     * @return The command.
+     * @throws FlightBookingSystemException If the command is unknown or its arguments are invalid.
+     */
+    public static Command create(List<String> tokens) throws FlightBookingSystemException {
+        Entry entry = tokens.isEmpty() ? null : ENTRIES.get(tokens.get(0));
+        if (entry == null) {
+            throw new FlightBookingSystemException("Invalid command.");
+        }
+        int args = tokens.size() - 1;
+        if (args < entry.minArgs || args > entry.maxArgs) {
+            throw new FlightBookingSystemException("Usage: " + entry.usage);
+        }
+        return entry.factory.create(tokens);
+    }
+
+    private static int number(String value) throws FlightBookingSystemException {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException ex) {
+            throw new FlightBookingSystemException("Invalid number: " + value);
+        }
+    }
+
+    private static LocalDate date(String value) throws FlightBookingSystemException {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException ex) {
+            throw new FlightBookingSystemException("Invalid date " + value + ". Dates must be in YYYY-MM-DD format.");
+        }
+    }
+
+    /**
+     * Reads "--name value" options following the command word. Options that are
+     * followed by another option or nothing are flags.
+     *
+     * @param tokens  The words of the command line, the command first.
+     * @param allowed The option names the command accepts.
+     * @return The options given, mapped to their values (null for flags).
+     * @throws FlightBookingSystemException If an option is not allowed.
+     */
+    private static Map<String, String> options(List<String> tokens, String... allowed) throws FlightBookingSystemException {
+        Map<String, String> options = new HashMap<>();
+        List<String> allowedOptions = Arrays.asList(allowed);
+        for (int i = 1; i < tokens.size(); i++) {
+            String name = tokens.get(i);
+            if (!allowedOptions.contains(name)) {
+                throw new FlightBookingSystemException("Unknown option " + name + ". Options: " + String.join(" ", allowed));
+            }
+            String value = null;
+            if (i + 1 < tokens.size() && !tokens.get(i + 1).startsWith("--")) {
+                value = tokens.get(++i);
+            }
+            options.put(name, value);
+        }
+        return options;
+    }
+
+    private static int intOption(Map<String, String> options, String name, int defaultValue) throws FlightBookingSystemException {
+        String value = options.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        int number = number(value);
+        if (number < 0) {
+            throw new FlightBookingSystemException(name + " must not be negative.");
+        }
+        return number;
+    }
+
+    private static ManifestWriter.Format formatOption(Map<String, String> options) throws FlightBookingSystemException {
+        String value = options.get("--format");
+        if (value == null) {
+            return ManifestWriter.Format.CSV;
+        }
+        try {
+            return ManifestWriter.Format.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new FlightBookingSystemException("Invalid format " + value + ". Formats: csv, fixed");
+        }
+    }
+
+    private static LocalDate dateOption(Map<String, String> options, String name) throws FlightBookingSystemException {
+        String value = options.get(name);
+        return value == null ? null : date(value);
+    }
+}
@@ -2,15 +2,110 @@ package bcu.cmp5332.bookingsystem.main;
 
 import bcu.cmp5332.bookingsystem.data.FlightBookingSystemData;
 import bcu.cmp5332.bookingsystem.commands.Command;
+import bcu.cmp5332.bookingsystem.metrics.TimedCommand;
 import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import bcu.cmp5332.bookingsystem.model.CustomerStore;
+import bcu.cmp5332.bookingsystem.model.DiskCustomerStore;
+import bcu.cmp5332.bookingsystem.model.HeapCustomerStore;
+import bcu.cmp5332.bookingsystem.model.OffHeapCustomerStore;
+import bcu.cmp5332.bookingsystem.trace.TraceWriter;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.LocalDate;
 
 public class Main {
 
     public static void main(String[] args) throws IOException, FlightBookingSystemException {
-        
-        FlightBookingSystem fbs = FlightBookingSystemData.load();
+
+        boolean offHeapCustomers = false;
+        int diskCustomerCache = 0;
+        boolean quiet = false;
+        String batch = null;
+        String trace = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--offheap-customers")) {
+                offHeapCustomers = true;
+            } else if (args[i].equals("--disk-customers") && i + 1 < args.length) {
+                diskCustomerCache = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--quiet")) {
+                quiet = true;
+            } else if (args[i].equals("--batch") && i + 1 < args.length) {
+                batch = args[++i];
+            } else if (args[i].equals("--trace") && i + 1 < args.length) {
+                trace = args[++i];
+            } else if (args[i].equals("--data") && i + 1 < args.length) {
+                FlightBookingSystemData.setDataDirectory(new File(args[++i]));
+            } else if (args[i].equals("--date") && i + 1 < args.length) {
+                String date = args[++i];
+                FlightBookingSystemData.setClock(date.equals("today") ? Clock.systemDefaultZone()
+                        : FlightBookingSystem.clockAt(LocalDate.parse(date)));
+            } else {
+                System.out.println("Usage: Main [--data <dir>] [--date <YYYY-MM-DD|today>] [--offheap-customers | --disk-customers <cache size>] [--batch <file|->] [--quiet] [--trace <file>]");
+                System.exit(2);
+            }
+        }
+
+        final boolean offHeap = offHeapCustomers;
+        final int diskCache = diskCustomerCache;
+        BatchRunner.Loader loader = () -> {
+            CustomerStore store;
+            if (diskCache > 0) {
+                // the files are working copies of customers.txt, dropped when the process ends
+                DiskCustomerStore disk = new DiskCustomerStore(diskCache);
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    try {
+                        disk.close();
+                    } catch (IOException ex) {
+                        System.err.println("Cannot remove the customer files: " + ex.getMessage());
+                    }
+                }));
+                store = disk;
+            } else {
+                store = offHeap ? new OffHeapCustomerStore() : new HeapCustomerStore();
+            }
+            return FlightBookingSystemData.load(store);
+        };
+        FlightBookingSystem fbs = loader.load();
+
+        TraceWriter traceWriter = null;
+        if (trace != null) {
+            traceWriter = new TraceWriter(new File(trace), fbs);
+            TraceWriter.install(traceWriter);
+        }
+
+        if (batch != null) {
+            BufferedReader script = batch.equals("-")
+                    ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                    : Files.newBufferedReader(Paths.get(batch), StandardCharsets.UTF_8);
+            BatchRunner runner = new BatchRunner(fbs, loader, quiet);
+            int failed;
+            try {
+                failed = runner.run(script);
+            } finally {
+                script.close();
+            }
+            if (traceWriter != null) {
+                traceWriter.close(runner.getSystem());
+            }
+            runner.getSystem().shutdown();
+            System.exit(failed == 0 ? 0 : 1);
+        }
+
+        if (traceWriter != null) {
+            // the GUI exits the application itself, so the trace is finished on the way out
+            final TraceWriter writer = traceWriter;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    writer.close(fbs);
+                } catch (IOException ex) {
+                    System.err.println("Cannot finish the trace: " + ex.getMessage());
+                }
+            }));
+        }
 
         BufferedReader br = new BufferedReader(new InputStreamReader(System.in));
 
@@ -23,19 +118,14 @@ public class Main {
                 break;
             }
             try {
-                Command command = CommandParser.parse(line, fbs); 
+                Command command = new TimedCommand(CommandParser.parse(line, fbs));
                 command.execute(fbs);
             } catch (FlightBookingSystemException ex) {
                 System.out.println(ex.getMessage());
             }
         }
         FlightBookingSystemData.store(fbs);
+        fbs.shutdown();
         System.exit(0);
     }
 }
-
-
-
-
-
-
@@ -0,0 +1,121 @@
+package bcu.cmp5332.bookingsystem.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The LatencyHistogram class counts durations in log-linear buckets, in the manner of an
+ * HDR histogram. Each power of two is split into 64 equal buckets, so any recorded value
+ * is reported within about 1.6% of what was recorded, from nanoseconds to hours, in a fixed
+ * array of counters. Recording is lock-free and allocation-free, and may happen from any
+ * number of threads while the histogram is being read.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * HALF_SUB_BUCKETS + HALF_SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records one value. Negative values are recorded as zero.
+     *
+     * @param value The value, normally a duration in nanoseconds.
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts.incrementAndGet(indexOf(value));
+        total.incrementAndGet();
+        sum.addAndGet(value);
+        long current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // another thread raised the maximum; retry against its value
+        }
+    }
+
+    /**
+     * Returns the number of values recorded.
+     *
+     * @return The count.
+     */
+    public long getCount() {
+        return total.get();
+    }
+
+    /**
+     * Returns the largest value recorded.
+     *
+     * @return The maximum, or 0 if nothing was recorded.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns the mean of the values recorded.
+     *
+     * @return The mean, or 0 if nothing was recorded.
+     */
+    public double getMean() {
+        long count = total.get();
+        return count == 0 ? 0 : (double) sum.get() / count;
+    }
+
+    /**
+     * Returns the value below or at which the given percentage of recorded values fall.
+     * The result is the highest value of the bucket holding that rank, capped at the maximum.
+     *
+     * @param percentile A percentage from 0 to 100, such as 99.9.
+     * @return The value at the percentile, or 0 if nothing was recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = total.get();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100, percentile) / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestValueIn(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Clears every count.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        total.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    static int indexOf(long value) {
+        int magnitude = 64 - Long.numberOfLeadingZeros(value | (SUB_BUCKETS - 1)) - SUB_BUCKET_BITS;
+        // below SUB_BUCKETS every value has its own bucket; above, each power of two gets HALF_SUB_BUCKETS
+        return magnitude * HALF_SUB_BUCKETS + (int) (value >>> magnitude);
+    }
+
+    static long highestValueIn(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int magnitude = index / HALF_SUB_BUCKETS - 1;
+        long subBucket = index - (long) magnitude * HALF_SUB_BUCKETS;
+        long next = (subBucket + 1) << magnitude;
+        return next <= 0 ? Long.MAX_VALUE : next - 1;
+    }
+}
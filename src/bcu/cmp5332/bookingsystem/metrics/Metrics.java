@@ -0,0 +1,71 @@
+package bcu.cmp5332.bookingsystem.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * The Metrics class is the process-wide registry of operation statistics. Commands are
+ * recorded under "command." followed by their type, and the data files under "load." and
+ * "store." followed by what was read or written. Anything that serves the system, such as
+ * the CLI's stats command or a server mode, reads them through {@link #snapshot()}.
+ */
+public final class Metrics {
+
+    private static final Map<String, OperationStats> OPERATIONS = new ConcurrentSkipListMap<>();
+
+    private Metrics() {
+    }
+
+    /**
+     * Returns the statistics registered under a name, creating them on first use.
+     * Callers on a hot path should keep the returned object rather than look it up each time.
+     *
+     * @param name The operation name.
+     * @return The statistics.
+     */
+    public static OperationStats operation(String name) {
+        OperationStats stats = OPERATIONS.get(name);
+        if (stats == null) {
+            stats = OPERATIONS.computeIfAbsent(name, OperationStats::new);
+        }
+        return stats;
+    }
+
+    /**
+     * Records one run of an operation.
+     *
+     * @param name The operation name.
+     * @param startNanos The value of System.nanoTime() when the operation started.
+     * @param failed True if it ended with an error.
+     */
+    public static void record(String name, long startNanos, boolean failed) {
+        operation(name).record(System.nanoTime() - startNanos, failed);
+    }
+
+    /**
+     * Takes a snapshot of every operation recorded so far, in name order.
+     *
+     * @return The snapshot.
+     */
+    public static MetricsSnapshot snapshot() {
+        List<MetricsSnapshot.Entry> entries = new ArrayList<>(OPERATIONS.size());
+        for (OperationStats stats : OPERATIONS.values()) {
+            LatencyHistogram latency = stats.getLatency();
+            entries.add(new MetricsSnapshot.Entry(stats.getName(), latency.getCount(), stats.getErrors(),
+                    latency.getMean(), latency.getValueAtPercentile(50), latency.getValueAtPercentile(99),
+                    latency.getValueAtPercentile(99.9), latency.getMax()));
+        }
+        return new MetricsSnapshot(System.currentTimeMillis(), entries);
+    }
+
+    /**
+     * Clears every count while keeping the registered operations.
+     */
+    public static void reset() {
+        for (OperationStats stats : OPERATIONS.values()) {
+            stats.reset();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package bcu.cmp5332.bookingsystem.metrics;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The MetricsSnapshot class is a point-in-time copy of the recorded statistics.
+ * Latencies are in nanoseconds.
+ */
+public class MetricsSnapshot {
+
+    /**
+     * The statistics of one operation.
+     */
+    public static class Entry {
+
+        private final String name;
+        private final long count;
+        private final long errors;
+        private final double mean;
+        private final long p50;
+        private final long p99;
+        private final long p999;
+        private final long max;
+
+        Entry(String name, long count, long errors, double mean, long p50, long p99, long p999, long max) {
+            this.name = name;
+            this.count = count;
+            this.errors = errors;
+            this.mean = mean;
+            this.p50 = p50;
+            this.p99 = p99;
+            this.p999 = p999;
+            this.max = max;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public long getP50() {
+            return p50;
+        }
+
+        public long getP99() {
+            return p99;
+        }
+
+        public long getP999() {
+            return p999;
+        }
+
+        public long getMax() {
+            return max;
+        }
+    }
+
+    private final long takenAtMillis;
+    private final List<Entry> entries;
+
+    MetricsSnapshot(long takenAtMillis, List<Entry> entries) {
+        this.takenAtMillis = takenAtMillis;
+        this.entries = Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Returns when the snapshot was taken.
+     *
+     * @return The time in milliseconds since the epoch.
+     */
+    public long getTakenAtMillis() {
+        return takenAtMillis;
+    }
+
+    /**
+     * Returns the statistics of every operation, in name order.
+     *
+     * @return The entries.
+     */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Formats the snapshot as a table in milliseconds, for people.
+     *
+     * @return The table, one operation per line.
+     */
+    public String toTable() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%-28s %9s %7s %10s %10s %10s %10s %10s%n",
+                "operation", "count", "errors", "mean ms", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (Entry e : entries) {
+            sb.append(String.format(Locale.ROOT, "%-28s %9d %7d %10.3f %10.3f %10.3f %10.3f %10.3f%n",
+                    e.name, e.count, e.errors, e.mean / 1e6, e.p50 / 1e6, e.p99 / 1e6, e.p999 / 1e6, e.max / 1e6));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Formats the snapshot as "name{operation=...} value" lines, for monitoring systems.
+     *
+     * @return The lines.
+     */
+    public String toText() {
+        StringBuilder sb = new StringBuilder();
+        for (Entry e : entries) {
+            line(sb, "fbs_operation_count", e.name, null, e.count);
+            line(sb, "fbs_operation_errors", e.name, null, e.errors);
+            line(sb, "fbs_operation_latency_ns", e.name, "0.5", e.p50);
+            line(sb, "fbs_operation_latency_ns", e.name, "0.99", e.p99);
+            line(sb, "fbs_operation_latency_ns", e.name, "0.999", e.p999);
+            line(sb, "fbs_operation_latency_ns", e.name, "1", e.max);
+        }
+        return sb.toString();
+    }
+
+    private static void line(StringBuilder sb, String metric, String operation, String quantile, long value) {
+        sb.append(metric).append("{operation=\"").append(operation).append('"');
+        if (quantile != null) {
+            sb.append(",quantile=\"").append(quantile).append('"');
+        }
+        sb.append("} ").append(value).append('\n');
+    }
+}
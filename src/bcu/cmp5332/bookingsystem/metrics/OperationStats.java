@@ -0,0 +1,63 @@
+package bcu.cmp5332.bookingsystem.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The OperationStats class holds the counts and latency histogram of one kind of
+ * operation, such as one command type or loading one data file.
+ */
+public class OperationStats {
+
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final AtomicLong errors = new AtomicLong();
+
+    OperationStats(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the name the operation is registered under.
+     *
+     * @return The name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Records one run of the operation.
+     *
+     * @param nanos How long it took, in nanoseconds.
+     * @param failed True if it ended with an error.
+     */
+    public void record(long nanos, boolean failed) {
+        latency.record(nanos);
+        if (failed) {
+            errors.incrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the number of runs that ended with an error.
+     *
+     * @return The error count.
+     */
+    public long getErrors() {
+        return errors.get();
+    }
+
+    /**
+     * Returns the latency histogram of every run, failed or not.
+     *
+     * @return The histogram.
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    void reset() {
+        latency.reset();
+        errors.set(0);
+    }
+}
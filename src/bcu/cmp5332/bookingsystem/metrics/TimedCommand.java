@@ -0,0 +1,44 @@
+package bcu.cmp5332.bookingsystem.metrics;
+
+import bcu.cmp5332.bookingsystem.commands.Command;
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import bcu.cmp5332.bookingsystem.trace.TraceWriter;
+
+/**
+ * The TimedCommand class wraps a command and records how long each execution takes,
+ * and whether it failed, under "command." followed by the command's type. While a
+ * {@link TraceWriter} is installed, each execution is also recorded to the trace.
+ */
+public class TimedCommand implements Command {
+
+    private final Command command;
+    private final OperationStats stats;
+
+    /**
+     * Wraps a command.
+     *
+     * @param command The command to time.
+     */
+    public TimedCommand(Command command) {
+        this.command = command;
+        this.stats = Metrics.operation("command." + command.getClass().getSimpleName());
+    }
+
+    @Override
+    public void execute(FlightBookingSystem flightBookingSystem) throws FlightBookingSystemException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            command.execute(flightBookingSystem);
+            failed = false;
+        } finally {
+            long nanos = System.nanoTime() - start;
+            stats.record(nanos, failed);
+            TraceWriter trace = TraceWriter.installed();
+            if (trace != null) {
+                trace.record(command, start, nanos, failed);
+            }
+        }
+    }
+}
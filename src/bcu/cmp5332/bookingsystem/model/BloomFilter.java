@@ -0,0 +1,107 @@
+package bcu.cmp5332.bookingsystem.model;
+
+/**
+ * The BloomFilter class is a set of 64-bit hashes that can answer "definitely absent" or
+ * "possibly present" in constant time, using a few bits per entry however long the keys
+ * behind the hashes are. It cannot forget an entry; a filter that has had many entries
+ * removed behind it should be rebuilt.
+ *
+ * Each hash sets {@code k} bits chosen by double hashing its two halves. The filter is sized
+ * for an expected number of entries and a target false-positive rate, and reports the rate
+ * it should currently give.
+ */
+public class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final long[] words;
+    private final long bitCount;
+    private final int hashCount;
+    private int entries;
+
+    /**
+     * Constructs an empty filter.
+     *
+     * @param expectedEntries   The number of entries the filter is sized for.
+     * @param falsePositiveRate The false-positive rate wanted at that many entries.
+     */
+    public BloomFilter(int expectedEntries, double falsePositiveRate) {
+        if (expectedEntries < 1 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Invalid Bloom filter size.");
+        }
+        long bits = (long) Math.ceil(-expectedEntries * Math.log(falsePositiveRate) / (LN2 * LN2));
+        long wordCount = Math.max(1, (bits + 63) >>> 6);
+        this.words = new long[(int) Math.min(wordCount, Integer.MAX_VALUE - 8)];
+        this.bitCount = (long) words.length << 6;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedEntries * LN2));
+    }
+
+    /**
+     * Adds a hash.
+     *
+     * @param hash The hash of the key.
+     */
+    public void put(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+            words[(int) (bit >>> 6)] |= 1L << bit;
+        }
+        entries++;
+    }
+
+    /**
+     * Checks whether a hash may have been added.
+     *
+     * @param hash The hash of the key.
+     * @return False if it was certainly never added, true if it may have been.
+     */
+    public boolean mightContain(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+            if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the false-positive rate expected for the entries added so far.
+     *
+     * @return The rate, between 0 and 1.
+     */
+    public double getExpectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-(double) hashCount * entries / bitCount), hashCount);
+    }
+
+    /**
+     * Returns the number of entries added.
+     *
+     * @return The number of entries.
+     */
+    public int getEntries() {
+        return entries;
+    }
+
+    /**
+     * Returns the number of bits in the filter.
+     *
+     * @return The number of bits.
+     */
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    /**
+     * Returns the number of bits each entry sets.
+     *
+     * @return The number of hash functions.
+     */
+    public int getHashCount() {
+        return hashCount;
+    }
+}
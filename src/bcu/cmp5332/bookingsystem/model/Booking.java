@@ -2,6 +2,7 @@ package bcu.cmp5332.bookingsystem.model;
 
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The Booking class represents a booking made by a customer for a flight in the flight booking system.
@@ -9,24 +10,29 @@ import java.time.temporal.ChronoUnit;
  */
 public class Booking {
    
-	 private static int maxId = 0;
+	 private static final AtomicInteger maxId = new AtomicInteger();
+
+    // the days before departure at which the base price steps up, as in calculateBasePrice;
+    // a flight's price changes only on the days its days left pass one of these
+    static final int[] PRICE_STEPS = {30, 15, 7, 3};
 	 
     private  int id;
     private Customer customer;
     private Flight flight;
     private LocalDate bookingDate;
     private Integer price; 
+    private volatile int seat = SeatMap.NO_SEAT;
 
     /**
      * Constructs a new Booking object with the specified parameters.
      *
-     * @param id The unique identifier for the booking.
+     * @param id The unique identifier for the booking, or 0 to generate a new one.
      * @param customer The customer who made the booking.
      * @param flight The flight that was booked.
      * @param bookingDate The date when the booking was made.
      */
     public Booking(int id,Customer customer, Flight flight, LocalDate bookingDate) {
-    	this.id = generateId();
+    	this.id = id > 0 ? reserveId(id) : generateId();
     	this.customer = customer;
         this.flight = flight;
         this.bookingDate = bookingDate;
@@ -40,7 +46,18 @@ public class Booking {
      * @return The new unique ID for the booking.
      */
     private static int generateId() {
-        return ++maxId;
+        return maxId.incrementAndGet();
+    }
+
+    /**
+     * Records an ID loaded from storage so that generated IDs never collide with it.
+     *
+     * @param id The ID in use.
+     * @return The same ID.
+     */
+    private static int reserveId(int id) {
+        maxId.accumulateAndGet(id, Math::max);
+        return id;
     }
 
     /**
@@ -98,7 +115,9 @@ public class Booking {
     }
 
     /**
-     * Sets the date when the booking was made.
+     * Sets the date when the booking was made. For a booking a customer holds, use
+     * {@link Customer#setBookingDate(Booking, LocalDate)}, which keeps the customer's
+     * bookings in date order.
      *
      * @param bookingDate The date when the booking was made.
      */
@@ -107,19 +126,57 @@ public class Booking {
     }
 
     /**
-     * Returns the price of the booking.
+     * Returns the seat held by the booking on its flight's {@link SeatMap}.
+     *
+     * @return The seat, or {@link SeatMap#NO_SEAT} if none was assigned.
+     */
+    public int getSeat() {
+        return seat;
+    }
+
+    /**
+     * Records the seat held by the booking. The seat must already be taken on the flight's
+     * seat map; it is released when the booking is removed from the system.
+     *
+     * @param seat The seat, or {@link SeatMap#NO_SEAT}.
+     */
+    public void setSeat(int seat) {
+        this.seat = seat;
+    }
+
+    /**
+     * Returns the price of the booking. The system prices a booking when it is added, at
+     * the fare of its flight on the system date; a booking that has not been added to a
+     * system is quoted for its booking date, so the price never depends on the wall clock.
      *
      * @return The price of the booking.
      */
     public int getPrice() {
-        if (price == null) {
-            // Calculate the number of days left for the flight to depart
-            int daysLeft = (int) ChronoUnit.DAYS.between(LocalDate.now(), flight.getDepartureDate());
+        return price != null ? price : quote(flight, bookingDate);
+    }
 
-            // Calculate the price based on the number of days left and the capacity of the flight
-            price = calculatePrice(daysLeft, flight.getNumberOfSeats());
-        }
-        return price;
+    /**
+     * Works out what a booking on a flight would cost if made on the given date.
+     *
+     * @param flight The flight.
+     * @param on The date of the booking.
+     * @return The price.
+     */
+    public static int quote(Flight flight, LocalDate on) {
+        // Calculate the number of days left for the flight to depart
+        int daysLeft = (int) ChronoUnit.DAYS.between(on, flight.getDepartureDate());
+
+        // Calculate the price based on the number of days left and the capacity of the flight
+        return calculatePrice(daysLeft, flight.getNumberOfSeats());
+    }
+
+    /**
+     * Checks whether the booking has been priced yet.
+     *
+     * @return True if it has a price, otherwise false.
+     */
+    boolean hasPrice() {
+        return price != null;
     }
 
     /**
@@ -139,7 +196,7 @@ public class Booking {
      * @param numberOfSeats The number of seats available on the flight.
      * @return The price of the booking.
      */
-    private int calculatePrice(int daysLeft, int numberOfSeats) {
+    private static int calculatePrice(int daysLeft, int numberOfSeats) {
         // Calculate the base price based on the number of days left
         int basePrice = calculateBasePrice(daysLeft);
 
@@ -155,7 +212,7 @@ public class Booking {
      * @param daysLeft The number of days left for the flight to depart.
      * @return The base price of the booking.
      */
-    private int calculateBasePrice(int daysLeft) {
+    private static int calculateBasePrice(int daysLeft) {
         // Calculate the base price based on the number of days left
         int basePrice = 0;
         if (daysLeft >= 30) {
@@ -179,7 +236,7 @@ public class Booking {
      * @param numberOfSeats The number of seats available on the flight.
      * @return The price of the booking.
      */
-    private int calculateCapacityPrice(int basePrice, int numberOfSeats) {
+    private static int calculateCapacityPrice(int basePrice, int numberOfSeats) {
         // Calculate the price based on the capacity of the flight
         int price = basePrice;
         if (numberOfSeats <= 50) {
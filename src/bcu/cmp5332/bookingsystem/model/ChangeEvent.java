@@ -0,0 +1,57 @@
+package bcu.cmp5332.bookingsystem.model;
+
+/**
+ * The ChangeEvent class describes one change made to the FlightBookingSystem:
+ * which kind of entity changed, how, and its ID.
+ */
+public class ChangeEvent {
+
+    /**
+     * The kinds of entity the system holds. A WAITLIST event carries the ID of the waitlist
+     * entry; the SYSTEM itself, whose date can change, has ID 0.
+     */
+    public enum Entity {
+        FLIGHT, CUSTOMER, BOOKING, WAITLIST, SYSTEM
+    }
+
+    /**
+     * The ways an entity can change.
+     */
+    public enum Kind {
+        ADDED, UPDATED, REMOVED
+    }
+
+    private final Entity entity;
+    private final Kind kind;
+    private final int id;
+
+    /**
+     * Constructs a new ChangeEvent.
+     *
+     * @param entity The kind of entity that changed.
+     * @param kind How it changed.
+     * @param id The ID of the entity.
+     */
+    public ChangeEvent(Entity entity, Kind kind, int id) {
+        this.entity = entity;
+        this.kind = kind;
+        this.id = id;
+    }
+
+    public Entity getEntity() {
+        return entity;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return entity + " #" + id + " " + kind;
+    }
+}
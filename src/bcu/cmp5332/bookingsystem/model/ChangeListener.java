@@ -0,0 +1,16 @@
+package bcu.cmp5332.bookingsystem.model;
+
+/**
+ * The ChangeListener interface is implemented by anything that follows the changes made
+ * to a FlightBookingSystem.
+ */
+public interface ChangeListener {
+
+    /**
+     * Called after a change has been applied. Listeners are called on the thread that made
+     * the change, so they should hand any slow or thread-confined work elsewhere.
+     *
+     * @param event The change.
+     */
+    public void changed(ChangeEvent event);
+}
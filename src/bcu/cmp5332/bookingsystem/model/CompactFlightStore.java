@@ -0,0 +1,466 @@
+package bcu.cmp5332.bookingsystem.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The CompactFlightStore class is a column-oriented copy of the flight schedule.
+ * Every flight is stored as one row spread over parallel int arrays (id, departure epoch-day,
+ * seats, price and interned codes for the flight number, origin and destination), so that
+ * schedule-wide scans run over primitive arrays instead of chasing Flight objects.
+ * Rows can be read back through a reusable {@link View}, which is a read-only Flight.
+ */
+public class CompactFlightStore {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private int[] departureDays = new int[INITIAL_CAPACITY];
+    private int[] seats = new int[INITIAL_CAPACITY];
+    private int[] prices = new int[INITIAL_CAPACITY];
+    private int[] flightNumberCodes = new int[INITIAL_CAPACITY];
+    private int[] originCodes = new int[INITIAL_CAPACITY];
+    private int[] destinationCodes = new int[INITIAL_CAPACITY];
+    private int size;
+
+    private final List<String> symbols = new ArrayList<>();
+    private final Map<String, Integer> symbolCodes = new HashMap<>();
+
+    /**
+     * Builds a compact store holding a copy of the given flights.
+     *
+     * @param flights The flights to copy into the store.
+     * @return The new store.
+     */
+    public static CompactFlightStore of(Collection<Flight> flights) {
+        CompactFlightStore store = new CompactFlightStore();
+        store.ensureCapacity(flights.size());
+        for (Flight flight : flights) {
+            store.add(flight);
+        }
+        return store;
+    }
+
+    /**
+     * Appends a copy of the flight to the store.
+     *
+     * @param flight The flight to add.
+     * @return The row index of the new flight.
+     */
+    public int add(Flight flight) {
+        ensureCapacity(size + 1);
+        int row = size++;
+        ids[row] = flight.getId();
+        departureDays[row] = (int) flight.getDepartureDate().toEpochDay();
+        seats[row] = flight.getNumberOfSeats();
+        prices[row] = flight.getPrice();
+        flightNumberCodes[row] = code(flight.getFlightNumber());
+        originCodes[row] = code(flight.getOrigin());
+        destinationCodes[row] = code(flight.getDestination());
+        return row;
+    }
+
+    /**
+     * Returns the number of flights in the store.
+     *
+     * @return The number of rows.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the interned code of a string (flight number or airport), creating it if needed.
+     *
+     * @param symbol The string to intern.
+     * @return The code of the string.
+     */
+    public int code(String symbol) {
+        Integer code = symbolCodes.get(symbol);
+        if (code == null) {
+            code = symbols.size();
+            symbols.add(symbol);
+            symbolCodes.put(symbol, code);
+        }
+        return code;
+    }
+
+    /**
+     * Returns the interned code of a string without creating it.
+     *
+     * @param symbol The string to look up.
+     * @return The code of the string, or -1 if no flight uses it.
+     */
+    public int codeOf(String symbol) {
+        Integer code = symbolCodes.get(symbol);
+        return code == null ? -1 : code;
+    }
+
+    /**
+     * Returns the string behind an interned code.
+     *
+     * @param code The code.
+     * @return The string.
+     */
+    public String symbol(int code) {
+        return symbols.get(code);
+    }
+
+    /**
+     * Returns the ID of the flight in a row.
+     *
+     * @param row The row index.
+     * @return The flight ID.
+     */
+    public int getId(int row) {
+        return ids[row];
+    }
+
+    /**
+     * Returns the departure date of the flight in a row, as an epoch day.
+     *
+     * @param row The row index.
+     * @return The departure day.
+     */
+    public int getDepartureDay(int row) {
+        return departureDays[row];
+    }
+
+    /**
+     * Returns the number of seats on the flight in a row.
+     *
+     * @param row The row index.
+     * @return The number of seats.
+     */
+    public int getNumberOfSeats(int row) {
+        return seats[row];
+    }
+
+    /**
+     * Returns the price of the flight in a row.
+     *
+     * @param row The row index.
+     * @return The price.
+     */
+    public int getPrice(int row) {
+        return prices[row];
+    }
+
+    /**
+     * Returns the interned code of the origin of the flight in a row.
+     *
+     * @param row The row index.
+     * @return The origin code; see {@link #symbol(int)}.
+     */
+    public int getOriginCode(int row) {
+        return originCodes[row];
+    }
+
+    /**
+     * Returns the interned code of the destination of the flight in a row.
+     *
+     * @param row The row index.
+     * @return The destination code; see {@link #symbol(int)}.
+     */
+    public int getDestinationCode(int row) {
+        return destinationCodes[row];
+    }
+
+    /**
+     * Returns a new flyweight positioned on the given row.
+     *
+     * @param row The row index.
+     * @return A read-only Flight backed by the store.
+     */
+    public View view(int row) {
+        View view = new View();
+        view.moveTo(row);
+        return view;
+    }
+
+    /**
+     * Returns the rows matching the query, in store order.
+     *
+     * @param query The filter to apply.
+     * @return The matching row indexes.
+     */
+    public int[] select(Query query) {
+        int[] rows = new int[16];
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if (matches(query, row)) {
+                if (count == rows.length) {
+                    rows = Arrays.copyOf(rows, count * 2);
+                }
+                rows[count++] = row;
+            }
+        }
+        return Arrays.copyOf(rows, count);
+    }
+
+    /**
+     * Counts the flights matching the query.
+     *
+     * @param query The filter to apply.
+     * @return The number of matching flights.
+     */
+    public int count(Query query) {
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if (matches(query, row)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Sums the seat revenue (price times seats) of the flights matching the query.
+     *
+     * @param query The filter to apply.
+     * @return The total revenue of the matching flights.
+     */
+    public long sumRevenue(Query query) {
+        long total = 0;
+        for (int row = 0; row < size; row++) {
+            if (matches(query, row)) {
+                total += (long) prices[row] * seats[row];
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Sums the seats of the flights matching the query.
+     *
+     * @param query The filter to apply.
+     * @return The total number of seats on the matching flights.
+     */
+    public long sumSeats(Query query) {
+        long total = 0;
+        for (int row = 0; row < size; row++) {
+            if (matches(query, row)) {
+                total += seats[row];
+            }
+        }
+        return total;
+    }
+
+    private boolean matches(Query query, int row) {
+        int day = departureDays[row];
+        return day >= query.fromDay && day <= query.toDay
+                && (query.originCode < 0 || originCodes[row] == query.originCode)
+                && (query.destinationCode < 0 || destinationCodes[row] == query.destinationCode)
+                && seats[row] >= query.minSeats
+                && prices[row] <= query.maxPrice;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, newCapacity);
+        departureDays = Arrays.copyOf(departureDays, newCapacity);
+        seats = Arrays.copyOf(seats, newCapacity);
+        prices = Arrays.copyOf(prices, newCapacity);
+        flightNumberCodes = Arrays.copyOf(flightNumberCodes, newCapacity);
+        originCodes = Arrays.copyOf(originCodes, newCapacity);
+        destinationCodes = Arrays.copyOf(destinationCodes, newCapacity);
+    }
+
+    /**
+     * A filter over the store. Unset fields match every flight.
+     */
+    public static class Query {
+
+        private int fromDay = Integer.MIN_VALUE;
+        private int toDay = Integer.MAX_VALUE;
+        private int originCode = -1;
+        private int destinationCode = -1;
+        private int minSeats = Integer.MIN_VALUE;
+        private int maxPrice = Integer.MAX_VALUE;
+
+        /**
+         * Restricts the query to flights departing between the two dates, inclusive.
+         *
+         * @param from The first departure date.
+         * @param to The last departure date.
+         * @return This query.
+         */
+        public Query departing(LocalDate from, LocalDate to) {
+            this.fromDay = (int) from.toEpochDay();
+            this.toDay = (int) to.toEpochDay();
+            return this;
+        }
+
+        /**
+         * Restricts the query to a route. Pass null for either end to leave it open.
+         * An airport that no flight uses matches nothing.
+         *
+         * @param store The store the codes belong to.
+         * @param origin The origin, or null.
+         * @param destination The destination, or null.
+         * @return This query.
+         */
+        public Query route(CompactFlightStore store, String origin, String destination) {
+            this.originCode = origin == null ? -1 : nonMatchingIfAbsent(store.codeOf(origin));
+            this.destinationCode = destination == null ? -1 : nonMatchingIfAbsent(store.codeOf(destination));
+            return this;
+        }
+
+        /**
+         * Restricts the query to flights with at least the given number of seats.
+         *
+         * @param minSeats The fewest seats.
+         * @return This query.
+         */
+        public Query minSeats(int minSeats) {
+            this.minSeats = minSeats;
+            return this;
+        }
+
+        /**
+         * Restricts the query to flights costing no more than the given price.
+         *
+         * @param maxPrice The highest price.
+         * @return This query.
+         */
+        public Query maxPrice(int maxPrice) {
+            this.maxPrice = maxPrice;
+            return this;
+        }
+
+        private static int nonMatchingIfAbsent(int code) {
+            return code < 0 ? Integer.MAX_VALUE : code;
+        }
+    }
+
+    /**
+     * A read-only Flight backed by one row of the store. The same view can be moved
+     * from row to row, so a scan needs a single object however many rows it visits.
+     * It carries no passengers, bookings or seat map.
+     */
+    public class View extends Flight {
+
+        private int row;
+
+        private View() {
+            super(0, null, null, null, null, 0, 0);
+        }
+
+        /**
+         * Positions the view on another row.
+         *
+         * @param row The row index.
+         * @return This view.
+         */
+        public View moveTo(int row) {
+            if (row < 0 || row >= size) {
+                throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+            }
+            this.row = row;
+            return this;
+        }
+
+        @Override
+        public int getId() {
+            return ids[row];
+        }
+
+        @Override
+        public String getFlightNumber() {
+            return symbols.get(flightNumberCodes[row]);
+        }
+
+        @Override
+        public String getOrigin() {
+            return symbols.get(originCodes[row]);
+        }
+
+        @Override
+        public String getDestination() {
+            return symbols.get(destinationCodes[row]);
+        }
+
+        @Override
+        public LocalDate getDepartureDate() {
+            return LocalDate.ofEpochDay(departureDays[row]);
+        }
+
+        @Override
+        public int getNumberOfSeats() {
+            return seats[row];
+        }
+
+        @Override
+        public int getPrice() {
+            return prices[row];
+        }
+
+        @Override
+        public void setId(int id) {
+            throw new UnsupportedOperationException("Compact flight views are read-only.");
+        }
+
+        @Override
+        public void setFlightNumber(String flightNumber) {
+            throw new UnsupportedOperationException("Compact flight views are read-only.");
+        }
+
+        @Override
+        public void setOrigin(String origin) {
+            throw new UnsupportedOperationException("Compact flight views are read-only.");
+        }
+
+        @Override
+        public void setDestination(String destination) {
+            throw new UnsupportedOperationException("Compact flight views are read-only.");
+        }
+
+        @Override
+        public void setDepartureDate(LocalDate departureDate) {
+            throw new UnsupportedOperationException("Compact flight views are read-only.");
+        }
+
+        @Override
+        public void setNumberOfSeats(int numberOfSeats) {
+            throw new UnsupportedOperationException("Compact flight views are read-only.");
+        }
+
+        @Override
+        public void setPrice(int price) {
+            throw new UnsupportedOperationException("Compact flight views are read-only.");
+        }
+
+        @Override
+        public void addPassenger(Customer customer) {
+            throw new UnsupportedOperationException("Compact flight views are read-only.");
+        }
+
+        @Override
+        public void removePassenger(Customer customer) {
+            throw new UnsupportedOperationException("Compact flight views are read-only.");
+        }
+
+        @Override
+        public void addBooking(Booking booking) {
+            throw new UnsupportedOperationException("Compact flight views are read-only.");
+        }
+
+        @Override
+        public void removeBooking(Booking booking) {
+            throw new UnsupportedOperationException("Compact flight views are read-only.");
+        }
+
+        @Override
+        public SeatMap getSeatMap() {
+            throw new UnsupportedOperationException("Compact flight views have no seat map.");
+        }
+    }
+}
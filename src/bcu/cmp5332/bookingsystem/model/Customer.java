@@ -1,6 +1,6 @@
 package bcu.cmp5332.bookingsystem.model;
 
-import java.util.ArrayList;
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -13,8 +13,10 @@ public class Customer {
     private String name;
     private String phone;
     private String email;
-    private int balance; // Added balance field
-    private final List<Booking> bookings = new ArrayList<>();
+    // kept up to date by the system's ledger, so reading it needs no lock
+    private volatile int balance;
+    // in booking date order, indexed by booking and flight ID once there are many
+    private final CustomerBookings bookings = new CustomerBookings();
 
     /**
      * Constructs a new Customer object with the specified parameters.
@@ -104,12 +106,63 @@ public class Customer {
     }
 
     /**
-     * Returns the list of bookings made by the customer.
+     * Returns the list of bookings made by the customer, in booking date order. The list is
+     * a copy, so it can be iterated while other threads book.
      *
      * @return The list of bookings made by the customer.
      */
     public List<Booking> getBookings() {
-        return bookings;
+        return bookings.snapshot();
+    }
+
+    /**
+     * Returns a page of the customer's booking history, in booking date order.
+     *
+     * @param offset The number of bookings to skip.
+     * @param limit The largest number of bookings to return.
+     * @return The bookings on the page.
+     */
+    public List<Booking> getBookingHistory(int offset, int limit) {
+        return bookings.page(offset, limit);
+    }
+
+    /**
+     * Returns the number of bookings made by the customer.
+     *
+     * @return The number of bookings.
+     */
+    public int getBookingCount() {
+        return bookings.size();
+    }
+
+    /**
+     * Returns the booking made by the customer with the specified ID.
+     *
+     * @param bookingId The ID of the booking.
+     * @return The booking, or null if the customer has none with that ID.
+     */
+    public Booking getBookingById(int bookingId) {
+        return bookings.getById(bookingId);
+    }
+
+    /**
+     * Returns every booking made by the customer on the specified flight, in booking date order.
+     *
+     * @param flightId The ID of the flight.
+     * @return The bookings on the flight.
+     */
+    public List<Booking> getBookingsByFlightId(int flightId) {
+        return bookings.getByFlight(flightId);
+    }
+
+    /**
+     * Changes the date of one of the customer's bookings, keeping the bookings in date order.
+     *
+     * @param booking The booking to be changed.
+     * @param bookingDate The new booking date.
+     */
+    public void setBookingDate(Booking booking, LocalDate bookingDate) {
+        bookings.setBookingDate(booking, bookingDate);
     }
 
     /**
@@ -127,26 +180,23 @@ public class Customer {
      * @return A short string representation of the customer's details.
      */
     public String getDetailsShort() {
-        return "Customer #" + id + " - " + name + " - " + phone + " - " + email;
+        return DetailsRenderer.appendShort(new StringBuilder(64), this).toString();
     }
 
     /**
      * Returns the booking made by the customer for the specified flight ID.
      *
      * @param flightId The ID of the flight.
-     * @return The booking made by the customer for the specified flight ID.
+     * @return The booking made by the customer for the specified flight ID, the earliest
+     * made if there are several, or null if there is none.
      */
     public Booking getBookingByFlightId(int flightId) {
-        for (Booking booking : bookings) {
-            if (booking.getFlight().getId() == flightId) {
-                return booking;
-            }
-        }
-        return null;
+        return bookings.getFirstByFlight(flightId);
     }
 
     /**
-     * Returns the balance of the customer.
+     * Returns the balance of the customer: what their bookings have been charged, rebook
+     * fees included, less what has been refunded.
      *
      * @return The balance of the customer.
      */
@@ -155,7 +205,8 @@ public class Customer {
     }
 
     /**
-     * Sets the balance of the customer.
+     * Sets the balance of the customer. Changes should be posted through the system's
+     * {@link Ledger}, which calls this, so that they are journaled.
      *
      * @param balance The balance of the customer.
      */
@@ -0,0 +1,170 @@
+package bcu.cmp5332.bookingsystem.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * The CustomerBookings class holds the bookings of one customer in booking date order.
+ * Most customers have a handful of bookings, kept in a sorted list that costs a reference
+ * each. Once a customer has more than {@link #INDEX_THRESHOLD}, as a corporate account
+ * might, the bookings move into maps keyed by booking ID, by flight and by date, so finding,
+ * removing and redating one costs O(log n) rather than a walk over all of them. They move
+ * back to a list when fewer than half that many are left.
+ *
+ * Every method locks the holder, so it can be used while other threads book.
+ */
+class CustomerBookings {
+
+    static final int INDEX_THRESHOLD = 32;
+
+    private static final Comparator<Booking> BY_DATE =
+            Comparator.comparing(Booking::getBookingDate).thenComparingInt(Booking::getId);
+
+    // sorted by date while small; null once indexed
+    private List<Booking> list = new ArrayList<>(2);
+    private Map<Integer, Booking> byId;
+    // (flight ID, booking ID) and (epoch day, booking ID) packed into one long each
+    private NavigableMap<Long, Booking> byFlight;
+    private NavigableMap<Long, Booking> byDate;
+
+    synchronized void add(Booking booking) {
+        if (list != null) {
+            int at = Collections.binarySearch(list, booking, BY_DATE);
+            list.add(at < 0 ? -at - 1 : at, booking);
+            if (list.size() > INDEX_THRESHOLD) {
+                buildIndex();
+            }
+        } else {
+            index(booking);
+        }
+    }
+
+    synchronized boolean remove(Booking booking) {
+        if (list != null) {
+            return list.remove(booking);
+        }
+        if (byId.get(booking.getId()) != booking) {
+            return false;
+        }
+        byId.remove(booking.getId());
+        byFlight.remove(flightKey(booking.getFlight().getId(), booking.getId()));
+        byDate.remove(dateKey(booking.getBookingDate(), booking.getId()));
+        if (byId.size() < INDEX_THRESHOLD / 2) {
+            list = new ArrayList<>(byDate.values());
+            byId = null;
+            byFlight = null;
+            byDate = null;
+        }
+        return true;
+    }
+
+    synchronized void setBookingDate(Booking booking, LocalDate date) {
+        boolean held = list != null ? list.remove(booking) : byId.get(booking.getId()) == booking;
+        if (!held) {
+            booking.setBookingDate(date);
+            return;
+        }
+        if (list != null) {
+            booking.setBookingDate(date);
+            add(booking);
+        } else {
+            byDate.remove(dateKey(booking.getBookingDate(), booking.getId()));
+            booking.setBookingDate(date);
+            byDate.put(dateKey(date, booking.getId()), booking);
+        }
+    }
+
+    synchronized Booking getById(int id) {
+        if (list == null) {
+            return byId.get(id);
+        }
+        for (Booking booking : list) {
+            if (booking.getId() == id) {
+                return booking;
+            }
+        }
+        return null;
+    }
+
+    synchronized Booking getFirstByFlight(int flightId) {
+        if (list == null) {
+            Map.Entry<Long, Booking> entry = byFlight.ceilingEntry(flightKey(flightId, 0));
+            return entry != null && entry.getValue().getFlight().getId() == flightId ? entry.getValue() : null;
+        }
+        Booking first = null;
+        for (Booking booking : list) {
+            if (booking.getFlight().getId() == flightId && (first == null || booking.getId() < first.getId())) {
+                first = booking;
+            }
+        }
+        return first;
+    }
+
+    synchronized List<Booking> getByFlight(int flightId) {
+        List<Booking> out = new ArrayList<>();
+        if (list == null) {
+            out.addAll(byFlight.subMap(flightKey(flightId, 0), true, flightKey(flightId, Integer.MAX_VALUE), true).values());
+            out.sort(BY_DATE);
+        } else {
+            for (Booking booking : list) {
+                if (booking.getFlight().getId() == flightId) {
+                    out.add(booking);
+                }
+            }
+        }
+        return out;
+    }
+
+    synchronized List<Booking> page(int offset, int limit) {
+        List<Booking> out = new ArrayList<>(Math.max(0, Math.min(limit, size() - offset)));
+        int skipped = 0;
+        for (Booking booking : list != null ? list : byDate.values()) {
+            if (out.size() >= limit) {
+                break;
+            }
+            if (skipped++ >= offset) {
+                out.add(booking);
+            }
+        }
+        return out;
+    }
+
+    synchronized List<Booking> snapshot() {
+        return new ArrayList<>(list != null ? list : byDate.values());
+    }
+
+    synchronized int size() {
+        return list != null ? list.size() : byId.size();
+    }
+
+    private void buildIndex() {
+        byId = new HashMap<>(list.size() * 2);
+        byFlight = new TreeMap<>();
+        byDate = new TreeMap<>();
+        for (Booking booking : list) {
+            index(booking);
+        }
+        list = null;
+    }
+
+    private void index(Booking booking) {
+        byId.put(booking.getId(), booking);
+        byFlight.put(flightKey(booking.getFlight().getId(), booking.getId()), booking);
+        byDate.put(dateKey(booking.getBookingDate(), booking.getId()), booking);
+    }
+
+    private static long flightKey(int flightId, int bookingId) {
+        return ((long) flightId << 32) | (bookingId & 0xFFFFFFFFL);
+    }
+
+    private static long dateKey(LocalDate date, int bookingId) {
+        return (date.toEpochDay() << 32) | (bookingId & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,118 @@
+package bcu.cmp5332.bookingsystem.model;
+
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.metrics.Metrics;
+import bcu.cmp5332.bookingsystem.metrics.OperationStats;
+
+import java.util.Locale;
+
+/**
+ * The CustomerContactIndex class keeps the email addresses and phone numbers of the
+ * customers unique. Emails are compared ignoring case and surrounding spaces, and phone
+ * numbers by their digits alone; an empty one is not indexed. Each is held in a
+ * {@link UniqueKeyIndex}, so checking a new customer costs a few bit tests in the common
+ * case and one table probe when the key may already be taken, and the whole index costs
+ * a few dozen bytes per customer whatever the lengths of the keys.
+ *
+ * Checks are recorded under "customers.unique.check".
+ */
+public class CustomerContactIndex {
+
+    private final CustomerStore customers;
+    private final UniqueKeyIndex emails = new UniqueKeyIndex("email");
+    private final UniqueKeyIndex phones = new UniqueKeyIndex("phone");
+    private final OperationStats checks = Metrics.operation("customers.unique.check");
+
+    /**
+     * Constructs an empty index.
+     *
+     * @param customers The store the indexed customers are kept in, used to confirm matches.
+     */
+    public CustomerContactIndex(CustomerStore customers) {
+        this.customers = customers;
+    }
+
+    /**
+     * Indexes a new customer, unless another customer already has the same email address
+     * or phone number.
+     *
+     * @param customer The customer.
+     * @throws FlightBookingSystemException If the email address or phone number is taken.
+     */
+    public synchronized void add(Customer customer) throws FlightBookingSystemException {
+        long start = System.nanoTime();
+        String email = normalizeEmail(customer.getEmail());
+        String phone = normalizePhone(customer.getPhone());
+        long emailHash = UniqueKeyIndex.hash(email);
+        long phoneHash = UniqueKeyIndex.hash(phone);
+        if (!email.isEmpty() && emails.find(emailHash, id -> hasEmail(id, email)) >= 0) {
+            checks.record(System.nanoTime() - start, true);
+            throw new FlightBookingSystemException("There is already a customer with that email address.");
+        }
+        if (!phone.isEmpty() && phones.find(phoneHash, id -> hasPhone(id, phone)) >= 0) {
+            checks.record(System.nanoTime() - start, true);
+            throw new FlightBookingSystemException("There is already a customer with that phone number.");
+        }
+        if (!email.isEmpty()) {
+            emails.add(emailHash, customer.getId());
+        }
+        if (!phone.isEmpty()) {
+            phones.add(phoneHash, customer.getId());
+        }
+        checks.record(System.nanoTime() - start, false);
+    }
+
+    /**
+     * Removes a customer from the index.
+     *
+     * @param customer The customer.
+     */
+    public synchronized void remove(Customer customer) {
+        String email = normalizeEmail(customer.getEmail());
+        String phone = normalizePhone(customer.getPhone());
+        if (!email.isEmpty()) {
+            emails.remove(UniqueKeyIndex.hash(email), customer.getId());
+        }
+        if (!phone.isEmpty()) {
+            phones.remove(UniqueKeyIndex.hash(phone), customer.getId());
+        }
+    }
+
+    /**
+     * Describes the email and phone indexes: their sizes, the false-positive rate their
+     * filters should give and the rate they have given so far.
+     *
+     * @return The report, one line per index.
+     */
+    public synchronized String report() {
+        return emails.report() + System.lineSeparator() + phones.report() + System.lineSeparator();
+    }
+
+    private boolean hasEmail(int id, String email) {
+        Customer customer = customers.get(id);
+        return customer != null && normalizeEmail(customer.getEmail()).equals(email);
+    }
+
+    private boolean hasPhone(int id, String phone) {
+        Customer customer = customers.get(id);
+        return customer != null && normalizePhone(customer.getPhone()).equals(phone);
+    }
+
+    private static String normalizeEmail(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String normalizePhone(String phone) {
+        if (phone == null) {
+            return "";
+        }
+        StringBuilder digits = new StringBuilder(phone.length());
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        return digits.toString();
+    }
+}
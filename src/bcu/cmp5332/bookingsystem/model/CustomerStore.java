@@ -0,0 +1,75 @@
+package bcu.cmp5332.bookingsystem.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The CustomerStore interface defines where the FlightBookingSystem keeps its customers.
+ * Implementations may keep them on the heap or encode them elsewhere and materialize
+ * Customer objects on demand; either way a customer that is still referenced (for example
+ * by one of its bookings) is always returned as the same instance.
+ */
+public interface CustomerStore {
+
+    /**
+     * Checks whether a customer with the given ID is stored.
+     *
+     * @param id The customer ID.
+     * @return True if the customer exists, otherwise false.
+     */
+    public boolean contains(int id);
+
+    /**
+     * Gets a customer by its ID.
+     *
+     * @param id The customer ID.
+     * @return The customer, or null if there is none with that ID.
+     */
+    public Customer get(int id);
+
+    /**
+     * Adds a customer, or writes back the details of one that is already stored.
+     *
+     * @param customer The customer to store.
+     */
+    public void put(Customer customer);
+
+    /**
+     * Removes a customer.
+     *
+     * @param id The customer ID.
+     * @return True if a customer was removed, otherwise false.
+     */
+    public boolean remove(int id);
+
+    /**
+     * Returns the number of stored customers.
+     *
+     * @return The number of customers.
+     */
+    public int size();
+
+    /**
+     * Returns the IDs of every stored customer in ascending order.
+     *
+     * @return The customer IDs.
+     */
+    public int[] ids();
+
+    /**
+     * Returns every stored customer in ascending ID order.
+     *
+     * @return The list of customers.
+     */
+    public default List<Customer> values() {
+        int[] ids = ids();
+        List<Customer> out = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Customer customer = get(id);
+            if (customer != null) {
+                out.add(customer);
+            }
+        }
+        return out;
+    }
+}
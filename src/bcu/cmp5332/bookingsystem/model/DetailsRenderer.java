@@ -0,0 +1,152 @@
+package bcu.cmp5332.bookingsystem.model;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * The DetailsRenderer class writes the text shown for flights and customers into a
+ * caller-supplied buffer. Numbers and dates are written digit by digit, so rendering a
+ * row into a reused StringBuilder creates no objects; listings render every row into the
+ * same builder instead of building a String per row.
+ *
+ * Dates are written as dd/MM/yyyy using the calendar year.
+ */
+public final class DetailsRenderer {
+
+    private static final ThreadLocal<StringBuilder> SCRATCH = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private DetailsRenderer() {
+    }
+
+    /**
+     * Appends the one-line summary of a flight, as shown by {@link Flight#getDetailsShort()}.
+     *
+     * @param sb The builder to append to.
+     * @param flight The flight.
+     * @return The builder.
+     */
+    public static StringBuilder appendShort(StringBuilder sb, Flight flight) {
+        sb.append("Flight #").append(flight.getId())
+                .append(" - ").append(flight.getFlightNumber())
+                .append(" - ").append(flight.getOrigin())
+                .append(" to ").append(flight.getDestination())
+                .append(" on ");
+        appendDate(sb, flight.getDepartureDate());
+        return sb.append(" - Price: ").append(flight.getPrice())
+                .append(" - Seats: ").append(flight.getNumberOfSeats());
+    }
+
+    /**
+     * Appends the full details of a flight and the names of its passengers, as shown by
+     * {@link Flight#getDetailsLong()}.
+     *
+     * @param sb The builder to append to.
+     * @param flight The flight.
+     * @return The builder.
+     */
+    public static StringBuilder appendLong(StringBuilder sb, Flight flight) {
+        appendLongHeader(sb, flight).append('\n');
+        for (Customer passenger : flight.getPassengerSet()) {
+            sb.append(passenger.getName()).append('\n');
+        }
+        return sb;
+    }
+
+    /**
+     * Appends the full details of a flight up to the "Passengers:" line, without a final
+     * line break, for callers that write the passengers out one at a time.
+     *
+     * @param sb The builder to append to.
+     * @param flight The flight.
+     * @return The builder.
+     */
+    public static StringBuilder appendLongHeader(StringBuilder sb, Flight flight) {
+        sb.append("Flight #").append(flight.getId()).append('\n');
+        sb.append("Flight Number: ").append(flight.getFlightNumber()).append('\n');
+        sb.append("Origin: ").append(flight.getOrigin()).append('\n');
+        sb.append("Destination: ").append(flight.getDestination()).append('\n');
+        sb.append("Departure Date: ");
+        appendDate(sb, flight.getDepartureDate()).append('\n');
+        sb.append("Number of Seats: ").append(flight.getNumberOfSeats()).append('\n');
+        sb.append("Price: ").append(flight.getPrice()).append('\n');
+        return sb.append("Passengers: ");
+    }
+
+    /**
+     * Appends the one-line summary of a customer, as shown by {@link Customer#getDetailsShort()}.
+     *
+     * @param sb The builder to append to.
+     * @param customer The customer.
+     * @return The builder.
+     */
+    public static StringBuilder appendShort(StringBuilder sb, Customer customer) {
+        return sb.append("Customer #").append(customer.getId())
+                .append(" - ").append(customer.getName())
+                .append(" - ").append(customer.getPhone())
+                .append(" - ").append(customer.getEmail());
+    }
+
+    /**
+     * Appends a date as dd/MM/yyyy.
+     *
+     * @param sb The builder to append to.
+     * @param date The date.
+     * @return The builder.
+     */
+    public static StringBuilder appendDate(StringBuilder sb, LocalDate date) {
+        appendTwoDigits(sb, date.getDayOfMonth()).append('/');
+        appendTwoDigits(sb, date.getMonthValue()).append('/');
+        int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            return sb.append(year);
+        }
+        return sb.append((char) ('0' + year / 1000))
+                .append((char) ('0' + year / 100 % 10))
+                .append((char) ('0' + year / 10 % 10))
+                .append((char) ('0' + year % 10));
+    }
+
+    /**
+     * Appends the one-line summary of a flight to any Appendable.
+     *
+     * @param out Where to write.
+     * @param flight The flight.
+     * @throws IOException If writing fails.
+     */
+    public static void appendShort(Appendable out, Flight flight) throws IOException {
+        out.append(appendShort(scratch(), flight));
+    }
+
+    /**
+     * Appends the full details of a flight to any Appendable.
+     *
+     * @param out Where to write.
+     * @param flight The flight.
+     * @throws IOException If writing fails.
+     */
+    public static void appendLong(Appendable out, Flight flight) throws IOException {
+        out.append(appendLong(scratch(), flight));
+    }
+
+    /**
+     * Appends the one-line summary of a customer to any Appendable.
+     *
+     * @param out Where to write.
+     * @param customer The customer.
+     * @throws IOException If writing fails.
+     */
+    public static void appendShort(Appendable out, Customer customer) throws IOException {
+        out.append(appendShort(scratch(), customer));
+    }
+
+    // rows for a plain Appendable are built in a per-thread builder and handed over in one call
+    private static StringBuilder scratch() {
+        StringBuilder sb = SCRATCH.get();
+        sb.setLength(0);
+        return sb;
+    }
+
+    private static StringBuilder appendTwoDigits(StringBuilder sb, int value) {
+        return sb.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+}
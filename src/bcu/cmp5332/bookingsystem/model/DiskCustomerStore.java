@@ -0,0 +1,451 @@
+package bcu.cmp5332.bookingsystem.model;
+
+import bcu.cmp5332.bookingsystem.metrics.Metrics;
+import bcu.cmp5332.bookingsystem.metrics.OperationStats;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The DiskCustomerStore class keeps customer records in a file and only the most recently
+ * used customers on the heap. Lookups go through a least-recently-used cache of a fixed
+ * number of entries; a miss reads the record from disk, and a customer pushed out of the
+ * cache is written back first if its details were changed while it was cached. Customers
+ * that are still referenced elsewhere, for example by a booking, keep their identity as in
+ * any {@link RecordCustomerStore}, so the heap holds the cache plus the customers in use,
+ * however many customers are stored.
+ *
+ * Two files make up the store. The data file holds records appended one after another:
+ * <pre>
+ * int length | int id | u16 nameLength | name | u16 phoneLength | phone | u16 emailLength | email
+ * </pre>
+ * (strings in UTF-8), and the index file holds one long per customer ID, at the ID times
+ * eight, giving the offset of that customer's record plus one, or zero if there is none.
+ * Updating a customer appends a new record; the space of dropped records is reclaimed once
+ * more than half of the data file is dead.
+ *
+ * Lookups are recorded under "customers.cache.hit" and "customers.cache.miss", customers
+ * pushed out of the cache under "customers.cache.evict" and the ones among them that had
+ * to be written back under "customers.cache.writeback".
+ */
+public class DiskCustomerStore extends RecordCustomerStore implements Closeable {
+
+    private static final int MAX_FIELD_LENGTH = 0xFFFF;
+    private static final long MIN_COMPACT_BYTES = 1 << 20;
+
+    private final Path dataPath;
+    private final Path indexPath;
+    private final boolean temporary;
+    private final int cacheSize;
+    private final Map<Integer, CachedCustomer> cache;
+    private final OperationStats hits = Metrics.operation("customers.cache.hit");
+    private final OperationStats misses = Metrics.operation("customers.cache.miss");
+    private final OperationStats evictions = Metrics.operation("customers.cache.evict");
+    private final OperationStats writeBacks = Metrics.operation("customers.cache.writeback");
+    private final ByteBuffer slot = ByteBuffer.allocate(Long.BYTES);
+    private ByteBuffer buffer = ByteBuffer.allocate(256);
+    private FileChannel data;
+    private FileChannel index;
+    private long dataEnd;
+    private long deadBytes;
+    private int size;
+
+    /**
+     * Constructs a store in temporary files that are deleted when it is closed.
+     *
+     * @param cacheSize The number of customers to keep on the heap.
+     * @throws IOException If the files cannot be created.
+     */
+    public DiskCustomerStore(int cacheSize) throws IOException {
+        this(Files.createTempDirectory("customers").toFile(), cacheSize, true);
+    }
+
+    /**
+     * Constructs an empty store in the given directory, replacing any files a previous
+     * store left there.
+     *
+     * @param directory The directory for the data and index files.
+     * @param cacheSize The number of customers to keep on the heap.
+     * @throws IOException If the files cannot be created.
+     */
+    public DiskCustomerStore(File directory, int cacheSize) throws IOException {
+        this(directory, cacheSize, false);
+    }
+
+    private DiskCustomerStore(File directory, int cacheSize, boolean temporary) throws IOException {
+        if (cacheSize < 1) {
+            throw new IllegalArgumentException("Cache size must be at least 1.");
+        }
+        this.dataPath = new File(directory, "customers.dat").toPath();
+        this.indexPath = new File(directory, "customers.idx").toPath();
+        this.temporary = temporary;
+        this.cacheSize = cacheSize;
+        this.cache = new LinkedHashMap<Integer, CachedCustomer>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, CachedCustomer> eldest) {
+                if (size() <= DiskCustomerStore.this.cacheSize) {
+                    return false;
+                }
+                evict(eldest.getValue());
+                return true;
+            }
+        };
+        this.data = open(dataPath);
+        this.index = open(indexPath);
+    }
+
+    @Override
+    public synchronized Customer get(int id) {
+        long start = System.nanoTime();
+        CachedCustomer cached = cache.get(id);
+        if (cached != null) {
+            hits.record(System.nanoTime() - start, false);
+            return cached.customer;
+        }
+        Customer customer = super.get(id);
+        if (customer != null) {
+            cache.put(id, new CachedCustomer(customer));
+        }
+        misses.record(System.nanoTime() - start, false);
+        return customer;
+    }
+
+    @Override
+    public synchronized void put(Customer customer) {
+        super.put(customer);
+        cache.put(customer.getId(), new CachedCustomer(customer));
+    }
+
+    @Override
+    public synchronized boolean remove(int id) {
+        cache.remove(id);
+        return super.remove(id);
+    }
+
+    @Override
+    public synchronized boolean contains(int id) {
+        return id >= 0 && readSlot(id) != 0;
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized int[] ids() {
+        int[] ids = new int[Math.max(16, size)];
+        int count = 0;
+        ByteBuffer chunk = ByteBuffer.allocate(64 * 1024);
+        try {
+            long length = index.size();
+            for (long position = 0; position < length; position += chunk.capacity()) {
+                chunk.clear();
+                readFully(index, chunk, position);
+                chunk.flip();
+                for (int i = 0; chunk.remaining() >= Long.BYTES; i++) {
+                    if (chunk.getLong() != 0) {
+                        if (count == ids.length) {
+                            ids = Arrays.copyOf(ids, count * 2);
+                        }
+                        ids[count++] = (int) (position / Long.BYTES) + i;
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    /**
+     * Returns the number of customers held by the cache.
+     *
+     * @return The number of cached customers.
+     */
+    public synchronized int getCachedCount() {
+        return cache.size();
+    }
+
+    /**
+     * Returns the size of the data file, including the space of dropped records.
+     *
+     * @return The size in bytes.
+     */
+    public synchronized long getDataBytes() {
+        return dataEnd;
+    }
+
+    /**
+     * Writes back every cached customer whose details have changed.
+     */
+    public synchronized void flush() {
+        for (CachedCustomer cached : cache.values()) {
+            if (cached.isDirty() && contains(cached.customer.getId())) {
+                long start = System.nanoTime();
+                writeRecord(cached.customer);
+                cached.markClean();
+                writeBacks.record(System.nanoTime() - start, false);
+            }
+        }
+    }
+
+    /**
+     * Rewrites every live record into a fresh data file, releasing the space of removed
+     * and superseded records.
+     */
+    public synchronized void compact() {
+        Path compacted = dataPath.resolveSibling(dataPath.getFileName() + ".compact");
+        int[] ids = ids();
+        long[] offsets = new long[ids.length];
+        try (FileChannel target = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long position = 0;
+            for (int i = 0; i < ids.length; i++) {
+                ByteBuffer record = readBytes(readSlot(ids[i]) - 1);
+                offsets[i] = position;
+                while (record.hasRemaining()) {
+                    position += target.write(record, position);
+                }
+            }
+            data.close();
+            Files.move(compacted, dataPath, StandardCopyOption.REPLACE_EXISTING);
+            data = FileChannel.open(dataPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            for (int i = 0; i < ids.length; i++) {
+                writeSlot(ids[i], offsets[i] + 1);
+            }
+            dataEnd = position;
+            deadBytes = 0;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Writes back the changed customers and closes the files, deleting them if the store
+     * was made in temporary files.
+     *
+     * @throws IOException If the files cannot be closed or deleted.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (!data.isOpen()) {
+            return;
+        }
+        flush();
+        data.close();
+        index.close();
+        if (temporary) {
+            Files.deleteIfExists(dataPath);
+            Files.deleteIfExists(indexPath);
+            Files.deleteIfExists(dataPath.getParent());
+        }
+    }
+
+    @Override
+    protected Customer readRecord(int id) {
+        long offset = id < 0 ? 0 : readSlot(id);
+        if (offset == 0) {
+            return null;
+        }
+        ByteBuffer record;
+        try {
+            record = readBytes(offset - 1);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        record.position(2 * Integer.BYTES);
+        String name = readString(record);
+        String phone = readString(record);
+        String email = readString(record);
+        return new Customer(id, name, phone, email);
+    }
+
+    @Override
+    protected void writeRecord(Customer customer) {
+        if (customer.getId() < 0) {
+            throw new IllegalArgumentException("Customer IDs stored on disk cannot be negative.");
+        }
+        byte[] name = encode(customer.getName());
+        byte[] phone = encode(customer.getPhone());
+        byte[] email = encode(customer.getEmail());
+        int length = 2 * Integer.BYTES + 3 * Short.BYTES + name.length + phone.length + email.length;
+        ByteBuffer record = ensureBuffer(length);
+        record.putInt(length);
+        record.putInt(customer.getId());
+        putString(record, name);
+        putString(record, phone);
+        putString(record, email);
+        record.flip();
+        try {
+            long previous = readSlot(customer.getId());
+            long offset = dataEnd;
+            while (record.hasRemaining()) {
+                dataEnd += data.write(record, dataEnd);
+            }
+            writeSlot(customer.getId(), offset + 1);
+            if (previous == 0) {
+                size++;
+            } else {
+                deadBytes += recordLength(previous - 1);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        compactIfWasteful();
+    }
+
+    @Override
+    protected boolean removeRecord(int id) {
+        long offset = id < 0 ? 0 : readSlot(id);
+        if (offset == 0) {
+            return false;
+        }
+        try {
+            deadBytes += recordLength(offset - 1);
+            writeSlot(id, 0);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        size--;
+        compactIfWasteful();
+        return true;
+    }
+
+    private void evict(CachedCustomer cached) {
+        long start = System.nanoTime();
+        if (cached.isDirty() && contains(cached.customer.getId())) {
+            writeRecord(cached.customer);
+            writeBacks.record(System.nanoTime() - start, false);
+        }
+        evictions.record(System.nanoTime() - start, false);
+    }
+
+    private void compactIfWasteful() {
+        if (deadBytes > MIN_COMPACT_BYTES && deadBytes * 2 > dataEnd) {
+            compact();
+        }
+    }
+
+    private long readSlot(int id) {
+        slot.clear();
+        try {
+            long position = (long) id * Long.BYTES;
+            if (position >= index.size()) {
+                return 0;
+            }
+            readFully(index, slot, position);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return slot.getLong(0);
+    }
+
+    private void writeSlot(int id, long value) throws IOException {
+        slot.clear();
+        slot.putLong(0, value);
+        long position = (long) id * Long.BYTES;
+        while (slot.hasRemaining()) {
+            position += index.write(slot, position);
+        }
+    }
+
+    private int recordLength(long offset) throws IOException {
+        ByteBuffer header = ensureBuffer(Integer.BYTES);
+        header.limit(Integer.BYTES);
+        readFully(data, header, offset);
+        return header.getInt(0);
+    }
+
+    private ByteBuffer readBytes(long offset) throws IOException {
+        int length = recordLength(offset);
+        ByteBuffer record = ensureBuffer(length);
+        record.limit(length);
+        readFully(data, record, offset);
+        record.flip();
+        return record;
+    }
+
+    private ByteBuffer ensureBuffer(int length) {
+        if (buffer.capacity() < length) {
+            buffer = ByteBuffer.allocate(Math.max(length, buffer.capacity() * 2));
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer target, long position) throws IOException {
+        while (target.hasRemaining()) {
+            int read = channel.read(target, position);
+            if (read < 0) {
+                // the tail of a sparse index file reads as empty slots
+                while (target.hasRemaining()) {
+                    target.put((byte) 0);
+                }
+                return;
+            }
+            position += read;
+        }
+    }
+
+    private static FileChannel open(Path path) throws IOException {
+        Files.deleteIfExists(path);
+        return FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private static String readString(ByteBuffer record) {
+        int length = record.getShort() & MAX_FIELD_LENGTH;
+        String value = new String(record.array(), record.arrayOffset() + record.position(), length, StandardCharsets.UTF_8);
+        record.position(record.position() + length);
+        return value;
+    }
+
+    private static void putString(ByteBuffer record, byte[] bytes) {
+        record.putShort((short) bytes.length);
+        record.put(bytes);
+    }
+
+    private static byte[] encode(String value) {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_FIELD_LENGTH) {
+            throw new IllegalArgumentException("Customer field longer than " + MAX_FIELD_LENGTH + " bytes.");
+        }
+        return bytes;
+    }
+
+    private static int fieldHash(Customer customer) {
+        return Objects.hash(customer.getName(), customer.getPhone(), customer.getEmail());
+    }
+
+    private static class CachedCustomer {
+
+        private final Customer customer;
+        private int cleanHash;
+
+        CachedCustomer(Customer customer) {
+            this.customer = customer;
+            this.cleanHash = fieldHash(customer);
+        }
+
+        boolean isDirty() {
+            return fieldHash(customer) != cleanHash;
+        }
+
+        void markClean() {
+            cleanHash = fieldHash(customer);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package bcu.cmp5332.bookingsystem.model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * The FareIndex class holds what a booking on each flight that has not departed costs on the
+ * system date, both by flight and by fare. Reading a fare is O(1) and finding the flights up
+ * to a fare costs only the flights found, as there are few distinct fares. The system moves a
+ * flight to its new fare when the date passes one of its price steps, so nothing is priced
+ * on read.
+ *
+ * Different flights can be moved from different threads at once.
+ */
+class FareIndex {
+
+    private final Map<Integer, Integer> fares = new ConcurrentHashMap<>();
+    private final NavigableMap<Integer, Set<Integer>> byFare = new ConcurrentSkipListMap<>();
+
+    /**
+     * Sets the fare of a flight, moving it from its old fare if it had one.
+     *
+     * @param flightId The ID of the flight.
+     * @param fare     The fare.
+     */
+    void put(int flightId, int fare) {
+        Integer old = fares.put(flightId, fare);
+        if (old != null) {
+            if (old == fare) {
+                return;
+            }
+            byFare.get(old).remove(flightId);
+        }
+        byFare.computeIfAbsent(fare, f -> ConcurrentHashMap.newKeySet()).add(flightId);
+    }
+
+    /**
+     * Drops a flight from the index.
+     *
+     * @param flightId The ID of the flight.
+     */
+    void remove(int flightId) {
+        Integer old = fares.remove(flightId);
+        if (old != null) {
+            byFare.get(old).remove(flightId);
+        }
+    }
+
+    /**
+     * Returns the fare of a flight.
+     *
+     * @param flightId The ID of the flight.
+     * @return The fare, or -1 if the flight is not in the index.
+     */
+    int get(int flightId) {
+        Integer fare = fares.get(flightId);
+        return fare == null ? -1 : fare;
+    }
+
+    /**
+     * Returns the IDs of the flights whose fare is at most the given one.
+     *
+     * @param maxFare The highest fare.
+     * @return The flight IDs, in ascending order.
+     */
+    int[] upTo(int maxFare) {
+        int count = 0;
+        int[] ids = new int[16];
+        for (Set<Integer> flights : byFare.headMap(maxFare, true).values()) {
+            for (int id : flights) {
+                if (count == ids.length) {
+                    ids = Arrays.copyOf(ids, count * 2);
+                }
+                ids[count++] = id;
+            }
+        }
+        ids = Arrays.copyOf(ids, count);
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    /**
+     * Returns the number of flights in the index.
+     *
+     * @return The number of flights.
+     */
+    int size() {
+        return fares.size();
+    }
+}
@@ -1,11 +1,12 @@
 package bcu.cmp5332.bookingsystem.model;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The Flight class represents a flight in the flight booking system.
@@ -25,6 +26,10 @@ public class Flight {
 
 
     private final Set<Customer> passengers;
+    // the other end of Booking.getFlight(), so deleting the flight finds its bookings without a scan
+    private final Set<Booking> bookings;
+    // created on the first seat assignment, so flights booked without seats cost nothing
+    private volatile SeatMap seatMap;
 
     /**
      * Constructs a new Flight object with the specified parameters.
@@ -46,7 +51,8 @@ public class Flight {
         this.numberOfSeats = numberOfSeats;
         this.price = price;
         
-        passengers = new HashSet<>();
+        passengers = ConcurrentHashMap.newKeySet();
+        bookings = ConcurrentHashMap.newKeySet();
     }
 
     /**
@@ -184,15 +190,62 @@ public class Flight {
         return new ArrayList<>(passengers);
     }
 	
+    /**
+     * Returns the passengers without copying them, for the renderer.
+     *
+     * @return The live set of passengers.
+     */
+    Set<Customer> getPassengerSet() {
+        return passengers;
+    }
+
+    /**
+     * Returns a read-only view of the passengers, for walking a large flight without
+     * copying it. The view is live: passengers booked or cancelled while it is walked may
+     * or may not be seen, and no passenger is seen twice.
+     *
+     * @return The passengers on the flight.
+     */
+    public Collection<Customer> getPassengerView() {
+        return Collections.unmodifiableSet(passengers);
+    }
+
+    /**
+     * Returns the number of passengers on the flight.
+     *
+     * @return The number of passengers.
+     */
+    public int getPassengerCount() {
+        return passengers.size();
+    }
+	
+    /**
+     * Returns the seat map of the flight, creating an empty one sized to the number of seats
+     * on first use. Changing the number of seats afterwards does not resize it.
+     *
+     * @return The seat map.
+     */
+    public SeatMap getSeatMap() {
+        SeatMap map = seatMap;
+        if (map == null) {
+            synchronized (this) {
+                map = seatMap;
+                if (map == null) {
+                    map = new SeatMap(numberOfSeats);
+                    seatMap = map;
+                }
+            }
+        }
+        return map;
+    }
+
     /**
      * Returns a short string representation of the flight details.
      *
      * @return A short string representation of the flight details.
      */
     public String getDetailsShort() {
-        DateTimeFormatter dtf = DateTimeFormatter.ofPattern("dd/MM/YYYY");
-        return "Flight #" + id + " - " + flightNumber + " - " + origin + " to " 
-                + destination + " on " + departureDate.format(dtf) + " - Price: " + price + " - Seats: " + numberOfSeats;
+        return DetailsRenderer.appendShort(new StringBuilder(96), this).toString();
     }
 
     /**
@@ -201,20 +254,7 @@ public class Flight {
      * @return A long string representation of the flight details.
      */
     public String getDetailsLong() {
-        DateTimeFormatter dtf = DateTimeFormatter.ofPattern("dd/MM/YYYY");
-        StringBuilder sb = new StringBuilder();
-        sb.append("Flight #").append(id).append("\n");
-        sb.append("Flight Number: ").append(flightNumber).append("\n");
-        sb.append("Origin: ").append(origin).append("\n");
-        sb.append("Destination: ").append(destination).append("\n");
-        sb.append("Departure Date: ").append(departureDate.format(dtf)).append("\n");
-        sb.append("Number of Seats: ").append(numberOfSeats).append("\n");
-        sb.append("Price: ").append(price).append("\n");
-        sb.append("Passengers: ").append("\n");
-        for (Customer passenger : passengers) {
-            sb.append(passenger.getName()).append("\n");
-        }
-        return sb.toString();
+        return DetailsRenderer.appendLong(new StringBuilder(192), this).toString();
     }
     
     /**
@@ -236,6 +276,43 @@ public class Flight {
 		
 	}
 
+    /**
+     * Returns the bookings made on the flight.
+     *
+     * @return A list of the flight's bookings.
+     */
+    public List<Booking> getBookings() {
+        return new ArrayList<>(bookings);
+    }
+
+    /**
+     * Returns a read-only view of the bookings made on the flight, for walking a large
+     * flight without copying it. Like {@link #getPassengerView()}, the view is live.
+     *
+     * @return The flight's bookings.
+     */
+    public Collection<Booking> getBookingView() {
+        return Collections.unmodifiableSet(bookings);
+    }
+
+    /**
+     * Links a booking to the flight.
+     *
+     * @param booking The booking made on the flight.
+     */
+    public void addBooking(Booking booking) {
+        bookings.add(booking);
+    }
+
+    /**
+     * Unlinks a booking from the flight.
+     *
+     * @param booking The booking to unlink.
+     */
+    public void removeBooking(Booking booking) {
+        bookings.remove(booking);
+    }
+
 
 
 
@@ -2,37 +2,361 @@ package bcu.cmp5332.bookingsystem.model;
 
 import bcu.cmp5332.bookingsystem.commands.CancelBooking;
 import bcu.cmp5332.bookingsystem.commands.ViewBooking;
+import bcu.cmp5332.bookingsystem.data.BookingDataManager;
 import bcu.cmp5332.bookingsystem.data.FlightBookingSystemData;
+import bcu.cmp5332.bookingsystem.data.LedgerDataManager;
+import bcu.cmp5332.bookingsystem.data.Tombstones;
+import bcu.cmp5332.bookingsystem.data.WaitlistDataManager;
 import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.metrics.Metrics;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The FlightBookingSystem class represents the main system that manages flights, customers, and bookings.
  */
 public class FlightBookingSystem {
     
-    private final LocalDate systemDate = LocalDate.parse("2020-11-11");
+    /**
+     * The date a system starts on unless it is given a clock: the date the system has always
+     * treated as today.
+     */
+    public static final LocalDate DEFAULT_START = LocalDate.of(2020, 11, 11);
+
+    // flights repriced by one advance before the work is spread over the common pool
+    private static final int PARALLEL_REPRICE = 1024;
+
+    // the date only moves with advanceDays(), and the clock is moved with it
+    private volatile Clock clock;
+    private volatile LocalDate systemDate;
+    // the flights that have not departed, by departure date, and what booking each costs today
+    private final NavigableMap<LocalDate, Set<Integer>> departures = new ConcurrentSkipListMap<>();
+    private final FareIndex fares = new FareIndex();
     
-    private final Map<Integer, Customer> customers = new TreeMap<>();
-    private final Map<Integer, Flight> flights = new TreeMap<>();
-    private final Map<Integer, Booking> bookings = new TreeMap<>();
+    private final CustomerStore customers;
+    private final CustomerContactIndex contacts;
+    private final SeatHolds holds = new SeatHolds();
+    private final Ledger ledger = new Ledger();
+    // the waitlists of sold-out flights by flight ID, and the flights a removed booking freed a seat on
+    private final Map<Integer, Waitlist> waitlists = new ConcurrentHashMap<>();
+    private final Set<Integer> pendingPromotions = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger lastWaitlistId = new AtomicInteger();
+    // sorted like a TreeMap, but safe to read while the GUI's worker thread writes
+    private final Map<Integer, Flight> flights = new ConcurrentSkipListMap<>();
+    private final Map<Integer, Booking> bookings = new ConcurrentSkipListMap<>();
+    // "flight number@departure date" of every flight, so adding a flight needs no scan
+    private final Set<String> schedule = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger lastFlightId = new AtomicInteger();
+    private final AtomicInteger lastCustomerId = new AtomicInteger();
+    private final AtomicInteger lastBookingId = new AtomicInteger();
+    // when this system is one shard of several, the flights and bookings it creates get IDs
+    // equal to partitionIndex modulo partitionCount, so no two shards hand out the same ID
+    private volatile int partitionIndex = 0;
+    private volatile int partitionCount = 1;
+
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile boolean autoSave = true;
+
+    /**
+     * Constructs a FlightBookingSystem that keeps its customers on the heap and starts on
+     * {@link #DEFAULT_START}.
+     */
+    public FlightBookingSystem() {
+        this(new HeapCustomerStore());
+    }
 
     /**
-     * Gets the system date.
+     * Constructs a FlightBookingSystem that keeps its customers in the given store and starts
+     * on {@link #DEFAULT_START}.
+     * @param customers The customer store.
+     */
+    public FlightBookingSystem(CustomerStore customers) {
+        this(customers, clockAt(DEFAULT_START));
+    }
+
+    /**
+     * Constructs a FlightBookingSystem that keeps its customers in the given store. The
+     * system date is the clock's date now, and from then on moves only with
+     * {@link #advanceDays(int)}.
+     * @param customers The customer store.
+     * @param clock The clock the system date is taken from.
+     */
+    public FlightBookingSystem(CustomerStore customers, Clock clock) {
+        this.customers = customers;
+        this.contacts = new CustomerContactIndex(customers);
+        this.clock = clock;
+        this.systemDate = LocalDate.now(clock);
+    }
+
+    /**
+     * Returns a clock that stands still at the start of a date, for starting a system on it.
+     * @param date The date.
+     * @return The clock.
+     */
+    public static Clock clockAt(LocalDate date) {
+        return Clock.fixed(date.atStartOfDay(ZoneOffset.UTC).toInstant(), ZoneOffset.UTC);
+    }
+
+    /**
+     * Registers a listener to be told about every flight, customer and booking that is
+     * added, updated or removed.
+     * @param listener The listener.
+     */
+    public void addChangeListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a change listener.
+     * @param listener The listener.
+     */
+    public void removeChangeListener(ChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Checks whether commands write their changes to the data files as they run.
+     * @return True if every change is saved straight away, otherwise false.
+     */
+    public boolean isAutoSave() {
+        return autoSave;
+    }
+
+    /**
+     * Sets whether commands write their changes to the data files as they run. Batch runs
+     * turn this off and store the whole system at their checkpoints instead.
+     * @param autoSave True to save every change straight away, otherwise false.
+     */
+    public void setAutoSave(boolean autoSave) {
+        this.autoSave = autoSave;
+    }
+
+    /**
+     * Makes this system one shard of several. New flights and bookings get IDs that are
+     * equal to the index modulo the count, so the IDs of every shard are distinct.
+     * @param index The shard index, from 0 to count - 1.
+     * @param count The number of shards.
+     */
+    public void setIdPartition(int index, int count) {
+        if (count < 1 || index < 0 || index >= count) {
+            throw new IllegalArgumentException("Invalid shard " + index + " of " + count);
+        }
+        this.partitionIndex = index;
+        this.partitionCount = count;
+    }
+
+    /**
+     * Returns the ID to give the next new flight: the first ID in this system's partition
+     * after the highest ID ever added.
+     * @return The next flight ID.
+     */
+    public int nextFlightId() {
+        return nextInPartition(lastFlightId.get());
+    }
+
+    /**
+     * Reserves the ID of a new booking: the first ID in this system's partition after the
+     * highest ID ever added or reserved. Every call returns a different ID.
+     * @return The new booking ID.
+     */
+    public int newBookingId() {
+        return lastBookingId.updateAndGet(this::nextInPartition);
+    }
+
+    private int nextInPartition(int last) {
+        int next = last + 1;
+        return next + Math.floorMod(partitionIndex - next, partitionCount);
+    }
+
+    /**
+     * Returns the ID to give the next new customer: one more than the highest ID ever added.
+     * @return The next customer ID.
+     */
+    public int nextCustomerId() {
+        return lastCustomerId.get() + 1;
+    }
+
+    private void fireChange(ChangeEvent.Entity entity, ChangeEvent.Kind kind, int id) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        ChangeEvent event = new ChangeEvent(entity, kind, id);
+        for (ChangeListener listener : listeners) {
+            listener.changed(event);
+        }
+    }
+
+    /**
+     * Gets the system date. Flights departing on or before it have departed, and bookings
+     * and rebook fees are priced by the days left from it.
      * @return The system date.
      */
     public LocalDate getSystemDate() {
         return systemDate;
     }
+
+    /**
+     * Returns the clock of the system, which is moved on with the system date.
+     * @return The clock.
+     */
+    public Clock getClock() {
+        return clock;
+    }
+
+    /**
+     * Moves the system date on, as at the end of each day. Flights that depart by the new
+     * date are archived: they leave the fare index and lose their waitlists. The fares of
+     * the flights whose days left passed a price step are worked out again, in parallel when
+     * there are many; every other fare stays as it is. Listeners hear of each flight that
+     * changed and then of the SYSTEM, whose date always has.
+     * @param days The number of days to move on.
+     * @return What changed.
+     * @throws FlightBookingSystemException If the number of days is not positive.
+     */
+    public synchronized DateChange advanceDays(int days) throws FlightBookingSystemException {
+        if (days < 1) {
+            throw new FlightBookingSystemException("The date can only move forward.");
+        }
+        long start = System.nanoTime();
+        LocalDate from = systemDate;
+        LocalDate to = from.plusDays(days);
+        clock = Clock.offset(clock, Duration.ofDays(days));
+        systemDate = to;
+
+        List<Integer> archived = new ArrayList<>();
+        NavigableMap<LocalDate, Set<Integer>> departed = departures.headMap(to, true);
+        for (Set<Integer> ids : departed.values()) {
+            archived.addAll(ids);
+        }
+        departed.clear();
+        for (int id : archived) {
+            fares.remove(id);
+            waitlists.remove(id);
+            pendingPromotions.remove(id);
+        }
+
+        // a flight's days left went from departure - from to departure - to, so it passed
+        // the step if that lies between them
+        Set<Integer> changed = new TreeSet<>();
+        for (int step : Booking.PRICE_STEPS) {
+            for (Set<Integer> ids : departures.subMap(from.plusDays(step), true, to.plusDays(step - 1), true).values()) {
+                changed.addAll(ids);
+            }
+        }
+        (changed.size() >= PARALLEL_REPRICE ? changed.parallelStream() : changed.stream()).forEach(id -> {
+            Flight flight = flights.get(id);
+            if (flight != null) {
+                fares.put(id, Booking.quote(flight, to));
+            }
+        });
+        Metrics.record("system.advance", start, false);
+
+        for (int id : archived) {
+            fireChange(ChangeEvent.Entity.FLIGHT, ChangeEvent.Kind.UPDATED, id);
+        }
+        for (int id : changed) {
+            fireChange(ChangeEvent.Entity.FLIGHT, ChangeEvent.Kind.UPDATED, id);
+        }
+        fireChange(ChangeEvent.Entity.SYSTEM, ChangeEvent.Kind.UPDATED, 0);
+        return new DateChange(to, changed.size(), archived.size());
+    }
+
+    /**
+     * Returns what a booking on a flight costs on the system date.
+     * @param flight The flight.
+     * @return The fare, read from the fare index unless the flight has departed.
+     */
+    public int getFare(Flight flight) {
+        int fare = fares.get(flight.getId());
+        return fare >= 0 ? fare : Booking.quote(flight, systemDate);
+    }
+
+    /**
+     * Gets the flights that have not departed and cost at most a given fare on the system date.
+     * @param maxFare The highest fare.
+     * @return The flights, in ascending ID order.
+     */
+    public List<Flight> getFlightsUpToFare(int maxFare) {
+        List<Flight> out = new ArrayList<>();
+        for (int id : fares.upTo(maxFare)) {
+            Flight flight = flights.get(id);
+            if (flight != null) {
+                out.add(flight);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * What moving the system date on changed.
+     */
+    public static final class DateChange {
+
+        private final LocalDate date;
+        private final int repriced;
+        private final int archived;
+
+        private DateChange(LocalDate date, int repriced, int archived) {
+            this.date = date;
+            this.repriced = repriced;
+            this.archived = archived;
+        }
+
+        /**
+         * Returns the new system date.
+         * @return The date.
+         */
+        public LocalDate getDate() {
+            return date;
+        }
+
+        /**
+         * Returns the number of flights whose fare was worked out again.
+         * @return The number of flights.
+         */
+        public int getRepriced() {
+            return repriced;
+        }
+
+        /**
+         * Returns the number of flights archived because they have departed.
+         * @return The number of flights.
+         */
+        public int getArchived() {
+            return archived;
+        }
+    }
   
+    /**
+     * Makes sure the IDs handed out from now on are above one that was used before, for
+     * example by a record that has since been deleted.
+     * @param entity The kind of record.
+     * @param id The ID that was used.
+     */
+    public void reserveId(ChangeEvent.Entity entity, int id) {
+        switch (entity) {
+            case FLIGHT:
+                lastFlightId.accumulateAndGet(id, Math::max);
+                break;
+            case CUSTOMER:
+                lastCustomerId.accumulateAndGet(id, Math::max);
+                break;
+            default:
+                lastBookingId.accumulateAndGet(id, Math::max);
+                break;
+        }
+    }
+
     /**
      * Gets the list of flights.
      * @return The list of flights.
@@ -47,13 +371,54 @@ public class FlightBookingSystem {
         return Collections.unmodifiableList(out);
     }
     
+    /**
+     * Gets every flight, including departed ones, in ascending ID order. The collection is
+     * a read-only view of the system, not a copy, so it is cheap to iterate or stop early.
+     * @return A view of all flights.
+     */
+    public Collection<Flight> getAllFlights() {
+        return Collections.unmodifiableCollection(flights.values());
+    }
+
+    /**
+     * Gets the IDs of the flights returned by {@link #getFlights()}, in ascending order,
+     * without building a list of Flight objects.
+     * @return The IDs of the flights that have not departed.
+     */
+    public int[] getFlightIds() {
+        int[] ids = new int[flights.size()];
+        int count = 0;
+        for (Flight flight : flights.values()) {
+            if (flight.getDepartureDate().isAfter(systemDate)) {
+                ids[count++] = flight.getId();
+            }
+        }
+        return Arrays.copyOf(ids, count);
+    }
+    
+    /**
+     * Builds a column-oriented snapshot of every flight, including departed ones,
+     * for schedule-wide scans. Later changes to the system are not reflected in it.
+     * @return The compact flight store.
+     */
+    public CompactFlightStore buildCompactFlightStore() {
+        return CompactFlightStore.of(flights.values());
+    }
+    
     /**
      * Gets the list of customers.
      * @return The list of customers.
      */
     public List<Customer> getCustomers() {
-        List<Customer> out = new ArrayList<>(customers.values());
-        return Collections.unmodifiableList(out);
+        return Collections.unmodifiableList(customers.values());
+    }
+    
+    /**
+     * Gets the IDs of all customers in ascending order, without materializing them.
+     * @return The customer IDs.
+     */
+    public int[] getCustomerIds() {
+        return customers.ids();
     }
     
     /**
@@ -72,10 +437,19 @@ public class FlightBookingSystem {
      * @throws FlightBookingSystemException If the flight with the specified ID is not found.
      */
     public Flight getFlightByID(int id) throws FlightBookingSystemException {
-        if (!flights.containsKey(id)) {
+        Flight flight = flights.get(id);
+        if (flight == null) {
             throw new FlightBookingSystemException("There is no flight with that ID.");
         }
-        return flights.get(id);
+        return flight;
+    }
+
+    /**
+     * Gets the index that keeps customers' email addresses and phone numbers unique.
+     * @return The index.
+     */
+    public CustomerContactIndex getCustomerContactIndex() {
+        return contacts;
     }
 
     /**
@@ -85,10 +459,11 @@ public class FlightBookingSystem {
      * @throws FlightBookingSystemException If the customer with the specified ID is not found.
      */
     public Customer getCustomerByID(int id) throws FlightBookingSystemException {
-        if (!customers.containsKey(id)) {
+        Customer customer = customers.get(id);
+        if (customer == null) {
             throw new FlightBookingSystemException("There is no customer with that ID.");
         }
-        return customers.get(id);
+        return customer;
     }
 
     /**
@@ -98,10 +473,11 @@ public class FlightBookingSystem {
      * @throws FlightBookingSystemException If the booking with the specified ID is not found.
      */
     public Booking getBookingByID(int id) throws FlightBookingSystemException {
-        if (!bookings.containsKey(id)) {
+        Booking booking = bookings.get(id);
+        if (booking == null) {
             throw new FlightBookingSystemException("There is no booking with that ID.");
         }
-        return bookings.get(id);
+        return booking;
     }
 
     /**
@@ -113,35 +489,67 @@ public class FlightBookingSystem {
         if (flights.containsKey(flight.getId())) {
             throw new IllegalArgumentException("Duplicate flight ID.");
         }
-        for (Flight existing : flights.values()) {
-            if (existing.getFlightNumber().equals(flight.getFlightNumber()) 
-                && existing.getDepartureDate().isEqual(flight.getDepartureDate())) {
-                throw new FlightBookingSystemException("There is a flight with same "
-                        + "number and departure date in the system");
-            }
+        if (!schedule.add(scheduleKey(flight))) {
+            throw new FlightBookingSystemException("There is a flight with same "
+                    + "number and departure date in the system");
         }
-        flights.put(flight.getId(), flight);
+        if (flights.putIfAbsent(flight.getId(), flight) != null) {
+            schedule.remove(scheduleKey(flight));
+            throw new IllegalArgumentException("Duplicate flight ID.");
+        }
+        lastFlightId.accumulateAndGet(flight.getId(), Math::max);
+        if (flight.getDepartureDate().isAfter(systemDate)) {
+            departures.computeIfAbsent(flight.getDepartureDate(), d -> ConcurrentHashMap.newKeySet()).add(flight.getId());
+            fares.put(flight.getId(), Booking.quote(flight, systemDate));
+        }
+        fireChange(ChangeEvent.Entity.FLIGHT, ChangeEvent.Kind.ADDED, flight.getId());
     }
 
     /**
      * Adds a customer to the system.
      * @param customer The customer to be added.
-     * @throws FlightBookingSystemException If there is a duplicate customer ID.
+     * @throws FlightBookingSystemException If another customer has the same email address or phone number.
+     * @throws IllegalArgumentException If there is a duplicate customer ID.
      */
     public void addCustomer(Customer customer) throws FlightBookingSystemException {
-        if (customers.containsKey(customer.getId())) {
+        if (customers.contains(customer.getId())) {
             throw new IllegalArgumentException("Duplicate customer ID.");
         }
-        customers.put(customer.getId(), customer);
+        contacts.add(customer);
+        customers.put(customer);
+        lastCustomerId.accumulateAndGet(customer.getId(), Math::max);
+        fireChange(ChangeEvent.Entity.CUSTOMER, ChangeEvent.Kind.ADDED, customer.getId());
     }
     
     
     /**
-     * Adds a booking to the system.
+     * Adds a booking to the system and links it to its customer and flight, and charges
+     * its price to the customer's balance in the {@link #getLedger() ledger}. A booking
+     * without a price is priced at its flight's {@link #getFare(Flight) fare}. A booking
+     * without a seat still needs a place on the flight, so it is refused once every seat is
+     * booked or held.
      * @param booking The booking to be added.
-     * @throws FlightBookingSystemException If the customer or flight associated with the booking is not found, or if there is a duplicate booking ID.
+     * @throws FlightBookingSystemException If the customer or flight associated with the booking is not found,
+     * or the booking has no seat and the flight is full.
+     * @throws IllegalArgumentException If there is a duplicate booking ID.
      */
     public void addBooking(Booking booking) throws FlightBookingSystemException {
+        addBooking(booking, false);
+    }
+
+    /**
+     * Adds a booking read from the data files. Unlike {@link #addBooking}, a booking without
+     * a seat is kept even if its flight is full, as files written before seats were counted
+     * may hold more bookings than a flight has seats.
+     * @param booking The booking to be added.
+     * @throws FlightBookingSystemException If the customer or flight associated with the booking is not found.
+     * @throws IllegalArgumentException If there is a duplicate booking ID.
+     */
+    public void loadBooking(Booking booking) throws FlightBookingSystemException {
+        addBooking(booking, true);
+    }
+
+    private void addBooking(Booking booking, boolean overbook) throws FlightBookingSystemException {
         // Get the customer and flight associated with the booking
         Customer customer = booking.getCustomer();
         Flight flight = booking.getFlight();
@@ -157,7 +565,281 @@ public class FlightBookingSystem {
         }
         
         // Add the booking to the system
-        bookings.put(booking.getId(), booking);
+        if (bookings.putIfAbsent(booking.getId(), booking) != null) {
+            throw new IllegalArgumentException("Duplicate booking ID.");
+        }
+        if (booking.getSeat() == SeatMap.NO_SEAT) {
+            // a booking without a seat still fills one, so seats are not sold past capacity
+            if (overbook) {
+                flight.getSeatMap().addUnseated();
+            } else if (!flight.getSeatMap().tryAddUnseated()) {
+                bookings.remove(booking.getId(), booking);
+                throw new FlightBookingSystemException("Flight with ID " + flight.getId()
+                        + " is full; join its waitlist to be booked when a seat is freed.");
+            }
+        }
+        lastBookingId.accumulateAndGet(booking.getId(), Math::max);
+        if (!booking.hasPrice()) {
+            booking.setPrice(getFare(flight));
+        }
+        customer.addBooking(booking);
+        flight.addBooking(booking);
+        flight.addPassenger(customer);
+        ledger.post(customer, Ledger.Kind.BOOKING, booking.getPrice(), booking.getId(), systemDate);
+        fireChange(ChangeEvent.Entity.BOOKING, ChangeEvent.Kind.ADDED, booking.getId());
+    }
+
+    /**
+     * Removes a booking from the system and unlinks it from its customer and flight.
+     * The customer stays a passenger while they hold another booking on the flight, and
+     * the seat the booking held, or counted against if it had none, is freed. If the flight
+     * has a waitlist, the freed place is filled by the next {@link #promoteWaitlists()}.
+     * What the booking cost is refunded to the customer's balance.
+     * @param booking The booking to be removed.
+     * @return True if the booking was removed, false if it had already been removed.
+     */
+    public boolean removeBooking(Booking booking) {
+        if (!bookings.remove(booking.getId(), booking)) {
+            return false;
+        }
+        Customer customer = booking.getCustomer();
+        Flight flight = booking.getFlight();
+        customer.removeBooking(booking);
+        flight.removeBooking(booking);
+        if (booking.getSeat() != SeatMap.NO_SEAT) {
+            flight.getSeatMap().release(booking.getSeat());
+        } else {
+            flight.getSeatMap().removeUnseated();
+        }
+        if (waitlists.containsKey(flight.getId())) {
+            pendingPromotions.add(flight.getId());
+        }
+        if (customer.getBookingByFlightId(flight.getId()) == null) {
+            flight.removePassenger(customer);
+        }
+        ledger.post(customer, Ledger.Kind.REFUND, -booking.getPrice(), booking.getId(), systemDate);
+        fireChange(ChangeEvent.Entity.BOOKING, ChangeEvent.Kind.REMOVED, booking.getId());
+        return true;
+    }
+
+    /**
+     * Holds seats on a flight for a while, such as during checkout, so that no one else can
+     * book them. The seats are side by side where possible. If the hold is not confirmed
+     * within its time it expires and the seats are freed.
+     * @param flight The flight.
+     * @param seats The number of seats to hold.
+     * @param ttl How long to hold them.
+     * @return The ID of the hold, for {@link #confirmHold} or {@link #releaseHold}.
+     * @throws FlightBookingSystemException If the flight is not in the system or has too few seats free.
+     */
+    public long holdSeats(Flight flight, int seats, Duration ttl) throws FlightBookingSystemException {
+        if (flights.get(flight.getId()) != flight) {
+            throw new FlightBookingSystemException("Flight with ID " + flight.getId() + " not found.");
+        }
+        return holds.hold(flight, seats, ttl).getId();
+    }
+
+    /**
+     * Turns a hold into bookings for a customer, one booking per held seat. Like
+     * {@link #addBooking}, this does not write the data files.
+     * @param holdId The ID of the hold.
+     * @param customer The customer the seats are booked for.
+     * @param bookingDate The date of the bookings.
+     * @return The bookings made, in the order of their seats.
+     * @throws FlightBookingSystemException If the hold has expired or does not exist, or its
+     * flight has since been deleted.
+     */
+    public List<Booking> confirmHold(long holdId, Customer customer, LocalDate bookingDate) throws FlightBookingSystemException {
+        if (customer == null) {
+            throw new FlightBookingSystemException("Customer not found.");
+        }
+        SeatHold hold = holds.take(holdId);
+        if (hold == null) {
+            throw new FlightBookingSystemException("Hold #" + holdId + " has expired or does not exist.");
+        }
+        Flight flight = hold.getFlight();
+        int[] seats = hold.getSeats();
+        if (flights.get(flight.getId()) != flight) {
+            for (int seat : seats) {
+                flight.getSeatMap().release(seat);
+            }
+            throw new FlightBookingSystemException("Flight with ID " + flight.getId() + " not found.");
+        }
+        List<Booking> booked = new ArrayList<>(seats.length);
+        for (int seat : seats) {
+            Booking booking = new Booking(newBookingId(), customer, flight, bookingDate);
+            booking.setSeat(seat);
+            addBooking(booking);
+            booked.add(booking);
+        }
+        return booked;
+    }
+
+    /**
+     * Gives up a hold before it expires and frees its seats.
+     * @param holdId The ID of the hold.
+     * @return True if the hold was outstanding, false if it has expired or does not exist.
+     */
+    public boolean releaseHold(long holdId) {
+        return holds.release(holdId);
+    }
+
+    /**
+     * Puts a customer on the waitlist of a sold-out flight. Customers in higher loyalty tiers
+     * are served first, and customers in the same tier in the order they joined.
+     * @param customer The customer.
+     * @param flight The flight.
+     * @param tier The customer's loyalty tier.
+     * @param requestedOn The date the customer joined the waitlist.
+     * @return The customer's waitlist entry.
+     * @throws FlightBookingSystemException If the flight is not in the system, still has seats
+     * free, or the customer is already waiting for it.
+     */
+    public Waitlist.Entry joinWaitlist(Customer customer, Flight flight, int tier, LocalDate requestedOn) throws FlightBookingSystemException {
+        if (flights.get(flight.getId()) != flight) {
+            throw new FlightBookingSystemException("Flight with ID " + flight.getId() + " not found.");
+        }
+        // judged by bookings, seated or not, rather than by the seats held at the moment
+        int free = flight.getNumberOfSeats() - flight.getBookingView().size();
+        if (free > 0) {
+            throw new FlightBookingSystemException("Flight with ID " + flight.getId() + " still has " + free + " seat(s) free.");
+        }
+        Waitlist.Entry entry = new Waitlist.Entry(lastWaitlistId.incrementAndGet(), customer, flight, tier, requestedOn);
+        if (!addWaitlistEntry(entry)) {
+            throw new FlightBookingSystemException("Customer with ID " + customer.getId() + " is already on the waitlist for flight with ID "
+                    + flight.getId() + ".");
+        }
+        fireChange(ChangeEvent.Entity.WAITLIST, ChangeEvent.Kind.ADDED, entry.getId());
+        return entry;
+    }
+
+    /**
+     * Adds an entry to the waitlist of its flight whether or not the flight is full, as when
+     * loading the waitlists.
+     * @param entry The entry.
+     * @return True if it was added, false if its customer is already waiting for the flight.
+     */
+    public boolean addWaitlistEntry(Waitlist.Entry entry) {
+        lastWaitlistId.accumulateAndGet(entry.getId(), Math::max);
+        return waitlists.computeIfAbsent(entry.getFlight().getId(), id -> new Waitlist()).add(entry);
+    }
+
+    /**
+     * Takes a customer off the waitlist of a flight.
+     * @param customerId The ID of the customer.
+     * @param flightId The ID of the flight.
+     * @return True if the customer was waiting, otherwise false.
+     */
+    public boolean leaveWaitlist(int customerId, int flightId) {
+        Waitlist waitlist = waitlists.get(flightId);
+        Waitlist.Entry entry = waitlist == null ? null : waitlist.remove(customerId);
+        if (entry == null) {
+            return false;
+        }
+        fireChange(ChangeEvent.Entity.WAITLIST, ChangeEvent.Kind.REMOVED, entry.getId());
+        return true;
+    }
+
+    /**
+     * Returns the waitlist of a flight.
+     * @param flightId The ID of the flight.
+     * @return The waitlist, or null if no one has waited for the flight.
+     */
+    public Waitlist getWaitlist(int flightId) {
+        return waitlists.get(flightId);
+    }
+
+    /**
+     * Returns the waitlists of every flight that has one.
+     * @return The waitlists, in no particular order.
+     */
+    public Collection<Waitlist> getWaitlists() {
+        return Collections.unmodifiableCollection(waitlists.values());
+    }
+
+    /**
+     * Books the customers at the front of the waitlists into the seats freed since the last
+     * call. Each flight is handled once however many of its bookings were removed, taking as
+     * many customers off its waitlist as it has seats free. Like {@link #addBooking}, this
+     * does not write the data files.
+     * @return The bookings made, flight by flight.
+     * @throws FlightBookingSystemException If a booking cannot be added.
+     */
+    public List<Booking> promoteWaitlists() throws FlightBookingSystemException {
+        if (pendingPromotions.isEmpty()) {
+            return Collections.emptyList();
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        List<Booking> promoted = new ArrayList<>();
+        try {
+            for (Iterator<Integer> it = pendingPromotions.iterator(); it.hasNext(); ) {
+                int flightId = it.next();
+                it.remove();
+                Flight flight = flights.get(flightId);
+                Waitlist waitlist = waitlists.get(flightId);
+                if (flight != null && waitlist != null) {
+                    promote(flight, waitlist, promoted);
+                }
+            }
+            failed = false;
+        } finally {
+            Metrics.record("waitlist.promote", start, failed);
+        }
+        return promoted;
+    }
+
+    private void promote(Flight flight, Waitlist waitlist, List<Booking> promoted) throws FlightBookingSystemException {
+        SeatMap seats = flight.getSeatMap();
+        synchronized (waitlist) {
+            while (seats.getFreeCount() > 0 && waitlist.size() > 0) {
+                int seat = seats.assign(SeatMap.Preference.ANY);
+                if (seat == SeatMap.NO_SEAT) {
+                    break;
+                }
+                Waitlist.Entry entry = waitlist.poll();
+                Booking booking = new Booking(newBookingId(), entry.getCustomer(), flight, systemDate);
+                booking.setSeat(seat);
+                addBooking(booking);
+                promoted.add(booking);
+                fireChange(ChangeEvent.Entity.WAITLIST, ChangeEvent.Kind.REMOVED, entry.getId());
+            }
+        }
+    }
+
+    /**
+     * Returns the outstanding seat holds.
+     * @return The holds.
+     */
+    public SeatHolds getSeatHolds() {
+        return holds;
+    }
+
+    /**
+     * Stops the background work of the system, the thread that expires seat holds. The system
+     * can still be used, but holds then expire only as new ones are made. Call it when the
+     * system is replaced or no longer needed.
+     */
+    public void shutdown() {
+        holds.shutdown();
+    }
+
+    /**
+     * Returns the ledger the money side of every booking change is posted to.
+     * @return The ledger.
+     */
+    public Ledger getLedger() {
+        return ledger;
+    }
+
+    /**
+     * Changes the date of a booking without charging a rebook fee.
+     * @param booking The booking to be changed.
+     * @param newBookingDate The new booking date.
+     */
+    public void setBookingDate(Booking booking, LocalDate newBookingDate) {
+        booking.getCustomer().setBookingDate(booking, newBookingDate);
+        fireChange(ChangeEvent.Entity.BOOKING, ChangeEvent.Kind.UPDATED, booking.getId());
     }
 
     /**
@@ -167,35 +849,41 @@ public class FlightBookingSystem {
      * @return The list of bookings for the specified customer and flight.
      */
     public List<Booking> getBookingsByCustomerAndFlight(Customer customer, Flight flight) {
-        List<Booking> result = new ArrayList<>();
-        for (Booking booking : bookings.values()) {
-            if (booking.getCustomer().equals(customer) && booking.getFlight().equals(flight)) {
-                result.add(booking);
-            }
-        }
-        return result;
+        return customer.getBookingsByFlightId(flight.getId());
     }
 
     /**
-     * Deletes a flight from the system.
+     * Deletes a flight from the system, along with its bookings. Only the flight's own
+     * bookings are touched, and the deletion is saved as tombstones rather than by
+     * rewriting the data files.
      * @param flightId The ID of the flight to be deleted.
-     * @throws FlightBookingSystemException If the flight is not found.
+     * @throws FlightBookingSystemException If the flight is not found, or the deletion cannot be saved.
      */
     public void deleteFlight(int flightId) throws FlightBookingSystemException {
         Flight flight = getFlightByID(flightId);
-        if (flight == null) {
-            throw new FlightBookingSystemException("Flight not found.");
-        }
-        List<Booking> flightBookings = new ArrayList<>();
-        for (Booking booking : bookings.values()) {
-            if (booking.getFlight().equals(flight)) {
-                flightBookings.add(booking);
-            }
-        }
+        List<Booking> flightBookings = flight.getBookings();
         for (Booking booking : flightBookings) {
-            bookings.remove(booking.getId());
+            removeBooking(booking);
         }
         flights.remove(flightId);
+        schedule.remove(scheduleKey(flight));
+        Set<Integer> departing = departures.get(flight.getDepartureDate());
+        if (departing != null) {
+            departing.remove(flightId);
+        }
+        fares.remove(flightId);
+        waitlists.remove(flightId);
+        pendingPromotions.remove(flightId);
+        fireChange(ChangeEvent.Entity.FLIGHT, ChangeEvent.Kind.REMOVED, flightId);
+        if (!autoSave) {
+            return;
+        }
+        try {
+            Tombstones.append(ChangeEvent.Entity.FLIGHT, flightId, flightBookings);
+            LedgerDataManager.append(this);
+        } catch (IOException ex) {
+            throw new FlightBookingSystemException("Error deleting flight from file.");
+        }
     }
     
     /**
@@ -224,43 +912,37 @@ public class FlightBookingSystem {
     }
 
     /**
-     * Deletes a customer from the system.
+     * Deletes a customer from the system, along with their bookings and waitlist entries.
+     * Only the customer's own bookings are touched, and the deletion is saved as tombstones
+     * rather than by rewriting the data files. The seats the bookings held go to the
+     * waitlists of their flights.
      * @param customerId The ID of the customer to be deleted.
      * @throws FlightBookingSystemException If the customer is not found or there is an error deleting the customer.
      */
     public void deleteCustomer(int customerId) throws FlightBookingSystemException {
         Customer customer = getCustomerByID(customerId);
-        if (customer == null) {
-            throw new FlightBookingSystemException("Customer not found.");
+        List<Booking> customerBookings = customer.getBookings();
+        for (Booking booking : customerBookings) {
+            removeBooking(booking);
+        }
+        boolean waitlisted = false;
+        for (Waitlist waitlist : waitlists.values()) {
+            waitlisted |= waitlist.remove(customerId) != null;
         }
         customers.remove(customerId);
-
-        // Open the customers.txt file for reading
-        try (BufferedReader reader = new BufferedReader(new FileReader("resources/data/customers.txt"))) {
-            // Create a StringBuilder to store the updated contents of the customers.txt file
-            StringBuilder updatedContents = new StringBuilder();
-
-            // Read each line from the customers.txt file
-            String line;
-            while ((line = reader.readLine()) != null) {
-                // Split the line into fields
-                String[] fields = line.split(",");
-
-                // If the customer ID matches the one you want to delete, skip that line
-                if (fields.length > 0 && Integer.parseInt(fields[0].trim()) == customerId) {
-                    continue;
-                }
-
-                // Append the line to the updatedContents StringBuilder
-                updatedContents.append(line).append(System.lineSeparator());
-            }
-
-            // Close the reader
-            reader.close();
-
-            // Write the updated contents to the customers.txt file
-            try (BufferedWriter writer = new BufferedWriter(new FileWriter("resources/data/customers.txt"))) {
-                writer.write(updatedContents.toString());
+        contacts.remove(customer);
+        fireChange(ChangeEvent.Entity.CUSTOMER, ChangeEvent.Kind.REMOVED, customerId);
+        // the seats freed by all of the customer's bookings are offered in one batch
+        List<Booking> promoted = promoteWaitlists();
+        if (!autoSave) {
+            return;
+        }
+        try {
+            Tombstones.append(ChangeEvent.Entity.CUSTOMER, customerId, customerBookings);
+            BookingDataManager.append(promoted);
+            LedgerDataManager.append(this);
+            if (waitlisted || !promoted.isEmpty()) {
+                new WaitlistDataManager().storeData(this);
             }
         } catch (IOException ex) {
             throw new FlightBookingSystemException("Error deleting customer from file.");
@@ -274,19 +956,18 @@ public class FlightBookingSystem {
      * @return The booking with the specified customer and flight ID.
      */
     public Booking getBookingByCustomerAndFlightId(int customerId, int flightId) {
-        for (Booking booking : bookings.values()) {
-            if (booking.getCustomer().getId() == customerId && booking.getFlight().getId() == flightId) {
-                return booking;
-            }
-        }
-        return null;
+        Customer customer = customers.get(customerId);
+        return customer == null ? null : customer.getBookingByFlightId(flightId);
     }
 
     /**
-     * Updates a booking with a new booking date.
+     * Updates a booking with a new booking date and charges the rebook fee to the customer's
+     * balance. The fee is added to the booking's price, so cancelling it later refunds the
+     * fee as well; when saving automatically, the system is stored straight away so that the
+     * saved price keeps up with the journal.
      * @param bookingId The ID of the booking to be updated.
      * @param newBookingDate The new booking date.
-     * @throws FlightBookingSystemException If the booking or flight is not found.
+     * @throws FlightBookingSystemException If the booking or flight is not found, or the change cannot be saved.
      */
     public void updateBooking(int bookingId, LocalDate newBookingDate) throws FlightBookingSystemException {
         Booking booking = getBookingByID(bookingId);
@@ -303,8 +984,18 @@ public class FlightBookingSystem {
         int rebookFee = calculateRebookFee(daysLeft);
 
         // Apply the rebook fee
-        booking.setBookingDate(newBookingDate);
+        booking.getCustomer().setBookingDate(booking, newBookingDate);
         booking.setPrice(booking.getPrice() + rebookFee);
+        ledger.post(booking.getCustomer(), Ledger.Kind.REBOOK_FEE, rebookFee, bookingId, systemDate);
+        fireChange(ChangeEvent.Entity.BOOKING, ChangeEvent.Kind.UPDATED, bookingId);
+        if (!autoSave) {
+            return;
+        }
+        try {
+            FlightBookingSystemData.store(this);
+        } catch (IOException ex) {
+            throw new FlightBookingSystemException("Error updating bookings file: " + ex.getMessage());
+        }
     }
 
     /**
@@ -338,12 +1029,10 @@ public class FlightBookingSystem {
      * @return The list of bookings for the specified flight.
      */
     public List<Booking> getBookingsByFlight(Flight flight) {
-        List<Booking> bookingsByFlight = new ArrayList<>();
-        for (Booking booking : bookings.values()) {
-            if (booking.getFlight().getId() == flight.getId()) {
-                bookingsByFlight.add(booking);
-            }
-        }
-        return bookingsByFlight;
+        return flight.getBookings();
+    }
+
+    private static String scheduleKey(Flight flight) {
+        return flight.getFlightNumber() + "@" + flight.getDepartureDate();
     }
 }
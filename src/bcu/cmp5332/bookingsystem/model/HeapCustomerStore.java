@@ -0,0 +1,55 @@
+package bcu.cmp5332.bookingsystem.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * The HeapCustomerStore class keeps every customer as an ordinary object on the heap.
+ * It is the default store of the FlightBookingSystem.
+ */
+public class HeapCustomerStore implements CustomerStore {
+
+    private final Map<Integer, Customer> customers = new ConcurrentSkipListMap<>();
+
+    @Override
+    public boolean contains(int id) {
+        return customers.containsKey(id);
+    }
+
+    @Override
+    public Customer get(int id) {
+        return customers.get(id);
+    }
+
+    @Override
+    public void put(Customer customer) {
+        customers.put(customer.getId(), customer);
+    }
+
+    @Override
+    public boolean remove(int id) {
+        return customers.remove(id) != null;
+    }
+
+    @Override
+    public int size() {
+        return customers.size();
+    }
+
+    @Override
+    public int[] ids() {
+        int[] ids = new int[customers.size()];
+        int i = 0;
+        for (Integer id : customers.keySet()) {
+            ids[i++] = id;
+        }
+        return ids;
+    }
+
+    @Override
+    public List<Customer> values() {
+        return new ArrayList<>(customers.values());
+    }
+}
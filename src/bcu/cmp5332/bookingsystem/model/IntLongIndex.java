@@ -0,0 +1,167 @@
+package bcu.cmp5332.bookingsystem.model;
+
+import java.util.Arrays;
+
+/**
+ * The IntLongIndex class is an open-addressing hash map from int keys to long values.
+ * It stores keys and values in primitive arrays, so an index over millions of records
+ * costs a few bytes per entry and no object per entry.
+ */
+public class IntLongIndex {
+
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private int[] keys;
+    private long[] values;
+    private boolean[] used;
+    private int mask;
+    private int size;
+
+    /**
+     * Constructs an index sized for the expected number of entries.
+     *
+     * @param expectedSize The number of entries expected.
+     */
+    public IntLongIndex(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * Gets the value stored for a key.
+     *
+     * @param key The key.
+     * @param missing The value to return if the key is absent.
+     * @return The stored value, or missing.
+     */
+    public long get(int key, long missing) {
+        int slot = find(key);
+        return slot < 0 ? missing : values[slot];
+    }
+
+    /**
+     * Checks whether a key is present.
+     *
+     * @param key The key.
+     * @return True if the key is present, otherwise false.
+     */
+    public boolean containsKey(int key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * Stores a value for a key, replacing any previous value.
+     *
+     * @param key The key.
+     * @param value The value.
+     */
+    public void put(int key, long value) {
+        int slot = mix(key) & mask;
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        used[slot] = true;
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > keys.length * LOAD_FACTOR) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    /**
+     * Removes a key. Later entries of the probe chain are shifted back, so no
+     * tombstones are left behind.
+     *
+     * @param key The key.
+     * @return True if the key was present, otherwise false.
+     */
+    public boolean remove(int key) {
+        int hole = find(key);
+        if (hole < 0) {
+            return false;
+        }
+        int slot = hole;
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (!used[slot]) {
+                break;
+            }
+            int home = mix(keys[slot]) & mask;
+            boolean stays = hole <= slot ? (hole < home && home <= slot) : (hole < home || home <= slot);
+            if (!stays) {
+                keys[hole] = keys[slot];
+                values[hole] = values[slot];
+                hole = slot;
+            }
+        }
+        used[hole] = false;
+        size--;
+        return true;
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return The number of entries.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns every key in ascending order.
+     *
+     * @return The sorted keys.
+     */
+    public int[] sortedKeys() {
+        int[] out = new int[size];
+        int i = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (used[slot]) {
+                out[i++] = keys[slot];
+            }
+        }
+        Arrays.sort(out);
+        return out;
+    }
+
+    private int find(int key) {
+        int slot = mix(key) & mask;
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        long[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        size = 0;
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldUsed[slot]) {
+                put(oldKeys[slot], oldValues[slot]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new long[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,281 @@
+package bcu.cmp5332.bookingsystem.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The Ledger class posts the money side of every booking change to its customer: the price
+ * when a booking is made, the fee when one is rebooked and a refund of what it cost when it
+ * is removed. Each posting moves the customer's balance, which is cached on the
+ * {@link Customer} so reading it costs O(1), and becomes an {@link Entry} carrying the
+ * customer's running balance.
+ *
+ * Once the ledger is recording, entries wait here until the data layer drains them into the
+ * append-only journal. Until then, as while the data files are loaded, postings move the
+ * balances only. Every method locks the ledger, so postings are numbered, applied and
+ * drained in one order.
+ */
+public class Ledger {
+
+    /**
+     * What an entry was posted for.
+     */
+    public enum Kind {
+        BOOKING, REBOOK_FEE, REFUND
+    }
+
+    /**
+     * One posting to a customer's balance.
+     */
+    public static final class Entry {
+
+        private final long seq;
+        private final int customerId;
+        private final Kind kind;
+        private final int amount;
+        private final int balance;
+        private final int bookingId;
+        private final LocalDate date;
+
+        /**
+         * Constructs a ledger entry.
+         *
+         * @param seq        The position of the entry in the ledger, from 1.
+         * @param customerId The ID of the customer.
+         * @param kind       What the entry was posted for.
+         * @param amount     The amount added to the balance; refunds are negative.
+         * @param balance    The customer's balance after the entry.
+         * @param bookingId  The ID of the booking the entry is for.
+         * @param date       The date the entry was posted.
+         */
+        public Entry(long seq, int customerId, Kind kind, int amount, int balance, int bookingId, LocalDate date) {
+            this.seq = seq;
+            this.customerId = customerId;
+            this.kind = kind;
+            this.amount = amount;
+            this.balance = balance;
+            this.bookingId = bookingId;
+            this.date = date;
+        }
+
+        /**
+         * Returns the position of the entry in the ledger.
+         *
+         * @return The sequence number.
+         */
+        public long getSeq() {
+            return seq;
+        }
+
+        /**
+         * Returns the ID of the customer the entry was posted to.
+         *
+         * @return The customer ID.
+         */
+        public int getCustomerId() {
+            return customerId;
+        }
+
+        /**
+         * Returns what the entry was posted for.
+         *
+         * @return The kind of entry.
+         */
+        public Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * Returns the amount added to the balance.
+         *
+         * @return The amount, negative for a refund.
+         */
+        public int getAmount() {
+            return amount;
+        }
+
+        /**
+         * Returns the customer's balance after the entry.
+         *
+         * @return The running balance.
+         */
+        public int getBalance() {
+            return balance;
+        }
+
+        /**
+         * Returns the ID of the booking the entry is for.
+         *
+         * @return The booking ID.
+         */
+        public int getBookingId() {
+            return bookingId;
+        }
+
+        /**
+         * Returns the date the entry was posted.
+         *
+         * @return The date.
+         */
+        public LocalDate getDate() {
+            return date;
+        }
+    }
+
+    private long lastSeq;
+    private boolean recording;
+    private List<Entry> pending = new ArrayList<>();
+    // what the data layer knows of this ledger's files: the entry the latest snapshot was taken
+    // at, and where each customer's lines start in the journal, up to indexedLength bytes
+    private long snapshotSeq = -1;
+    private final Map<Integer, List<Long>> journalLines = new HashMap<>();
+    private long indexedLength;
+
+    /**
+     * Adds an amount to a customer's balance.
+     *
+     * @param customer  The customer.
+     * @param kind      What the amount is for.
+     * @param amount    The amount, negative for a refund.
+     * @param bookingId The ID of the booking it is for.
+     * @param date      The date of the posting.
+     * @return The entry.
+     */
+    public synchronized Entry post(Customer customer, Kind kind, int amount, int bookingId, LocalDate date) {
+        int balance = customer.getBalance() + amount;
+        customer.setBalance(balance);
+        Entry entry = new Entry(++lastSeq, customer.getId(), kind, amount, balance, bookingId, date);
+        if (recording) {
+            pending.add(entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Removes and returns the entries posted since the last call, oldest first.
+     *
+     * @return The entries, empty if there are none or the ledger is not recording.
+     */
+    public synchronized List<Entry> drain() {
+        if (pending.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Entry> drained = pending;
+        pending = new ArrayList<>();
+        return drained;
+    }
+
+    /**
+     * Returns the entries posted since the last drain, oldest first.
+     *
+     * @return A copy of the entries.
+     */
+    public synchronized List<Entry> getPending() {
+        return new ArrayList<>(pending);
+    }
+
+    /**
+     * Starts keeping entries for the journal, numbering them on from the last entry it holds.
+     * Any entries not yet drained are dropped, as the balances have just been restored from
+     * the journal.
+     *
+     * @param lastSeq The sequence number of the last entry in the journal.
+     */
+    public synchronized void record(long lastSeq) {
+        this.lastSeq = lastSeq;
+        this.recording = true;
+        pending = new ArrayList<>();
+        clearJournalIndex();
+    }
+
+    /**
+     * Checks whether entries are kept for the journal.
+     *
+     * @return True once the ledger has been loaded or stored, otherwise false.
+     */
+    public synchronized boolean isRecording() {
+        return recording;
+    }
+
+    /**
+     * Returns the sequence number of the last entry posted.
+     *
+     * @return The sequence number, or 0 if nothing has been posted.
+     */
+    public synchronized long getLastSeq() {
+        return lastSeq;
+    }
+
+    /**
+     * Returns the sequence number of the entry the latest snapshot of this ledger was taken at.
+     *
+     * @return The sequence number, or -1 if no snapshot has been taken.
+     */
+    public synchronized long getSnapshotSeq() {
+        return snapshotSeq;
+    }
+
+    /**
+     * Records that a snapshot of this ledger was taken.
+     *
+     * @param snapshotSeq The sequence number of the last entry in the snapshot, or -1 if there is none.
+     */
+    public synchronized void setSnapshotSeq(long snapshotSeq) {
+        this.snapshotSeq = snapshotSeq;
+    }
+
+    /**
+     * Records where one of a customer's lines starts in the journal.
+     *
+     * @param customerId The ID of the customer.
+     * @param offset     The byte offset of the line.
+     */
+    public synchronized void indexJournalLine(int customerId, long offset) {
+        journalLines.computeIfAbsent(customerId, id -> new ArrayList<>()).add(offset);
+    }
+
+    /**
+     * Returns where a customer's lines start in the journal, as far as it has been indexed.
+     *
+     * @param customerId The ID of the customer.
+     * @return The byte offsets, in file order.
+     */
+    public synchronized long[] getJournalLines(int customerId) {
+        List<Long> offsets = journalLines.getOrDefault(customerId, Collections.emptyList());
+        long[] out = new long[offsets.size()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = offsets.get(i);
+        }
+        return out;
+    }
+
+    /**
+     * Returns how much of the journal has been indexed.
+     *
+     * @return The length in bytes of the indexed part.
+     */
+    public synchronized long getIndexedLength() {
+        return indexedLength;
+    }
+
+    /**
+     * Records how much of the journal has been indexed.
+     *
+     * @param indexedLength The length in bytes of the indexed part.
+     */
+    public synchronized void setIndexedLength(long indexedLength) {
+        this.indexedLength = indexedLength;
+    }
+
+    /**
+     * Forgets the journal index, as when the journal it described has been replaced.
+     */
+    public synchronized void clearJournalIndex() {
+        journalLines.clear();
+        indexedLength = 0;
+    }
+}
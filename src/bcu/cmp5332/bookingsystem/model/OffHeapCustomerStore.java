@@ -0,0 +1,220 @@
+package bcu.cmp5332.bookingsystem.model;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The OffHeapCustomerStore class keeps customer records in direct ByteBuffers outside the
+ * Java heap, so heap size and GC time do not grow with the number of customers.
+ *
+ * Records are variable length and appended to fixed-size segments:
+ * <pre>
+ * int id | u16 nameLength | name | u16 phoneLength | phone | u16 emailLength | email
+ * </pre>
+ * (strings in UTF-8). An {@link IntLongIndex} maps each ID to its segment and offset.
+ * Updating a customer appends a new record and repoints the index; the space of dropped
+ * records is reclaimed by {@link #compact()}, which also runs by itself once more than
+ * half of the stored bytes are dead.
+ */
+public class OffHeapCustomerStore extends RecordCustomerStore {
+
+    /**
+     * The default size of one off-heap segment.
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private static final int MAX_FIELD_LENGTH = 0xFFFF;
+
+    private final int segmentSize;
+    private List<ByteBuffer> segments = new ArrayList<>();
+    private IntLongIndex index = new IntLongIndex(1024);
+    private long usedBytes;
+    private long deadBytes;
+    private byte[] scratch = new byte[256];
+
+    /**
+     * Constructs a store with the default segment size.
+     */
+    public OffHeapCustomerStore() {
+        this(DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Constructs a store with the given segment size.
+     *
+     * @param segmentSize The size in bytes of each direct buffer.
+     */
+    public OffHeapCustomerStore(int segmentSize) {
+        if (segmentSize < 1024) {
+            throw new IllegalArgumentException("Segment size must be at least 1024 bytes.");
+        }
+        this.segmentSize = segmentSize;
+    }
+
+    @Override
+    public synchronized boolean contains(int id) {
+        return index.containsKey(id);
+    }
+
+    @Override
+    public synchronized int size() {
+        return index.size();
+    }
+
+    @Override
+    public synchronized int[] ids() {
+        return index.sortedKeys();
+    }
+
+    /**
+     * Returns the number of bytes allocated off the heap.
+     *
+     * @return The allocated bytes.
+     */
+    public synchronized long getAllocatedBytes() {
+        return (long) segments.size() * segmentSize;
+    }
+
+    /**
+     * Returns the number of bytes taken by live records.
+     *
+     * @return The live bytes.
+     */
+    public synchronized long getLiveBytes() {
+        return usedBytes - deadBytes;
+    }
+
+    /**
+     * Rewrites every live record into fresh segments, releasing the space of
+     * removed and superseded records.
+     */
+    public synchronized void compact() {
+        List<ByteBuffer> oldSegments = segments;
+        IntLongIndex oldIndex = index;
+        segments = new ArrayList<>();
+        index = new IntLongIndex(oldIndex.size());
+        usedBytes = 0;
+        deadBytes = 0;
+        for (int id : oldIndex.sortedKeys()) {
+            long address = oldIndex.get(id, -1);
+            ByteBuffer segment = oldSegments.get(segmentOf(address));
+            int offset = offsetOf(address);
+            int length = recordLength(segment, offset);
+            ByteBuffer target = segmentWithRoom(length);
+            index.put(id, address(segments.size() - 1, target.position()));
+            for (int i = 0; i < length; i++) {
+                target.put(segment.get(offset + i));
+            }
+            usedBytes += length;
+        }
+    }
+
+    @Override
+    protected Customer readRecord(int id) {
+        long address = index.get(id, -1);
+        if (address < 0) {
+            return null;
+        }
+        ByteBuffer segment = segments.get(segmentOf(address));
+        int offset = offsetOf(address) + Integer.BYTES;
+        String name = readString(segment, offset);
+        offset += Short.BYTES + (segment.getShort(offset) & MAX_FIELD_LENGTH);
+        String phone = readString(segment, offset);
+        offset += Short.BYTES + (segment.getShort(offset) & MAX_FIELD_LENGTH);
+        String email = readString(segment, offset);
+        return new Customer(id, name, phone, email);
+    }
+
+    @Override
+    protected void writeRecord(Customer customer) {
+        byte[] name = encode(customer.getName());
+        byte[] phone = encode(customer.getPhone());
+        byte[] email = encode(customer.getEmail());
+        int length = Integer.BYTES + 3 * Short.BYTES + name.length + phone.length + email.length;
+        if (length > segmentSize) {
+            throw new IllegalArgumentException("Customer record of " + length + " bytes does not fit in a segment.");
+        }
+        dropRecord(customer.getId());
+        ByteBuffer segment = segmentWithRoom(length);
+        index.put(customer.getId(), address(segments.size() - 1, segment.position()));
+        segment.putInt(customer.getId());
+        putString(segment, name);
+        putString(segment, phone);
+        putString(segment, email);
+        usedBytes += length;
+    }
+
+    @Override
+    protected boolean removeRecord(int id) {
+        boolean removed = dropRecord(id);
+        if (deadBytes > segmentSize && deadBytes * 2 > usedBytes) {
+            compact();
+        }
+        return removed;
+    }
+
+    private boolean dropRecord(int id) {
+        long address = index.get(id, -1);
+        if (address < 0) {
+            return false;
+        }
+        deadBytes += recordLength(segments.get(segmentOf(address)), offsetOf(address));
+        index.remove(id);
+        return true;
+    }
+
+    private ByteBuffer segmentWithRoom(int length) {
+        ByteBuffer segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (segment == null || segment.remaining() < length) {
+            segment = ByteBuffer.allocateDirect(segmentSize);
+            segments.add(segment);
+        }
+        return segment;
+    }
+
+    private String readString(ByteBuffer segment, int offset) {
+        int length = segment.getShort(offset) & MAX_FIELD_LENGTH;
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        for (int i = 0; i < length; i++) {
+            scratch[i] = segment.get(offset + Short.BYTES + i);
+        }
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static void putString(ByteBuffer segment, byte[] bytes) {
+        segment.putShort((short) bytes.length);
+        segment.put(bytes);
+    }
+
+    private static byte[] encode(String value) {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_FIELD_LENGTH) {
+            throw new IllegalArgumentException("Customer field longer than " + MAX_FIELD_LENGTH + " bytes.");
+        }
+        return bytes;
+    }
+
+    private static int recordLength(ByteBuffer segment, int offset) {
+        int end = offset + Integer.BYTES;
+        for (int field = 0; field < 3; field++) {
+            end += Short.BYTES + (segment.getShort(end) & MAX_FIELD_LENGTH);
+        }
+        return end - offset;
+    }
+
+    private static long address(int segment, int offset) {
+        return ((long) segment << 32) | (offset & 0xFFFFFFFFL);
+    }
+
+    private static int segmentOf(long address) {
+        return (int) (address >>> 32);
+    }
+
+    private static int offsetOf(long address) {
+        return (int) address;
+    }
+}
@@ -0,0 +1,101 @@
+package bcu.cmp5332.bookingsystem.model;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The RecordCustomerStore class is the base for stores that keep customers as encoded
+ * records rather than objects. A Customer is decoded when it is asked for and remembered
+ * through a weak reference, so a customer that is still referenced elsewhere (by a booking,
+ * a flight's passenger set or a caller) keeps its identity, while one that nobody holds on
+ * to costs no heap at all.
+ *
+ * Only the scalar details (ID, name, phone, email) are encoded. Changes made to those on a
+ * materialized Customer must be written back with {@link #put(Customer)}.
+ */
+public abstract class RecordCustomerStore implements CustomerStore {
+
+    private final Map<Integer, CustomerReference> resident = new HashMap<>();
+    private final ReferenceQueue<Customer> collected = new ReferenceQueue<>();
+
+    /**
+     * Decodes the record of a customer.
+     *
+     * @param id The customer ID.
+     * @return A new Customer, or null if there is no record with that ID.
+     */
+    protected abstract Customer readRecord(int id);
+
+    /**
+     * Encodes a customer, replacing any previous record with the same ID.
+     *
+     * @param customer The customer to encode.
+     */
+    protected abstract void writeRecord(Customer customer);
+
+    /**
+     * Drops the record of a customer.
+     *
+     * @param id The customer ID.
+     * @return True if a record was dropped, otherwise false.
+     */
+    protected abstract boolean removeRecord(int id);
+
+    @Override
+    public synchronized Customer get(int id) {
+        expungeCollected();
+        CustomerReference reference = resident.get(id);
+        Customer customer = reference == null ? null : reference.get();
+        if (customer == null) {
+            customer = readRecord(id);
+            if (customer != null) {
+                resident.put(id, new CustomerReference(customer, collected));
+            }
+        }
+        return customer;
+    }
+
+    @Override
+    public synchronized void put(Customer customer) {
+        expungeCollected();
+        writeRecord(customer);
+        resident.put(customer.getId(), new CustomerReference(customer, collected));
+    }
+
+    @Override
+    public synchronized boolean remove(int id) {
+        resident.remove(id);
+        return removeRecord(id);
+    }
+
+    /**
+     * Returns the number of customers currently materialized on the heap.
+     *
+     * @return The number of resident customers.
+     */
+    public synchronized int getResidentCount() {
+        expungeCollected();
+        return resident.size();
+    }
+
+    private void expungeCollected() {
+        CustomerReference reference;
+        while ((reference = (CustomerReference) collected.poll()) != null) {
+            if (resident.get(reference.id) == reference) {
+                resident.remove(reference.id);
+            }
+        }
+    }
+
+    private static class CustomerReference extends WeakReference<Customer> {
+
+        private final int id;
+
+        CustomerReference(Customer customer, ReferenceQueue<Customer> queue) {
+            super(customer, queue);
+            this.id = customer.getId();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package bcu.cmp5332.bookingsystem.model;
+
+/**
+ * The SeatHold class represents seats on a flight set aside for a few minutes while a
+ * customer pays, so no one else can book them. A hold is confirmed into bookings with
+ * {@link FlightBookingSystem#confirmHold}; if it is not confirmed in time it expires and its
+ * seats are freed.
+ */
+public class SeatHold extends TimingWheel.Entry {
+
+    private final long id;
+    private final Flight flight;
+    private final int[] seats;
+    private final long expiresAt;
+
+    SeatHold(long id, Flight flight, int[] seats, long expiresAt) {
+        this.id = id;
+        this.flight = flight;
+        this.seats = seats;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Returns the ID of the hold.
+     *
+     * @return The hold ID.
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Returns the flight the seats are held on.
+     *
+     * @return The flight.
+     */
+    public Flight getFlight() {
+        return flight;
+    }
+
+    /**
+     * Returns the seats held.
+     *
+     * @return A copy of the seats, as numbered by the flight's {@link SeatMap}.
+     */
+    public int[] getSeats() {
+        return seats.clone();
+    }
+
+    /**
+     * Returns the number of seats held.
+     *
+     * @return The number of seats.
+     */
+    public int getSeatCount() {
+        return seats.length;
+    }
+
+    /**
+     * Returns when the hold expires.
+     *
+     * @return The time, on the clock of the {@link SeatHolds} that made it, in nanoseconds.
+     */
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    int[] seats() {
+        return seats;
+    }
+}
@@ -0,0 +1,202 @@
+package bcu.cmp5332.bookingsystem.model;
+
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.metrics.Metrics;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * The SeatHolds class keeps the outstanding {@link SeatHold}s of a system. Each hold takes
+ * its seats on the flight's {@link SeatMap} straight away and is scheduled on one
+ * {@link TimingWheel}, so making, confirming and expiring a hold are O(1) however many are
+ * outstanding. A single background task moves the wheel on every tick and frees the seats
+ * of the holds that have run out; there is no task per hold.
+ *
+ * Holds live in memory only: they last minutes, and a restart simply frees their seats.
+ * Holds made are recorded under "holds.hold" and each sweep that expires any under
+ * "holds.expire".
+ */
+public class SeatHolds {
+
+    /**
+     * The default length of a tick of the wheel, which bounds how late a hold is freed.
+     */
+    public static final long DEFAULT_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final LongSupplier clock;
+    private final long tickNanos;
+    private final boolean background;
+    private final TimingWheel wheel;
+    private final Map<Long, SeatHold> holds = new HashMap<>();
+    private long lastId;
+    private ScheduledExecutorService ticker;
+    private boolean shutDown;
+
+    /**
+     * Constructs an empty set of holds timed by System.nanoTime(), expired in the background.
+     */
+    public SeatHolds() {
+        this(System::nanoTime, DEFAULT_TICK_NANOS, true);
+    }
+
+    /**
+     * Constructs an empty set of holds.
+     *
+     * @param clock      The clock holds are timed by, in nanoseconds.
+     * @param tickNanos  The length of a tick of the wheel.
+     * @param background True to start a thread that expires holds on every tick once the
+     *                   first hold is made; false to expire them only in {@link #expire()}
+     *                   and when holds are made.
+     */
+    public SeatHolds(LongSupplier clock, long tickNanos, boolean background) {
+        this.clock = clock;
+        this.tickNanos = tickNanos;
+        this.background = background;
+        this.wheel = new TimingWheel(tickNanos, clock.getAsLong());
+    }
+
+    /**
+     * Holds seats side by side on a flight, or as close as they can be found.
+     *
+     * @param flight The flight.
+     * @param seats  The number of seats.
+     * @param ttl    How long to hold them.
+     * @return The hold.
+     * @throws FlightBookingSystemException If the number of seats or the time is not positive,
+     * or the flight has too few seats free.
+     */
+    public synchronized SeatHold hold(Flight flight, int seats, Duration ttl) throws FlightBookingSystemException {
+        long start = System.nanoTime();
+        if (seats <= 0) {
+            Metrics.record("holds.hold", start, true);
+            throw new FlightBookingSystemException("A hold must be for at least one seat.");
+        }
+        if (ttl.isNegative() || ttl.isZero()) {
+            Metrics.record("holds.hold", start, true);
+            throw new FlightBookingSystemException("A hold must last a positive time.");
+        }
+        expire();
+        int[] taken = flight.getSeatMap().assignGroup(seats);
+        if (taken == null) {
+            Metrics.record("holds.hold", start, true);
+            throw new FlightBookingSystemException("Only " + flight.getSeatMap().getFreeCount() + " seat(s) left on flight with ID "
+                    + flight.getId() + ".");
+        }
+        SeatHold hold = new SeatHold(++lastId, flight, taken, clock.getAsLong() + ttl.toNanos());
+        wheel.schedule(hold, hold.getExpiresAt());
+        holds.put(hold.getId(), hold);
+        if (background && ticker == null && !shutDown) {
+            startTicker();
+        }
+        Metrics.record("holds.hold", start, false);
+        return hold;
+    }
+
+    /**
+     * Removes a hold that has not expired, leaving its seats taken for the caller to book.
+     *
+     * @param id The hold ID.
+     * @return The hold, or null if there is no such hold or it has expired.
+     */
+    public synchronized SeatHold take(long id) {
+        SeatHold hold = holds.remove(id);
+        if (hold == null) {
+            return null;
+        }
+        wheel.cancel(hold);
+        // the wheel frees a hold up to a tick late, but it is not honoured past its time
+        if (clock.getAsLong() - hold.getExpiresAt() >= 0) {
+            free(hold);
+            return null;
+        }
+        return hold;
+    }
+
+    /**
+     * Gives up a hold and frees its seats.
+     *
+     * @param id The hold ID.
+     * @return True if the hold was outstanding, false if there is no such hold or it has expired.
+     */
+    public synchronized boolean release(long id) {
+        SeatHold hold = holds.remove(id);
+        if (hold == null) {
+            return false;
+        }
+        wheel.cancel(hold);
+        free(hold);
+        return true;
+    }
+
+    /**
+     * Frees the seats of every hold that has expired.
+     *
+     * @return The number of holds expired.
+     */
+    public synchronized int expire() {
+        long start = System.nanoTime();
+        int expired = wheel.advance(clock.getAsLong(), entry -> {
+            SeatHold hold = (SeatHold) entry;
+            holds.remove(hold.getId());
+            free(hold);
+        });
+        if (expired > 0) {
+            Metrics.record("holds.expire", start, false);
+        }
+        return expired;
+    }
+
+    /**
+     * Returns the number of outstanding holds.
+     *
+     * @return The number of holds.
+     */
+    public synchronized int size() {
+        return holds.size();
+    }
+
+    /**
+     * Stops the background thread, if one was started, and never starts another. Holds that
+     * are still outstanding are kept, and from then on expire only in {@link #expire()} and
+     * when holds are made. A system that is discarded should shut its holds down, or the
+     * thread lives on until the program exits.
+     */
+    public synchronized void shutdown() {
+        shutDown = true;
+        if (ticker != null) {
+            ticker.shutdown();
+            ticker = null;
+        }
+    }
+
+    /**
+     * Checks whether a background thread is expiring holds.
+     *
+     * @return True if the thread has been started and not shut down.
+     */
+    public synchronized boolean isTicking() {
+        return ticker != null;
+    }
+
+    private static void free(SeatHold hold) {
+        SeatMap map = hold.getFlight().getSeatMap();
+        for (int seat : hold.seats()) {
+            map.release(seat);
+        }
+    }
+
+    private void startTicker() {
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "seat-hold-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::expire, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+    }
+}
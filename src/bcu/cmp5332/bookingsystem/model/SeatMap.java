@@ -0,0 +1,486 @@
+package bcu.cmp5332.bookingsystem.model;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The SeatMap class records which seats of a flight are taken, one bit per seat. The cabin
+ * is laid out in rows of seats lettered from A, split into blocks by aisles, such as
+ * "ABC-DEF"; the seats are numbered row by row from the front and the last row may be short.
+ *
+ * Each row takes 16 bits, so four rows share one long and a row never straddles two. Finding
+ * a window or aisle seat masks a word with the bits of those seats, and finding a run of
+ * adjacent free seats for a group ANDs the free bits of a block with themselves shifted, so
+ * a search looks at a few seats at a time rather than one. Seats are taken by compare-and-set
+ * on their word, so many threads can assign seats at once without a lock, and releasing a
+ * seat clears its bit in constant time.
+ *
+ * Bookings made without a seat still fill the cabin, so they are counted here too: the free
+ * count is the seats neither taken nor needed by an unseated booking, and a seat is only
+ * taken once a place in that count has been secured for it.
+ */
+public class SeatMap {
+
+    /**
+     * The seat number of a booking that has no seat.
+     */
+    public static final int NO_SEAT = -1;
+
+    /**
+     * The kinds of seat a passenger can ask for.
+     */
+    public enum Preference {
+        ANY, WINDOW, AISLE
+    }
+
+    private static final String LETTERS = "ABCDEFGHJK";
+    private static final int ROW_BITS = 16;
+    private static final int ROWS_PER_WORD = Long.SIZE / ROW_BITS;
+
+    private final int capacity;
+    private final String layout;
+    private final int width;
+    private final int rows;
+    private final AtomicLongArray taken;
+    private final AtomicInteger free;
+    private final AtomicInteger unseated = new AtomicInteger();
+    // per word: the seats that exist, and those by a window or an aisle
+    private final long[] seats;
+    private final long[] windows;
+    private final long[] aisles;
+    // per word and block: the seats of each block, then of each whole row
+    private final long[][] blocks;
+    private final long[] rowSeats;
+
+    /**
+     * Constructs an empty seat map in the usual layout for a cabin of the given size: four
+     * abreast up to 60 seats, six up to 250 and ten beyond that.
+     *
+     * @param capacity The number of seats.
+     */
+    public SeatMap(int capacity) {
+        this(capacity, capacity <= 60 ? "AB-CD" : capacity <= 250 ? "ABC-DEF" : "ABC-DEFG-HJK");
+    }
+
+    /**
+     * Constructs an empty seat map.
+     *
+     * @param capacity The number of seats.
+     * @param layout   One row of the cabin, such as "ABC-DEF": a character per seat, with a
+     *                 '-' for each aisle.
+     */
+    public SeatMap(int capacity, String layout) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Negative capacity: " + capacity);
+        }
+        String[] parts = layout.split("-", -1);
+        int seatsInRow = layout.length() - (parts.length - 1);
+        if (seatsInRow == 0 || seatsInRow > LETTERS.length()) {
+            throw new IllegalArgumentException("A row must have between 1 and " + LETTERS.length() + " seats: " + layout);
+        }
+        for (String part : parts) {
+            if (part.isEmpty()) {
+                throw new IllegalArgumentException("Misplaced aisle in layout " + layout);
+            }
+        }
+        this.capacity = capacity;
+        this.layout = layout;
+        this.width = seatsInRow;
+        this.rows = (capacity + width - 1) / width;
+
+        // the bits of one full row
+        long rowMask = (1L << width) - 1;
+        long windowRow = 1L | (1L << (width - 1));
+        long aisleRow = 0;
+        long[] blockRows = new long[parts.length];
+        int column = 0;
+        for (int b = 0; b < parts.length; b++) {
+            int blockWidth = parts[b].length();
+            blockRows[b] = ((1L << blockWidth) - 1) << column;
+            if (b > 0) {
+                aisleRow |= 1L << column;
+            }
+            column += blockWidth;
+            if (b < parts.length - 1) {
+                aisleRow |= 1L << (column - 1);
+            }
+        }
+
+        int words = (rows + ROWS_PER_WORD - 1) / ROWS_PER_WORD;
+        taken = new AtomicLongArray(words);
+        free = new AtomicInteger(capacity);
+        seats = new long[words];
+        windows = new long[words];
+        aisles = new long[words];
+        blocks = new long[words][parts.length];
+        rowSeats = new long[words];
+        for (int row = 0; row < rows; row++) {
+            int seatsHere = Math.min(width, capacity - row * width);
+            long present = (1L << seatsHere) - 1;
+            int word = row / ROWS_PER_WORD;
+            int shift = (row % ROWS_PER_WORD) * ROW_BITS;
+            seats[word] |= (present & rowMask) << shift;
+            windows[word] |= (present & windowRow) << shift;
+            aisles[word] |= (present & aisleRow) << shift;
+            rowSeats[word] |= present << shift;
+            for (int b = 0; b < blockRows.length; b++) {
+                blocks[word][b] |= (present & blockRows[b]) << shift;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of seats.
+     *
+     * @return The number of seats.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the layout of one row, such as "ABC-DEF".
+     *
+     * @return The layout.
+     */
+    public String getLayout() {
+        return layout;
+    }
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return The number of rows, counting a short last row.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Returns the number of seats in a full row.
+     *
+     * @return The number of seats in a row.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the number of seats neither taken nor needed by a booking without a seat.
+     *
+     * @return The number of free seats, 0 if the flight is overbooked.
+     */
+    public int getFreeCount() {
+        return Math.max(0, free.get());
+    }
+
+    /**
+     * Returns the number of bookings counted against the cabin without a seat.
+     *
+     * @return The number of unseated bookings.
+     */
+    public int getUnseatedCount() {
+        return unseated.get();
+    }
+
+    /**
+     * Counts a booking that has no seat against the cabin. It is counted even when no seat
+     * is free, as bookings loaded from an overbooked flight still have to be.
+     *
+     * @return True if there was a free seat for it, false if the flight is now overbooked.
+     */
+    public boolean addUnseated() {
+        unseated.incrementAndGet();
+        return free.getAndDecrement() > 0;
+    }
+
+    /**
+     * Counts a booking that has no seat against the cabin if a seat is free for it.
+     *
+     * @return True if it was counted, false if the cabin is full and nothing changed.
+     */
+    public boolean tryAddUnseated() {
+        if (!acquire(1)) {
+            return false;
+        }
+        unseated.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Stops counting a booking that had no seat, as when it is cancelled.
+     */
+    public void removeUnseated() {
+        unseated.decrementAndGet();
+        free.incrementAndGet();
+    }
+
+    /**
+     * Takes a free seat, of the preferred kind if one is left and otherwise any, nearest
+     * the front.
+     *
+     * @param preference The kind of seat wanted.
+     * @return The seat taken, or {@link #NO_SEAT} if the cabin is full.
+     */
+    public int assign(Preference preference) {
+        if (!acquire(1)) {
+            return NO_SEAT;
+        }
+        int seat = NO_SEAT;
+        if (preference == Preference.WINDOW) {
+            seat = takeFirst(windows);
+        } else if (preference == Preference.AISLE) {
+            seat = takeFirst(aisles);
+        }
+        if (seat == NO_SEAT) {
+            seat = takeFirst(seats);
+        }
+        if (seat == NO_SEAT) {
+            free.incrementAndGet();
+        }
+        return seat;
+    }
+
+    /**
+     * Takes a particular seat.
+     *
+     * @param seat The seat.
+     * @return True if the seat was free and is now taken, false if it was already taken,
+     * does not exist or the flight is full.
+     */
+    public boolean claim(int seat) {
+        if (!exists(seat) || !acquire(1)) {
+            return false;
+        }
+        int word = seat >>> 6;
+        long bit = 1L << seat;
+        while (true) {
+            long old = taken.get(word);
+            if ((old & bit) != 0) {
+                free.incrementAndGet();
+                return false;
+            }
+            if (taken.compareAndSet(word, old, old | bit)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Takes seats for a group travelling together: side by side within one block if such a
+     * run is free, then side by side across an aisle, and otherwise wherever seats are left.
+     *
+     * @param size The number of seats.
+     * @return The seats taken, in order, or null if fewer than that many are free.
+     */
+    public int[] assignGroup(int size) {
+        if (size <= 0) {
+            return new int[0];
+        }
+        if (!acquire(size)) {
+            return null;
+        }
+        if (size <= width) {
+            for (int b = 0; b < blocks[0].length; b++) {
+                int[] group = takeRun(size, b);
+                if (group != null) {
+                    return group;
+                }
+            }
+            int[] group = takeRun(size, -1);
+            if (group != null) {
+                return group;
+            }
+        }
+        int[] group = new int[size];
+        for (int i = 0; i < size; i++) {
+            group[i] = takeFirst(seats);
+            if (group[i] == NO_SEAT) {
+                for (int j = 0; j < i; j++) {
+                    clear(group[j]);
+                }
+                free.addAndGet(size);
+                return null;
+            }
+        }
+        return group;
+    }
+
+    /**
+     * Frees a seat. Freeing a seat that is not taken, or {@link #NO_SEAT}, does nothing.
+     *
+     * @param seat The seat.
+     */
+    public void release(int seat) {
+        if (clear(seat)) {
+            free.incrementAndGet();
+        }
+    }
+
+    // clears a seat's bit without touching the free count, and says whether it was set
+    private boolean clear(int seat) {
+        if (!exists(seat)) {
+            return false;
+        }
+        long bit = 1L << seat;
+        return (taken.getAndUpdate(seat >>> 6, old -> old & ~bit) & bit) != 0;
+    }
+
+    // secures places in the free count for seats about to be taken
+    private boolean acquire(int count) {
+        while (true) {
+            int old = free.get();
+            if (old < count) {
+                return false;
+            }
+            if (free.compareAndSet(old, old - count)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Checks whether a seat is taken.
+     *
+     * @param seat The seat.
+     * @return True if the seat exists and is taken, otherwise false.
+     */
+    public boolean isTaken(int seat) {
+        return exists(seat) && (taken.get(seat >>> 6) & (1L << seat)) != 0;
+    }
+
+    /**
+     * Checks whether a seat is by a window.
+     *
+     * @param seat The seat.
+     * @return True if the seat exists and is at either end of its row, otherwise false.
+     */
+    public boolean isWindow(int seat) {
+        return exists(seat) && (windows[seat >>> 6] & (1L << seat)) != 0;
+    }
+
+    /**
+     * Checks whether a seat is by an aisle.
+     *
+     * @param seat The seat.
+     * @return True if the seat exists and is next to an aisle, otherwise false.
+     */
+    public boolean isAisle(int seat) {
+        return exists(seat) && (aisles[seat >>> 6] & (1L << seat)) != 0;
+    }
+
+    /**
+     * Checks whether a seat number names a seat of this cabin.
+     *
+     * @param seat The seat.
+     * @return True if the seat exists, otherwise false.
+     */
+    public boolean exists(int seat) {
+        return seat >= 0 && (seat >>> 6) < seats.length && (seats[seat >>> 6] & (1L << seat)) != 0;
+    }
+
+    /**
+     * Returns the seat in a given row and column.
+     *
+     * @param row    The row, counting from 0.
+     * @param column The column, counting from 0 at seat A.
+     * @return The seat, or {@link #NO_SEAT} if there is no such seat.
+     */
+    public int seat(int row, int column) {
+        if (row < 0 || column < 0 || column >= width) {
+            return NO_SEAT;
+        }
+        int seat = row * ROW_BITS + column;
+        return exists(seat) ? seat : NO_SEAT;
+    }
+
+    /**
+     * Returns the name of a seat, such as "12A".
+     *
+     * @param seat The seat.
+     * @return The name, or an empty string for {@link #NO_SEAT}.
+     */
+    public static String label(int seat) {
+        if (seat < 0) {
+            return "";
+        }
+        return (seat / ROW_BITS + 1) + String.valueOf(letter(seat % ROW_BITS));
+    }
+
+    /**
+     * Returns the letter of a column, such as 'A' for the first.
+     *
+     * @param column The column, counting from 0.
+     * @return The letter.
+     */
+    public static char letter(int column) {
+        return LETTERS.charAt(column);
+    }
+
+    /**
+     * Reads the name of a seat, such as "12A", ignoring case.
+     *
+     * @param label The name.
+     * @return The seat, or {@link #NO_SEAT} if the name is not one of this cabin's seats.
+     */
+    public int parse(String label) {
+        if (label == null || label.length() < 2) {
+            return NO_SEAT;
+        }
+        int column = LETTERS.indexOf(Character.toUpperCase(label.charAt(label.length() - 1)));
+        int row;
+        try {
+            row = Integer.parseInt(label.substring(0, label.length() - 1)) - 1;
+        } catch (NumberFormatException ex) {
+            return NO_SEAT;
+        }
+        return seat(row, column);
+    }
+
+    private int takeFirst(long[] wanted) {
+        for (int word = 0; word < wanted.length; word++) {
+            long old = taken.get(word);
+            long candidates = wanted[word] & ~old;
+            while (candidates != 0) {
+                long bit = candidates & -candidates;
+                if (taken.compareAndSet(word, old, old | bit)) {
+                    return word * Long.SIZE + Long.numberOfTrailingZeros(bit);
+                }
+                old = taken.get(word);
+                candidates = wanted[word] & ~old;
+            }
+        }
+        return NO_SEAT;
+    }
+
+    // takes size free seats side by side within a block, or within a row for block -1
+    private int[] takeRun(int size, int block) {
+        long run = (1L << size) - 1;
+        for (int word = 0; word < taken.length(); word++) {
+            long area = block < 0 ? rowSeats[word] : blocks[word][block];
+            long old = taken.get(word);
+            while (true) {
+                long open = area & ~old;
+                // a bit stays set where it and the size - 1 bits above it are all open
+                long starts = open;
+                for (int i = 1; i < size && starts != 0; i++) {
+                    starts &= open >>> i;
+                }
+                if (starts == 0) {
+                    break;
+                }
+                int first = Long.numberOfTrailingZeros(starts);
+                long bits = run << first;
+                if (taken.compareAndSet(word, old, old | bits)) {
+                    int[] group = new int[size];
+                    for (int i = 0; i < size; i++) {
+                        group[i] = word * Long.SIZE + first + i;
+                    }
+                    return group;
+                }
+                old = taken.get(word);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,188 @@
+package bcu.cmp5332.bookingsystem.model;
+
+import java.util.function.Consumer;
+
+/**
+ * The TimingWheel class expires timers in constant time per timer, however many are pending.
+ * Time is cut into ticks and the wheel has {@link #LEVELS} levels of {@link #SLOTS} slots:
+ * a slot of the first level holds the timers due in one tick, a slot of the second those
+ * due in one turn of the first level, and so on. A timer goes into the lowest level whose
+ * range covers it; when the first level turns over, the next slot of the level above is
+ * emptied into the levels below, so every timer moves down at most once per level.
+ *
+ * Timers are the entries themselves, linked into their slot, so scheduling and cancelling
+ * allocate nothing and cost O(1). With 100 ms ticks the four levels reach about 19 days;
+ * a timer further off waits in the top level and is rescheduled each time it comes round.
+ *
+ * The wheel is not thread-safe; its owner locks around it.
+ */
+class TimingWheel {
+
+    static final int LEVELS = 4;
+    static final int SLOT_BITS = 6;
+    static final int SLOTS = 1 << SLOT_BITS;
+
+    /**
+     * A timer that can be scheduled on the wheel. Subclasses carry what the timer is for.
+     */
+    static class Entry {
+
+        private Entry previous;
+        private Entry next;
+        private long deadlineTick;
+        // the index of the slot the entry is linked into, or -1 when not scheduled
+        private int slot = -1;
+
+        boolean isScheduled() {
+            return slot >= 0;
+        }
+    }
+
+    private final long tickNanos;
+    private final long origin;
+    private final Entry[] slots = new Entry[LEVELS * SLOTS];
+    private long currentTick;
+    private int size;
+
+    /**
+     * Constructs an empty wheel.
+     *
+     * @param tickNanos The length of a tick, in nanoseconds.
+     * @param now       The current time, in nanoseconds, from the clock the wheel is advanced by.
+     */
+    TimingWheel(long tickNanos, long now) {
+        if (tickNanos <= 0) {
+            throw new IllegalArgumentException("Tick must be positive: " + tickNanos);
+        }
+        this.tickNanos = tickNanos;
+        this.origin = now;
+    }
+
+    /**
+     * Schedules an entry to expire at a given time, rounded up to the next tick. An entry due
+     * now or earlier expires on the next tick.
+     *
+     * @param entry    The entry, which must not be scheduled already.
+     * @param deadline The time it expires, in nanoseconds.
+     */
+    void schedule(Entry entry, long deadline) {
+        if (entry.isScheduled()) {
+            throw new IllegalStateException("Entry is already scheduled");
+        }
+        long elapsed = deadline - origin;
+        entry.deadlineTick = elapsed <= 0 ? 0 : (elapsed + tickNanos - 1) / tickNanos;
+        insert(entry, currentTick + 1);
+        size++;
+    }
+
+    /**
+     * Removes an entry from the wheel before it expires.
+     *
+     * @param entry The entry.
+     * @return True if it was scheduled, false if it had already expired or been cancelled.
+     */
+    boolean cancel(Entry entry) {
+        if (!entry.isScheduled()) {
+            return false;
+        }
+        unlink(entry);
+        size--;
+        return true;
+    }
+
+    /**
+     * Moves the wheel on to the given time, passing each entry that has come due to the
+     * callback, earliest tick first. Each entry is unscheduled before it is passed on.
+     *
+     * @param now     The current time, in nanoseconds.
+     * @param expired Told about every expired entry.
+     * @return The number of entries expired.
+     */
+    int advance(long now, Consumer<Entry> expired) {
+        long target = (now - origin) / tickNanos;
+        int count = 0;
+        while (currentTick < target) {
+            if (size == 0) {
+                currentTick = target;
+                break;
+            }
+            long tick = currentTick + 1;
+            // on a turn of a level, empty the due slot of the level above into the lower ones,
+            // top level first so entries can fall more than one level
+            int turned = 0;
+            while (turned < LEVELS - 1 && (tick & ((1L << (SLOT_BITS * (turned + 1))) - 1)) == 0) {
+                turned++;
+            }
+            currentTick = tick;
+            for (int level = turned; level >= 1; level--) {
+                int index = level * SLOTS + (int) ((tick >>> (SLOT_BITS * level)) & (SLOTS - 1));
+                Entry entry = slots[index];
+                slots[index] = null;
+                while (entry != null) {
+                    Entry next = entry.next;
+                    entry.previous = null;
+                    entry.next = null;
+                    entry.slot = -1;
+                    // an entry due on this very tick lands in the slot expired just below
+                    insert(entry, tick);
+                    entry = next;
+                }
+            }
+            // taken one at a time, so the callback may cancel or schedule other entries
+            Entry entry;
+            while ((entry = slots[(int) (tick & (SLOTS - 1))]) != null) {
+                unlink(entry);
+                size--;
+                count++;
+                expired.accept(entry);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of entries scheduled.
+     *
+     * @return The number of entries.
+     */
+    int size() {
+        return size;
+    }
+
+    // links an entry into the slot for its deadline, or for the tick "earliest" if that is later
+    private void insert(Entry entry, long earliest) {
+        long due = Math.max(entry.deadlineTick, earliest);
+        long delta = due - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        if (delta >= 1L << (SLOT_BITS * LEVELS)) {
+            // beyond the top level: park it in the last slot it can reach and look again then
+            due = currentTick + (1L << (SLOT_BITS * LEVELS)) - 1;
+        }
+        int index = level * SLOTS + (int) ((due >>> (SLOT_BITS * level)) & (SLOTS - 1));
+        Entry head = slots[index];
+        entry.next = head;
+        entry.previous = null;
+        if (head != null) {
+            head.previous = entry;
+        }
+        slots[index] = entry;
+        entry.slot = index;
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.previous != null) {
+            entry.previous.next = entry.next;
+        } else {
+            slots[entry.slot] = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.previous = entry.previous;
+        }
+        entry.previous = null;
+        entry.next = null;
+        entry.slot = -1;
+    }
+}
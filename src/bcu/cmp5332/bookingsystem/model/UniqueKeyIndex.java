@@ -0,0 +1,205 @@
+package bcu.cmp5332.bookingsystem.model;
+
+import java.util.Locale;
+import java.util.function.IntPredicate;
+
+/**
+ * The UniqueKeyIndex class finds the customer that already uses a key, such as an email
+ * address, without a scan. Keys are kept as 64-bit hashes next to the ID of the customer
+ * that has them, in primitive arrays, and a {@link BloomFilter} in front answers most
+ * lookups of new keys without touching the table at all. Two keys may share a hash, so a
+ * match in the table is confirmed against the customer itself by the caller.
+ *
+ * The filter is rebuilt from the table, at twice the size, whenever the number of keys
+ * outgrows it, and after many removals, which it cannot forget by itself.
+ */
+class UniqueKeyIndex {
+
+    private static final float LOAD_FACTOR = 0.6f;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final String name;
+    private long[] hashes;
+    private int[] ids;
+    private boolean[] used;
+    private int mask;
+    private int size;
+    private int filterCapacity;
+    private BloomFilter filter;
+    private int removedSinceRebuild;
+
+    private long lookups;
+    private long filtered;
+    private long duplicates;
+    private long falsePositives;
+
+    /**
+     * Constructs an empty index.
+     *
+     * @param name What the keys are, for the report.
+     */
+    UniqueKeyIndex(String name) {
+        this.name = name;
+        allocate(1024);
+        this.filterCapacity = 1024;
+        this.filter = new BloomFilter(filterCapacity, FALSE_POSITIVE_RATE);
+    }
+
+    /**
+     * Finds the customer that uses a key.
+     *
+     * @param hash    The hash of the key.
+     * @param sameKey Tells whether the customer with a given ID really has the key.
+     * @return The customer ID, or -1 if no customer has the key.
+     */
+    int find(long hash, IntPredicate sameKey) {
+        lookups++;
+        if (!filter.mightContain(hash)) {
+            filtered++;
+            return -1;
+        }
+        for (int slot = (int) mix(hash) & mask; used[slot]; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash && sameKey.test(ids[slot])) {
+                duplicates++;
+                return ids[slot];
+            }
+        }
+        falsePositives++;
+        return -1;
+    }
+
+    /**
+     * Records that a customer uses a key.
+     *
+     * @param hash The hash of the key.
+     * @param id   The customer ID.
+     */
+    void add(long hash, int id) {
+        int slot = (int) mix(hash) & mask;
+        while (used[slot]) {
+            slot = (slot + 1) & mask;
+        }
+        used[slot] = true;
+        hashes[slot] = hash;
+        ids[slot] = id;
+        if (++size > hashes.length * LOAD_FACTOR) {
+            rehash(hashes.length << 1);
+        }
+        if (size > filterCapacity) {
+            rebuildFilter(filterCapacity * 2);
+        } else {
+            filter.put(hash);
+        }
+    }
+
+    /**
+     * Forgets that a customer uses a key. Later entries of the probe chain are shifted
+     * back, so no tombstones are left behind.
+     *
+     * @param hash The hash of the key.
+     * @param id   The customer ID.
+     */
+    void remove(long hash, int id) {
+        int slot = (int) mix(hash) & mask;
+        while (used[slot] && (hashes[slot] != hash || ids[slot] != id)) {
+            slot = (slot + 1) & mask;
+        }
+        if (!used[slot]) {
+            return;
+        }
+        used[slot] = false;
+        size--;
+        for (int next = (slot + 1) & mask; used[next]; next = (next + 1) & mask) {
+            int home = (int) mix(hashes[next]) & mask;
+            // move the entry back if its home slot is not between the hole and where it is
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                hashes[slot] = hashes[next];
+                ids[slot] = ids[next];
+                used[slot] = true;
+                used[next] = false;
+                slot = next;
+            }
+        }
+        if (++removedSinceRebuild > filterCapacity / 2) {
+            rebuildFilter(filterCapacity);
+        }
+    }
+
+    /**
+     * Describes the index and how well its filter has done.
+     *
+     * @return One line of text.
+     */
+    String report() {
+        long newKeys = lookups - duplicates;
+        return String.format(Locale.ROOT,
+                "%s index: %d keys, filter of %d KiB (%d hashes, %.1f bits per key), expected false positives %.2f%%; "
+                        + "%d lookups, %d duplicates rejected, %.1f%% answered by the filter alone, observed false positives %.2f%% (%d)",
+                name, size, filter.getBitCount() >>> 13, filter.getHashCount(),
+                size == 0 ? 0.0 : (double) filter.getBitCount() / size, 100 * filter.getExpectedFalsePositiveRate(),
+                lookups, duplicates, lookups == 0 ? 0.0 : 100.0 * filtered / lookups,
+                newKeys == 0 ? 0.0 : 100.0 * falsePositives / newKeys, falsePositives);
+    }
+
+    /**
+     * Hashes a key to 64 bits: FNV-1a over its characters, then a finalizer that spreads
+     * every input bit over both halves, since the filter uses them separately.
+     *
+     * @param key The key.
+     * @return The hash.
+     */
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private void rebuildFilter(int capacity) {
+        filterCapacity = Math.max(capacity, size);
+        filter = new BloomFilter(filterCapacity, FALSE_POSITIVE_RATE);
+        for (int slot = 0; slot < hashes.length; slot++) {
+            if (used[slot]) {
+                filter.put(hashes[slot]);
+            }
+        }
+        removedSinceRebuild = 0;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldHashes = hashes;
+        int[] oldIds = ids;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        for (int i = 0; i < oldHashes.length; i++) {
+            if (oldUsed[i]) {
+                int slot = (int) mix(oldHashes[i]) & mask;
+                while (used[slot]) {
+                    slot = (slot + 1) & mask;
+                }
+                used[slot] = true;
+                hashes[slot] = oldHashes[i];
+                ids[slot] = oldIds[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        hashes = new long[capacity];
+        ids = new int[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+    }
+
+    private static long mix(long hash) {
+        // the key hashes are already well mixed; fold the high half in for the slot
+        return hash ^ (hash >>> 32);
+    }
+}
@@ -0,0 +1,263 @@
+package bcu.cmp5332.bookingsystem.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The Waitlist class holds the customers waiting for a seat on a sold-out flight, as a
+ * binary heap ordered by loyalty tier, highest first, and then by the order they joined.
+ * Joining, leaving and taking the customer at the front each cost O(log n), and a customer
+ * can wait only once per flight.
+ *
+ * Every method locks the waitlist, so it can be used while other threads book.
+ */
+public class Waitlist {
+
+    /**
+     * A customer waiting for a seat.
+     */
+    public static class Entry {
+
+        private final int id;
+        private final Customer customer;
+        private final Flight flight;
+        private final int tier;
+        private final LocalDate requestedOn;
+        // the entry's position in the heap, or -1 once it has left
+        private int index = -1;
+
+        /**
+         * Constructs a waitlist entry. Entries with higher IDs joined later.
+         *
+         * @param id          The ID of the entry.
+         * @param customer    The waiting customer.
+         * @param flight      The flight they are waiting for.
+         * @param tier        The customer's loyalty tier; higher tiers are served first.
+         * @param requestedOn The date they joined the waitlist.
+         */
+        public Entry(int id, Customer customer, Flight flight, int tier, LocalDate requestedOn) {
+            this.id = id;
+            this.customer = customer;
+            this.flight = flight;
+            this.tier = tier;
+            this.requestedOn = requestedOn;
+        }
+
+        /**
+         * Returns the ID of the entry.
+         *
+         * @return The entry ID.
+         */
+        public int getId() {
+            return id;
+        }
+
+        /**
+         * Returns the waiting customer.
+         *
+         * @return The customer.
+         */
+        public Customer getCustomer() {
+            return customer;
+        }
+
+        /**
+         * Returns the flight the customer is waiting for.
+         *
+         * @return The flight.
+         */
+        public Flight getFlight() {
+            return flight;
+        }
+
+        /**
+         * Returns the customer's loyalty tier.
+         *
+         * @return The tier.
+         */
+        public int getTier() {
+            return tier;
+        }
+
+        /**
+         * Returns the date the customer joined the waitlist.
+         *
+         * @return The date.
+         */
+        public LocalDate getRequestedOn() {
+            return requestedOn;
+        }
+
+        // true if this entry is served before the other
+        private boolean before(Entry other) {
+            return tier != other.tier ? tier > other.tier : id < other.id;
+        }
+    }
+
+    private Entry[] heap = new Entry[4];
+    private int size;
+    private final Map<Integer, Entry> byCustomer = new HashMap<>();
+
+    /**
+     * Adds an entry to the waitlist.
+     *
+     * @param entry The entry.
+     * @return True if it was added, false if its customer is already waiting.
+     */
+    public synchronized boolean add(Entry entry) {
+        if (byCustomer.putIfAbsent(entry.getCustomer().getId(), entry) != null) {
+            return false;
+        }
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        heap[size] = entry;
+        entry.index = size;
+        size++;
+        siftUp(entry.index);
+        return true;
+    }
+
+    /**
+     * Returns the entry at the front without removing it.
+     *
+     * @return The entry, or null if no one is waiting.
+     */
+    public synchronized Entry peek() {
+        return size == 0 ? null : heap[0];
+    }
+
+    /**
+     * Removes and returns the entry at the front.
+     *
+     * @return The entry, or null if no one is waiting.
+     */
+    public synchronized Entry poll() {
+        if (size == 0) {
+            return null;
+        }
+        Entry first = heap[0];
+        removeAt(0);
+        return first;
+    }
+
+    /**
+     * Removes a customer from the waitlist.
+     *
+     * @param customerId The ID of the customer.
+     * @return The customer's entry, or null if they were not waiting.
+     */
+    public synchronized Entry remove(int customerId) {
+        Entry entry = byCustomer.get(customerId);
+        if (entry != null) {
+            removeAt(entry.index);
+        }
+        return entry;
+    }
+
+    /**
+     * Returns the entry of a customer.
+     *
+     * @param customerId The ID of the customer.
+     * @return The entry, or null if they are not waiting.
+     */
+    public synchronized Entry get(int customerId) {
+        return byCustomer.get(customerId);
+    }
+
+    /**
+     * Returns the position of an entry in the queue, counting from 1 at the front.
+     *
+     * @param entry The entry.
+     * @return The position, or 0 if the entry is not on this waitlist.
+     */
+    public synchronized int positionOf(Entry entry) {
+        if (entry.index < 0 || entry.index >= size || heap[entry.index] != entry) {
+            return 0;
+        }
+        int ahead = 0;
+        for (int i = 0; i < size; i++) {
+            if (heap[i].before(entry)) {
+                ahead++;
+            }
+        }
+        return ahead + 1;
+    }
+
+    /**
+     * Returns the entries in the order they will be served.
+     *
+     * @return A copy of the entries.
+     */
+    public synchronized List<Entry> snapshot() {
+        List<Entry> entries = new ArrayList<>(Arrays.asList(heap).subList(0, size));
+        entries.sort((a, b) -> a.before(b) ? -1 : b.before(a) ? 1 : 0);
+        return entries;
+    }
+
+    /**
+     * Returns the number of customers waiting.
+     *
+     * @return The number of entries.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    private void removeAt(int index) {
+        Entry removed = heap[index];
+        byCustomer.remove(removed.getCustomer().getId());
+        removed.index = -1;
+        size--;
+        if (index < size) {
+            heap[index] = heap[size];
+            heap[index].index = index;
+            heap[size] = null;
+            // the moved entry may belong above or below its new place
+            siftDown(siftUp(index));
+        } else {
+            heap[size] = null;
+        }
+    }
+
+    private int siftUp(int index) {
+        Entry entry = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!entry.before(heap[parent])) {
+                break;
+            }
+            heap[index] = heap[parent];
+            heap[index].index = index;
+            index = parent;
+        }
+        heap[index] = entry;
+        entry.index = index;
+        return index;
+    }
+
+    private void siftDown(int index) {
+        Entry entry = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1].before(heap[child])) {
+                child++;
+            }
+            if (!heap[child].before(entry)) {
+                break;
+            }
+            heap[index] = heap[child];
+            heap[index].index = index;
+            index = child;
+        }
+        heap[index] = entry;
+        entry.index = index;
+    }
+}
@@ -0,0 +1,93 @@
+package bcu.cmp5332.bookingsystem.replication;
+
+import bcu.cmp5332.bookingsystem.shard.ShardCluster;
+import bcu.cmp5332.bookingsystem.shard.ShardRouter;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The ReplicaCluster class runs a replicated booking system on one machine: a
+ * {@link ReplicationPrimary} over the given data directory and a number of
+ * {@link ReplicationFollower} processes, each with a directory of its own under it, all on
+ * the loopback interface. Command lines are read from standard input or a script and run
+ * through a {@link ReplicaRouter}. Entering {@code exit} (or the end of the script) stops
+ * every process.
+ *
+ * Usage: ReplicaCluster --followers &lt;count&gt; --data &lt;dir&gt; [--port &lt;first port&gt;] [--batch &lt;file|-&gt;] [--quiet]
+ *        ReplicaCluster --connect &lt;primary host:port,follower host:port,...&gt; [--batch &lt;file|-&gt;] [--quiet]
+ */
+public class ReplicaCluster {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int count = -1;
+        int port = 7200;
+        File data = null;
+        String connect = null;
+        String batch = null;
+        boolean quiet = false;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--followers") && i + 1 < args.length) {
+                count = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--port") && i + 1 < args.length) {
+                port = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--data") && i + 1 < args.length) {
+                data = new File(args[++i]);
+            } else if (args[i].equals("--connect") && i + 1 < args.length) {
+                connect = args[++i];
+            } else if (args[i].equals("--batch") && i + 1 < args.length) {
+                batch = args[++i];
+            } else if (args[i].equals("--quiet")) {
+                quiet = true;
+            } else {
+                count = -2;
+                break;
+            }
+        }
+        if (count < -1 || (connect == null && (count < 0 || data == null))) {
+            System.out.println("Usage: ReplicaCluster --followers <count> --data <dir> [--port <first port>] [--batch <file|->] [--quiet]");
+            System.out.println("       ReplicaCluster --connect <primary host:port,follower host:port,...> [--batch <file|->] [--quiet]");
+            System.exit(2);
+        }
+
+        List<Process> processes = new ArrayList<>();
+        List<InetSocketAddress> addresses;
+        if (connect != null) {
+            addresses = ShardRouter.parseAddresses(connect);
+        } else {
+            addresses = new ArrayList<>();
+            for (int i = 0; i <= count; i++) {
+                addresses.add(new InetSocketAddress("127.0.0.1", port + i));
+            }
+            String primary = "127.0.0.1:" + port;
+            processes.add(ShardCluster.startProcess(ReplicationPrimary.class,
+                    "--port", Integer.toString(port), "--data", data.getPath()));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> processes.forEach(Process::destroy)));
+            ShardCluster.awaitServer(addresses.get(0), processes.get(0));
+            for (int i = 1; i <= count; i++) {
+                processes.add(ShardCluster.startProcess(ReplicationFollower.class, "--port", Integer.toString(port + i),
+                        "--data", new File(data, "replica-" + i).getPath(), "--primary", primary));
+            }
+            for (int i = 1; i <= count; i++) {
+                ShardCluster.awaitServer(addresses.get(i), processes.get(i));
+            }
+        }
+
+        int failed;
+        try (ReplicaRouter router = new ReplicaRouter(addresses.get(0), addresses.subList(1, addresses.size()))) {
+            System.out.println("Writes go to " + ShardCluster.addressList(addresses.subList(0, 1))
+                    + ", reads to " + (addresses.size() > 1 ? ShardCluster.addressList(addresses.subList(1, addresses.size())) : "the primary"));
+            failed = ShardCluster.runScript(router, batch, quiet);
+            if (!processes.isEmpty()) {
+                router.shutdown();
+            }
+        }
+        for (Process process : processes) {
+            process.waitFor();
+        }
+        System.exit(failed == 0 ? 0 : 1);
+    }
+}
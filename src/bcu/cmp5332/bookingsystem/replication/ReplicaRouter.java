@@ -0,0 +1,91 @@
+package bcu.cmp5332.bookingsystem.replication;
+
+import bcu.cmp5332.bookingsystem.main.CommandTable;
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.shard.CommandRouter;
+import bcu.cmp5332.bookingsystem.shard.ShardConnection;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The ReplicaRouter class sends commands that change the data to the primary and spreads
+ * read-only commands across the followers in turn. A read may not yet see a change made
+ * just before it; {@code replstatus} shows how far behind each follower is.
+ */
+public class ReplicaRouter implements CommandRouter, Closeable {
+
+    private final ShardConnection primary;
+    private final List<ShardConnection> followers = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * Connects to the primary and the followers.
+     *
+     * @param primary   The primary's address.
+     * @param followers The followers' addresses. With none, reads go to the primary.
+     * @throws IOException If a process cannot be reached.
+     */
+    public ReplicaRouter(InetSocketAddress primary, List<InetSocketAddress> followers) throws IOException {
+        this.primary = new ShardConnection(primary);
+        try {
+            for (InetSocketAddress address : followers) {
+                this.followers.add(new ShardConnection(address));
+            }
+        } catch (IOException ex) {
+            close();
+            throw ex;
+        }
+    }
+
+    @Override
+    public String execute(List<String> words) throws FlightBookingSystemException, IOException {
+        String command = words.isEmpty() ? "" : words.get(0);
+        if (command.equals(ReplicationPrimary.STATUS)) {
+            StringBuilder sb = new StringBuilder(answer(primary.call(words)));
+            for (ShardConnection follower : followers) {
+                sb.append(answer(follower.call(words)));
+            }
+            return sb.toString();
+        }
+        if (!CommandTable.supports(command)) {
+            throw new FlightBookingSystemException("Invalid command.");
+        }
+        if (CommandTable.isReadOnly(command) && !followers.isEmpty()) {
+            int i = Math.floorMod(next.getAndIncrement(), followers.size());
+            return answer(followers.get(i).call(words));
+        }
+        return answer(primary.call(words));
+    }
+
+    /**
+     * Asks every process to save its data and stop, the followers first.
+     *
+     * @throws IOException If a process cannot be told.
+     */
+    public void shutdown() throws IOException {
+        for (ShardConnection follower : followers) {
+            follower.shutdown();
+        }
+        primary.shutdown();
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (ShardConnection follower : followers) {
+            follower.close();
+        }
+        primary.close();
+    }
+
+    private static String answer(ShardConnection.Response response) throws FlightBookingSystemException {
+        if (!response.isOk()) {
+            throw new FlightBookingSystemException(response.getText());
+        }
+        return response.getText();
+    }
+}
@@ -0,0 +1,250 @@
+package bcu.cmp5332.bookingsystem.replication;
+
+import bcu.cmp5332.bookingsystem.data.FlightBookingSystemData;
+import bcu.cmp5332.bookingsystem.main.CommandTable;
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.metrics.Metrics;
+import bcu.cmp5332.bookingsystem.metrics.OperationStats;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import bcu.cmp5332.bookingsystem.shard.ShardConnection;
+import bcu.cmp5332.bookingsystem.shard.ShardRouter;
+import bcu.cmp5332.bookingsystem.shard.ShardWorker;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ReplicationFollower class serves a read-only copy of a replicated booking system. It
+ * subscribes to a {@link ReplicationPrimary}, loads the snapshot it is sent into its own data
+ * directory, and then runs every change the primary logs against its in-memory system, in
+ * order. Commands that only read the data are served from the copy; any other command is
+ * refused, since changes must go to the primary.
+ *
+ * The {@code replstatus} command reports the last change applied, the newest change the
+ * primary has announced and the replication lag: how long after the primary made it the
+ * last change was applied, or zero once the follower has caught up. Each change's lag is
+ * also recorded under "replication.lag" in the statistics. If the connection to the primary
+ * is lost, the follower keeps serving the data it has and resubscribes, starting from a new
+ * snapshot.
+ *
+ * Usage: ReplicationFollower --port &lt;port&gt; --data &lt;dir&gt; --primary &lt;host:port&gt; [--host &lt;address&gt;]
+ */
+public class ReplicationFollower extends ShardWorker {
+
+    private final InetSocketAddress primary;
+    private final OperationStats lagStats = Metrics.operation("replication.lag");
+    private volatile long appliedSeq;
+    private volatile long primarySeq;
+    private volatile long lagMillis;
+    private volatile long lastContactMillis;
+    private volatile boolean connected;
+
+    private ReplicationFollower(FlightBookingSystem fbs, InetSocketAddress primary, long seq) {
+        super(fbs);
+        this.primary = primary;
+        this.appliedSeq = seq;
+        this.primarySeq = seq;
+        this.lastContactMillis = System.currentTimeMillis();
+    }
+
+    public static void main(String[] args) throws IOException, FlightBookingSystemException {
+        int port = -1;
+        String host = "127.0.0.1";
+        File data = null;
+        InetSocketAddress primary = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--port":
+                    port = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--host":
+                    host = args[i + 1];
+                    break;
+                case "--data":
+                    data = new File(args[i + 1]);
+                    break;
+                case "--primary":
+                    primary = ShardRouter.parseAddresses(args[i + 1]).get(0);
+                    break;
+                default:
+                    port = -1;
+            }
+        }
+        if (port < 0 || data == null || primary == null || args.length % 2 != 0) {
+            System.out.println("Usage: ReplicationFollower --port <port> --data <dir> --primary <host:port> [--host <address>]");
+            System.exit(2);
+        }
+        if (!data.isDirectory() && !data.mkdirs()) {
+            throw new IOException("Cannot create " + data);
+        }
+
+        FlightBookingSystemData.setDataDirectory(data);
+        ReplicationFollower follower = start(primary);
+        try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getByName(host))) {
+            System.err.println("Follower of " + primary + " serving on " + server.getLocalSocketAddress());
+            follower.serve(server);
+        }
+    }
+
+    /**
+     * Subscribes to a primary, loads its snapshot into the data directory and starts
+     * applying its changes in the background.
+     *
+     * @param primary The primary's address.
+     * @return The follower, ready to serve reads.
+     * @throws IOException                  If the primary cannot be reached.
+     * @throws FlightBookingSystemException If the snapshot is invalid.
+     */
+    public static ReplicationFollower start(InetSocketAddress primary) throws IOException, FlightBookingSystemException {
+        Socket socket = subscribe(primary);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 1 << 16));
+        long seq = readSnapshot(in);
+        ReplicationFollower follower = new ReplicationFollower(load(), primary, seq);
+        Thread thread = new Thread(() -> follower.follow(socket, in), "replication");
+        thread.setDaemon(true);
+        thread.start();
+        return follower;
+    }
+
+    @Override
+    protected String execute(List<String> words) throws FlightBookingSystemException {
+        String command = words.isEmpty() ? "" : words.get(0);
+        if (command.equals(ReplicationPrimary.STATUS)) {
+            return status();
+        }
+        if (CommandTable.supports(command) && !CommandTable.isReadOnly(command)) {
+            throw new FlightBookingSystemException("This copy is read-only. Send " + command
+                    + " to the primary at " + primary.getHostString() + ":" + primary.getPort() + ".");
+        }
+        return super.execute(words);
+    }
+
+    private String status() {
+        long now = System.currentTimeMillis();
+        long behind = Math.max(0, primarySeq - appliedSeq);
+        return String.format(Locale.ROOT, "follower of %s:%d %s: applied seq %d of %d (%d behind), lag %d ms, last heard %d ms ago%n",
+                primary.getHostString(), primary.getPort(), connected ? "connected" : "reconnecting",
+                appliedSeq, primarySeq, behind, behind == 0 ? 0 : lagMillis, now - lastContactMillis);
+    }
+
+    private void follow(Socket socket, DataInputStream in) {
+        while (true) {
+            connected = true;
+            try {
+                apply(in);
+            } catch (IOException ex) {
+                System.err.println("Lost the primary: " + ex.getMessage());
+            } finally {
+                try {
+                    socket.close();
+                } catch (IOException ex) {
+                    System.err.println("Cannot close the connection to the primary: " + ex.getMessage());
+                }
+            }
+            connected = false;
+            // resubscribe from a fresh snapshot, retrying until the primary is back
+            while (true) {
+                try {
+                    Thread.sleep(ReplicationPrimary.HEARTBEAT_MILLIS);
+                    socket = subscribe(primary);
+                    in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 1 << 16));
+                    long seq;
+                    FlightBookingSystem fbs;
+                    synchronized (this) {
+                        seq = readSnapshot(in);
+                        fbs = load();
+                        setSystem(fbs);
+                    }
+                    appliedSeq = seq;
+                    primarySeq = Math.max(primarySeq, seq);
+                    lastContactMillis = System.currentTimeMillis();
+                    break;
+                } catch (IOException | FlightBookingSystemException ex) {
+                    System.err.println("Cannot resubscribe: " + ex.getMessage());
+                } catch (InterruptedException ex) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void apply(DataInputStream in) throws IOException {
+        while (true) {
+            int type = in.readUnsignedByte();
+            long seq = in.readLong();
+            long millis = in.readLong();
+            lastContactMillis = System.currentTimeMillis();
+            if (type == ReplicationPrimary.HEARTBEAT) {
+                primarySeq = Math.max(primarySeq, seq);
+                continue;
+            }
+            if (type != ReplicationPrimary.ENTRY) {
+                throw new IOException("Unexpected record type " + type);
+            }
+            List<String> words = ShardConnection.readWords(in);
+            if (seq != appliedSeq + 1) {
+                throw new IOException("Expected change " + (appliedSeq + 1) + " but got " + seq);
+            }
+            boolean failed = false;
+            try {
+                run(CommandTable.create(words));
+            } catch (FlightBookingSystemException | RuntimeException ex) {
+                // the primary's change was partial; keep going rather than stop replicating
+                failed = true;
+                System.err.println("Change " + seq + " (" + String.join(" ", words) + ") failed: " + ex.getMessage());
+            }
+            appliedSeq = seq;
+            primarySeq = Math.max(primarySeq, seq);
+            lagMillis = Math.max(0, System.currentTimeMillis() - millis);
+            lagStats.record(TimeUnit.MILLISECONDS.toNanos(lagMillis), failed);
+        }
+    }
+
+    private static Socket subscribe(InetSocketAddress primary) throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.setTcpNoDelay(true);
+            socket.connect(primary, 5000);
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            out.writeByte(ReplicationPrimary.SUBSCRIBE);
+            out.flush();
+            return socket;
+        } catch (IOException ex) {
+            socket.close();
+            throw ex;
+        }
+    }
+
+    private static long readSnapshot(DataInputStream in) throws IOException {
+        if (in.readUnsignedByte() != ReplicationPrimary.SNAPSHOT) {
+            throw new IOException("The primary did not send a snapshot");
+        }
+        long seq = in.readLong();
+        int files = in.readInt();
+        for (int i = 0; i < files; i++) {
+            String name = ShardConnection.readString(in);
+            byte[] content = new byte[in.readInt()];
+            in.readFully(content);
+            Files.write(FlightBookingSystemData.dataFile(new File(name).getName()).toPath(), content);
+        }
+        return seq;
+    }
+
+    private static FlightBookingSystem load() throws IOException, FlightBookingSystemException {
+        FlightBookingSystem fbs = FlightBookingSystemData.load();
+        // the copy lives in memory; its data files are only the snapshot it started from
+        fbs.setAutoSave(false);
+        return fbs;
+    }
+}
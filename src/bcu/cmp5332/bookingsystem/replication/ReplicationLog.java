@@ -0,0 +1,116 @@
+package bcu.cmp5332.bookingsystem.replication;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * The ReplicationLog class holds the most recent changes a primary has made, as numbered
+ * command lines, for followers to read. Only the newest entries are kept; a follower that
+ * falls further behind than that starts again from a snapshot.
+ */
+public class ReplicationLog {
+
+    /**
+     * One change: the command line that made it, its sequence number and when it was made.
+     */
+    public static final class Entry {
+
+        private final long seq;
+        private final long epochMillis;
+        private final List<String> commandLine;
+
+        Entry(long seq, long epochMillis, List<String> commandLine) {
+            this.seq = seq;
+            this.epochMillis = epochMillis;
+            this.commandLine = commandLine;
+        }
+
+        public long getSeq() {
+            return seq;
+        }
+
+        public long getEpochMillis() {
+            return epochMillis;
+        }
+
+        public List<String> getCommandLine() {
+            return commandLine;
+        }
+    }
+
+    private final int capacity;
+    private final ArrayDeque<Entry> entries = new ArrayDeque<>();
+    private long lastSeq;
+
+    /**
+     * Constructs an empty log.
+     *
+     * @param capacity The number of entries to keep.
+     */
+    public ReplicationLog(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Adds a change and wakes the followers waiting for one.
+     *
+     * @param commandLine The words of the command line that made the change.
+     * @return The change's sequence number.
+     */
+    public synchronized long append(List<String> commandLine) {
+        entries.addLast(new Entry(++lastSeq, System.currentTimeMillis(), commandLine));
+        if (entries.size() > capacity) {
+            entries.removeFirst();
+        }
+        notifyAll();
+        return lastSeq;
+    }
+
+    /**
+     * Returns the sequence number of the newest change, or 0 if there has been none.
+     *
+     * @return The sequence number.
+     */
+    public synchronized long getLastSeq() {
+        return lastSeq;
+    }
+
+    /**
+     * Returns the changes after a sequence number, waiting up to the given time for one if
+     * there are none yet.
+     *
+     * @param seq           The sequence number of the last change the caller has.
+     * @param timeoutMillis How long to wait for a change.
+     * @return The changes in order, empty if none arrived in time, or null if some of them
+     * are no longer kept.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public synchronized List<Entry> after(long seq, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        long remaining = timeoutMillis;
+        while (lastSeq <= seq && remaining > 0) {
+            wait(remaining);
+            remaining = deadline - System.currentTimeMillis();
+        }
+        if (lastSeq <= seq) {
+            return Collections.emptyList();
+        }
+        if (entries.isEmpty() || entries.peekFirst().getSeq() > seq + 1) {
+            return null;
+        }
+        List<Entry> out = new ArrayList<>((int) (lastSeq - seq));
+        Iterator<Entry> it = entries.descendingIterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if (entry.getSeq() <= seq) {
+                break;
+            }
+            out.add(entry);
+        }
+        Collections.reverse(out);
+        return out;
+    }
+}
@@ -0,0 +1,174 @@
+package bcu.cmp5332.bookingsystem.replication;
+
+import bcu.cmp5332.bookingsystem.commands.Command;
+import bcu.cmp5332.bookingsystem.data.FlightBookingSystemData;
+import bcu.cmp5332.bookingsystem.main.CommandTable;
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import bcu.cmp5332.bookingsystem.shard.ShardConnection;
+import bcu.cmp5332.bookingsystem.shard.ShardWorker;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The ReplicationPrimary class serves the writable copy of a replicated booking system. It
+ * runs every command sent to it, like a single-process application, and logs the command
+ * line of each one that changed the data. Followers subscribe to the log: each is first sent
+ * a snapshot of the data files and the sequence number it was taken at, and then every
+ * change after it as it happens, with a heartbeat every second while nothing changes.
+ *
+ * Usage: ReplicationPrimary --port &lt;port&gt; --data &lt;dir&gt; [--host &lt;address&gt;] [--log-size &lt;entries&gt;]
+ */
+public class ReplicationPrimary extends ShardWorker {
+
+    /**
+     * The request type a follower sends to subscribe.
+     */
+    static final int SUBSCRIBE = 16;
+    static final int SNAPSHOT = 1;
+    static final int ENTRY = 2;
+    static final int HEARTBEAT = 3;
+    static final long HEARTBEAT_MILLIS = 1000;
+
+    /**
+     * The command word that asks a node how replication is going.
+     */
+    public static final String STATUS = "replstatus";
+
+    private final ReplicationLog log;
+    private final AtomicInteger followers = new AtomicInteger();
+    private volatile boolean changed;
+
+    /**
+     * Constructs a primary over a loaded system.
+     *
+     * @param fbs     The system.
+     * @param logSize The number of changes to keep for followers that fall behind.
+     */
+    public ReplicationPrimary(FlightBookingSystem fbs, int logSize) {
+        super(fbs);
+        this.log = new ReplicationLog(logSize);
+        fbs.addChangeListener(event -> changed = true);
+    }
+
+    public static void main(String[] args) throws IOException, FlightBookingSystemException {
+        int port = -1;
+        String host = "127.0.0.1";
+        File data = null;
+        int logSize = 100_000;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--port":
+                    port = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--host":
+                    host = args[i + 1];
+                    break;
+                case "--data":
+                    data = new File(args[i + 1]);
+                    break;
+                case "--log-size":
+                    logSize = Integer.parseInt(args[i + 1]);
+                    break;
+                default:
+                    port = -1;
+            }
+        }
+        if (port < 0 || data == null || args.length % 2 != 0) {
+            System.out.println("Usage: ReplicationPrimary --port <port> --data <dir> [--host <address>] [--log-size <entries>]");
+            System.exit(2);
+        }
+
+        FlightBookingSystemData.setDataDirectory(data);
+        ReplicationPrimary primary = new ReplicationPrimary(FlightBookingSystemData.load(), logSize);
+        try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getByName(host))) {
+            System.err.println("Primary serving " + data + " on " + server.getLocalSocketAddress());
+            primary.serve(server);
+        }
+    }
+
+    @Override
+    protected String execute(List<String> words) throws FlightBookingSystemException {
+        if (!words.isEmpty() && words.get(0).equals(STATUS)) {
+            return "primary at seq " + log.getLastSeq() + ", " + followers.get() + " follower(s) subscribed\n";
+        }
+        Command command = CommandTable.create(words);
+        synchronized (this) {
+            changed = false;
+            try {
+                return run(command);
+            } finally {
+                // a command that failed part way may still have changed the data
+                List<String> line = command.getCommandLine();
+                if (changed && line != null) {
+                    log.append(new ArrayList<>(line));
+                }
+            }
+        }
+    }
+
+    @Override
+    protected boolean handleRequest(int type, DataInputStream in, DataOutputStream out) throws IOException {
+        if (type != SUBSCRIBE) {
+            return false;
+        }
+        long seq;
+        List<String> names = FlightBookingSystemData.getDataFileNames();
+        List<byte[]> contents = new ArrayList<>();
+        synchronized (this) {
+            FlightBookingSystemData.store(getSystem());
+            seq = log.getLastSeq();
+            for (String name : names) {
+                File file = FlightBookingSystemData.dataFile(name);
+                contents.add(file.isFile() ? Files.readAllBytes(file.toPath()) : new byte[0]);
+            }
+        }
+        out.writeByte(SNAPSHOT);
+        out.writeLong(seq);
+        out.writeInt(names.size());
+        for (int i = 0; i < names.size(); i++) {
+            ShardConnection.writeString(out, names.get(i));
+            out.writeInt(contents.get(i).length);
+            out.write(contents.get(i));
+        }
+        out.flush();
+
+        followers.incrementAndGet();
+        try {
+            while (true) {
+                List<ReplicationLog.Entry> entries = log.after(seq, HEARTBEAT_MILLIS);
+                if (entries == null) {
+                    // the follower is further behind than the log reaches; it will resubscribe
+                    return false;
+                }
+                if (entries.isEmpty()) {
+                    out.writeByte(HEARTBEAT);
+                    out.writeLong(log.getLastSeq());
+                    out.writeLong(System.currentTimeMillis());
+                }
+                for (ReplicationLog.Entry entry : entries) {
+                    out.writeByte(ENTRY);
+                    out.writeLong(entry.getSeq());
+                    out.writeLong(entry.getEpochMillis());
+                    ShardConnection.writeWords(out, entry.getCommandLine());
+                    seq = entry.getSeq();
+                }
+                out.flush();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            followers.decrementAndGet();
+        }
+    }
+}
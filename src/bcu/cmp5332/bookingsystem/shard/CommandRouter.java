@@ -0,0 +1,23 @@
+package bcu.cmp5332.bookingsystem.shard;
+
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A CommandRouter runs command lines on remote booking system processes, choosing which
+ * process or processes each line goes to.
+ */
+public interface CommandRouter {
+
+    /**
+     * Runs a command.
+     *
+     * @param words The words of the command line, the command word first.
+     * @return What the command printed.
+     * @throws FlightBookingSystemException If the command is invalid or was refused.
+     * @throws IOException                  If a process cannot be reached.
+     */
+    String execute(List<String> words) throws FlightBookingSystemException, IOException;
+}
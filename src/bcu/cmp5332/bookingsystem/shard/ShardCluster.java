@@ -0,0 +1,291 @@
+package bcu.cmp5332.bookingsystem.shard;
+
+import bcu.cmp5332.bookingsystem.data.SystemDateDataManager;
+import bcu.cmp5332.bookingsystem.data.Tombstones;
+import bcu.cmp5332.bookingsystem.data.WaitlistDataManager;
+import bcu.cmp5332.bookingsystem.main.CommandParser;
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.model.ChangeEvent;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The ShardCluster class runs a sharded booking system on one machine. It splits a data
+ * directory into one directory per shard, starts a {@link ShardWorker} process for each on
+ * the loopback interface, and reads command lines from standard input or a script, running
+ * each through a {@link ShardRouter}. Entering {@code exit} (or the end of the script) saves
+ * every shard and stops the workers.
+ *
+ * Commands must carry their arguments inline, as in batch mode. With {@code --connect} the
+ * router uses workers that are already running, on this machine or others, instead of
+ * starting its own.
+ *
+ * Usage: ShardCluster --shards &lt;count&gt; --data &lt;dir&gt; [--port &lt;first port&gt;] [--batch &lt;file|-&gt;] [--quiet]
+ *        ShardCluster --connect &lt;host:port,...&gt; [--batch &lt;file|-&gt;] [--quiet]
+ */
+public class ShardCluster {
+
+    private static final String[] DATA_FILES = {"flights.txt", "customers.txt", "bookings.txt", WaitlistDataManager.RESOURCE,
+            SystemDateDataManager.RESOURCE};
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int count = 0;
+        int port = 7100;
+        File data = null;
+        String connect = null;
+        String batch = null;
+        boolean quiet = false;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--shards") && i + 1 < args.length) {
+                count = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--port") && i + 1 < args.length) {
+                port = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--data") && i + 1 < args.length) {
+                data = new File(args[++i]);
+            } else if (args[i].equals("--connect") && i + 1 < args.length) {
+                connect = args[++i];
+            } else if (args[i].equals("--batch") && i + 1 < args.length) {
+                batch = args[++i];
+            } else if (args[i].equals("--quiet")) {
+                quiet = true;
+            } else {
+                count = -1;
+                break;
+            }
+        }
+        if (connect == null && (count < 1 || data == null)) {
+            System.out.println("Usage: ShardCluster --shards <count> --data <dir> [--port <first port>] [--batch <file|->] [--quiet]");
+            System.out.println("       ShardCluster --connect <host:port,...> [--batch <file|->] [--quiet]");
+            System.exit(2);
+        }
+
+        List<Process> workers = new ArrayList<>();
+        List<InetSocketAddress> addresses;
+        if (connect != null) {
+            addresses = ShardRouter.parseAddresses(connect);
+        } else {
+            File shardRoot = new File(data, "shards-" + count);
+            if (!shardRoot.isDirectory()) {
+                split(data, shardRoot, count);
+            }
+            addresses = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                addresses.add(new InetSocketAddress("127.0.0.1", port + i));
+                workers.add(startProcess(ShardWorker.class, "--shard", Integer.toString(i), "--shards", Integer.toString(count),
+                        "--port", Integer.toString(port + i), "--data", new File(shardRoot, "shard-" + i).getPath()));
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> workers.forEach(Process::destroy)));
+            for (int i = 0; i < count; i++) {
+                awaitServer(addresses.get(i), workers.get(i));
+            }
+        }
+
+        int failed;
+        try (ShardRouter router = new ShardRouter(addresses)) {
+            System.out.println("Routing to " + router.getShardCount() + " shard(s) at " + addressList(addresses));
+            failed = runScript(router, batch, quiet);
+            if (!workers.isEmpty()) {
+                router.shutdown();
+            }
+        }
+        for (Process worker : workers) {
+            worker.waitFor();
+        }
+        System.exit(failed == 0 ? 0 : 1);
+    }
+
+    /**
+     * Reads command lines from standard input or a script and runs each through a router,
+     * printing what it printed or why it failed, until {@code exit} or the end of the input.
+     *
+     * @param router The router.
+     * @param batch  The script file, "-" for standard input as a script, or null to read
+     *               standard input interactively.
+     * @param quiet  True to print only errors.
+     * @return The number of commands that failed.
+     * @throws IOException If the input cannot be read or a process cannot be reached.
+     */
+    public static int runScript(CommandRouter router, String batch, boolean quiet) throws IOException {
+        BufferedReader reader = batch == null || batch.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Paths.get(batch), StandardCharsets.UTF_8);
+        int failed = 0;
+        List<String> words = new ArrayList<>();
+        int lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            CommandParser.tokenize(line, words);
+            if (words.isEmpty() || words.get(0).startsWith("#")) {
+                continue;
+            }
+            if (words.get(0).equals("exit")) {
+                break;
+            }
+            try {
+                String output = router.execute(new ArrayList<>(words));
+                if (!quiet) {
+                    System.out.print(output);
+                }
+            } catch (FlightBookingSystemException ex) {
+                failed++;
+                System.out.println(batch == null ? ex.getMessage() : "line " + lineNumber + ": " + ex.getMessage());
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * Splits the data files of a single system into one data directory per shard. Each shard
+     * gets the flights whose ID modulo the number of shards is its index, the bookings on
+     * those flights, and every customer. Records the source's tombstones name are left out.
+     *
+     * @param source The data directory to split. It is not modified.
+     * @param target The directory to create the shard directories "shard-0", "shard-1", ... in.
+     * @param count  The number of shards.
+     * @throws IOException If a file cannot be read or written.
+     */
+    public static void split(File source, File target, int count) throws IOException {
+        Tombstones deleted = Tombstones.read(source);
+        BufferedWriter[][] writers = new BufferedWriter[count][DATA_FILES.length];
+        try {
+            for (int shard = 0; shard < count; shard++) {
+                File dir = new File(target, "shard-" + shard);
+                if (!dir.isDirectory() && !dir.mkdirs()) {
+                    throw new IOException("Cannot create " + dir);
+                }
+                for (int f = 0; f < DATA_FILES.length; f++) {
+                    writers[shard][f] = Files.newBufferedWriter(new File(dir, DATA_FILES[f]).toPath(), StandardCharsets.UTF_8);
+                }
+            }
+            for (int f = 0; f < DATA_FILES.length; f++) {
+                File file = new File(source, DATA_FILES[f]);
+                if (!file.isFile()) {
+                    continue;
+                }
+                // flights are placed by their own ID, bookings and waitlist entries by the ID of their flight
+                boolean waitlist = DATA_FILES[f].equals(WaitlistDataManager.RESOURCE);
+                int idField = DATA_FILES[f].equals("flights.txt") ? 0 : DATA_FILES[f].equals("bookings.txt") || waitlist ? 2 : -1;
+                // waitlist entries have no tombstones of their own, and every shard gets the system date
+                boolean date = DATA_FILES[f].equals(SystemDateDataManager.RESOURCE);
+                ChangeEvent.Entity entity = waitlist || date ? null : idField == 0 ? ChangeEvent.Entity.FLIGHT
+                        : idField == 2 ? ChangeEvent.Entity.BOOKING : ChangeEvent.Entity.CUSTOMER;
+                try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (line.trim().isEmpty() || entity != null && deleted.isDeleted(entity, Integer.parseInt(field(line, 0).trim()))) {
+                            continue;
+                        }
+                        if (idField < 0) {
+                            for (int shard = 0; shard < count; shard++) {
+                                writers[shard][f].write(line);
+                                writers[shard][f].newLine();
+                            }
+                        } else {
+                            int shard = Math.floorMod(Integer.parseInt(field(line, idField).trim()), count);
+                            writers[shard][f].write(line);
+                            writers[shard][f].newLine();
+                        }
+                    }
+                }
+            }
+        } finally {
+            for (BufferedWriter[] shardWriters : writers) {
+                for (BufferedWriter writer : shardWriters) {
+                    if (writer != null) {
+                        writer.close();
+                    }
+                }
+            }
+        }
+    }
+
+    private static String field(String line, int index) throws IOException {
+        int start = 0;
+        for (int i = 0; i < index; i++) {
+            start = line.indexOf(',', start) + 1;
+            if (start == 0) {
+                throw new IOException("Too few fields in: " + line);
+            }
+        }
+        int end = line.indexOf(',', start);
+        return end < 0 ? line.substring(start) : line.substring(start, end);
+    }
+
+    /**
+     * Starts a Java process running a main class from this application's class path. Its
+     * output goes to this process's output.
+     *
+     * @param main The class whose main method to run.
+     * @param args The arguments.
+     * @return The process.
+     * @throws IOException If the process cannot be started.
+     */
+    public static Process startProcess(Class<?> main, String... args) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(main.getName());
+        command.addAll(Arrays.asList(args));
+        ProcessBuilder builder = new ProcessBuilder(command);
+        builder.redirectOutput(ProcessBuilder.Redirect.INHERIT);
+        builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+        return builder.start();
+    }
+
+    /**
+     * Waits until a server process accepts connections.
+     *
+     * @param address The address the server listens on.
+     * @param process The server process.
+     * @throws IOException          If the process exits or does not start listening within a minute.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public static void awaitServer(InetSocketAddress address, Process process) throws IOException, InterruptedException {
+        long deadline = System.currentTimeMillis() + 60_000;
+        while (true) {
+            try {
+                // connecting is the whole check, so the connection is closed straight away
+                new ShardConnection(address).close();
+                return;
+            } catch (IOException ex) {
+                if (!process.isAlive()) {
+                    throw new IOException("The process for " + address + " exited with status " + process.exitValue());
+                }
+                if (System.currentTimeMillis() > deadline) {
+                    throw new IOException("The process for " + address + " did not start", ex);
+                }
+                Thread.sleep(100);
+            }
+        }
+    }
+
+    /**
+     * Formats addresses as the comma-separated host:port list {@code --connect} accepts.
+     *
+     * @param addresses The addresses.
+     * @return The list.
+     */
+    public static String addressList(List<InetSocketAddress> addresses) {
+        StringBuilder sb = new StringBuilder();
+        for (InetSocketAddress address : addresses) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(address.getHostString()).append(':').append(address.getPort());
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,183 @@
+package bcu.cmp5332.bookingsystem.shard;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The ShardConnection class is the client end of the connection to one {@link ShardWorker}.
+ *
+ * Every request is a type byte followed, for {@link #COMMAND}, by the words of a command
+ * line: a word count, then each word as a length and UTF-8 bytes. The worker answers with
+ * a status byte ({@link #OK} or {@link #FAILED}) and a text: the command's output, or the
+ * message of the error it failed with. One request is answered before the next is sent.
+ * Servers built on {@link ShardWorker} may accept further request types.
+ */
+public class ShardConnection implements Closeable {
+
+    static final int COMMAND = 1;
+    static final int SHUTDOWN = 2;
+    static final int OK = 0;
+    static final int FAILED = 1;
+
+    /**
+     * The answer to one command.
+     */
+    public static final class Response {
+
+        private final boolean ok;
+        private final String text;
+
+        Response(boolean ok, String text) {
+            this.ok = ok;
+            this.text = text;
+        }
+
+        /**
+         * Returns whether the command succeeded.
+         *
+         * @return True if it succeeded.
+         */
+        public boolean isOk() {
+            return ok;
+        }
+
+        /**
+         * Returns what the command printed if it succeeded, or its error message if it failed.
+         *
+         * @return The text.
+         */
+        public String getText() {
+            return text;
+        }
+    }
+
+    private final InetSocketAddress address;
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+
+    /**
+     * Connects to a worker.
+     *
+     * @param address The worker's address.
+     * @throws IOException If the worker cannot be reached.
+     */
+    public ShardConnection(InetSocketAddress address) throws IOException {
+        this.address = address;
+        socket = new Socket();
+        socket.setTcpNoDelay(true);
+        socket.connect(address, 5000);
+        in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+    }
+
+    /**
+     * Returns the worker's address.
+     *
+     * @return The address.
+     */
+    public InetSocketAddress getAddress() {
+        return address;
+    }
+
+    /**
+     * Runs a command on the worker and waits for its answer.
+     *
+     * @param words The words of the command line, the command word first.
+     * @return The answer.
+     * @throws IOException If the connection fails.
+     */
+    public synchronized Response call(List<String> words) throws IOException {
+        out.writeByte(COMMAND);
+        writeWords(out, words);
+        out.flush();
+        boolean ok = in.readUnsignedByte() == OK;
+        return new Response(ok, readString(in));
+    }
+
+    /**
+     * Asks the worker to save its data and stop, and closes the connection.
+     *
+     * @throws IOException If the request cannot be sent.
+     */
+    public synchronized void shutdown() throws IOException {
+        try {
+            out.writeByte(SHUTDOWN);
+            out.flush();
+            // the worker closes the connection once its data is saved
+            in.read();
+        } finally {
+            socket.close();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    /**
+     * Writes the words of a command line in the protocol's framing.
+     *
+     * @param out   The stream.
+     * @param words The words.
+     * @throws IOException If the stream fails.
+     */
+    public static void writeWords(DataOutputStream out, List<String> words) throws IOException {
+        out.writeInt(words.size());
+        for (String word : words) {
+            writeString(out, word);
+        }
+    }
+
+    /**
+     * Reads the words of a command line written by {@link #writeWords}.
+     *
+     * @param in The stream.
+     * @return The words.
+     * @throws IOException If the stream fails or ends.
+     */
+    public static List<String> readWords(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<String> words = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            words.add(readString(in));
+        }
+        return words;
+    }
+
+    /**
+     * Writes a text as its UTF-8 length and bytes.
+     *
+     * @param out   The stream.
+     * @param value The text.
+     * @throws IOException If the stream fails.
+     */
+    public static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a text written by {@link #writeString}.
+     *
+     * @param in The stream.
+     * @return The text.
+     * @throws IOException If the stream fails or ends.
+     */
+    public static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
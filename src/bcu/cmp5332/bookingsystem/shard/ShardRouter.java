@@ -0,0 +1,455 @@
+package bcu.cmp5332.bookingsystem.shard;
+
+import bcu.cmp5332.bookingsystem.commands.PagedOutput;
+import bcu.cmp5332.bookingsystem.main.CommandTable;
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The ShardRouter class sends each command to the {@link ShardWorker} that owns its data and
+ * returns what the command printed.
+ *
+ * <ul>
+ *   <li>Commands naming a flight, and the bookings on it, go to the shard at the flight ID
+ *   modulo the number of shards.</li>
+ *   <li>{@code addflight} goes to the shard chosen by the flight number and departure date,
+ *   so the duplicate check sees every earlier flight with the same number and date. That
+ *   shard gives the flight an ID in its own partition.</li>
+ *   <li>{@code addcustomer} is sent to every shard, one customer at a time, so each shard
+ *   gives the customer the same ID; the router checks that they did.</li>
+ *   <li>{@code listflights} and {@code stats} are scattered to every shard and the answers
+ *   gathered. Flights are merged in ID order before the requested page is cut.</li>
+ *   <li>{@code statement} is scattered as well. Every shard has every customer, but a
+ *   customer's ledger entries, like their bookings, are kept by the shards of the flights
+ *   they booked, so each shard knows only part of the balance. The entries are merged by date
+ *   and the balances summed.</li>
+ *   <li>{@code showcustomer} with {@code --bookings}, {@code --offset} or {@code --limit} is
+ *   scattered for the same reason. Each shard's bookings are merged by booking date before
+ *   the requested page is cut.</li>
+ *   <li>Other reads of customers, which need only the customer's own details, go to one
+ *   shard.</li>
+ * </ul>
+ */
+public class ShardRouter implements CommandRouter, Closeable {
+
+    private static final Pattern MATCHED = Pattern.compile("of (\\d+)\\)");
+    private static final Pattern BALANCE = Pattern.compile("balance (-?\\d+)$");
+    private static final Pattern LEDGER_ROW = Pattern.compile("#(\\d+) - (\\S+) - .* - (-?\\d+) - Balance: (-?\\d+)");
+
+    private final List<ShardConnection> shards = new ArrayList<>();
+    private final ExecutorService scatter;
+    private final Object customerLock = new Object();
+
+    /**
+     * Connects to every shard.
+     *
+     * @param addresses The workers' addresses, in shard index order.
+     * @throws IOException If a worker cannot be reached.
+     */
+    public ShardRouter(List<InetSocketAddress> addresses) throws IOException {
+        try {
+            for (InetSocketAddress address : addresses) {
+                shards.add(new ShardConnection(address));
+            }
+        } catch (IOException ex) {
+            close();
+            throw ex;
+        }
+        scatter = Executors.newFixedThreadPool(shards.size(), runnable -> {
+            Thread thread = new Thread(runnable, "shard-scatter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Parses a list of worker addresses such as "127.0.0.1:7001,127.0.0.1:7002".
+     *
+     * @param list The comma-separated host:port pairs.
+     * @return The addresses.
+     */
+    public static List<InetSocketAddress> parseAddresses(String list) {
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        for (String part : list.split(",")) {
+            int colon = part.lastIndexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("Expected host:port but got " + part);
+            }
+            addresses.add(new InetSocketAddress(part.substring(0, colon).trim(),
+                    Integer.parseInt(part.substring(colon + 1).trim())));
+        }
+        return addresses;
+    }
+
+    /**
+     * Returns the number of shards.
+     *
+     * @return The count.
+     */
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    /**
+     * Runs a command on the shards that hold its data.
+     *
+     * @param words The words of the command line, the command word first.
+     * @return What the command printed.
+     * @throws FlightBookingSystemException If the command is invalid or a shard refused it.
+     * @throws IOException                  If a shard cannot be reached.
+     */
+    @Override
+    public String execute(List<String> words) throws FlightBookingSystemException, IOException {
+        String command = words.isEmpty() ? "" : words.get(0);
+        if (!CommandTable.supports(command)) {
+            throw new FlightBookingSystemException("Invalid command.");
+        }
+        switch (command) {
+            case "addflight":
+                return answer(shards.get(words.size() > 4 ? shardOfSchedule(words.get(1), words.get(4)) : 0).call(words));
+            case "addbooking":
+            case "cancelbooking":
+            case "editbooking":
+            case "waitlist":
+            case "leavewaitlist":
+            case "viewbooking":
+            case "viewBooking":
+                return answer(shardFor(words, 2).call(words));
+            case "showflight":
+            case "showseats":
+            case "showwaitlist":
+            case "quote":
+            case "manifest":
+                return answer(shardFor(words, 1).call(words));
+            case "showcustomer":
+                return isHistory(words) ? bookingHistory(words) : answer(shardFor(words, 1).call(words));
+            case "addcustomer":
+                return addCustomer(words);
+            case "statement":
+                return statement(words);
+            case "listflights":
+                return listFlights(words);
+            case "stats":
+            case "advanceday":
+                // every shard answers for its own flights, listed shard by shard
+                return stats(words);
+            default:
+                return answer(shards.get(0).call(words));
+        }
+    }
+
+    /**
+     * Asks every worker to save its data and stop.
+     *
+     * @throws IOException If a worker cannot be told.
+     */
+    public void shutdown() throws IOException {
+        for (ShardConnection shard : shards) {
+            shard.shutdown();
+        }
+        scatter.shutdown();
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (ShardConnection shard : shards) {
+            shard.close();
+        }
+        if (scatter != null) {
+            scatter.shutdown();
+        }
+    }
+
+    private ShardConnection shardFor(List<String> words, int idIndex) {
+        if (words.size() <= idIndex) {
+            // let a shard report the usage
+            return shards.get(0);
+        }
+        try {
+            return shards.get(Math.floorMod(Integer.parseInt(words.get(idIndex)), shards.size()));
+        } catch (NumberFormatException ex) {
+            return shards.get(0);
+        }
+    }
+
+    private int shardOfSchedule(String flightNumber, String departureDate) {
+        return Math.floorMod((flightNumber + "@" + departureDate).hashCode(), shards.size());
+    }
+
+    private String addCustomer(List<String> words) throws FlightBookingSystemException, IOException {
+        // one customer at a time, so every shard hands out the same next ID
+        synchronized (customerLock) {
+            List<ShardConnection.Response> responses = scatter(words);
+            ShardConnection.Response first = responses.get(0);
+            for (ShardConnection.Response response : responses) {
+                if (response.isOk() != first.isOk() || !response.getText().equals(first.getText())) {
+                    throw new FlightBookingSystemException("The shards disagree about the new customer: "
+                            + first.getText().trim() + " / " + response.getText().trim());
+                }
+            }
+            return answer(first);
+        }
+    }
+
+    private String listFlights(List<String> words) throws FlightBookingSystemException, IOException {
+        List<String> request = new ArrayList<>();
+        int[] page = page(words, request);
+        if (page == null) {
+            return answer(shards.get(0).call(words));
+        }
+        int offset = page[0];
+        int limit = page[1];
+
+        List<String> rows = new ArrayList<>();
+        int matched = 0;
+        for (ShardConnection.Response response : scatter(request)) {
+            String text = answer(response);
+            String[] lines = text.split("\r?\n");
+            String footer = lines[lines.length - 1];
+            for (int i = 0; i < lines.length - 1; i++) {
+                rows.add(lines[i]);
+            }
+            Matcher m = MATCHED.matcher(footer);
+            matched += m.find() ? Integer.parseInt(m.group(1)) : lines.length - 1;
+        }
+        Collections.sort(rows, (a, b) -> Integer.compare(rowId(a), rowId(b)));
+
+        StringBuilder sb = new StringBuilder();
+        int printed = 0;
+        for (int i = offset; i < rows.size() && printed < limit; i++) {
+            sb.append(rows.get(i)).append('\n');
+            printed++;
+        }
+        sb.append(printed).append(" flight(s)").append(PagedOutput.sliceNote(offset, printed, matched)).append('\n');
+        return sb.toString();
+    }
+
+    private String bookingHistory(List<String> words) throws FlightBookingSystemException, IOException {
+        List<String> request = new ArrayList<>();
+        int[] page = page(words, request);
+        if (page == null) {
+            return answer(shardFor(words, 1).call(words));
+        }
+        int offset = page[0];
+        int limit = page[1];
+        if (!request.contains("--bookings")) {
+            request.add("--bookings");
+        }
+
+        List<String> rows = new ArrayList<>();
+        int matched = 0;
+        int balance = 0;
+        String header = "";
+        for (ShardConnection.Response response : scatter(request)) {
+            String[] lines = answer(response).split("\r?\n");
+            header = lines[0];
+            String footer = lines[lines.length - 1];
+            for (int i = 1; i < lines.length - 1; i++) {
+                rows.add(lines[i]);
+            }
+            Matcher m = MATCHED.matcher(footer);
+            matched += m.find() ? Integer.parseInt(m.group(1)) : lines.length - 2;
+            m = BALANCE.matcher(footer);
+            balance += m.find() ? Integer.parseInt(m.group(1)) : 0;
+        }
+        // in booking date order, then by ID, as a customer lists their own bookings
+        Collections.sort(rows, (a, b) -> {
+            int byDate = bookingDate(a).compareTo(bookingDate(b));
+            return byDate != 0 ? byDate : Integer.compare(rowId(a), rowId(b));
+        });
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(header).append('\n');
+        int printed = 0;
+        for (int i = offset; i < rows.size() && printed < limit; i++) {
+            sb.append(rows.get(i)).append('\n');
+            printed++;
+        }
+        sb.append(printed).append(" booking(s)").append(PagedOutput.sliceNote(offset, printed, matched))
+                .append(", balance ").append(balance).append('\n');
+        return sb.toString();
+    }
+
+    /**
+     * Copies a paged command into the request sent to each shard, which asks for everything up
+     * to the end of the page, from the start, so the pages can be merged before one is cut.
+     *
+     * @param words   The words of the command line.
+     * @param request The list the shards' command line is added to.
+     * @return The offset and limit asked for, or null if they are not valid, for a shard to report.
+     */
+    private static int[] page(List<String> words, List<String> request) {
+        int offset = 0;
+        long limit = Integer.MAX_VALUE;
+        try {
+            for (int i = 0; i < words.size(); i++) {
+                String word = words.get(i);
+                if (word.equals("--offset") && i + 1 < words.size()) {
+                    offset = Integer.parseInt(words.get(++i));
+                } else if (word.equals("--limit") && i + 1 < words.size()) {
+                    limit = Integer.parseInt(words.get(++i));
+                } else {
+                    request.add(word);
+                }
+            }
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+        if (offset < 0 || limit < 0) {
+            return null;
+        }
+        if (offset + limit < Integer.MAX_VALUE) {
+            request.add("--limit");
+            request.add(Long.toString(offset + limit));
+        }
+        return new int[] {offset, (int) limit};
+    }
+
+    private static boolean isHistory(List<String> words) {
+        return words.contains("--bookings") || words.contains("--offset") || words.contains("--limit");
+    }
+
+    private static String bookingDate(String row) {
+        // rows read "Booking #<id> - booked on <YYYY-MM-DD> - ", and the dates sort as text
+        int start = row.indexOf("booked on ") + "booked on ".length();
+        int end = row.indexOf(' ', start);
+        return start < "booked on ".length() ? "" : row.substring(start, end < 0 ? row.length() : end);
+    }
+
+    private static int rowId(String row) {
+        // rows start "Flight #<id> - ", as booking rows start "Booking #<id> - "
+        int start = row.indexOf('#') + 1;
+        int end = row.indexOf(' ', start);
+        try {
+            return Integer.parseInt(row.substring(start, end < 0 ? row.length() : end));
+        } catch (NumberFormatException | StringIndexOutOfBoundsException ex) {
+            return Integer.MAX_VALUE;
+        }
+    }
+
+    private String statement(List<String> words) throws FlightBookingSystemException, IOException {
+        List<ShardConnection.Response> responses = scatter(words);
+        List<LedgerRow> rows = new ArrayList<>();
+        // what each shard's part of the balance stood at before the entry being merged
+        int[] parts = new int[responses.size()];
+        int balance = 0;
+        String header = "";
+        for (int shard = 0; shard < responses.size(); shard++) {
+            String[] lines = answer(responses.get(shard)).split("\r?\n");
+            header = lines[0];
+            Matcher footer = BALANCE.matcher(lines[lines.length - 1]);
+            parts[shard] = footer.find() ? Integer.parseInt(footer.group(1)) : 0;
+            balance += parts[shard];
+            boolean first = true;
+            for (int i = 1; i < lines.length - 1; i++) {
+                Matcher m = LEDGER_ROW.matcher(lines[i]);
+                if (!m.matches()) {
+                    continue;
+                }
+                LedgerRow row = new LedgerRow(shard, Long.parseLong(m.group(1)), m.group(2),
+                        lines[i].substring(0, m.start(4)), Integer.parseInt(m.group(4)));
+                if (first) {
+                    // bookings loaded from the data files were never journaled, so a shard's
+                    // balance may not start at zero
+                    parts[shard] = row.balance - Integer.parseInt(m.group(3));
+                    first = false;
+                }
+                rows.add(row);
+            }
+        }
+        // dates are printed as YYYY-MM-DD, so they sort as text
+        Collections.sort(rows, (a, b) -> {
+            int byDate = a.date.compareTo(b.date);
+            if (byDate != 0) {
+                return byDate;
+            }
+            return a.seq != b.seq ? Long.compare(a.seq, b.seq) : Integer.compare(a.shard, b.shard);
+        });
+
+        int running = 0;
+        for (int part : parts) {
+            running += part;
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append(header).append('\n');
+        for (LedgerRow row : rows) {
+            running += row.balance - parts[row.shard];
+            parts[row.shard] = row.balance;
+            sb.append(row.text).append(running).append('\n');
+        }
+        sb.append(rows.size()).append(" entry(ies), balance ").append(balance).append('\n');
+        return sb.toString();
+    }
+
+    private String stats(List<String> words) throws FlightBookingSystemException, IOException {
+        StringBuilder sb = new StringBuilder();
+        List<ShardConnection.Response> responses = scatter(words);
+        for (int i = 0; i < responses.size(); i++) {
+            sb.append("Shard ").append(i).append(" (").append(shards.get(i).getAddress()).append("):\n");
+            sb.append(answer(responses.get(i)));
+        }
+        return sb.toString();
+    }
+
+    private List<ShardConnection.Response> scatter(List<String> words) throws IOException {
+        List<Future<ShardConnection.Response>> futures = new ArrayList<>();
+        for (ShardConnection shard : shards) {
+            futures.add(scatter.submit(() -> shard.call(words)));
+        }
+        List<ShardConnection.Response> responses = new ArrayList<>();
+        try {
+            for (Future<ShardConnection.Response> future : futures) {
+                responses.add(future.get());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the shards", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("A shard request failed", cause);
+        }
+        return responses;
+    }
+
+    /**
+     * One line of a shard's statement, waiting to be merged with the other shards'.
+     */
+    private static final class LedgerRow {
+
+        private final int shard;
+        private final long seq;
+        private final String date;
+        private final String text;
+        private final int balance;
+
+        private LedgerRow(int shard, long seq, String date, String text, int balance) {
+            this.shard = shard;
+            this.seq = seq;
+            this.date = date;
+            this.text = text;
+            this.balance = balance;
+        }
+    }
+
+    private static String answer(ShardConnection.Response response) throws FlightBookingSystemException {
+        if (!response.isOk()) {
+            throw new FlightBookingSystemException(response.getText());
+        }
+        return response.getText();
+    }
+}
@@ -0,0 +1,251 @@
+package bcu.cmp5332.bookingsystem.shard;
+
+import bcu.cmp5332.bookingsystem.commands.Command;
+import bcu.cmp5332.bookingsystem.data.FlightBookingSystemData;
+import bcu.cmp5332.bookingsystem.main.CommandTable;
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.metrics.TimedCommand;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.List;
+
+/**
+ * The ShardWorker class serves one shard of a sharded booking system: it owns a
+ * FlightBookingSystem loaded from its own data directory and runs the commands a
+ * {@link ShardRouter} sends it over a socket.
+ *
+ * The shard holds the flights whose ID modulo the number of shards is its index, with their
+ * bookings, and a copy of every customer. New flights and bookings get IDs in the same
+ * partition. Commands run one at a time, as they do in the single-process application, and
+ * save their changes to the shard's data files as they go.
+ *
+ * Subclasses can restrict or record the commands that run and accept further request types;
+ * the replication primary and followers are built this way.
+ *
+ * Usage: ShardWorker --shard &lt;index&gt; --shards &lt;count&gt; --port &lt;port&gt; --data &lt;dir&gt; [--host &lt;address&gt;]
+ */
+public class ShardWorker {
+
+    private volatile FlightBookingSystem fbs;
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private final PrintStream capture;
+
+    /**
+     * Constructs a worker over a loaded shard.
+     *
+     * @param fbs   The shard's system.
+     * @param index The shard's index.
+     * @param count The number of shards.
+     */
+    public ShardWorker(FlightBookingSystem fbs, int index, int count) {
+        this(fbs);
+        fbs.setIdPartition(index, count);
+    }
+
+    /**
+     * Constructs a server over a loaded system that is not one of several shards.
+     *
+     * @param fbs The system.
+     */
+    protected ShardWorker(FlightBookingSystem fbs) {
+        this.fbs = fbs;
+        try {
+            capture = new PrintStream(output, false, "UTF-8");
+        } catch (UnsupportedEncodingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    public static void main(String[] args) throws IOException, FlightBookingSystemException {
+        int index = -1;
+        int count = -1;
+        int port = -1;
+        String host = "127.0.0.1";
+        File data = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--shard":
+                    index = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--shards":
+                    count = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--port":
+                    port = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--host":
+                    host = args[i + 1];
+                    break;
+                case "--data":
+                    data = new File(args[i + 1]);
+                    break;
+                default:
+                    index = -1;
+            }
+        }
+        if (index < 0 || count < 1 || port < 0 || data == null || args.length % 2 != 0) {
+            System.out.println("Usage: ShardWorker --shard <index> --shards <count> --port <port> --data <dir> [--host <address>]");
+            System.exit(2);
+        }
+
+        FlightBookingSystemData.setDataDirectory(data);
+        ShardWorker worker = new ShardWorker(FlightBookingSystemData.load(), index, count);
+        try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getByName(host))) {
+            System.err.println("Shard " + index + " of " + count + " serving " + data + " on " + server.getLocalSocketAddress());
+            worker.serve(server);
+        }
+    }
+
+    /**
+     * Accepts connections until a client asks the worker to shut down. Each connection is
+     * served by its own thread.
+     *
+     * @param server The listening socket.
+     * @throws IOException If the socket fails.
+     */
+    public void serve(ServerSocket server) throws IOException {
+        while (!server.isClosed()) {
+            Socket socket;
+            try {
+                socket = server.accept();
+            } catch (SocketException ex) {
+                if (server.isClosed()) {
+                    // closed by a shutdown request
+                    return;
+                }
+                throw ex;
+            }
+            Thread thread = new Thread(() -> handle(socket, server), "shard-connection");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    private void handle(Socket socket, ServerSocket server) {
+        try (Socket s = socket) {
+            s.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+            while (true) {
+                int type;
+                try {
+                    type = in.readUnsignedByte();
+                } catch (EOFException ex) {
+                    return;
+                }
+                if (type == ShardConnection.SHUTDOWN) {
+                    synchronized (this) {
+                        FlightBookingSystemData.store(fbs);
+                    }
+                    server.close();
+                    return;
+                }
+                if (type != ShardConnection.COMMAND) {
+                    if (!handleRequest(type, in, out)) {
+                        return;
+                    }
+                    continue;
+                }
+                List<String> words = ShardConnection.readWords(in);
+                String error = null;
+                String text = null;
+                try {
+                    text = execute(words);
+                } catch (FlightBookingSystemException | RuntimeException ex) {
+                    error = ex.getMessage() == null ? ex.toString() : ex.getMessage();
+                }
+                out.writeByte(error == null ? ShardConnection.OK : ShardConnection.FAILED);
+                ShardConnection.writeString(out, error == null ? text : error);
+                out.flush();
+            }
+        } catch (IOException ex) {
+            System.err.println("Connection closed: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Runs the command a client sent.
+     *
+     * @param words The words of the command line, the command word first.
+     * @return What the command printed.
+     * @throws FlightBookingSystemException If the command is invalid or fails.
+     */
+    protected String execute(List<String> words) throws FlightBookingSystemException {
+        return run(CommandTable.create(words));
+    }
+
+    /**
+     * Runs a command against the system, one at a time, and captures what it prints.
+     *
+     * @param command The command.
+     * @return What the command printed.
+     * @throws FlightBookingSystemException If the command fails.
+     */
+    protected synchronized String run(Command command) throws FlightBookingSystemException {
+        PrintStream console = System.out;
+        System.setOut(capture);
+        try {
+            new TimedCommand(command).execute(fbs);
+        } finally {
+            System.setOut(console);
+            capture.flush();
+        }
+        try {
+            return output.toString("UTF-8");
+        } catch (UnsupportedEncodingException ex) {
+            throw new IllegalStateException(ex);
+        } finally {
+            output.reset();
+        }
+    }
+
+    /**
+     * Handles a request type this class does not know. The connection is closed when it
+     * returns false.
+     *
+     * @param type The request type.
+     * @param in   The connection's input, positioned after the type.
+     * @param out  The connection's output.
+     * @return True to read the next request from the connection, false to close it.
+     * @throws IOException If the connection fails.
+     */
+    protected boolean handleRequest(int type, DataInputStream in, DataOutputStream out) throws IOException {
+        return false;
+    }
+
+    /**
+     * Returns the system the commands run against.
+     *
+     * @return The FlightBookingSystem object.
+     */
+    protected FlightBookingSystem getSystem() {
+        return fbs;
+    }
+
+    /**
+     * Replaces the system the commands run against, between two commands, and shuts the old
+     * one down.
+     *
+     * @param fbs The new system.
+     */
+    protected synchronized void setSystem(FlightBookingSystem fbs) {
+        if (this.fbs != null && this.fbs != fbs) {
+            this.fbs.shutdown();
+        }
+        this.fbs = fbs;
+    }
+}
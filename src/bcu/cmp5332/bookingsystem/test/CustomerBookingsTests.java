@@ -0,0 +1,132 @@
+package bcu.cmp5332.bookingsystem.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+import bcu.cmp5332.bookingsystem.model.Booking;
+import bcu.cmp5332.bookingsystem.model.Customer;
+import bcu.cmp5332.bookingsystem.model.Flight;
+
+/**
+ * The CustomerBookingsTests class contains JUnit tests for the bookings a customer holds. A
+ * customer keeps up to 32 bookings in a list and more in maps, going back to a list below
+ * 16, so every lookup is checked against a plain list as the customer passes both sizes.
+ */
+public class CustomerBookingsTests {
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+    private static final Comparator<Booking> BY_DATE =
+            Comparator.comparing(Booking::getBookingDate).thenComparingInt(Booking::getId);
+
+    private Customer customer;
+    private Flight[] flights;
+    private List<Booking> expected;
+    private Random random;
+
+    /**
+     * Sets up a customer with no bookings and three flights to book.
+     */
+    @Before
+    public void setUp() {
+        customer = new Customer(1, "John Doe", "1234567890", "john.doe@example.com");
+        flights = new Flight[3];
+        for (int i = 0; i < flights.length; i++) {
+            flights[i] = new Flight(i + 1, "F00" + (i + 1), "London", "New York", START.plusDays(90), 200, 100);
+        }
+        expected = new ArrayList<>();
+        random = new Random(5);
+    }
+
+    /**
+     * Tests that bookings are found the same way while the customer grows past 32 bookings
+     * and shrinks back below 16.
+     */
+    @Test
+    public void testLookupsAcrossTheSwitch() {
+        for (int id = 1; id <= 40; id++) {
+            add(id);
+            check();
+        }
+        while (expected.size() > 10) {
+            remove(expected.get(random.nextInt(expected.size())));
+            check();
+        }
+        for (int id = 41; id <= 80; id++) {
+            add(id);
+            check();
+        }
+        while (!expected.isEmpty()) {
+            remove(expected.get(random.nextInt(expected.size())));
+            check();
+        }
+    }
+
+    /**
+     * Tests that a booking moves to its new date whichever way its customer keeps bookings,
+     * and that removing a booking the customer does not hold changes nothing.
+     */
+    @Test
+    public void testRedateAndRemoveUnknown() {
+        for (int size : new int[] { 5, 40 }) {
+            setUp();
+            for (int id = 1; id <= size; id++) {
+                add(id);
+            }
+            for (int i = 0; i < size; i++) {
+                Booking booking = expected.get(random.nextInt(expected.size()));
+                customer.setBookingDate(booking, START.plusDays(random.nextInt(60)));
+                check();
+            }
+            Booking other = new Booking(1000 + size, customer, flights[0], START);
+            customer.removeBooking(other);
+            check();
+        }
+    }
+
+    private void add(int id) {
+        Booking booking = new Booking(id, customer, flights[random.nextInt(flights.length)],
+                START.plusDays(random.nextInt(60)));
+        customer.addBooking(booking);
+        expected.add(booking);
+    }
+
+    private void remove(Booking booking) {
+        customer.removeBooking(booking);
+        expected.remove(booking);
+    }
+
+    private void check() {
+        List<Booking> sorted = new ArrayList<>(expected);
+        Collections.sort(sorted, BY_DATE);
+        assertEquals(sorted.size(), customer.getBookingCount());
+        assertEquals(sorted, customer.getBookings());
+        assertEquals(sorted.subList(Math.min(5, sorted.size()), Math.min(12, sorted.size())),
+                customer.getBookingHistory(5, 7));
+        for (Booking booking : sorted) {
+            assertSame(booking, customer.getBookingById(booking.getId()));
+        }
+        assertNull(customer.getBookingById(999));
+        for (Flight flight : flights) {
+            List<Booking> onFlight = new ArrayList<>();
+            Booking first = null;
+            for (Booking booking : sorted) {
+                if (booking.getFlight() == flight) {
+                    onFlight.add(booking);
+                    if (first == null || booking.getId() < first.getId()) {
+                        first = booking;
+                    }
+                }
+            }
+            assertEquals(onFlight, customer.getBookingsByFlightId(flight.getId()));
+            assertSame(first, customer.getBookingByFlightId(flight.getId()));
+        }
+    }
+}
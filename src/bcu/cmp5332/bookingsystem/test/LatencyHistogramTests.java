@@ -0,0 +1,46 @@
+package bcu.cmp5332.bookingsystem.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import bcu.cmp5332.bookingsystem.metrics.LatencyHistogram;
+
+/**
+ * The LatencyHistogramTests class contains JUnit tests for the LatencyHistogram class.
+ */
+public class LatencyHistogramTests {
+
+    /**
+     * Tests that small values are counted exactly.
+     */
+    @Test
+    public void testSmallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 1; value <= 100; value++) {
+            histogram.record(value);
+        }
+        assertEquals(100, histogram.getCount());
+        assertEquals(50, histogram.getValueAtPercentile(50));
+        assertEquals(99, histogram.getValueAtPercentile(99));
+        assertEquals(100, histogram.getValueAtPercentile(100));
+        assertEquals(50.5, histogram.getMean(), 0.0001);
+    }
+
+    /**
+     * Tests that large values are reported within the histogram's precision.
+     */
+    @Test
+    public void testLargeValuesStayWithinPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1_000_000L);
+        }
+        long p999 = histogram.getValueAtPercentile(99.9);
+        assertTrue(Math.abs(p999 - 999_000_000L) <= 999_000_000L / 60);
+        assertEquals(1_000_000_000L, histogram.getMax());
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(50));
+    }
+}
@@ -0,0 +1,212 @@
+package bcu.cmp5332.bookingsystem.test;
+
+import static org.junit.Assert.assertEquals;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import bcu.cmp5332.bookingsystem.data.FlightBookingSystemData;
+import bcu.cmp5332.bookingsystem.data.BookingDataManager;
+import bcu.cmp5332.bookingsystem.data.LedgerDataManager;
+import bcu.cmp5332.bookingsystem.data.Tombstones;
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.model.Booking;
+import bcu.cmp5332.bookingsystem.model.ChangeEvent;
+import bcu.cmp5332.bookingsystem.model.Customer;
+import bcu.cmp5332.bookingsystem.model.Flight;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import bcu.cmp5332.bookingsystem.model.Ledger;
+
+/**
+ * The LedgerTests class contains JUnit tests for the customer balances kept by the Ledger
+ * class across saving and loading.
+ */
+public class LedgerTests {
+
+    private File previousDirectory;
+    private File directory;
+
+    /**
+     * Points the data files at an empty directory.
+     * @throws IOException If the directory cannot be created.
+     */
+    @Before
+    public void setUp() throws IOException {
+        previousDirectory = FlightBookingSystemData.getDataDirectory();
+        directory = Files.createTempDirectory("ledger-tests").toFile();
+        FlightBookingSystemData.setDataDirectory(directory);
+    }
+
+    /**
+     * Removes the data files and restores the data directory.
+     */
+    @After
+    public void tearDown() {
+        FlightBookingSystemData.setDataDirectory(previousDirectory);
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    /**
+     * Tests that cancelling a rebooked booking after a reload refunds exactly what was charged.
+     * @throws IOException If an I/O error occurs.
+     * @throws FlightBookingSystemException If there is an error in the flight booking system.
+     */
+    @Test
+    public void testRefundMatchesChargesAfterReload() throws IOException, FlightBookingSystemException {
+        FlightBookingSystem fbs = new FlightBookingSystem();
+        Flight flight = new Flight(1, "F001", "London", "New York",
+                FlightBookingSystem.DEFAULT_START.plusDays(40), 200, 1000);
+        Customer customer = new Customer(1, "John Doe", "1234567890", "john.doe@example.com");
+        fbs.addFlight(flight);
+        fbs.addCustomer(customer);
+        Booking booking = new Booking(fbs.newBookingId(), customer, flight, fbs.getSystemDate());
+        fbs.addBooking(booking);
+        FlightBookingSystemData.store(fbs);
+        int charged = customer.getBalance();
+
+        fbs.updateBooking(booking.getId(), fbs.getSystemDate().plusDays(1));
+        int rebooked = customer.getBalance();
+        assertEquals(charged + 50, rebooked);
+
+        FlightBookingSystem reloaded = FlightBookingSystemData.load();
+        Booking loaded = reloaded.getBookingByID(booking.getId());
+        assertEquals(rebooked, loaded.getPrice());
+        assertEquals(rebooked, reloaded.getCustomerByID(1).getBalance());
+
+        reloaded.removeBooking(loaded);
+        Tombstones.append(ChangeEvent.Entity.BOOKING, loaded.getId(), Collections.<Booking>emptyList());
+        LedgerDataManager.append(reloaded);
+        assertEquals(0, reloaded.getCustomerByID(1).getBalance());
+        assertEquals(0, FlightBookingSystemData.load().getCustomerByID(1).getBalance());
+    }
+
+    /**
+     * Tests that each system keeps track of its own ledger snapshot.
+     * @throws IOException If an I/O error occurs.
+     */
+    @Test
+    public void testSnapshotIsPerSystem() throws IOException {
+        FlightBookingSystem stored = new FlightBookingSystem();
+        FlightBookingSystem other = new FlightBookingSystem();
+        FlightBookingSystemData.store(stored);
+        assertEquals(0, stored.getLedger().getSnapshotSeq());
+        assertEquals(-1, other.getLedger().getSnapshotSeq());
+    }
+
+    /**
+     * Tests that a customer's journal entries are found again after more are appended.
+     * @throws IOException If an I/O error occurs.
+     * @throws FlightBookingSystemException If there is an error in the flight booking system.
+     */
+    @Test
+    public void testReadJournalFollowsAppends() throws IOException, FlightBookingSystemException {
+        FlightBookingSystem fbs = new FlightBookingSystem();
+        Flight flight = new Flight(1, "F001", "London", "New York",
+                FlightBookingSystem.DEFAULT_START.plusDays(40), 200, 1000);
+        Customer first = new Customer(1, "John Doe", "1234567890", "john.doe@example.com");
+        Customer second = new Customer(12, "Jane Doe", "0987654321", "jane.doe@example.com");
+        fbs.addFlight(flight);
+        fbs.addCustomer(first);
+        fbs.addCustomer(second);
+        FlightBookingSystemData.store(fbs);
+
+        Booking booking = new Booking(fbs.newBookingId(), first, flight, fbs.getSystemDate());
+        fbs.addBooking(booking);
+        fbs.addBooking(new Booking(fbs.newBookingId(), second, flight, fbs.getSystemDate()));
+        LedgerDataManager.append(fbs);
+        assertEquals(1, LedgerDataManager.readJournal(fbs, 1).size());
+        assertEquals(1, LedgerDataManager.readJournal(fbs, 12).size());
+
+        fbs.removeBooking(booking);
+        LedgerDataManager.append(fbs);
+        List<Ledger.Entry> entries = LedgerDataManager.readJournal(fbs, 1);
+        assertEquals(2, entries.size());
+        assertEquals(Ledger.Kind.BOOKING, entries.get(0).getKind());
+        assertEquals(Ledger.Kind.REFUND, entries.get(1).getKind());
+        assertEquals(0, entries.get(1).getBalance());
+        assertEquals(1, LedgerDataManager.readJournal(fbs, 12).size());
+        assertEquals(0, LedgerDataManager.readJournal(fbs, 2).size());
+    }
+
+    /**
+     * Tests that a last journal line cut short by a crash is dropped when loading, and that
+     * the journal carries on from the line before it.
+     * @throws IOException If an I/O error occurs.
+     * @throws FlightBookingSystemException If there is an error in the flight booking system.
+     */
+    @Test
+    public void testTornLastLineIsDropped() throws IOException, FlightBookingSystemException {
+        FlightBookingSystem fbs = system();
+        Customer customer = fbs.getCustomerByID(1);
+        FlightBookingSystemData.store(fbs);
+        Booking booking = new Booking(fbs.newBookingId(), customer, fbs.getFlightByID(1), fbs.getSystemDate());
+        fbs.addBooking(booking);
+        BookingDataManager.append(Collections.singletonList(booking));
+        LedgerDataManager.append(fbs);
+        File journal = new File(directory, LedgerDataManager.JOURNAL);
+        long whole = journal.length();
+
+        Files.write(journal.toPath(), "2,1,refund,-10".getBytes(StandardCharsets.US_ASCII), StandardOpenOption.APPEND);
+        FlightBookingSystem reloaded = FlightBookingSystemData.load();
+        assertEquals(booking.getPrice(), reloaded.getCustomerByID(1).getBalance());
+        assertEquals(whole, journal.length());
+
+        // a damaged line that still ends in a line break
+        Files.write(journal.toPath(), "2,1,refund,-1,x,1,2024-01-01\n".getBytes(StandardCharsets.US_ASCII),
+                StandardOpenOption.APPEND);
+        reloaded = FlightBookingSystemData.load();
+        assertEquals(booking.getPrice(), reloaded.getCustomerByID(1).getBalance());
+        assertEquals(whole, journal.length());
+        reloaded.removeBooking(reloaded.getBookingByID(booking.getId()));
+        Tombstones.append(ChangeEvent.Entity.BOOKING, booking.getId(), Collections.<Booking>emptyList());
+        LedgerDataManager.append(reloaded);
+        assertEquals(2, LedgerDataManager.readJournal(FlightBookingSystemData.load(), 1).size());
+    }
+
+    /**
+     * Tests that a booking saved without its charge, as a crash between the two writes leaves
+     * it, is charged when the system is loaded.
+     * @throws IOException If an I/O error occurs.
+     * @throws FlightBookingSystemException If there is an error in the flight booking system.
+     */
+    @Test
+    public void testMissingChargeIsPostedOnLoad() throws IOException, FlightBookingSystemException {
+        FlightBookingSystem fbs = system();
+        Customer customer = fbs.getCustomerByID(1);
+        FlightBookingSystemData.store(fbs);
+        Booking paid = new Booking(fbs.newBookingId(), customer, fbs.getFlightByID(1), fbs.getSystemDate());
+        fbs.addBooking(paid);
+        BookingDataManager.append(Collections.singletonList(paid));
+        LedgerDataManager.append(fbs);
+        Booking unpaid = new Booking(fbs.newBookingId(), customer, fbs.getFlightByID(1), fbs.getSystemDate());
+        fbs.addBooking(unpaid);
+        BookingDataManager.append(Collections.singletonList(unpaid));
+
+        int charged = paid.getPrice() + unpaid.getPrice();
+        FlightBookingSystem reloaded = FlightBookingSystemData.load();
+        assertEquals(charged, reloaded.getCustomerByID(1).getBalance());
+        List<Ledger.Entry> entries = LedgerDataManager.readJournal(reloaded, 1);
+        assertEquals(2, entries.size());
+        assertEquals(unpaid.getId(), entries.get(1).getBookingId());
+        assertEquals(charged, entries.get(1).getBalance());
+        assertEquals(charged, FlightBookingSystemData.load().getCustomerByID(1).getBalance());
+        assertEquals(2, LedgerDataManager.readJournal(FlightBookingSystemData.load(), 1).size());
+    }
+
+    private static FlightBookingSystem system() throws FlightBookingSystemException {
+        FlightBookingSystem fbs = new FlightBookingSystem();
+        fbs.addFlight(new Flight(1, "F001", "London", "New York",
+                FlightBookingSystem.DEFAULT_START.plusDays(40), 200, 1000));
+        fbs.addCustomer(new Customer(1, "John Doe", "1234567890", "john.doe@example.com"));
+        return fbs;
+    }
+}
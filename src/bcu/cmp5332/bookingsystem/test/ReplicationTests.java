@@ -0,0 +1,140 @@
+package bcu.cmp5332.bookingsystem.test;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.util.Arrays;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import bcu.cmp5332.bookingsystem.data.FlightBookingSystemData;
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.model.Booking;
+import bcu.cmp5332.bookingsystem.model.Customer;
+import bcu.cmp5332.bookingsystem.model.Flight;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import bcu.cmp5332.bookingsystem.replication.ReplicationFollower;
+import bcu.cmp5332.bookingsystem.replication.ReplicationPrimary;
+import bcu.cmp5332.bookingsystem.shard.ShardConnection;
+import bcu.cmp5332.bookingsystem.shard.ShardWorker;
+
+/**
+ * The ReplicationTests class contains JUnit tests for a primary and a follower run in this
+ * process, checking that the follower sees every change the primary makes.
+ */
+public class ReplicationTests {
+
+    private File previousDirectory;
+    private File directory;
+    private ShardConnection primary;
+    private ShardConnection follower;
+
+    /**
+     * Starts a primary over a one-seat flight that is booked, and a follower of it.
+     * @throws IOException If the data files cannot be written or a server cannot start.
+     * @throws FlightBookingSystemException If there is an error in the flight booking system.
+     */
+    @Before
+    public void setUp() throws IOException, FlightBookingSystemException {
+        previousDirectory = FlightBookingSystemData.getDataDirectory();
+        directory = Files.createTempDirectory("replication-tests").toFile();
+        FlightBookingSystemData.setDataDirectory(directory);
+
+        FlightBookingSystem fbs = new FlightBookingSystem();
+        Flight flight = new Flight(1, "F001", "London", "New York",
+                FlightBookingSystem.DEFAULT_START.plusDays(40), 1, 1000);
+        Customer first = new Customer(1, "John Doe", "1234567890", "john.doe@example.com");
+        Customer second = new Customer(2, "Jane Doe", "0987654321", "jane.doe@example.com");
+        fbs.addFlight(flight);
+        fbs.addCustomer(first);
+        fbs.addCustomer(second);
+        fbs.addBooking(new Booking(fbs.newBookingId(), first, flight, fbs.getSystemDate()));
+        FlightBookingSystemData.store(fbs);
+
+        InetSocketAddress primaryAddress = serve(new ReplicationPrimary(FlightBookingSystemData.load(), 100));
+        InetSocketAddress followerAddress = serve(ReplicationFollower.start(primaryAddress));
+        primary = new ShardConnection(primaryAddress);
+        follower = new ShardConnection(followerAddress);
+    }
+
+    /**
+     * Stops both servers, removes the data files and restores the data directory.
+     * @throws IOException If a server cannot be stopped.
+     */
+    @After
+    public void tearDown() throws IOException {
+        follower.shutdown();
+        primary.shutdown();
+        FlightBookingSystemData.setDataDirectory(previousDirectory);
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    /**
+     * Tests that joining and leaving a waitlist, and the promotion a cancellation makes, reach
+     * the follower.
+     * @throws Exception If a server cannot be reached or the test is interrupted.
+     */
+    @Test
+    public void testFollowerSeesWaitlistChanges() throws Exception {
+        primaryCall("waitlist", "2", "1");
+        awaitFollower("1 customer(s) waiting", "showwaitlist", "1");
+        primaryCall("leavewaitlist", "2", "1");
+        awaitFollower("0 customer(s) waiting", "showwaitlist", "1");
+
+        primaryCall("waitlist", "2", "1");
+        awaitFollower("1 customer(s) waiting", "showwaitlist", "1");
+        primaryCall("cancelbooking", "1", "1");
+        awaitFollower("0 customer(s) waiting", "showwaitlist", "1");
+        awaitFollower("1 booking(s)", "showcustomer", "2", "--bookings");
+    }
+
+    /**
+     * Tests that moving the system date on reaches the follower.
+     * @throws Exception If a server cannot be reached or the test is interrupted.
+     */
+    @Test
+    public void testFollowerSeesDateChanges() throws Exception {
+        primaryCall("advanceday", "1");
+        awaitFollower("booked on " + FlightBookingSystem.DEFAULT_START.plusDays(1), "quote", "1");
+    }
+
+    private void primaryCall(String... words) throws IOException {
+        ShardConnection.Response response = primary.call(Arrays.asList(words));
+        assertTrue(response.getText(), response.isOk());
+    }
+
+    private void awaitFollower(String expected, String... words) throws IOException, InterruptedException {
+        String text = null;
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            text = follower.call(Arrays.asList(words)).getText();
+            if (text.contains(expected)) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        fail("expected \"" + expected + "\" from the follower, got: " + text);
+    }
+
+    private static InetSocketAddress serve(ShardWorker worker) throws IOException {
+        ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread thread = new Thread(() -> {
+            try {
+                worker.serve(server);
+            } catch (IOException ex) {
+                System.err.println("Server stopped: " + ex.getMessage());
+            }
+        }, "replication-test");
+        thread.setDaemon(true);
+        thread.start();
+        return new InetSocketAddress(server.getInetAddress(), server.getLocalPort());
+    }
+}
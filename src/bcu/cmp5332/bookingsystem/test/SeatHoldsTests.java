@@ -0,0 +1,228 @@
+package bcu.cmp5332.bookingsystem.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Before;
+import org.junit.Test;
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.model.Booking;
+import bcu.cmp5332.bookingsystem.model.Customer;
+import bcu.cmp5332.bookingsystem.model.Flight;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import bcu.cmp5332.bookingsystem.model.SeatHold;
+import bcu.cmp5332.bookingsystem.model.SeatHolds;
+
+/**
+ * The SeatHoldsTests class contains JUnit tests for the SeatHolds class and the timing wheel
+ * its holds are expired by. The holds are timed by a clock the tests move by hand.
+ */
+public class SeatHoldsTests {
+
+    private static final long TICK = SeatHolds.DEFAULT_TICK_NANOS;
+
+    private AtomicLong clock;
+    private SeatHolds holds;
+
+    /**
+     * Sets up holds timed by a clock that starts at zero and only moves when told to.
+     */
+    @Before
+    public void setUp() {
+        clock = new AtomicLong();
+        holds = new SeatHolds(clock::get, TICK, false);
+    }
+
+    /**
+     * Tests that a hold keeps its seats until its time is up and frees them on the next tick.
+     * @throws FlightBookingSystemException If the seats cannot be held.
+     */
+    @Test
+    public void testHoldExpiresAtItsTime() throws FlightBookingSystemException {
+        Flight flight = flight(1, 20);
+        SeatHold hold = holds.hold(flight, 3, Duration.ofSeconds(1));
+        assertEquals(3, hold.getSeatCount());
+        assertEquals(17, flight.getSeatMap().getFreeCount());
+
+        clock.set(TimeUnit.MILLISECONDS.toNanos(900));
+        assertEquals(0, holds.expire());
+        assertEquals(1, holds.size());
+
+        clock.set(hold.getExpiresAt() + TICK);
+        assertEquals(1, holds.expire());
+        assertEquals(0, holds.size());
+        assertEquals(20, flight.getSeatMap().getFreeCount());
+        assertFalse(holds.release(hold.getId()));
+    }
+
+    /**
+     * Tests that holds far enough off to start in the upper levels of the wheel cascade down
+     * and expire neither early nor more than a tick late.
+     * @throws FlightBookingSystemException If the seats cannot be held.
+     */
+    @Test
+    public void testLongHoldsCascadeDownTheWheel() throws FlightBookingSystemException {
+        Duration[] ttls = { Duration.ofSeconds(5), Duration.ofMinutes(10), Duration.ofHours(3),
+                Duration.ofDays(2) };
+        Flight[] flights = new Flight[ttls.length];
+        SeatHold[] made = new SeatHold[ttls.length];
+        for (int i = 0; i < ttls.length; i++) {
+            flights[i] = flight(i + 1, 10);
+            made[i] = holds.hold(flights[i], 1, ttls[i]);
+        }
+
+        long step = TimeUnit.SECONDS.toNanos(7);
+        long end = made[made.length - 1].getExpiresAt() + step;
+        for (long now = step; now <= end; now += step) {
+            clock.set(now);
+            holds.expire();
+            for (int i = 0; i < made.length; i++) {
+                boolean outstanding = flights[i].getSeatMap().getFreeCount() < 10;
+                if (now < made[i].getExpiresAt()) {
+                    assertTrue("hold " + i + " expired early", outstanding);
+                } else if (now >= made[i].getExpiresAt() + TICK) {
+                    assertFalse("hold " + i + " expired late", outstanding);
+                }
+            }
+        }
+        assertEquals(0, holds.size());
+    }
+
+    /**
+     * Tests that a hold taken after its time is not honoured, even before the wheel frees it.
+     * @throws FlightBookingSystemException If the seats cannot be held.
+     */
+    @Test
+    public void testTakeAfterExpiryReturnsNull() throws FlightBookingSystemException {
+        Flight flight = flight(1, 20);
+        SeatHold early = holds.hold(flight, 2, Duration.ofSeconds(10));
+        SeatHold late = holds.hold(flight, 2, Duration.ofSeconds(1));
+
+        clock.set(late.getExpiresAt());
+        assertNull(holds.take(late.getId()));
+        assertEquals(18, flight.getSeatMap().getFreeCount());
+
+        SeatHold taken = holds.take(early.getId());
+        assertNotNull(taken);
+        assertEquals(0, holds.size());
+        assertEquals(18, flight.getSeatMap().getFreeCount());
+        assertNull(holds.take(early.getId()));
+    }
+
+    /**
+     * Tests that when holds are released while they expire, each hold's seats are freed once.
+     * @throws Exception If the seats cannot be held or a thread is interrupted.
+     */
+    @Test
+    public void testReleaseRacesExpiry() throws Exception {
+        int count = 200;
+        Flight flight = flight(1, count);
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = holds.hold(flight, 1, Duration.ofMillis(100 + i * 10)).getId();
+        }
+        assertEquals(0, flight.getSeatMap().getFreeCount());
+
+        AtomicInteger released = new AtomicInteger();
+        AtomicInteger expired = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread releaser = new Thread(() -> {
+            await(start);
+            for (long id : ids) {
+                if (holds.release(id)) {
+                    released.incrementAndGet();
+                }
+            }
+        });
+        Thread expirer = new Thread(() -> {
+            await(start);
+            for (int i = 0; i < count; i++) {
+                clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+                expired.addAndGet(holds.expire());
+            }
+        });
+        releaser.start();
+        expirer.start();
+        start.countDown();
+        releaser.join();
+        expirer.join();
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        expired.addAndGet(holds.expire());
+        assertEquals(count, released.get() + expired.get());
+        assertEquals(0, holds.size());
+        assertEquals(count, flight.getSeatMap().getFreeCount());
+    }
+
+    /**
+     * Tests that shutting the holds down leaves them working, expired by hand.
+     * @throws FlightBookingSystemException If the seats cannot be held.
+     */
+    @Test
+    public void testShutdownStopsTheTicker() throws FlightBookingSystemException {
+        SeatHolds background = new SeatHolds(clock::get, TICK, true);
+        Flight flight = flight(1, 20);
+        SeatHold hold = background.hold(flight, 1, Duration.ofSeconds(1));
+        assertTrue(background.isTicking());
+
+        background.shutdown();
+        assertFalse(background.isTicking());
+        background.hold(flight, 1, Duration.ofSeconds(1));
+        assertFalse(background.isTicking());
+
+        clock.set(hold.getExpiresAt() + TICK);
+        assertEquals(2, background.expire());
+        assertEquals(20, flight.getSeatMap().getFreeCount());
+    }
+
+    /**
+     * Tests that while every seat of a flight is held, a booking without a seat is refused,
+     * so confirming the holds cannot take the flight past its capacity.
+     * @throws FlightBookingSystemException If the seats cannot be held or confirmed.
+     */
+    @Test
+    public void testHeldSeatsAreNotSoldWithoutASeat() throws FlightBookingSystemException {
+        FlightBookingSystem fbs = new FlightBookingSystem();
+        Flight flight = flight(1, 4);
+        Customer holder = new Customer(1, "John Doe", "1234567890", "john.doe@example.com");
+        Customer other = new Customer(2, "Jane Doe", "0987654321", "jane.doe@example.com");
+        fbs.addFlight(flight);
+        fbs.addCustomer(holder);
+        fbs.addCustomer(other);
+        long hold = fbs.holdSeats(flight, 4, Duration.ofMinutes(10));
+        assertEquals(0, flight.getSeatMap().getFreeCount());
+
+        try {
+            fbs.addBooking(new Booking(fbs.newBookingId(), other, flight, fbs.getSystemDate()));
+            fail("a flight with every seat held took a booking without a seat");
+        } catch (FlightBookingSystemException ex) {
+            assertEquals(0, other.getBookingCount());
+        }
+        assertEquals(4, fbs.confirmHold(hold, holder, fbs.getSystemDate()).size());
+        assertEquals(4, flight.getBookingView().size());
+        assertEquals(0, flight.getSeatMap().getUnseatedCount());
+        assertEquals(0, flight.getSeatMap().getFreeCount());
+        fbs.shutdown();
+    }
+
+    private static Flight flight(int id, int seats) {
+        return new Flight(id, "F" + id, "London", "New York",
+                FlightBookingSystem.DEFAULT_START.plusDays(40), seats, 100);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package bcu.cmp5332.bookingsystem.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.Test;
+import bcu.cmp5332.bookingsystem.model.SeatMap;
+
+/**
+ * The SeatMapTests class contains JUnit tests for the SeatMap class.
+ */
+public class SeatMapTests {
+
+    /**
+     * Tests that seats are named by row and letter and that names are read back.
+     */
+    @Test
+    public void testLabels() {
+        SeatMap map = new SeatMap(80, "ABC-DEF");
+        int seat = map.seat(11, 3);
+        assertEquals("1A", SeatMap.label(map.seat(0, 0)));
+        assertEquals("12D", SeatMap.label(seat));
+        assertEquals("", SeatMap.label(SeatMap.NO_SEAT));
+        assertEquals(seat, map.parse("12d"));
+        assertEquals(SeatMap.NO_SEAT, map.parse("1G"));
+        assertEquals(SeatMap.NO_SEAT, map.parse("15C"));
+        assertEquals(SeatMap.NO_SEAT, map.parse("A"));
+        // the last row has only 80 - 13 * 6 = 2 seats
+        assertTrue(map.exists(map.parse("14B")));
+        assertEquals(SeatMap.NO_SEAT, map.seat(13, 2));
+    }
+
+    /**
+     * Tests that a seat is taken once, freed once and counted each time.
+     */
+    @Test
+    public void testClaimAndRelease() {
+        SeatMap map = new SeatMap(20);
+        int seat = map.parse("3C");
+        assertTrue(map.claim(seat));
+        assertTrue(map.isTaken(seat));
+        assertFalse(map.claim(seat));
+        assertEquals(19, map.getFreeCount());
+
+        map.release(seat);
+        map.release(seat);
+        map.release(SeatMap.NO_SEAT);
+        assertFalse(map.isTaken(seat));
+        assertEquals(20, map.getFreeCount());
+    }
+
+    /**
+     * Tests that bookings without a seat fill the cabin like those with one.
+     */
+    @Test
+    public void testUnseatedBookingsCount() {
+        SeatMap map = new SeatMap(2);
+        assertTrue(map.addUnseated());
+        assertTrue(map.claim(map.parse("1A")));
+        assertFalse(map.claim(map.parse("1B")));
+        assertEquals(SeatMap.NO_SEAT, map.assign(SeatMap.Preference.ANY));
+        assertFalse(map.addUnseated());
+        assertEquals(0, map.getFreeCount());
+
+        map.removeUnseated();
+        map.removeUnseated();
+        assertEquals(1, map.getFreeCount());
+        assertTrue(map.claim(map.parse("1B")));
+    }
+
+    /**
+     * Tests that threads assigning seats at once never take the same seat twice.
+     * @throws InterruptedException If the test is interrupted.
+     */
+    @Test
+    public void testConcurrentAssignTakesEachSeatOnce() throws InterruptedException {
+        SeatMap map = new SeatMap(300);
+        int threads = 8;
+        List<List<Integer>> taken = new ArrayList<>();
+        List<Thread> workers = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            List<Integer> mine = new ArrayList<>();
+            taken.add(mine);
+            workers.add(new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                int seat;
+                while ((seat = map.assign(SeatMap.Preference.WINDOW)) != SeatMap.NO_SEAT) {
+                    mine.add(seat);
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        boolean[] seen = new boolean[16 * map.getRows()];
+        int total = 0;
+        for (List<Integer> mine : taken) {
+            for (int seat : mine) {
+                assertTrue(map.exists(seat));
+                assertFalse("seat " + SeatMap.label(seat) + " taken twice", seen[seat]);
+                seen[seat] = true;
+                total++;
+            }
+        }
+        assertEquals(300, total);
+        assertEquals(0, map.getFreeCount());
+    }
+
+    /**
+     * Tests that a group is seated side by side within one row, never running from the end
+     * of one row into the next, including between rows kept in different words.
+     */
+    @Test
+    public void testGroupsStayWithinARow() {
+        SeatMap map = new SeatMap(30, "ABC-DEF");
+        // leave 4E, 4F and the whole of row 5 free; rows 4 and 5 are in different words
+        for (int row = 0; row < 4; row++) {
+            for (int column = 0; column < 6; column++) {
+                if (row < 3 || column < 4) {
+                    assertTrue(map.claim(map.seat(row, column)));
+                }
+            }
+        }
+        int[] group = map.assignGroup(3);
+        assertArrayEquals(new int[] { map.parse("5A"), map.parse("5B"), map.parse("5C") }, group);
+
+        // 4E, 4F and 5D to 5F are left
+        assertNull(map.assignGroup(6));
+        assertEquals(5, map.getFreeCount());
+        int[] pair = map.assignGroup(2);
+        assertArrayEquals(new int[] { map.parse("4E"), map.parse("4F") }, pair);
+        map.release(pair[0]);
+        map.release(pair[1]);
+
+        // no row has four free side by side, so the group is split over both rows
+        int[] four = map.assignGroup(4);
+        assertEquals(4, four.length);
+        assertEquals(1, map.getFreeCount());
+    }
+
+    /**
+     * Tests that a group crosses an aisle when no block has room for it.
+     */
+    @Test
+    public void testGroupsCrossAnAisleWhenNeeded() {
+        SeatMap map = new SeatMap(6, "ABC-DEF");
+        assertTrue(map.claim(map.parse("1A")));
+        assertTrue(map.claim(map.parse("1F")));
+        assertArrayEquals(new int[] { map.parse("1B"), map.parse("1C"), map.parse("1D") }, map.assignGroup(3));
+    }
+}
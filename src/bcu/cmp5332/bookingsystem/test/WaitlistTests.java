@@ -0,0 +1,140 @@
+package bcu.cmp5332.bookingsystem.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.model.Booking;
+import bcu.cmp5332.bookingsystem.model.Customer;
+import bcu.cmp5332.bookingsystem.model.Flight;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import bcu.cmp5332.bookingsystem.model.Waitlist;
+
+/**
+ * The WaitlistTests class contains JUnit tests for the Waitlist class and for how the system
+ * sends customers to it.
+ */
+public class WaitlistTests {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 1, 1);
+    private static final Flight FLIGHT = new Flight(1, "F001", "London", "New York", TODAY.plusDays(40), 2, 500);
+
+    /**
+     * Tests that customers are served by tier, highest first, and then in the order they joined.
+     */
+    @Test
+    public void testServedByTierThenId() {
+        Waitlist waitlist = new Waitlist();
+        int[] tiers = { 0, 2, 1, 2, 0, 1 };
+        for (int i = 0; i < tiers.length; i++) {
+            assertTrue(waitlist.add(entry(i + 1, i + 1, tiers[i])));
+        }
+        assertEquals(2, waitlist.positionOf(waitlist.get(4)));
+        assertEquals(6, waitlist.positionOf(waitlist.get(5)));
+        assertArrayEquals(new int[] { 2, 4, 3, 6, 1, 5 }, ids(waitlist.snapshot()));
+
+        int[] served = new int[tiers.length];
+        for (int i = 0; i < served.length; i++) {
+            served[i] = waitlist.poll().getId();
+        }
+        assertArrayEquals(new int[] { 2, 4, 3, 6, 1, 5 }, served);
+        assertNull(waitlist.poll());
+        assertNull(waitlist.peek());
+    }
+
+    /**
+     * Tests that a customer waits only once and that leaving keeps the order of the rest.
+     */
+    @Test
+    public void testLeaveKeepsOrder() {
+        Waitlist waitlist = new Waitlist();
+        Random random = new Random(11);
+        for (int i = 1; i <= 200; i++) {
+            waitlist.add(entry(i, i, random.nextInt(4)));
+        }
+        assertFalse(waitlist.add(entry(201, 7, 3)));
+        for (int customer = 3; customer <= 200; customer += 3) {
+            assertEquals(customer, waitlist.remove(customer).getCustomer().getId());
+        }
+        assertNull(waitlist.remove(3));
+        assertEquals(134, waitlist.size());
+
+        Waitlist.Entry first = waitlist.peek();
+        assertSame(first, waitlist.snapshot().get(0));
+        assertEquals(1, waitlist.positionOf(first));
+
+        Waitlist.Entry previous = null;
+        Waitlist.Entry entry;
+        while ((entry = waitlist.poll()) != null) {
+            assertEquals(0, waitlist.positionOf(entry));
+            assertTrue(entry.getCustomer().getId() % 3 != 0);
+            if (previous != null) {
+                assertTrue(previous.getTier() > entry.getTier()
+                        || previous.getTier() == entry.getTier() && previous.getId() < entry.getId());
+            }
+            previous = entry;
+        }
+        assertEquals(0, waitlist.size());
+    }
+
+    /**
+     * Tests that a full flight refuses a booking without a seat, so the customer has to wait,
+     * and books them once a seat is freed.
+     * @throws FlightBookingSystemException If the system refuses a valid change.
+     */
+    @Test
+    public void testFullFlightSendsCustomersToTheWaitlist() throws FlightBookingSystemException {
+        FlightBookingSystem fbs = new FlightBookingSystem();
+        Flight flight = new Flight(1, "F001", "London", "New York",
+                FlightBookingSystem.DEFAULT_START.plusDays(40), 1, 500);
+        Customer first = new Customer(1, "John Doe", "1234567890", "john.doe@example.com");
+        Customer second = new Customer(2, "Jane Doe", "0987654321", "jane.doe@example.com");
+        fbs.addFlight(flight);
+        fbs.addCustomer(first);
+        fbs.addCustomer(second);
+        Booking booked = new Booking(fbs.newBookingId(), first, flight, fbs.getSystemDate());
+        fbs.addBooking(booked);
+
+        Booking refused = new Booking(fbs.newBookingId(), second, flight, fbs.getSystemDate());
+        try {
+            fbs.addBooking(refused);
+            fail("a full flight took a booking without a seat");
+        } catch (FlightBookingSystemException ex) {
+            assertTrue(ex.getMessage().contains("waitlist"));
+        }
+        assertEquals(1, fbs.getBookings().size());
+        assertEquals(0, second.getBookingCount());
+        assertEquals(0, second.getBalance());
+        assertEquals(1, flight.getBookingView().size());
+        assertEquals(1, flight.getSeatMap().getUnseatedCount());
+
+        fbs.joinWaitlist(second, flight, 0, fbs.getSystemDate());
+        fbs.removeBooking(booked);
+        List<Booking> promoted = fbs.promoteWaitlists();
+        assertEquals(1, promoted.size());
+        assertSame(second, promoted.get(0).getCustomer());
+        assertEquals(0, flight.getSeatMap().getFreeCount());
+    }
+
+    private static Waitlist.Entry entry(int id, int customerId, int tier) {
+        Customer customer = new Customer(customerId, "Customer " + customerId, "0123456789",
+                "customer" + customerId + "@example.com");
+        return new Waitlist.Entry(id, customer, FLIGHT, tier, TODAY);
+    }
+
+    private static int[] ids(List<Waitlist.Entry> entries) {
+        int[] ids = new int[entries.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = entries.get(i).getId();
+        }
+        return ids;
+    }
+}
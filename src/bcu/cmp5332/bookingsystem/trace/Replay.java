@@ -0,0 +1,278 @@
+package bcu.cmp5332.bookingsystem.trace;
+
+import bcu.cmp5332.bookingsystem.commands.Command;
+import bcu.cmp5332.bookingsystem.data.FlightBookingSystemData;
+import bcu.cmp5332.bookingsystem.main.CommandTable;
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.metrics.LatencyHistogram;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The Replay class runs a recorded trace again against a fresh system and compares the
+ * outcome with the recording: whether each command succeeded or failed as before, whether the
+ * final data matches, and how the time per command and the throughput changed. Run the trace
+ * of a real day against a new build to see the effect of the change before deploying it.
+ *
+ * The data directory given must hold the data as it was when the trace was started. It is
+ * copied to a scratch directory first, so the replay never changes it.
+ *
+ * Usage: Replay &lt;trace&gt; --data &lt;dir&gt; [--speed max|original|&lt;factor&gt;] [--autosave]
+ *
+ * At {@code max} speed commands run back to back. At {@code original} speed each command
+ * waits until the time it started in the recording, and a factor such as 2 runs the
+ * recording twice as fast. With {@code --autosave} commands write the data files as they
+ * would interactively; without it only the replayed work in memory is timed. Groups of batch
+ * commands are replayed as the batch ran them: the data is saved at the start of a group and
+ * reloaded when the group was rolled back, so its changes are thrown away again. The exit status
+ * is 0 when the replay reproduced the recording and 1 when it did not.
+ */
+public class Replay {
+
+    private static final int MAX_LISTED_DIVERGENCES = 10;
+
+    private static final class Timings {
+        final LatencyHistogram recorded = new LatencyHistogram();
+        final LatencyHistogram replayed = new LatencyHistogram();
+    }
+
+    public static void main(String[] args) throws IOException, FlightBookingSystemException {
+        File trace = null;
+        File data = null;
+        double speed = 0;
+        boolean autoSave = false;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--data") && i + 1 < args.length) {
+                data = new File(args[++i]);
+            } else if (args[i].equals("--speed") && i + 1 < args.length) {
+                String value = args[++i];
+                speed = value.equals("max") ? 0 : value.equals("original") ? 1 : Double.parseDouble(value);
+            } else if (args[i].equals("--autosave")) {
+                autoSave = true;
+            } else if (trace == null && !args[i].startsWith("--")) {
+                trace = new File(args[i]);
+            } else {
+                trace = null;
+                break;
+            }
+        }
+        if (trace == null || data == null) {
+            System.out.println("Usage: Replay <trace> --data <dir> [--speed max|original|<factor>] [--autosave]");
+            System.exit(2);
+        }
+        System.exit(replay(trace, data, speed, autoSave) ? 0 : 1);
+    }
+
+    /**
+     * Replays a trace and prints the comparison.
+     *
+     * @param trace    The trace file.
+     * @param data     The data directory the trace started from. It is not modified.
+     * @param speed    0 to run as fast as possible, otherwise how many times faster than
+     *                 recorded to run.
+     * @param autoSave Whether commands write the data files as they run.
+     * @return True if every command had the recorded outcome and the final data matches.
+     * @throws IOException                  If the trace or the data cannot be read.
+     * @throws FlightBookingSystemException If the data files are invalid.
+     */
+    public static boolean replay(File trace, File data, double speed, boolean autoSave)
+            throws IOException, FlightBookingSystemException {
+        File scratch = copyData(data);
+        FlightBookingSystemData.setDataDirectory(scratch);
+        FlightBookingSystem fbs = FlightBookingSystemData.load();
+        fbs.setAutoSave(autoSave);
+
+        PrintStream console = System.out;
+        boolean reproduced = true;
+        try (TraceReader reader = new TraceReader(trace)) {
+            StateDigest start = StateDigest.of(fbs);
+            if (!start.equals(reader.getStartDigest())) {
+                console.println("Warning: the data does not match the start of the trace.");
+                console.println("\trecorded: " + reader.getStartDigest());
+                console.println("\tloaded:   " + start);
+                reproduced = false;
+            }
+
+            Map<String, Timings> timings = new TreeMap<>();
+            List<String> divergences = new ArrayList<>();
+            int divergent = 0;
+            long commands = 0;
+            long recordedBusy = 0;
+            long replayedBusy = 0;
+            long recordedSpan = 0;
+            long maxBehind = 0;
+            int committed = 0;
+            int rolledBack = 0;
+            boolean inGroup = false;
+
+            System.setOut(new PrintStream(new OutputStream() {
+                @Override
+                public void write(int b) {
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                }
+            }));
+            long replayStart = System.nanoTime();
+            try {
+                TraceRecord record;
+                while ((record = reader.next()) != null) {
+                    if (record.getKind() == TraceRecord.Kind.BEGIN) {
+                        FlightBookingSystemData.store(fbs);
+                        inGroup = true;
+                        continue;
+                    } else if (record.getKind() == TraceRecord.Kind.COMMIT) {
+                        committed++;
+                        inGroup = false;
+                        continue;
+                    } else if (record.getKind() == TraceRecord.Kind.ROLLBACK) {
+                        fbs = reload(fbs, autoSave);
+                        rolledBack++;
+                        inGroup = false;
+                        continue;
+                    }
+                    if (speed > 0) {
+                        long due = replayStart + (long) (record.getOffsetNanos() / speed);
+                        long wait = due - System.nanoTime();
+                        if (wait > 0) {
+                            LockSupport.parkNanos(wait);
+                        } else {
+                            maxBehind = Math.max(maxBehind, -wait);
+                        }
+                    }
+                    List<String> line = record.getCommandLine();
+                    boolean failed = false;
+                    String error = null;
+                    long begin = System.nanoTime();
+                    try {
+                        Command command = CommandTable.create(line);
+                        command.execute(fbs);
+                    } catch (FlightBookingSystemException | RuntimeException ex) {
+                        failed = true;
+                        error = ex.getMessage();
+                    }
+                    long nanos = System.nanoTime() - begin;
+
+                    Timings t = timings.computeIfAbsent(line.get(0), word -> new Timings());
+                    t.recorded.record(record.getDurationNanos());
+                    t.replayed.record(nanos);
+                    commands++;
+                    recordedBusy += record.getDurationNanos();
+                    replayedBusy += nanos;
+                    recordedSpan = Math.max(recordedSpan, record.getOffsetNanos() + record.getDurationNanos());
+                    if (failed != record.isFailed()) {
+                        divergent++;
+                        if (divergences.size() < MAX_LISTED_DIVERGENCES) {
+                            divergences.add("#" + commands + " " + String.join(" ", line) + ": "
+                                    + (failed ? "failed (" + error + ")" : "succeeded")
+                                    + (record.isFailed() ? " but failed when recorded" : " but succeeded when recorded"));
+                        }
+                    }
+                }
+                if (inGroup) {
+                    // the recording stopped inside a group, which was never committed
+                    fbs = reload(fbs, autoSave);
+                    rolledBack++;
+                }
+            } finally {
+                System.setOut(console);
+            }
+            long replaySpan = System.nanoTime() - replayStart;
+
+            console.println(String.format(Locale.ROOT, "Replayed %d command(s) in %.3f s (recorded over %.3f s)",
+                    commands, replaySpan / 1e9, recordedSpan / 1e9));
+            if (speed > 0 && maxBehind > 0) {
+                console.println(String.format(Locale.ROOT, "Fell behind the recorded pace by up to %.3f ms",
+                        maxBehind / 1e6));
+            }
+            console.println(String.format(Locale.ROOT, "%-15s %8s %12s %12s %12s %12s %8s",
+                    "command", "count", "rec p50 ms", "rec p99 ms", "new p50 ms", "new p99 ms", "mean x"));
+            for (Map.Entry<String, Timings> entry : timings.entrySet()) {
+                Timings t = entry.getValue();
+                console.println(String.format(Locale.ROOT, "%-15s %8d %12.3f %12.3f %12.3f %12.3f %8.2f",
+                        entry.getKey(), t.recorded.getCount(),
+                        t.recorded.getValueAtPercentile(50) / 1e6, t.recorded.getValueAtPercentile(99) / 1e6,
+                        t.replayed.getValueAtPercentile(50) / 1e6, t.replayed.getValueAtPercentile(99) / 1e6,
+                        t.recorded.getMean() > 0 ? t.replayed.getMean() / t.recorded.getMean() : 0.0));
+            }
+            console.println(String.format(Locale.ROOT, "Throughput while busy: %.0f commands/s recorded, %.0f replayed",
+                    perSecond(commands, recordedBusy), perSecond(commands, replayedBusy)));
+            if (committed > 0 || rolledBack > 0) {
+                console.println("Groups: " + committed + " committed, " + rolledBack + " rolled back");
+            }
+
+            if (divergent > 0) {
+                reproduced = false;
+                console.println(divergent + " command(s) had a different outcome:");
+                for (String divergence : divergences) {
+                    console.println("\t" + divergence);
+                }
+            }
+            StateDigest end = StateDigest.of(fbs);
+            if (reader.getEndDigest() == null) {
+                console.println("The trace has no final state to compare; it was not closed normally.");
+                console.println("\treplayed: " + end);
+            } else if (end.equals(reader.getEndDigest())) {
+                console.println("Final state matches: " + end);
+            } else {
+                reproduced = false;
+                console.println("Final state differs:");
+                console.println("\trecorded: " + reader.getEndDigest());
+                console.println("\treplayed: " + end);
+            }
+        } finally {
+            fbs.shutdown();
+            deleteScratch(scratch);
+        }
+        return reproduced;
+    }
+
+    private static FlightBookingSystem reload(FlightBookingSystem fbs, boolean autoSave)
+            throws IOException, FlightBookingSystemException {
+        fbs.shutdown();
+        FlightBookingSystem loaded = FlightBookingSystemData.load();
+        loaded.setAutoSave(autoSave);
+        return loaded;
+    }
+
+    private static double perSecond(long count, long nanos) {
+        return nanos == 0 ? 0 : count / (nanos / (double) TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private static File copyData(File data) throws IOException {
+        File[] files = data.listFiles(File::isFile);
+        if (files == null) {
+            throw new IOException(data + " is not a directory");
+        }
+        Path scratch = Files.createTempDirectory("fbs-replay");
+        for (File file : files) {
+            Files.copy(file.toPath(), scratch.resolve(file.getName()), StandardCopyOption.REPLACE_EXISTING);
+        }
+        return scratch.toFile();
+    }
+
+    private static void deleteScratch(File scratch) {
+        File[] files = scratch.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        scratch.delete();
+    }
+}
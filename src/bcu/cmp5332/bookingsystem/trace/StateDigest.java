@@ -0,0 +1,145 @@
+package bcu.cmp5332.bookingsystem.trace;
+
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.model.Booking;
+import bcu.cmp5332.bookingsystem.model.Customer;
+import bcu.cmp5332.bookingsystem.model.Flight;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import bcu.cmp5332.bookingsystem.model.SeatMap;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The StateDigest class summarises the data of a booking system as its record counts and a
+ * 64-bit hash of every flight, customer and booking, in ID order. Two systems holding the same
+ * data have equal digests, so a replayed workload can be checked against the recorded one
+ * without keeping a copy of the data.
+ */
+public final class StateDigest {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final int flights;
+    private final int customers;
+    private final int bookings;
+    private final long hash;
+
+    /**
+     * Constructs a digest from its parts, as read back from a trace.
+     *
+     * @param flights   The number of flights.
+     * @param customers The number of customers.
+     * @param bookings  The number of bookings.
+     * @param hash      The hash of the data.
+     */
+    public StateDigest(int flights, int customers, int bookings, long hash) {
+        this.flights = flights;
+        this.customers = customers;
+        this.bookings = bookings;
+        this.hash = hash;
+    }
+
+    /**
+     * Computes the digest of a system.
+     *
+     * @param fbs The FlightBookingSystem object.
+     * @return The digest.
+     */
+    public static StateDigest of(FlightBookingSystem fbs) {
+        long h = FNV_OFFSET;
+        int flightCount = 0;
+        for (Flight flight : fbs.getAllFlights()) {
+            h = mix(h, flight.getId());
+            h = mix(h, flight.getFlightNumber());
+            h = mix(h, flight.getOrigin());
+            h = mix(h, flight.getDestination());
+            h = mix(h, (int) flight.getDepartureDate().toEpochDay());
+            h = mix(h, flight.getNumberOfSeats());
+            h = mix(h, flight.getPrice());
+            flightCount++;
+        }
+        int customerCount = 0;
+        for (int id : fbs.getCustomerIds()) {
+            Customer customer;
+            try {
+                customer = fbs.getCustomerByID(id);
+            } catch (FlightBookingSystemException ex) {
+                continue;
+            }
+            h = mix(h, id);
+            h = mix(h, customer.getName());
+            h = mix(h, customer.getPhone());
+            h = mix(h, customer.getEmail());
+            customerCount++;
+        }
+        int bookingCount = 0;
+        for (Booking booking : fbs.getBookings()) {
+            h = mix(h, booking.getId());
+            h = mix(h, booking.getCustomer().getId());
+            h = mix(h, booking.getFlight().getId());
+            h = mix(h, (int) booking.getBookingDate().toEpochDay());
+            if (booking.getSeat() != SeatMap.NO_SEAT) {
+                // mixed only when set, so digests of systems without seats are unchanged
+                h = mix(h, booking.getSeat());
+            }
+            bookingCount++;
+        }
+        return new StateDigest(flightCount, customerCount, bookingCount, h);
+    }
+
+    private static long mix(long h, int value) {
+        for (int i = 0; i < 4; i++) {
+            h = (h ^ (value & 0xff)) * FNV_PRIME;
+            value >>>= 8;
+        }
+        return h;
+    }
+
+    private static long mix(long h, String value) {
+        if (value == null) {
+            return mix(h, -1);
+        }
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h = (h ^ (b & 0xff)) * FNV_PRIME;
+        }
+        // the length separates "ab","c" from "a","bc"
+        return mix(h, value.length());
+    }
+
+    public int getFlights() {
+        return flights;
+    }
+
+    public int getCustomers() {
+        return customers;
+    }
+
+    public int getBookings() {
+        return bookings;
+    }
+
+    public long getHash() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof StateDigest)) {
+            return false;
+        }
+        StateDigest that = (StateDigest) other;
+        return flights == that.flights && customers == that.customers && bookings == that.bookings && hash == that.hash;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hash);
+    }
+
+    @Override
+    public String toString() {
+        return flights + " flights, " + customers + " customers, " + bookings + " bookings, hash "
+                + String.format("%016x", hash);
+    }
+}
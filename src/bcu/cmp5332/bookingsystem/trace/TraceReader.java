@@ -0,0 +1,166 @@
+package bcu.cmp5332.bookingsystem.trace;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The TraceReader class reads back a trace written by {@link TraceWriter}, one command or
+ * group marker at a time. Traces of version 1, written before groups were marked, are read
+ * as well.
+ */
+public class TraceReader implements Closeable {
+
+    private final DataInputStream in;
+    private final long startEpochMillis;
+    private final StateDigest startDigest;
+    private final String[] words = new String[256];
+    private StateDigest endDigest;
+    private boolean finished;
+
+    /**
+     * Opens a trace and reads its header.
+     *
+     * @param file The trace file.
+     * @throws IOException If the file cannot be read or is not a trace.
+     */
+    public TraceReader(File file) throws IOException {
+        in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+        try {
+            byte[] magic = new byte[TraceWriter.MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, TraceWriter.MAGIC)) {
+                throw new IOException(file + " is not a command trace");
+            }
+            int version = in.readUnsignedShort();
+            if (version < 1 || version > TraceWriter.VERSION) {
+                throw new IOException(file + " has trace format version " + version
+                        + "; this build reads versions 1 to " + TraceWriter.VERSION);
+            }
+            startEpochMillis = in.readLong();
+            startDigest = readDigest();
+        } catch (IOException ex) {
+            in.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Returns the wall-clock time the trace was opened.
+     *
+     * @return The time in milliseconds since the epoch.
+     */
+    public long getStartEpochMillis() {
+        return startEpochMillis;
+    }
+
+    /**
+     * Returns the digest of the system before the first command.
+     *
+     * @return The digest.
+     */
+    public StateDigest getStartDigest() {
+        return startDigest;
+    }
+
+    /**
+     * Returns the digest of the system after the last command. It is known once
+     * {@link #next()} has returned null, and is null if the trace was not closed normally.
+     *
+     * @return The digest, or null.
+     */
+    public StateDigest getEndDigest() {
+        return endDigest;
+    }
+
+    /**
+     * Reads the next command or group marker.
+     *
+     * @return The record, or null at the end of the trace.
+     * @throws IOException If the trace cannot be read or is corrupt.
+     */
+    public TraceRecord next() throws IOException {
+        while (!finished) {
+            int type = in.read();
+            if (type < 0) {
+                // the trace was cut off after a whole record; keep what was recorded
+                finished = true;
+                return null;
+            }
+            try {
+                if (type == TraceWriter.DEFINE) {
+                    int opcode = in.readUnsignedByte();
+                    words[opcode] = readString();
+                } else if (type == TraceWriter.COMMAND) {
+                    long offset = readVarLong();
+                    long duration = readVarLong();
+                    boolean failed = in.readUnsignedByte() != 0;
+                    String word = words[in.readUnsignedByte()];
+                    if (word == null) {
+                        throw new IOException("Command before its definition");
+                    }
+                    int args = (int) readVarLong();
+                    List<String> line = new ArrayList<>(args + 1);
+                    line.add(word);
+                    for (int i = 0; i < args; i++) {
+                        line.add(readString());
+                    }
+                    return new TraceRecord(offset, duration, failed, line);
+                } else if (type == TraceWriter.BEGIN) {
+                    return new TraceRecord(TraceRecord.Kind.BEGIN);
+                } else if (type == TraceWriter.COMMIT) {
+                    return new TraceRecord(TraceRecord.Kind.COMMIT);
+                } else if (type == TraceWriter.ROLLBACK) {
+                    return new TraceRecord(TraceRecord.Kind.ROLLBACK);
+                } else if (type == TraceWriter.END) {
+                    endDigest = readDigest();
+                    finished = true;
+                } else {
+                    throw new IOException("Unknown trace record type " + type);
+                }
+            } catch (EOFException ex) {
+                // a partly written last record, as left by a crash
+                finished = true;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private StateDigest readDigest() throws IOException {
+        int flights = (int) readVarLong();
+        int customers = (int) readVarLong();
+        int bookings = (int) readVarLong();
+        return new StateDigest(flights, customers, bookings, in.readLong());
+    }
+
+    private String readString() throws IOException {
+        byte[] bytes = new byte[(int) readVarLong()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed number in trace");
+    }
+}
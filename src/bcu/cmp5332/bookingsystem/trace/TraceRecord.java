@@ -0,0 +1,87 @@
+package bcu.cmp5332.bookingsystem.trace;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The TraceRecord class holds one command read back from a trace: the words of its command
+ * line, when it started relative to the start of the trace, how long it ran and whether it
+ * failed. The start and end of a group of batch commands are read back as records too, with
+ * no command line.
+ */
+public final class TraceRecord {
+
+    /**
+     * What a record stands for.
+     */
+    public enum Kind {
+        COMMAND, BEGIN, COMMIT, ROLLBACK
+    }
+
+    private final Kind kind;
+    private final long offsetNanos;
+    private final long durationNanos;
+    private final boolean failed;
+    private final List<String> commandLine;
+
+    TraceRecord(long offsetNanos, long durationNanos, boolean failed, List<String> commandLine) {
+        this(Kind.COMMAND, offsetNanos, durationNanos, failed, commandLine);
+    }
+
+    TraceRecord(Kind kind) {
+        this(kind, 0, 0, false, Collections.<String>emptyList());
+    }
+
+    private TraceRecord(Kind kind, long offsetNanos, long durationNanos, boolean failed, List<String> commandLine) {
+        this.kind = kind;
+        this.offsetNanos = offsetNanos;
+        this.durationNanos = durationNanos;
+        this.failed = failed;
+        this.commandLine = commandLine;
+    }
+
+    /**
+     * Returns whether the record is a command or marks a group.
+     *
+     * @return The kind.
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Returns when the command started, in nanoseconds after the trace was opened.
+     *
+     * @return The offset.
+     */
+    public long getOffsetNanos() {
+        return offsetNanos;
+    }
+
+    /**
+     * Returns how long the command ran when it was recorded.
+     *
+     * @return The duration in nanoseconds.
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * Returns whether the command ended with an error when it was recorded.
+     *
+     * @return True if it failed.
+     */
+    public boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * Returns the words of the command line, the command word first.
+     *
+     * @return The words.
+     */
+    public List<String> getCommandLine() {
+        return commandLine;
+    }
+}
@@ -0,0 +1,230 @@
+package bcu.cmp5332.bookingsystem.trace;
+
+import bcu.cmp5332.bookingsystem.commands.Command;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The TraceWriter class records the commands a booking system runs to a compact binary
+ * trace, which {@link Replay} can run again against a fresh system.
+ *
+ * A trace starts with the magic bytes "FBSTRACE", a format version, the wall-clock time it
+ * was opened and the {@link StateDigest} of the system at that point. Then come records, each
+ * starting with a type byte:
+ * <ul>
+ *   <li>{@code DEFINE}: an opcode byte and a command word, written the first time a word is
+ *   seen, so later records name their command with one byte.</li>
+ *   <li>{@code COMMAND}: the start offset and duration in nanoseconds, a failed flag, the
+ *   opcode and the remaining words of the command line.</li>
+ *   <li>{@code BEGIN}, {@code COMMIT} and {@code ROLLBACK}: the start and end of a group of
+ *   batch commands. The commands of a rolled-back group ran, but their changes were thrown
+ *   away when the system was reloaded.</li>
+ *   <li>{@code END}: the digest of the system when the trace was closed.</li>
+ * </ul>
+ * Numbers are written as unsigned variable-length integers and words as UTF-8 with a
+ * variable-length size, so a typical booking command takes around 20 bytes.
+ *
+ * Commands are recorded by {@link bcu.cmp5332.bookingsystem.metrics.TimedCommand} while a
+ * writer is installed. Commands that return no command line, such as {@code stats}, are
+ * left out.
+ */
+public class TraceWriter implements Closeable {
+
+    static final byte[] MAGIC = "FBSTRACE".getBytes(StandardCharsets.US_ASCII);
+    static final int VERSION = 2;
+    static final int DEFINE = 1;
+    static final int COMMAND = 2;
+    static final int END = 3;
+    static final int BEGIN = 4;
+    static final int COMMIT = 5;
+    static final int ROLLBACK = 6;
+
+    private static volatile TraceWriter installed;
+
+    private final DataOutputStream out;
+    private final long startNanos = System.nanoTime();
+    private final Map<String, Integer> opcodes = new HashMap<>();
+    private long records;
+    private boolean closed;
+
+    /**
+     * Opens a trace file and writes its header.
+     *
+     * @param file The file to create or replace.
+     * @param fbs  The system the commands will run against, as it is before the first one.
+     * @throws IOException If the file cannot be written.
+     */
+    public TraceWriter(File file, FlightBookingSystem fbs) throws IOException {
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+        out.write(MAGIC);
+        out.writeShort(VERSION);
+        out.writeLong(System.currentTimeMillis());
+        writeDigest(StateDigest.of(fbs));
+    }
+
+    /**
+     * Makes a writer the one every timed command is recorded to, or stops recording.
+     *
+     * @param writer The writer, or null to stop recording.
+     */
+    public static void install(TraceWriter writer) {
+        installed = writer;
+    }
+
+    /**
+     * Returns the installed writer.
+     *
+     * @return The writer, or null if commands are not being recorded.
+     */
+    public static TraceWriter installed() {
+        return installed;
+    }
+
+    /**
+     * Records one command that has finished running.
+     *
+     * @param command    The command.
+     * @param startNanos The {@link System#nanoTime()} at which it started.
+     * @param nanos      How long it ran.
+     * @param failed     True if it ended with an error.
+     */
+    public synchronized void record(Command command, long startNanos, long nanos, boolean failed) {
+        List<String> words = command.getCommandLine();
+        if (closed || words == null || words.isEmpty()) {
+            return;
+        }
+        try {
+            Integer opcode = opcodes.get(words.get(0));
+            if (opcode == null) {
+                if (opcodes.size() == 256) {
+                    throw new IOException("More than 256 command words");
+                }
+                opcode = opcodes.size();
+                opcodes.put(words.get(0), opcode);
+                out.writeByte(DEFINE);
+                out.writeByte(opcode);
+                writeString(words.get(0));
+            }
+            out.writeByte(COMMAND);
+            writeVarLong(Math.max(0, startNanos - this.startNanos));
+            writeVarLong(Math.max(0, nanos));
+            out.writeByte(failed ? 1 : 0);
+            out.writeByte(opcode);
+            writeVarLong(words.size() - 1);
+            for (int i = 1; i < words.size(); i++) {
+                writeString(words.get(i));
+            }
+            records++;
+        } catch (IOException ex) {
+            // a broken trace must not break the command being traced
+            closed = true;
+            System.err.println("Stopped recording the trace: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Records the start of a group of commands.
+     */
+    public void begin() {
+        mark(BEGIN);
+    }
+
+    /**
+     * Records that the commands since {@link #begin()} were kept.
+     */
+    public void commit() {
+        mark(COMMIT);
+    }
+
+    /**
+     * Records that the changes of the commands since {@link #begin()} were thrown away.
+     */
+    public void rollback() {
+        mark(ROLLBACK);
+    }
+
+    private synchronized void mark(int type) {
+        if (closed) {
+            return;
+        }
+        try {
+            out.writeByte(type);
+        } catch (IOException ex) {
+            closed = true;
+            System.err.println("Stopped recording the trace: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Returns the number of commands recorded so far.
+     *
+     * @return The count.
+     */
+    public synchronized long getRecordCount() {
+        return records;
+    }
+
+    /**
+     * Writes the digest of the system as it is after the last command, and closes the file.
+     * Calling it again does nothing.
+     *
+     * @param fbs The system the commands ran against.
+     * @throws IOException If the file cannot be written.
+     */
+    public synchronized void close(FlightBookingSystem fbs) throws IOException {
+        if (closed) {
+            out.close();
+            return;
+        }
+        closed = true;
+        try {
+            out.writeByte(END);
+            writeDigest(StateDigest.of(fbs));
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Closes the file without an end digest. A replay of the trace runs every command but
+     * cannot check the final state.
+     *
+     * @throws IOException If the file cannot be closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        closed = true;
+        out.close();
+    }
+
+    private void writeDigest(StateDigest digest) throws IOException {
+        writeVarLong(digest.getFlights());
+        writeVarLong(digest.getCustomers());
+        writeVarLong(digest.getBookings());
+        out.writeLong(digest.getHash());
+    }
+
+    private void writeString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length);
+        out.write(bytes);
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+}